@@ -5,6 +5,7 @@
  */
 package io.jooby;
 
+import io.jooby.internal.MpscRingBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,10 +13,14 @@ import javax.annotation.Nonnull;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -120,7 +125,9 @@ import static java.util.Objects.requireNonNull;
  *
  * <p>
  * It add a new entry at the last of the <code>NCSA</code> output that represents the number of
- * <code>ms</code> it took to process the incoming release.
+ * <code>ms</code> it took to process the incoming release. Latency is computed from
+ * {@link Context#getRequestStartTime()} or from the time the handler runs when the server doesn't
+ * provide it.
  *
  * <h2>request and response headers</h2>
  * <p>
@@ -142,7 +149,8 @@ import static java.util.Objects.requireNonNull;
  * }</pre>
  *
  * <p>
- * You can provide a function or an instance of {@link DateTimeFormatter}.
+ * You can provide a function or an instance of {@link DateTimeFormatter}. The formatted date is
+ * computed at most once per second and shared by all the log lines of that second.
  * </p>
  *
  * <p>
@@ -158,10 +166,42 @@ import static java.util.Objects.requireNonNull;
  * }
  * }</pre>
  *
+ * <h2>asynchronous logging</h2>
+ * <p>
+ * By default, lines are logged from the thread that completes the response (often a server I/O
+ * thread). Call {@link #async()} to move logging to a background thread:
+ * </p>
+ *
+ * <pre>{@code
+ * {
+ *   AccessLogHandler accessLog = new AccessLogHandler().async();
+ *   decorator(accessLog);
+ *
+ *   onStop(accessLog);
+ * }
+ * }</pre>
+ *
+ * <p>
+ * Lines are published into a bounded ring buffer and a single background thread drains them in
+ * batches. When the buffer is full lines are dropped (never blocking the request thread) and
+ * counted by {@link #getDroppedCount()}. Use {@link #logBatch(Consumer)} to write a whole batch
+ * in one call.
+ * </p>
+ *
+ * <h2>json</h2>
+ * <p>
+ * Call {@link #json()} to produce one JSON object per line instead of the <code>NCSA</code>
+ * format:
+ * </p>
+ *
+ * <pre>
+ * {"remoteAddress":"127.0.0.1","user":"-","timestamp":"04/Oct/2016:17:51:42 +0000","method":"GET","path":"/","query":"","protocol":"HTTP/1.1","status":200,"length":2,"latency":3}
+ * </pre>
+ *
  * @author edgar
  * @since 2.5.2
  */
-public class AccessLogHandler implements Route.Decorator {
+public class AccessLogHandler implements Route.Decorator, AutoCloseable {
   private static final String USER_AGENT = "User-Agent";
 
   private static final String REFERER = "Referer";
@@ -183,6 +223,33 @@ public class AccessLogHandler implements Route.Decorator {
   /** Default buffer size. */
   private static final int MESSAGE_SIZE = 256;
 
+  /** Thread local buffers bigger than this are discarded after use. */
+  private static final int MAX_MESSAGE_SIZE = MESSAGE_SIZE * 32;
+
+  /** Default ring buffer size for async mode. */
+  private static final int QUEUE_SIZE = 8192;
+
+  /** Max number of lines handled by the background thread in one batch. */
+  private static final int BATCH_SIZE = 512;
+
+  /** How long the background thread waits for new lines when the ring buffer is empty. */
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal
+      .withInitial(() -> new StringBuilder(MESSAGE_SIZE));
+
+  /** Formatted date for a given second. */
+  private static class CachedDate {
+    private final long second;
+
+    private final String value;
+
+    CachedDate(long second, String value) {
+      this.second = second;
+      this.value = value;
+    }
+  }
+
   /** The logging system. */
   private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -190,12 +257,27 @@ public class AccessLogHandler implements Route.Decorator {
 
   private Consumer<String> logRecord = log::info;
 
+  private Consumer<List<String>> logBatch;
+
   private Function<Long, String> df;
 
+  private volatile CachedDate cachedDate;
+
   private List<String> requestHeaders = Collections.emptyList();
 
   private List<String> responseHeaders = Collections.emptyList();
 
+  private boolean json;
+
+  /** Written by async/close, read by request threads. */
+  private volatile MpscRingBuffer<String> queue;
+
+  private Thread writer;
+
+  private volatile boolean running;
+
+  private final LongAdder dropped = new LongAdder();
+
   /**
    * Creates a new {@link AccessLogHandler} and use the given function and userId provider. Please
    * note, if the user isn't present this function is allowed to returns <code>-</code> (dash
@@ -216,40 +298,94 @@ public class AccessLogHandler implements Route.Decorator {
   }
 
   @Nonnull @Override public Route.Handler apply(@Nonnull Route.Handler next) {
-    long timestamp = System.currentTimeMillis();
     return ctx -> {
       // Take remote address here (less chances of loosing it on interrupted requests).
       String remoteAddr = ctx.getRemoteAddress();
-      ctx.onComplete(context -> {
-        StringBuilder sb = new StringBuilder(MESSAGE_SIZE);
-        sb.append(remoteAddr);
-        sb.append(SP).append(DASH).append(SP);
-        sb.append(userId.apply(ctx));
-        sb.append(SP);
-        sb.append(BL).append(df.apply(timestamp)).append(BR);
-        sb.append(SP);
-        sb.append(Q).append(ctx.getMethod());
-        sb.append(SP);
-        sb.append(ctx.getRequestPath());
-        sb.append(ctx.queryString());
-        sb.append(SP);
-        sb.append(ctx.getProtocol());
-        sb.append(Q).append(SP);
-        sb.append(ctx.getResponseCode().value());
-        sb.append(SP);
-        long responseLength = ctx.getResponseLength();
-        sb.append(responseLength >= 0 ? responseLength : DASH);
-        long now = System.currentTimeMillis();
-        sb.append(SP);
-        sb.append(now - timestamp);
-        appendHeaders(sb, requestHeaders, h -> ctx.header(h).valueOrNull());
-        appendHeaders(sb, responseHeaders, h -> ctx.getResponseHeader(h));
-        logRecord.accept(sb.toString());
-      });
+      long startTime = ctx.getRequestStartTime();
+      long timestamp = startTime < 0 ? System.currentTimeMillis() : startTime;
+      ctx.onComplete(context -> publish(format(ctx, remoteAddr, timestamp)));
       return next.apply(ctx);
     };
   }
 
+  private String format(Context ctx, String remoteAddr, long timestamp) {
+    StringBuilder sb = BUFFER.get();
+    sb.setLength(0);
+    long latency = System.currentTimeMillis() - timestamp;
+    long responseLength = ctx.getResponseLength();
+    if (json) {
+      sb.append('{');
+      jsonField(sb, "remoteAddress", remoteAddr).append(',');
+      jsonField(sb, "user", userId.apply(ctx)).append(',');
+      jsonField(sb, "timestamp", date(timestamp)).append(',');
+      jsonField(sb, "method", ctx.getMethod()).append(',');
+      jsonField(sb, "path", ctx.getRequestPath()).append(',');
+      jsonField(sb, "query", ctx.queryString()).append(',');
+      jsonField(sb, "protocol", ctx.getProtocol()).append(',');
+      sb.append("\"status\":").append(ctx.getResponseCode().value()).append(',');
+      sb.append("\"length\":");
+      if (responseLength >= 0) {
+        sb.append(responseLength);
+      } else {
+        sb.append("null");
+      }
+      sb.append(',');
+      sb.append("\"latency\":").append(latency);
+      jsonHeaders(sb, "requestHeaders", requestHeaders, h -> ctx.header(h).valueOrNull());
+      jsonHeaders(sb, "responseHeaders", responseHeaders, ctx::getResponseHeader);
+      sb.append('}');
+    } else {
+      sb.append(remoteAddr);
+      sb.append(SP).append(DASH).append(SP);
+      sb.append(userId.apply(ctx));
+      sb.append(SP);
+      sb.append(BL).append(date(timestamp)).append(BR);
+      sb.append(SP);
+      sb.append(Q).append(ctx.getMethod());
+      sb.append(SP);
+      sb.append(ctx.getRequestPath());
+      sb.append(ctx.queryString());
+      sb.append(SP);
+      sb.append(ctx.getProtocol());
+      sb.append(Q).append(SP);
+      sb.append(ctx.getResponseCode().value());
+      sb.append(SP);
+      if (responseLength >= 0) {
+        sb.append(responseLength);
+      } else {
+        sb.append(DASH);
+      }
+      sb.append(SP);
+      sb.append(latency);
+      appendHeaders(sb, requestHeaders, h -> ctx.header(h).valueOrNull());
+      appendHeaders(sb, responseHeaders, ctx::getResponseHeader);
+    }
+    String line = sb.toString();
+    if (sb.capacity() > MAX_MESSAGE_SIZE) {
+      BUFFER.remove();
+    }
+    return line;
+  }
+
+  private void publish(String line) {
+    MpscRingBuffer<String> queue = this.queue;
+    if (queue == null) {
+      logRecord.accept(line);
+    } else if (!queue.offer(line)) {
+      dropped.increment();
+    }
+  }
+
+  private String date(long timestamp) {
+    long second = timestamp / 1000;
+    CachedDate date = cachedDate;
+    if (date == null || date.second != second) {
+      date = new CachedDate(second, df.apply(timestamp));
+      cachedDate = date;
+    }
+    return date.value;
+  }
+
   private void appendHeaders(StringBuilder buff, List<String> requestHeaders,
       Function<String, String> headers) {
     for (String header : requestHeaders) {
@@ -262,6 +398,165 @@ public class AccessLogHandler implements Route.Decorator {
     }
   }
 
+  private void jsonHeaders(StringBuilder buff, String name, List<String> names,
+      Function<String, String> headers) {
+    if (names.isEmpty()) {
+      return;
+    }
+    buff.append(',').append(Q).append(name).append(Q).append(':').append('{');
+    for (int i = 0; i < names.size(); i++) {
+      if (i > 0) {
+        buff.append(',');
+      }
+      String header = names.get(i);
+      jsonField(buff, header, headers.apply(header));
+    }
+    buff.append('}');
+  }
+
+  private static StringBuilder jsonField(StringBuilder buff, String name, String value) {
+    jsonString(buff, name).append(':');
+    if (value == null) {
+      return buff.append("null");
+    }
+    return jsonString(buff, value);
+  }
+
+  private static StringBuilder jsonString(StringBuilder buff, String value) {
+    buff.append(Q);
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+      switch (ch) {
+        case '"':
+          buff.append("\\\"");
+          break;
+        case '\\':
+          buff.append("\\\\");
+          break;
+        case '\n':
+          buff.append("\\n");
+          break;
+        case '\r':
+          buff.append("\\r");
+          break;
+        case '\t':
+          buff.append("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            String hex = Integer.toHexString(ch);
+            buff.append("\\u");
+            for (int j = hex.length(); j < 4; j++) {
+              buff.append('0');
+            }
+            buff.append(hex);
+          } else {
+            buff.append(ch);
+          }
+      }
+    }
+    return buff.append(Q);
+  }
+
+  private void drain(MpscRingBuffer<String> queue) {
+    List<String> batch = new ArrayList<>(BATCH_SIZE);
+    Consumer<String> collector = batch::add;
+    while (running) {
+      if (flush(queue, batch, collector) == 0) {
+        LockSupport.parkNanos(this, IDLE_NANOS);
+      }
+    }
+    flushAll(queue);
+  }
+
+  private void flushAll(MpscRingBuffer<String> queue) {
+    List<String> batch = new ArrayList<>(BATCH_SIZE);
+    Consumer<String> collector = batch::add;
+    while (flush(queue, batch, collector) > 0) {
+      // keep going
+    }
+  }
+
+  private int flush(MpscRingBuffer<String> queue, List<String> batch,
+      Consumer<String> collector) {
+    int count = queue.drain(collector, BATCH_SIZE);
+    if (count > 0) {
+      try {
+        if (logBatch == null) {
+          for (String line : batch) {
+            logRecord.accept(line);
+          }
+        } else {
+          logBatch.accept(batch);
+        }
+      } catch (Exception x) {
+        log.error("access log write resulted in exception", x);
+      } finally {
+        batch.clear();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Log lines from a background thread. Lines are published into a bounded ring buffer of
+   * <code>8192</code> entries.
+   *
+   * @return This instance.
+   */
+  public @Nonnull AccessLogHandler async() {
+    return async(QUEUE_SIZE);
+  }
+
+  /**
+   * Log lines from a background thread. Lines are published into a bounded ring buffer, once the
+   * buffer is full new lines are dropped and counted by {@link #getDroppedCount()}.
+   *
+   * @param queueSize Ring buffer size. Rounded up to a power of two.
+   * @return This instance.
+   */
+  public synchronized @Nonnull AccessLogHandler async(int queueSize) {
+    if (writer != null) {
+      throw new IllegalStateException("Async mode already enabled");
+    }
+    MpscRingBuffer<String> queue = new MpscRingBuffer<>(queueSize);
+    this.queue = queue;
+    this.running = true;
+    this.writer = new Thread(() -> drain(queue), "access-log");
+    this.writer.setDaemon(true);
+    this.writer.start();
+    return this;
+  }
+
+  /**
+   * Number of lines dropped because the ring buffer was full. Always <code>0</code> when running
+   * in sync mode.
+   *
+   * @return Number of dropped lines.
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Stop the background thread (if any) and write pending lines.
+   *
+   * @throws InterruptedException If interrupted while waiting for pending lines.
+   */
+  @Override public synchronized void close() throws InterruptedException {
+    if (writer != null) {
+      MpscRingBuffer<String> pending = queue;
+      // from now on lines are written synchronously
+      queue = null;
+      running = false;
+      LockSupport.unpark(writer);
+      writer.join();
+      writer = null;
+      // lines published while the writer was finishing
+      flushAll(pending);
+    }
+  }
+
   /**
    * Log an NCSA line to somewhere.
    *
@@ -281,6 +576,41 @@ public class AccessLogHandler implements Route.Decorator {
     return this;
   }
 
+  /**
+   * Log a batch of lines to somewhere. Only used in {@link #async()} mode, where the background
+   * thread hands over all the lines drained in one pass. The list is reused between calls, so
+   * it must not be retained.
+   *
+   * <pre>{@code
+   *  {
+   *    use("*", new AccessLogHandler()
+   *        .async()
+   *        .logBatch(lines -> {
+   *          writer.write(String.join("\n", lines));
+   *          writer.flush();
+   *        })
+   *    );
+   *  }
+   * }</pre>
+   *
+   * @param log Batch log callback.
+   * @return This instance.
+   */
+  public @Nonnull AccessLogHandler logBatch(@Nonnull Consumer<List<String>> log) {
+    this.logBatch = requireNonNull(log, "Consumer is required.");
+    return this;
+  }
+
+  /**
+   * Produces one JSON object per line instead of the NCSA format.
+   *
+   * @return This instance.
+   */
+  public @Nonnull AccessLogHandler json() {
+    this.json = true;
+    return this;
+  }
+
   /**
    * Override the default date formatter.
    *
@@ -300,6 +630,7 @@ public class AccessLogHandler implements Route.Decorator {
   public @Nonnull AccessLogHandler dateFormatter(final Function<Long, String> formatter) {
     requireNonNull(formatter, "Formatter required.");
     this.df = formatter;
+    this.cachedDate = null;
     return this;
   }
 
@@ -628,6 +628,29 @@ public interface Context extends Registry {
    */
   @Nonnull String getProtocol();
 
+  /**
+   * Time at which the server received this request, in milliseconds since epoch. Useful for
+   * computing request latency from decorators, completion listeners, etc.
+   *
+   * @return Time at which the server received this request, in milliseconds since epoch or
+   *     <code>-1</code> when the server doesn't record it.
+   */
+  default long getRequestStartTime() {
+    return -1;
+  }
+
+  /**
+   * Value of {@link System#nanoTime()} when the server finished parsing the request line and
+   * headers. Useful for measuring elapsed time with nanosecond precision, it is unrelated to
+   * wall-clock time.
+   *
+   * @return Value of {@link System#nanoTime()} when the server finished parsing the request line
+   *     and headers or <code>-1</code> when not available.
+   */
+  default long getRequestStartNanoTime() {
+    return -1;
+  }
+
   /**
    * The certificates presented by the client for mutual TLS. Empty if ssl is not enabled, or client authentication is not required.
    *
@@ -916,6 +939,17 @@ public interface Context extends Registry {
    */
   boolean isInIoThread();
 
+  /**
+   * Executor backed by the I/O thread (a.k.a event loop) of the current connection. Tasks run on
+   * the same thread that reads and writes the connection, so they must never block.
+   *
+   * @return Executor backed by the I/O thread of the current connection or <code>null</code> when
+   *     the server doesn't have one (like Jetty).
+   */
+  default @Nullable Executor getIoExecutor() {
+    return null;
+  }
+
   /**
    * Dispatch context to a worker threads. Worker threads allow to execute blocking code.
    * The default worker thread pool is provided by web server or by application code using the
@@ -1450,6 +1484,26 @@ public interface Context extends Registry {
    * @return Read only context.
    */
   static @Nonnull Context websocket(@Nonnull Context ctx, @Nonnull WebSocket ws) {
-    return new WebSocketSender(ctx, ws);
+    return new WebSocketSender(ctx, ws, false);
+  }
+
+  /**
+   * Wrap a HTTP context and make it WebSocket friendly. Attempt to modify the HTTP response
+   * is completely ignored, except for {@link #send(byte[])} and {@link #send(String)} which
+   * are delegated to the given web socket.
+   *
+   * When <code>broadcast</code> is set, the encoded message is sent to all the connected clients
+   * of the web socket. So a value is encoded once, regardless of the number of clients.
+   *
+   * This method is part of Public API, but direct usage is discourage.
+   *
+   * @param ctx Originating context.
+   * @param ws WebSocket.
+   * @param broadcast True to send encoded messages to all the connected clients.
+   * @return Read only context.
+   */
+  static @Nonnull Context websocket(@Nonnull Context ctx, @Nonnull WebSocket ws,
+      boolean broadcast) {
+    return new WebSocketSender(ctx, ws, broadcast);
   }
 }
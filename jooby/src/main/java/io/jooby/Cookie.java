@@ -38,9 +38,30 @@ import java.util.function.Consumer;
  */
 public class Cookie {
 
+  /** Per thread {@link Mac} initialized with the last used secret. */
+  private static class Hmac {
+    private String secret;
+
+    private Mac mac;
+
+    Mac mac(String secret) throws Exception {
+      if (!secret.equals(this.secret)) {
+        if (mac == null) {
+          mac = Mac.getInstance(HMAC_SHA256);
+        }
+        this.secret = null;
+        mac.init(new SecretKeySpec(secret.getBytes(), HMAC_SHA256));
+        this.secret = secret;
+      }
+      return mac;
+    }
+  }
+
   /** Algorithm name. */
   public static final String HMAC_SHA256 = "HmacSHA256";
 
+  private static final ThreadLocal<Hmac> HMAC = ThreadLocal.withInitial(Hmac::new);
+
   private static final DateTimeFormatter fmt = DateTimeFormatter
       .ofPattern("EEE, dd-MMM-yyyy HH:mm:ss z", Locale.US)
       .withZone(ZoneId.of("GMT"));
@@ -451,14 +472,7 @@ public class Cookie {
    * @return A signed value.
    */
   public static @Nonnull String sign(final @Nonnull String value, final @Nonnull String secret) {
-    try {
-      Mac mac = Mac.getInstance(HMAC_SHA256);
-      mac.init(new SecretKeySpec(secret.getBytes(), HMAC_SHA256));
-      byte[] bytes = mac.doFinal(value.getBytes());
-      return Base64.getEncoder().withoutPadding().encodeToString(bytes) + "|" + value;
-    } catch (Exception x) {
-      throw SneakyThrows.propagate(x);
-    }
+    return signature(value, secret) + "|" + value;
   }
 
   /**
@@ -475,7 +489,27 @@ public class Cookie {
       return null;
     }
     String str = value.substring(sep + 1);
-    return sign(str, secret).equals(value) ? str : null;
+    String signature = signature(str, secret);
+    if (signature.length() != sep) {
+      return null;
+    }
+    // constant time comparison
+    int diff = 0;
+    for (int i = 0; i < sep; i++) {
+      diff |= signature.charAt(i) ^ value.charAt(i);
+    }
+    return diff == 0 ? str : null;
+  }
+
+  private static String signature(String value, String secret) {
+    try {
+      // Mac instances are not thread-safe, reuse one per thread (doFinal resets it)
+      Mac mac = HMAC.get().mac(secret);
+      byte[] bytes = mac.doFinal(value.getBytes());
+      return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+    } catch (Exception x) {
+      throw SneakyThrows.propagate(x);
+    }
   }
 
   /**
@@ -11,11 +11,13 @@ import javax.annotation.Nonnull;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -64,7 +66,7 @@ public class Cors {
 
     @Override
     public boolean test(final T value) {
-      return predicate.test(value);
+      return wild || predicate.test(value);
     }
 
     @Override public String toString() {
@@ -72,6 +74,53 @@ public class Cors {
     }
   }
 
+  /**
+   * Match values against plain values (hash lookup) and wildcard/regex values (a single combined
+   * pattern). Matching is case insensitive.
+   */
+  private static class FirstMatch implements Predicate<String> {
+
+    private final Set<String> values;
+
+    private final Pattern pattern;
+
+    FirstMatch(final List<String> values) {
+      Set<String> exact = new HashSet<>();
+      StringBuilder regex = new StringBuilder();
+      for (String value : values) {
+        if (isPlain(value)) {
+          exact.add(value.toLowerCase(Locale.ROOT));
+        } else {
+          if (regex.length() > 0) {
+            regex.append('|');
+          }
+          regex.append("(?:").append(rewrite(value)).append(')');
+        }
+      }
+      this.values = exact;
+      this.pattern = regex.length() == 0
+          ? null
+          : Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    @Override public boolean test(final String value) {
+      return values.contains(value.toLowerCase(Locale.ROOT))
+          || (pattern != null && pattern.matcher(value).matches());
+    }
+
+    private static boolean isPlain(final String value) {
+      for (int i = 0; i < value.length(); i++) {
+        if (REGEX_CHARS.indexOf(value.charAt(i)) >= 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** Regex meta characters, except <code>.</code> which is always escaped. */
+  private static final String REGEX_CHARS = "*\\[](){}?+^$|";
+
   /** Default max-age in minutes. */
   private static final int _30 = 30;
 
@@ -366,25 +415,24 @@ public class Cors {
   }
 
   private static Matcher<List<String>> allMatch(final List<String> values) {
-    Predicate<String> predicate = firstMatch(values);
-    Predicate<List<String>> allmatch = it -> it.stream().allMatch(predicate);
+    Predicate<String> predicate = new FirstMatch(values);
+    Predicate<List<String>> allmatch = it -> {
+      for (String value : it) {
+        if (!predicate.test(value)) {
+          return false;
+        }
+      }
+      return true;
+    };
     return new Matcher<>(values, allmatch);
   }
 
   private static Matcher<String> firstMatch(final List<String> values) {
-    List<Pattern> patterns = values.stream()
-        .map(Cors::rewrite)
-        .collect(Collectors.toList());
-    Predicate<String> predicate = it -> patterns.stream()
-        .filter(pattern -> pattern.matcher(it).matches())
-        .findFirst()
-        .isPresent();
-
-    return new Matcher<>(values, predicate);
+    return new Matcher<>(values, new FirstMatch(values));
   }
 
-  private static Pattern rewrite(final String origin) {
-    return Pattern.compile(origin.replace(".", "\\.").replace("*", ".*"), Pattern.CASE_INSENSITIVE);
+  private static String rewrite(final String origin) {
+    return origin.replace(".", "\\.").replace("*", ".*");
   }
 
 }
@@ -5,6 +5,7 @@
  */
 package io.jooby;
 
+import io.jooby.internal.BoundedExpiringMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,12 +13,16 @@ import javax.annotation.Nonnull;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handle preflight and simple CORS requests. CORS options are set via: {@link Cors}.
  *
+ * Response headers derived from {@link Cors} options are computed once, so {@link Cors} options
+ * must be set before creating the handler. Preflight responses (per origin, requested method and
+ * requested headers) and <code>Allow</code> headers (per path) are cached.
+ *
  * @author edgar
  * @since 2.0.4
  * @see Cors
@@ -44,8 +49,37 @@ public class CorsHandler implements Route.Decorator {
 
   private static final String AC_ALLOW_METHODS = "Access-Control-Allow-Methods";
 
+  private static final int CACHE_SIZE = 10_000;
+
+  private static final long CACHE_EXPIRE_AFTER_ACCESS = TimeUnit.MINUTES.toNanos(30);
+
+  /** Cached preflight outcome. */
+  private static class Preflight {
+    private static final Preflight DENIED = new Preflight(null);
+
+    private final String allowHeaders;
+
+    Preflight(String allowHeaders) {
+      this.allowHeaders = allowHeaders;
+    }
+  }
+
   private final Cors options;
 
+  private final String allowMethods;
+
+  private final String allowHeaders;
+
+  private final String exposedHeaders;
+
+  private final String maxAge;
+
+  private final BoundedExpiringMap<String, Preflight> preflightCache = new BoundedExpiringMap<>(
+      CACHE_SIZE, CACHE_EXPIRE_AFTER_ACCESS, System::nanoTime);
+
+  private final BoundedExpiringMap<String, String> allowCache = new BoundedExpiringMap<>(
+      CACHE_SIZE, CACHE_EXPIRE_AFTER_ACCESS, System::nanoTime);
+
   private static final Logger log = LoggerFactory.getLogger(CorsHandler.class);
 
   /**
@@ -55,6 +89,13 @@ public class CorsHandler implements Route.Decorator {
    */
   public CorsHandler(@Nonnull final Cors options) {
     this.options = options;
+    this.allowMethods = String.join(",", options.getMethods());
+    this.allowHeaders = String.join(",", options.getHeaders());
+    this.exposedHeaders = options.getExposedHeaders().isEmpty()
+        ? null
+        : String.join(",", options.getExposedHeaders());
+    long maxAge = options.getMaxAge().getSeconds();
+    this.maxAge = maxAge > 0 ? Long.toString(maxAge) : null;
   }
 
   /**
@@ -75,7 +116,7 @@ public class CorsHandler implements Route.Decorator {
         log.debug("allowed origin: {}", origin);
         if (isPreflight(ctx)) {
           log.debug("handling preflight for: {}", origin);
-          if (preflight(ctx, options, origin)) {
+          if (preflight(ctx, origin)) {
             return ctx;
           } else {
             log.debug("preflight for {} {} with origin: {} failed", ctx.header(AC_REQUEST_METHOD),
@@ -86,15 +127,13 @@ public class CorsHandler implements Route.Decorator {
           // OPTIONS?
           if (ctx.getMethod().equalsIgnoreCase(Router.OPTIONS)) {
             // handle normal OPTIONS
-            String allow = Router.METHODS.stream()
-                .flatMap(method -> allowMethod(ctx, method))
-                .collect(Collectors.joining(","));
+            String allow = allowCache.computeIfAbsent(ctx.getRequestPath(), path -> allow(ctx));
             ctx.setResponseHeader("Allow", allow);
             return ctx.send(StatusCode.OK);
           } else {
             log.debug("handling simple cors for: {}", origin);
             ctx.setResetHeadersOnError(false);
-            simple(ctx, options, origin);
+            simple(ctx, origin);
           }
         }
       }
@@ -102,18 +141,24 @@ public class CorsHandler implements Route.Decorator {
     };
   }
 
-  private Stream<String> allowMethod(Context ctx, String method) {
+  private String allow(Context ctx) {
     String existingMethod = ctx.getMethod();
     try {
-      ctx.setMethod(method);
-      Router.Match match = ctx.getRouter().match(ctx);
-      return match.matches() ? Stream.of(method) : Stream.empty();
+      StringJoiner allow = new StringJoiner(",");
+      for (String method : Router.METHODS) {
+        ctx.setMethod(method);
+        Router.Match match = ctx.getRouter().match(ctx);
+        if (match.matches()) {
+          allow.add(method);
+        }
+      }
+      return allow.toString();
     } finally {
       ctx.setMethod(existingMethod);
     }
   }
 
-  private static void simple(final Context ctx, final Cors options, final String origin) {
+  private void simple(final Context ctx, final String origin) {
     if ("null".equals(origin)) {
       ctx.setResponseHeader(AC_ALLOW_ORIGIN, ANY_ORIGIN);
     } else {
@@ -124,9 +169,8 @@ public class CorsHandler implements Route.Decorator {
       if (options.getUseCredentials()) {
         ctx.setResponseHeader(AC_ALLOW_CREDENTIALS, true);
       }
-      if (!options.getExposedHeaders().isEmpty()) {
-        ctx.setResponseHeader(AC_EXPOSE_HEADERS,
-            options.getExposedHeaders().stream().collect(Collectors.joining()));
+      if (exposedHeaders != null) {
+        ctx.setResponseHeader(AC_EXPOSE_HEADERS, exposedHeaders);
       }
     }
   }
@@ -139,36 +183,23 @@ public class CorsHandler implements Route.Decorator {
     return ctx.getMethod().equals(Router.OPTIONS) && !ctx.header(AC_REQUEST_METHOD).isMissing();
   }
 
-  private boolean preflight(final Context ctx, final Cors options, final String origin) {
-    /*
-      Allowed method
-     */
-    boolean allowMethod = ctx.header(AC_REQUEST_METHOD).toOptional()
-        .map(options::allowMethod)
-        .orElse(false);
-    if (!allowMethod) {
-      return false;
-    }
-
-    /*
-      Allowed headers
-     */
-    List<String> headers = ctx.header(AC_REQUEST_HEADERS).toOptional().map(header ->
-        Arrays.asList(header.split("\\s*,\\s*"))
-    ).orElse(Collections.emptyList());
-    if (!options.allowHeaders(headers)) {
+  private boolean preflight(final Context ctx, final String origin) {
+    String method = ctx.header(AC_REQUEST_METHOD).value();
+    String headers = ctx.header(AC_REQUEST_HEADERS).valueOrNull();
+    String key = headers == null
+        ? origin + '\n' + method
+        : origin + '\n' + method + '\n' + headers;
+    Preflight preflight = preflightCache.computeIfAbsent(key, k -> preflight(method, headers));
+    if (preflight == Preflight.DENIED) {
       return false;
     }
 
     /*
       Allowed methods
      */
-    ctx.setResponseHeader(AC_ALLOW_METHODS,
-        options.getMethods().stream().collect(Collectors.joining(",")));
+    ctx.setResponseHeader(AC_ALLOW_METHODS, allowMethods);
 
-    List<String> allowedHeaders = options.anyHeader() ? headers : options.getHeaders();
-    ctx.setResponseHeader(AC_ALLOW_HEADERS,
-        allowedHeaders.stream().collect(Collectors.joining(",")));
+    ctx.setResponseHeader(AC_ALLOW_HEADERS, preflight.allowHeaders);
 
     /*
       Allow credentials
@@ -177,8 +208,7 @@ public class CorsHandler implements Route.Decorator {
       ctx.setResponseHeader(AC_ALLOW_CREDENTIALS, true);
     }
 
-    long maxAge = options.getMaxAge().getSeconds();
-    if (maxAge > 0) {
+    if (maxAge != null) {
       ctx.setResponseHeader(AC_MAX_AGE, maxAge);
     }
 
@@ -191,4 +221,25 @@ public class CorsHandler implements Route.Decorator {
     ctx.send(StatusCode.OK);
     return true;
   }
+
+  private Preflight preflight(final String method, final String header) {
+    /*
+      Allowed method
+     */
+    if (!options.allowMethod(method)) {
+      return Preflight.DENIED;
+    }
+
+    /*
+      Allowed headers
+     */
+    List<String> headers = header == null
+        ? Collections.emptyList()
+        : Arrays.asList(header.split("\\s*,\\s*"));
+    if (!options.allowHeaders(headers)) {
+      return Preflight.DENIED;
+    }
+
+    return new Preflight(options.anyHeader() ? String.join(",", headers) : allowHeaders);
+  }
 }
@@ -9,7 +9,6 @@ import io.jooby.exception.InvalidCsrfToken;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -30,7 +29,7 @@ import java.util.stream.Stream;
  * </p>
  *
  * <p>
- * Default token generator, use a {@link UUID#randomUUID()}. A custom token generator might be
+ * Default token generator, use {@link IdGenerator#DEFAULT}. A custom token generator might be
  * provided via: {@link #setTokenGenerator(Function)}.
  * </p>
  *
@@ -77,10 +76,10 @@ public class CsrfHandler implements Route.Before {
   };
 
   /**
-   * UUID token generator.
+   * Secure random token generator, see {@link IdGenerator#DEFAULT}.
    */
-  public static final Function<Context, String> DEFAULT_GENERATOR = ctx -> UUID.randomUUID()
-      .toString();
+  public static final Function<Context, String> DEFAULT_GENERATOR = ctx -> IdGenerator.DEFAULT
+      .generate();
 
   private String name;
 
@@ -133,7 +132,7 @@ public class CsrfHandler implements Route.Before {
   }
 
   /**
-   * Set a custom token generator. Default generator use: {@link UUID#randomUUID()}.
+   * Set a custom token generator. Default generator use: {@link IdGenerator#DEFAULT}.
    *
    * @param generator A custom token generator.
    * @return This filter.
@@ -268,6 +268,14 @@ public class ForwardingContext implements Context {
     return ctx.getProtocol();
   }
 
+  @Override public long getRequestStartTime() {
+    return ctx.getRequestStartTime();
+  }
+
+  @Override public long getRequestStartNanoTime() {
+    return ctx.getRequestStartNanoTime();
+  }
+
   @Override @Nonnull public List<Certificate> getClientCertificates() {
     return ctx.getClientCertificates();
   }
@@ -361,6 +369,10 @@ public class ForwardingContext implements Context {
     return ctx.isInIoThread();
   }
 
+  @Nullable @Override public Executor getIoExecutor() {
+    return ctx.getIoExecutor();
+  }
+
   @Override @Nonnull public Context dispatch(@Nonnull Runnable action) {
     ctx.dispatch(action);
     return this;
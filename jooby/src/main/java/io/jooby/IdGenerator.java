@@ -0,0 +1,50 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import io.jooby.internal.RandomIdGenerator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Generates unique and unpredictable identifiers, like session IDs or CSRF tokens.
+ *
+ * The {@link #DEFAULT} generator is used by {@link SessionToken#newToken()} and
+ * {@link CsrfHandler}.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public interface IdGenerator {
+
+  /**
+   * Secure random generator of {@link SessionToken#ID_SIZE} bytes (240 bits), encoded as
+   * <code>40</code> url-safe base64 characters.
+   */
+  IdGenerator DEFAULT = random(SessionToken.ID_SIZE);
+
+  /**
+   * Generate a new identifier.
+   *
+   * @return A new identifier.
+   */
+  @Nonnull String generate();
+
+  /**
+   * Creates a generator of <code>size</code> secure random bytes, encoded using url-safe base64
+   * without padding.
+   *
+   * Threads don't share the random number generator: each thread gets its own instance, seeded
+   * from the system secure random source and periodically reseeded. So there is no contention
+   * when many threads generate identifiers at the same time.
+   *
+   * @param size Number of random bytes.
+   * @return A new generator.
+   */
+  static @Nonnull IdGenerator random(int size) {
+    return new RandomIdGenerator(size);
+  }
+}
@@ -121,6 +121,8 @@ public class Jooby implements Router, Registry {
 
   private String version;
 
+  private List<MvcFactory> mvcFactories;
+
   /**
    * Creates a new Jooby instance.
    */
@@ -440,8 +442,12 @@ public class Jooby implements Router, Registry {
   @Nonnull @Override
   public <T> Jooby mvc(@Nonnull Class<T> router, @Nonnull Provider<T> provider) {
     try {
-      ServiceLoader<MvcFactory> modules = ServiceLoader.load(MvcFactory.class);
-      MvcFactory module = stream(modules.spliterator(), false)
+      if (mvcFactories == null) {
+        /** Load (and instantiate) generated factories once, not once per controller: */
+        ServiceLoader<MvcFactory> modules = ServiceLoader.load(MvcFactory.class);
+        mvcFactories = stream(modules.spliterator(), false).collect(Collectors.toList());
+      }
+      MvcFactory module = mvcFactories.stream()
           .filter(it -> it.supports(router))
           .findFirst()
           .orElseGet(() ->
@@ -596,6 +602,11 @@ public class Jooby implements Router, Registry {
     return this;
   }
 
+  @Nonnull @Override public Jooby requestTiming(@Nonnull RequestTiming.Listener listener) {
+    router.requestTiming(listener);
+    return this;
+  }
+
   @Nonnull @Override public ErrorHandler getErrorHandler() {
     return router.getErrorHandler();
   }
@@ -63,12 +63,27 @@ public final class MediaType implements Comparable<MediaType> {
   /** YAML. */
   public static final String YAML = "text/yaml";
 
+  /** APPLICATION_X_NDJSON (newline delimited json). */
+  public static final String NDJSON = "application/x-ndjson";
+
+  /** APPLICATION_MSGPACK. */
+  public static final String MSGPACK = "application/msgpack";
+
+  /** APPLICATION_CBOR. */
+  public static final String CBOR = "application/cbor";
+
+  /** APPLICATION_X_PROTOBUF. */
+  public static final String PROTOBUF = "application/x-protobuf";
+
   /** ALL. */
   public static final String ALL = "*/*";
 
   /** APPLICATION_JSON. */
   public static final MediaType json = new MediaType(JSON, UTF_8);
 
+  /** APPLICATION_X_NDJSON (newline delimited json). */
+  public static final MediaType ndjson = new MediaType(NDJSON, UTF_8);
+
   /** YAML. */
   public static final MediaType yaml = new MediaType(YAML, UTF_8);
 
@@ -90,6 +105,15 @@ public final class MediaType implements Comparable<MediaType> {
   /** APPLICATION_OCTET_STREAM. */
   public static final MediaType octetStream = new MediaType(OCTET_STREAM, null);
 
+  /** APPLICATION_MSGPACK. */
+  public static final MediaType msgpack = new MediaType(MSGPACK, null);
+
+  /** APPLICATION_CBOR. */
+  public static final MediaType cbor = new MediaType(CBOR, null);
+
+  /** APPLICATION_X_PROTOBUF. */
+  public static final MediaType protobuf = new MediaType(PROTOBUF, null);
+
   /** FORM_URLENCODED. */
   public static final MediaType form = new MediaType(FORM_URLENCODED, UTF_8);
 
@@ -0,0 +1,401 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import io.jooby.internal.OffHeapSessionSegment;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session store that keeps session data outside of the Java heap. Useful for applications with
+ * millions of sessions where in-memory stores require large heaps and long GC pauses.
+ *
+ * Session attributes are serialized into a compact binary form and stored in direct memory or in
+ * a memory mapped file. Sessions are indexed by ID using an open addressing hash table and
+ * expired sessions are removed using a timing wheel.
+ *
+ * Usage:
+ * <pre>{@code
+ * {
+ *   OffHeapSessionStore store = new OffHeapSessionStore()
+ *       .setMaximumSessions(5_000_000)
+ *       .setMemorySize(4L * 1024 * 1024 * 1024);
+ *
+ *   setSessionStore(store);
+ *
+ *   onStop(store);
+ * }
+ * }</pre>
+ *
+ * Use {@link #setFile(Path)} to keep sessions in a memory mapped file, so sessions survive a
+ * restart on the same host. Memory is allocated (or file mapped) on first use, so all the
+ * settings must be set before that.
+ *
+ * Session attributes are written on {@link #saveSession(Context, Session)}, which happens once
+ * response has been sent.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class OffHeapSessionStore implements SessionStore, AutoCloseable {
+
+  private static final int SEGMENTS = 16;
+
+  private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfLeadingZeros(SEGMENTS - 1);
+
+  private SessionToken token;
+
+  private Duration timeout = Duration.ofMinutes(DEFAULT_TIMEOUT);
+
+  private int maximumSessions = 100_000;
+
+  private long memorySize = 64L * 1024 * 1024;
+
+  private Path file;
+
+  private volatile OffHeapSessionSegment[] segments;
+
+  /**
+   * Creates a new off-heap session store.
+   *
+   * @param token Session token.
+   */
+  public OffHeapSessionStore(@Nonnull SessionToken token) {
+    this.token = token;
+  }
+
+  /**
+   * Creates a new off-heap session store using a cookie token: {@link SessionToken#SID}.
+   */
+  public OffHeapSessionStore() {
+    this(SessionToken.cookieId(SessionToken.SID));
+  }
+
+  /**
+   * Session token.
+   *
+   * @return Session token. Uses a cookie by default: {@link SessionToken#SID}.
+   */
+  public @Nonnull SessionToken getToken() {
+    return token;
+  }
+
+  /**
+   * Set custom session token.
+   *
+   * @param token Session token.
+   * @return This store.
+   */
+  public @Nonnull OffHeapSessionStore setToken(@Nonnull SessionToken token) {
+    this.token = token;
+    return this;
+  }
+
+  /**
+   * Session timeout.
+   *
+   * @return Session timeout or <code>null</code> when disabled. Default is:
+   *     <code>30 minutes</code>.
+   */
+  public @Nullable Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Set session timeout. Expired sessions are removed from memory.
+   *
+   * @param timeout Timeout must be positive value. Otherwise, timeout is disabled.
+   * @return This store.
+   */
+  public @Nonnull OffHeapSessionStore setTimeout(@Nullable Duration timeout) {
+    checkNotStarted();
+    this.timeout = timeout == null || timeout.toMillis() <= 0 ? null : timeout;
+    return this;
+  }
+
+  /**
+   * Maximum number of sessions.
+   *
+   * @return Maximum number of sessions. Default is: <code>100000</code>.
+   */
+  public int getMaximumSessions() {
+    return maximumSessions;
+  }
+
+  /**
+   * Set maximum number of sessions. Creating a session fails when the store is full.
+   *
+   * @param maximumSessions Maximum number of sessions.
+   * @return This store.
+   */
+  public @Nonnull OffHeapSessionStore setMaximumSessions(int maximumSessions) {
+    checkNotStarted();
+    if (maximumSessions <= 0) {
+      throw new IllegalArgumentException("Maximum sessions must be positive: " + maximumSessions);
+    }
+    this.maximumSessions = maximumSessions;
+    return this;
+  }
+
+  /**
+   * Memory size, in bytes. Includes the session index and the session data.
+   *
+   * @return Memory size. Default is: <code>64MB</code>.
+   */
+  public long getMemorySize() {
+    return memorySize;
+  }
+
+  /**
+   * Set memory size, in bytes. Includes the session index and the session data. Sessions are
+   * stored in blocks of power of two size (minimum 64 bytes).
+   *
+   * @param memorySize Memory size.
+   * @return This store.
+   */
+  public @Nonnull OffHeapSessionStore setMemorySize(long memorySize) {
+    checkNotStarted();
+    this.memorySize = memorySize;
+    return this;
+  }
+
+  /**
+   * Memory mapped file or <code>null</code> when using direct memory.
+   *
+   * @return Memory mapped file or <code>null</code> when using direct memory.
+   */
+  public @Nullable Path getFile() {
+    return file;
+  }
+
+  /**
+   * Store sessions in a memory mapped file. Sessions survive a restart on the same host, as long
+   * as the store settings didn't change. Changes are flushed to disk by the operating system and
+   * on {@link #close()}.
+   *
+   * @param file File to use.
+   * @return This store.
+   */
+  public @Nonnull OffHeapSessionStore setFile(@Nonnull Path file) {
+    checkNotStarted();
+    this.file = file;
+    return this;
+  }
+
+  /**
+   * Number of sessions.
+   *
+   * @return Number of sessions.
+   */
+  public int size() {
+    int size = 0;
+    for (OffHeapSessionSegment segment : segments()) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Remove expired sessions. Expired sessions are removed while accessing the store, this method
+   * forces removal across all the segments.
+   */
+  public void purge() {
+    long now = System.currentTimeMillis();
+    for (OffHeapSessionSegment segment : segments()) {
+      synchronized (segment) {
+        segment.expire(now);
+      }
+    }
+  }
+
+  @Nonnull @Override public Session newSession(@Nonnull Context ctx) {
+    String sessionId = token.newToken();
+    Instant now = Instant.now();
+    long millis = now.toEpochMilli();
+    ConcurrentHashMap<String, String> attributes = new ConcurrentHashMap<>();
+    OffHeapSessionSegment segment = segment(hash(sessionId));
+    synchronized (segment) {
+      segment.expire(millis);
+      segment.put(sessionId, hash(sessionId), millis, millis, attributes, millis);
+    }
+
+    token.saveToken(ctx, sessionId);
+
+    return Session.create(ctx, sessionId, attributes)
+        .setCreationTime(now)
+        .setLastAccessedTime(now);
+  }
+
+  @Nullable @Override public Session findSession(@Nonnull Context ctx) {
+    String sessionId = token.findToken(ctx);
+    if (sessionId == null) {
+      return null;
+    }
+    long now = System.currentTimeMillis();
+    int hash = hash(sessionId);
+    OffHeapSessionSegment segment = segment(hash);
+    OffHeapSessionSegment.Record record;
+    synchronized (segment) {
+      segment.expire(now);
+      record = segment.get(sessionId, hash, now, true);
+    }
+    if (record == null) {
+      return null;
+    }
+
+    token.saveToken(ctx, sessionId);
+
+    return Session.create(ctx, sessionId, record.attributes)
+        .setCreationTime(Instant.ofEpochMilli(record.creationTime))
+        .setLastAccessedTime(Instant.ofEpochMilli(record.lastAccessedTime));
+  }
+
+  @Override public void deleteSession(@Nonnull Context ctx, @Nonnull Session session) {
+    String sessionId = session.getId();
+    int hash = hash(sessionId);
+    OffHeapSessionSegment segment = segment(hash);
+    synchronized (segment) {
+      segment.remove(sessionId, hash, System.currentTimeMillis());
+    }
+    token.deleteToken(ctx, sessionId);
+  }
+
+  @Override public void touchSession(@Nonnull Context ctx, @Nonnull Session session) {
+    // Attributes are written on saveSession
+    token.saveToken(ctx, session.getId());
+  }
+
+  @Override public void saveSession(@Nonnull Context ctx, @Nonnull Session session) {
+    String sessionId = session.getId();
+    int hash = hash(sessionId);
+    long now = System.currentTimeMillis();
+    long creationTime = session.getCreationTime() == null
+        ? now
+        : session.getCreationTime().toEpochMilli();
+    OffHeapSessionSegment segment = segment(hash);
+    synchronized (segment) {
+      segment.put(sessionId, hash, creationTime, now, session.toMap(), now);
+    }
+  }
+
+  @Override public void renewSessionId(@Nonnull Context ctx, @Nonnull Session session) {
+    String oldId = session.getId();
+    int oldHash = hash(oldId);
+    long now = System.currentTimeMillis();
+    OffHeapSessionSegment.Record record;
+    OffHeapSessionSegment segment = segment(oldHash);
+    synchronized (segment) {
+      record = segment.remove(oldId, oldHash, now);
+    }
+    if (record != null) {
+      String newId = token.newToken();
+      session.setId(newId);
+
+      int hash = hash(newId);
+      segment = segment(hash);
+      synchronized (segment) {
+        segment.put(newId, hash, record.creationTime, now, record.attributes, now);
+      }
+    }
+  }
+
+  /**
+   * Flush changes to disk when using a memory mapped file.
+   */
+  @Override public void close() {
+    OffHeapSessionSegment[] segments = this.segments;
+    if (segments != null) {
+      for (OffHeapSessionSegment segment : segments) {
+        synchronized (segment) {
+          segment.force();
+        }
+      }
+    }
+  }
+
+  private static int hash(String sessionId) {
+    int h = sessionId.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private OffHeapSessionSegment segment(int hash) {
+    return segments()[hash >>> (Integer.SIZE - SEGMENT_SHIFT)];
+  }
+
+  private OffHeapSessionSegment[] segments() {
+    OffHeapSessionSegment[] segments = this.segments;
+    if (segments == null) {
+      synchronized (this) {
+        segments = this.segments;
+        if (segments == null) {
+          segments = allocate();
+          this.segments = segments;
+        }
+      }
+    }
+    return segments;
+  }
+
+  private void checkNotStarted() {
+    if (segments != null) {
+      throw new IllegalStateException("Session store already started");
+    }
+  }
+
+  private OffHeapSessionSegment[] allocate() {
+    int perSegment = (maximumSessions + SEGMENTS - 1) / SEGMENTS;
+    // load factor: 0.75
+    int indexCapacity = Integer.highestOneBit(Math.max(16, perSegment * 4 / 3 + 1) - 1) << 1;
+    long segmentSize = memorySize / SEGMENTS;
+    long required = OffHeapSessionSegment.requiredCapacity(indexCapacity);
+    if (segmentSize < required) {
+      throw new IllegalArgumentException("Memory size too small: " + memorySize
+          + ", required at least: " + required * SEGMENTS);
+    }
+    if (segmentSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Memory size too large: " + memorySize
+          + ", max: " + (long) Integer.MAX_VALUE * SEGMENTS);
+    }
+    long timeout = this.timeout == null ? 0 : this.timeout.toMillis();
+    OffHeapSessionSegment[] segments = new OffHeapSessionSegment[SEGMENTS];
+    if (file == null) {
+      for (int i = 0; i < SEGMENTS; i++) {
+        segments[i] = new OffHeapSessionSegment(ByteBuffer.allocateDirect((int) segmentSize),
+            indexCapacity, timeout);
+      }
+    } else {
+      try {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+          Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+          for (int i = 0; i < SEGMENTS; i++) {
+            ByteBuffer buffer = channel
+                .map(FileChannel.MapMode.READ_WRITE, i * segmentSize, segmentSize);
+            segments[i] = new OffHeapSessionSegment(buffer, indexCapacity, timeout);
+          }
+        }
+      } catch (IOException x) {
+        throw SneakyThrows.propagate(x);
+      }
+    }
+    return segments;
+  }
+}
@@ -8,9 +8,10 @@ package io.jooby;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
 
+import io.jooby.internal.BoundedExpiringMap;
+
 import javax.annotation.Nonnull;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 import java.util.function.Function;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -50,7 +51,16 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
  * }
  * }</pre>
  *
- * Example 4: Rate limit in a cluster
+ * Example 4: 10 requests per minute per IP address using the built-in (lock-free) limiter
+ * <pre>{@code
+ * {
+ *   before(RateLimitHandler.local(remoteAddress -> {
+ *       return RateLimiter.tokenBucket(10, Duration.ofMinutes(1));
+ *   }));
+ * }
+ * }</pre>
+ *
+ * Example 5: Rate limit in a cluster
  * <pre>{@code
  * {
  *   // Get one of the proxy manager from bucket4j
@@ -65,12 +75,36 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
  * }
  * }</pre>
  *
+ * Local (non cluster) limiters are kept in a bounded map. Limiters not accessed for
+ * {@link #DEFAULT_EXPIRE_AFTER_ACCESS} are evicted, when the map reaches
+ * {@link #DEFAULT_MAXIMUM_SIZE} the least recently used limiters are evicted. An evicted client
+ * starts with a fresh limiter on next request.
+ *
  * @author edgar
  * @since 2.5.2
  */
 public class RateLimitHandler implements Route.Before {
 
-  private final Function<Context, Bucket> factory;
+  /** Default maximum number of local limiters. */
+  public static final int DEFAULT_MAXIMUM_SIZE = 100_000;
+
+  /** Default time after which an idle local limiter is evicted. */
+  public static final Duration DEFAULT_EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+
+  private static final String REMAINING = "X-Rate-Limit-Remaining";
+
+  private static final String RETRY_AFTER = "X-Rate-Limit-Retry-After-Milliseconds";
+
+  /** Pre-computed header values. */
+  private static final String[] NUMBERS = new String[1024];
+
+  static {
+    for (int i = 0; i < NUMBERS.length; i++) {
+      NUMBERS[i] = Integer.toString(i);
+    }
+  }
+
+  private final Function<Context, RateLimiter> factory;
 
   /**
    * Rate limit per IP/Remote Address.
@@ -100,7 +134,22 @@ public class RateLimitHandler implements Route.Before {
    */
   public RateLimitHandler(@Nonnull SneakyThrows.Function<String, Bucket> bucketFactory,
       @Nonnull SneakyThrows.Function<Context, String> classifier) {
-    this(byKey(bucketFactory, classifier));
+    this(bucketFactory, classifier, DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_ACCESS);
+  }
+
+  /**
+   * Rate limiter with a custom key provider and custom eviction settings.
+   *
+   * @param bucketFactory Bucket factory.
+   * @param classifier Key provider.
+   * @param maximumSize Maximum number of buckets to keep.
+   * @param expireAfterAccess Time after which an idle bucket is evicted.
+   */
+  public RateLimitHandler(@Nonnull SneakyThrows.Function<String, Bucket> bucketFactory,
+      @Nonnull SneakyThrows.Function<Context, String> classifier, int maximumSize,
+      @Nonnull Duration expireAfterAccess) {
+    this(byKey(key -> limiter(bucketFactory.apply(key)), classifier, maximumSize,
+        expireAfterAccess));
   }
 
   /**
@@ -109,13 +158,75 @@ public class RateLimitHandler implements Route.Before {
    * @param bucket Bucket to use.
    */
   public RateLimitHandler(@Nonnull Bucket bucket) {
-    this((Function<Context, Bucket>) ctx -> bucket);
+    this(limiter(bucket));
   }
 
-  private RateLimitHandler(Function<Context, Bucket> factory) {
+  /**
+   * Rate limiter with a shared/global limiter.
+   *
+   * @param limiter Limiter to use.
+   */
+  public RateLimitHandler(@Nonnull RateLimiter limiter) {
+    this((Function<Context, RateLimiter>) ctx -> limiter);
+  }
+
+  private RateLimitHandler(Function<Context, RateLimiter> factory) {
     this.factory = factory;
   }
 
+  /**
+   * Rate limiter per IP/Remote address using the built-in {@link RateLimiter}.
+   *
+   * @param limiterFactory Limiter factory.
+   * @return Rate limiter.
+   */
+  public static @Nonnull RateLimitHandler local(
+      @Nonnull SneakyThrows.Function<String, RateLimiter> limiterFactory) {
+    return local(limiterFactory, Context::getRemoteAddress);
+  }
+
+  /**
+   * Rate limiter per header key using the built-in {@link RateLimiter}.
+   *
+   * @param limiterFactory Limiter factory.
+   * @param headerName Header to use as key.
+   * @return Rate limiter.
+   */
+  public static @Nonnull RateLimitHandler local(
+      @Nonnull SneakyThrows.Function<String, RateLimiter> limiterFactory,
+      @Nonnull String headerName) {
+    return local(limiterFactory, ctx -> ctx.header(headerName).value());
+  }
+
+  /**
+   * Rate limiter per key using the built-in {@link RateLimiter}.
+   *
+   * @param limiterFactory Limiter factory.
+   * @param classifier Key provider.
+   * @return Rate limiter.
+   */
+  public static @Nonnull RateLimitHandler local(
+      @Nonnull SneakyThrows.Function<String, RateLimiter> limiterFactory,
+      @Nonnull SneakyThrows.Function<Context, String> classifier) {
+    return local(limiterFactory, classifier, DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_ACCESS);
+  }
+
+  /**
+   * Rate limiter per key using the built-in {@link RateLimiter} and custom eviction settings.
+   *
+   * @param limiterFactory Limiter factory.
+   * @param classifier Key provider.
+   * @param maximumSize Maximum number of limiters to keep.
+   * @param expireAfterAccess Time after which an idle limiter is evicted.
+   * @return Rate limiter.
+   */
+  public static @Nonnull RateLimitHandler local(
+      @Nonnull SneakyThrows.Function<String, RateLimiter> limiterFactory,
+      @Nonnull SneakyThrows.Function<Context, String> classifier, int maximumSize,
+      @Nonnull Duration expireAfterAccess) {
+    return new RateLimitHandler(byKey(limiterFactory, classifier, maximumSize, expireAfterAccess));
+  }
+
   /**
    * Rate limiter per IP/Remote address using a cluster.
    *
@@ -150,26 +261,42 @@ public class RateLimitHandler implements Route.Before {
       @Nonnull SneakyThrows.Function<String, Bucket> proxyManager,
       @Nonnull SneakyThrows.Function<Context, String> classifier) {
     return new RateLimitHandler(
-        (Function<Context, Bucket>) ctx -> proxyManager.apply(classifier.apply(ctx)));
+        (Function<Context, RateLimiter>) ctx -> limiter(
+            proxyManager.apply(classifier.apply(ctx))));
   }
 
   @Override public void apply(@Nonnull Context ctx) throws Exception {
-    Bucket bucket = factory.apply(ctx);
-    // tryConsume returns false immediately if no tokens available with the bucket
-    ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-    if (probe.isConsumed()) {
-      ctx.setResponseHeader("X-Rate-Limit-Remaining", probe.getRemainingTokens());
+    RateLimiter limiter = factory.apply(ctx);
+    // tryConsume returns immediately if no tokens available
+    long remaining = limiter.tryConsume();
+    if (remaining >= 0) {
+      ctx.setResponseHeader(REMAINING, toString(remaining));
     } else {
-      ctx.setResponseHeader("X-Rate-Limit-Retry-After-Milliseconds",
-          NANOSECONDS.toMillis(probe.getNanosToWaitForRefill()));
+      ctx.setResponseHeader(RETRY_AFTER, toString(NANOSECONDS.toMillis(-remaining)));
       ctx.send(StatusCode.TOO_MANY_REQUESTS);
     }
   }
 
-  private static Function<Context, Bucket> byKey(
-      SneakyThrows.Function<String, Bucket> bucketFactory,
-      SneakyThrows.Function<Context, String> classifier) {
-    Map<String, Bucket> buckets = new ConcurrentHashMap<>();
-    return ctx -> buckets.computeIfAbsent(classifier.apply(ctx), bucketFactory);
+  private static String toString(long value) {
+    return value < NUMBERS.length ? NUMBERS[(int) value] : Long.toString(value);
+  }
+
+  private static RateLimiter limiter(Bucket bucket) {
+    return () -> {
+      ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+      if (probe.isConsumed()) {
+        return probe.getRemainingTokens();
+      }
+      return -Math.max(1, probe.getNanosToWaitForRefill());
+    };
+  }
+
+  private static Function<Context, RateLimiter> byKey(
+      SneakyThrows.Function<String, RateLimiter> limiterFactory,
+      SneakyThrows.Function<Context, String> classifier, int maximumSize,
+      Duration expireAfterAccess) {
+    BoundedExpiringMap<String, RateLimiter> limiters = new BoundedExpiringMap<>(maximumSize,
+        expireAfterAccess.toNanos(), System::nanoTime);
+    return ctx -> limiters.computeIfAbsent(classifier.apply(ctx), limiterFactory);
   }
 }
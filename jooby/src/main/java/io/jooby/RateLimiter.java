@@ -0,0 +1,67 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import io.jooby.internal.SlidingWindowRateLimiter;
+import io.jooby.internal.TokenBucketRateLimiter;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+
+/**
+ * Single node rate limiter. Implementations are lock-free (compare-and-set over a single
+ * {@link java.util.concurrent.atomic.AtomicLong}) and don't allocate per request.
+ *
+ * Use it with {@link RateLimitHandler} as an alternative to Bucket4j when application runs on a
+ * single node:
+ *
+ * <pre>{@code
+ * {
+ *   before(new RateLimitHandler(RateLimiter.tokenBucket(10, Duration.ofMinutes(1))));
+ * }
+ * }</pre>
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public interface RateLimiter {
+
+  /**
+   * Try to consume one permit.
+   *
+   * @return A value <code>&gt;= 0</code> with the number of remaining permits when the permit was
+   *     consumed. Otherwise, a negative value whose absolute value is the time (in nanoseconds)
+   *     to wait until a new permit is available.
+   */
+  long tryConsume();
+
+  /**
+   * Token bucket limiter with a capacity of <code>capacity</code> permits refilled gradually
+   * over <code>period</code>. Bursts up to <code>capacity</code> are allowed.
+   *
+   * Implemented as a generic cell rate algorithm, so the whole state is a single timestamp.
+   *
+   * @param capacity Bucket capacity.
+   * @param period Time to refill the whole bucket.
+   * @return A new rate limiter.
+   */
+  static @Nonnull RateLimiter tokenBucket(long capacity, @Nonnull Duration period) {
+    return new TokenBucketRateLimiter(capacity, period.toNanos(), System::nanoTime);
+  }
+
+  /**
+   * Sliding window limiter with at most <code>limit</code> permits in any window of
+   * <code>window</code> length. The window is approximated by weighting the previous fixed window
+   * count, which is smoother than a fixed window and doesn't require to keep a log of requests.
+   *
+   * @param limit Number of permits per window. Must be lower than <code>2^24</code>.
+   * @param window Window length.
+   * @return A new rate limiter.
+   */
+  static @Nonnull RateLimiter slidingWindow(long limit, @Nonnull Duration window) {
+    return new SlidingWindowRateLimiter(limit, window.toNanos(), System::nanoTime);
+  }
+}
@@ -0,0 +1,249 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request lifecycle timestamps. Timestamps are in nanoseconds and captured with
+ * {@link System#nanoTime()} at the end of each {@link Phase}.
+ *
+ * Request timing is disabled by default and it is enabled by registering a {@link Listener} with
+ * {@link Router#requestTiming(Listener)}. When disabled, there is no per request cost.
+ *
+ * <pre>{@code
+ * {
+ *   requestTiming(new ServerTiming());
+ * }
+ * }</pre>
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class RequestTiming {
+
+  /**
+   * Request lifecycle phases, in the order they happen.
+   */
+  public enum Phase {
+    /**
+     * Server parsed the request line and headers, see {@link Context#getRequestStartNanoTime()}.
+     * When the server doesn't provide it, this is the time routing starts.
+     */
+    RECEIVED("received"),
+
+    /**
+     * Routing starts. Covers creation of the web context and reading the request body when the
+     * server reads it before routing (Netty for any body, Undertow for form and multipart bodies).
+     * Missing when the server doesn't provide {@link Context#getRequestStartNanoTime()}.
+     */
+    PARSE("parse"),
+
+    /** Router found a matching route. */
+    MATCH("match"),
+
+    /**
+     * Route pipeline started. When the route runs on a worker thread, this includes the time
+     * spent in the executor queue.
+     */
+    DISPATCH("dispatch"),
+
+    /** Route handler (including decorators, before and after filters) returned. */
+    HANDLER("handler"),
+
+    /** Route result was encoded by the route {@link MessageEncoder}. */
+    ENCODE("encode"),
+
+    /** Response was written and flushed. */
+    WRITE("write");
+
+    private final String value;
+
+    Phase(String value) {
+      this.value = value;
+    }
+
+    /**
+     * Phase name.
+     *
+     * @return Phase name.
+     */
+    public @Nonnull String value() {
+      return value;
+    }
+  }
+
+  /**
+   * Receive request lifecycle timings. Listeners are invoked from the request thread, so they
+   * must be fast and must not block.
+   *
+   * @author edgar
+   * @since 2.14.1
+   */
+  public interface Listener {
+    /**
+     * Called once the route handler returns and before the response is sent, if the handler
+     * didn't start the response already. Timings up to {@link Phase#HANDLER} are available.
+     * Useful for setting response headers.
+     *
+     * @param ctx Web context.
+     * @param timing Request timing.
+     */
+    default void onResponse(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+    }
+
+    /**
+     * Called once the response has been completed. All the timings are available (phases
+     * might be missing, like {@link Phase#ENCODE} for responses that don't require encoding).
+     *
+     * @param ctx Read-Only web context.
+     * @param timing Request timing.
+     */
+    default void onComplete(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+    }
+
+    /**
+     * Combine this listener with another.
+     *
+     * @param next Next listener.
+     * @return A new listener.
+     */
+    default @Nonnull Listener then(@Nonnull Listener next) {
+      Listener self = this;
+      return new Listener() {
+        @Override public void onResponse(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+          self.onResponse(ctx, timing);
+          next.onResponse(ctx, timing);
+        }
+
+        @Override public void onComplete(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+          self.onComplete(ctx, timing);
+          next.onComplete(ctx, timing);
+        }
+      };
+    }
+  }
+
+  private static final Phase[] PHASES = Phase.values();
+
+  private final long[] timestamps = new long[PHASES.length];
+
+  /**
+   * Creates a new request timing.
+   *
+   * @param received Time at which the server received the request, in nanoseconds.
+   */
+  public RequestTiming(long received) {
+    timestamps[Phase.RECEIVED.ordinal()] = received;
+  }
+
+  /**
+   * Find the request timing of the current request.
+   *
+   * @param ctx Web context.
+   * @return Request timing or <code>null</code> when request timing is disabled.
+   */
+  public static @Nullable RequestTiming get(@Nonnull Context ctx) {
+    return ctx.attribute(RequestTiming.class.getName());
+  }
+
+  /**
+   * Mark the end of a phase using the current time.
+   *
+   * @param phase Phase.
+   * @return This request timing.
+   */
+  public @Nonnull RequestTiming mark(@Nonnull Phase phase) {
+    return mark(phase, System.nanoTime());
+  }
+
+  /**
+   * Mark the end of a phase.
+   *
+   * @param phase Phase.
+   * @param nanoTime Timestamp in nanoseconds.
+   * @return This request timing.
+   */
+  public @Nonnull RequestTiming mark(@Nonnull Phase phase, long nanoTime) {
+    timestamps[phase.ordinal()] = nanoTime;
+    return this;
+  }
+
+  /**
+   * Timestamp of a phase, in nanoseconds.
+   *
+   * @param phase Phase.
+   * @return Timestamp of a phase, in nanoseconds or <code>0</code> when the phase didn't happen
+   *     (yet).
+   */
+  public long timestamp(@Nonnull Phase phase) {
+    return timestamps[phase.ordinal()];
+  }
+
+  /**
+   * Duration of a phase in nanoseconds, computed as the difference between the phase timestamp
+   * and the timestamp of the closest previous phase.
+   *
+   * @param phase Phase.
+   * @return Phase duration in nanoseconds or <code>-1</code> when the phase didn't happen (yet).
+   */
+  public long duration(@Nonnull Phase phase) {
+    int index = phase.ordinal();
+    long end = timestamps[index];
+    if (index == 0 || end == 0) {
+      return -1;
+    }
+    for (int i = index - 1; i >= 0; i--) {
+      long start = timestamps[i];
+      if (start != 0) {
+        return Math.max(0, end - start);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Time elapsed from {@link Phase#RECEIVED} until the latest available phase, in nanoseconds.
+   *
+   * @return Time elapsed in nanoseconds.
+   */
+  public long total() {
+    for (int i = timestamps.length - 1; i > 0; i--) {
+      if (timestamps[i] != 0) {
+        return Math.max(0, timestamps[i] - timestamps[0]);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Duration of a phase in the given time unit.
+   *
+   * @param phase Phase.
+   * @param unit Time unit.
+   * @return Phase duration or <code>-1</code> when the phase didn't happen (yet).
+   */
+  public double duration(@Nonnull Phase phase, @Nonnull TimeUnit unit) {
+    long nanos = duration(phase);
+    return nanos < 0 ? -1 : (double) nanos / unit.toNanos(1);
+  }
+
+  @Override public String toString() {
+    StringBuilder buff = new StringBuilder();
+    for (int i = 1; i < PHASES.length; i++) {
+      long nanos = duration(PHASES[i]);
+      if (nanos >= 0) {
+        if (buff.length() > 0) {
+          buff.append(", ");
+        }
+        buff.append(PHASES[i].value).append('=').append(nanos).append("ns");
+      }
+    }
+    return buff.toString();
+  }
+}
@@ -917,6 +917,25 @@ public interface Router extends Registry {
    */
   @Nonnull Router responseHandler(@Nonnull ResponseHandler factory);
 
+  /**
+   * Add a request timing listener. Request timing is disabled by default and enabled once a
+   * listener has been added. See {@link RequestTiming}.
+   *
+   * Default implementation does nothing, routers supporting request timing override it.
+   *
+   * <pre>{@code
+   * {
+   *   requestTiming(new ServerTiming());
+   * }
+   * }</pre>
+   *
+   * @param listener Request timing listener.
+   * @return This router.
+   */
+  default @Nonnull Router requestTiming(@Nonnull RequestTiming.Listener listener) {
+    return this;
+  }
+
   /**
    * Router options.
    *
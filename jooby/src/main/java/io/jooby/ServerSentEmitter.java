@@ -76,7 +76,7 @@ public interface ServerSentEmitter {
 
   /**
    * Generated when client close the connection or when explicit calls to
-   * {@link #close()}.
+   * {@link #close()}. Tasks run in registration order.
    *
    * @param task Cleanup task.
    */
@@ -0,0 +1,404 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Topic based hub for Server-Sent Events. Publish an event once and deliver it to all the
+ * subscribers of a topic:
+ *
+ * <pre>{@code
+ *   ServerSentHub hub = new ServerSentHub();
+ *
+ *   sse("/events/{topic}", sse -> {
+ *     hub.subscribe(sse.getContext().path("topic").value(), sse);
+ *   });
+ *
+ *   post("/events/{topic}", ctx -> {
+ *     hub.publish(ctx.path("topic").value(), ctx.body().value());
+ *     ...
+ *   });
+ * }</pre>
+ *
+ * Events are encoded once and the same byte array is written to every subscriber. The last
+ * published events of each topic are kept in a bounded buffer, so a reconnecting client with a
+ * <code>Last-Event-ID</code> header gets the events it missed replayed. Events without an ID get
+ * one from a per topic sequence.
+ *
+ * Keep-alive comments for all the subscribers are sent from a single timer, see
+ * {@link #setKeepAlive(long, TimeUnit)}.
+ *
+ * Events are written after releasing the topic lock, so a slow subscriber doesn't block other
+ * publishers of the same topic. Subscribers are removed once their connection has been closed or
+ * when a write fails.
+ *
+ * A topic without subscribers is removed once its buffered events are older than the replay
+ * timeout, see {@link #setReplayTimeout(long, TimeUnit)}.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class ServerSentHub implements AutoCloseable {
+
+  /** Encoded once event. */
+  private static class Event extends ServerSentMessage {
+    /** Guarded by event lock. */
+    private byte[] bytes;
+
+    Event(ServerSentMessage message, Object id) {
+      super(message.getData());
+      setId(id);
+      setEvent(message.getEvent());
+      setRetry(message.getRetry());
+    }
+
+    Event(byte[] bytes) {
+      super(bytes);
+      this.bytes = bytes;
+    }
+
+    @Nonnull @Override public synchronized byte[] toByteArray(@Nonnull Context ctx) {
+      if (bytes == null) {
+        // encoded with the context of the first subscriber
+        bytes = super.toByteArray(ctx);
+      }
+      return bytes;
+    }
+  }
+
+  private static class Topic {
+    private final Set<ServerSentEmitter> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Event[] events;
+
+    private int head;
+
+    private int size;
+
+    private long sequence;
+
+    /** Time of creation or last publish, in nanos. */
+    private long lastActive = System.nanoTime();
+
+    /** Set once the topic has been removed from the hub. */
+    private boolean removed;
+
+    Topic(int replaySize) {
+      this.events = new Event[replaySize];
+    }
+
+    void add(Event event) {
+      if (events.length > 0) {
+        events[(head + size) % events.length] = event;
+        if (size == events.length) {
+          head = (head + 1) % events.length;
+        } else {
+          size += 1;
+        }
+      }
+    }
+
+    List<Event> since(@Nullable String lastEventId) {
+      List<Event> result = new ArrayList<>(size);
+      for (int i = size - 1; i >= 0; i--) {
+        Event event = events[(head + i) % events.length];
+        if (String.valueOf(event.getId()).equals(lastEventId)) {
+          break;
+        }
+        result.add(0, event);
+      }
+      return result;
+    }
+  }
+
+  /** Default number of events kept per topic. */
+  public static final int REPLAY_SIZE = 100;
+
+  /** Default replay timeout, in minutes. */
+  public static final long REPLAY_TIMEOUT = 5;
+
+  /** Empty comment. */
+  private static final Event KEEP_ALIVE = new Event(":\n\n".getBytes(StandardCharsets.UTF_8));
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+  private final int replaySize;
+
+  private volatile long replayTimeout = TimeUnit.MINUTES.toNanos(REPLAY_TIMEOUT);
+
+  /** Time of next check for expired topics, in nanos. */
+  private final AtomicLong nextExpire = new AtomicLong(System.nanoTime() + replayTimeout);
+
+  private ScheduledExecutorService timer;
+
+  /**
+   * Creates a new hub.
+   *
+   * @param replaySize Number of events kept per topic for <code>Last-Event-ID</code> replay.
+   *     Set to <code>0</code> to turn off replay.
+   */
+  public ServerSentHub(int replaySize) {
+    if (replaySize < 0) {
+      throw new IllegalArgumentException("Replay size must be positive: " + replaySize);
+    }
+    this.replaySize = replaySize;
+  }
+
+  /**
+   * Creates a new hub and keeps the last {@link #REPLAY_SIZE} events of each topic.
+   */
+  public ServerSentHub() {
+    this(REPLAY_SIZE);
+  }
+
+  /**
+   * Subscribe a Server-Sent emitter to a topic. If the client sent a <code>Last-Event-ID</code>
+   * header, buffered events published after it are sent right away. When the ID is unknown (too
+   * old or from a previous run), all the buffered events are sent.
+   *
+   * The emitter is unsubscribed once its connection has been closed.
+   *
+   * @param topic Topic name.
+   * @param sse Server-Sent emitter.
+   * @return This hub.
+   */
+  public @Nonnull ServerSentHub subscribe(@Nonnull String topic, @Nonnull ServerSentEmitter sse) {
+    expire();
+    sse.onClose(() -> unsubscribe(topic, sse));
+    // Hold the emitter lock while replaying, so new events are written after the missed ones
+    synchronized (sse) {
+      Topic t;
+      List<Event> replay = null;
+      do {
+        t = topic(topic);
+        synchronized (t) {
+          if (!t.removed) {
+            String lastEventId = sse.getLastEventId();
+            replay = lastEventId == null ? Collections.emptyList() : t.since(lastEventId);
+            t.subscribers.add(sse);
+          }
+        }
+      } while (replay == null);
+      for (Event event : replay) {
+        if (!send(t, sse, event)) {
+          break;
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Unsubscribe a Server-Sent emitter from a topic.
+   *
+   * @param topic Topic name.
+   * @param sse Server-Sent emitter.
+   * @return This hub.
+   */
+  public @Nonnull ServerSentHub unsubscribe(@Nonnull String topic,
+      @Nonnull ServerSentEmitter sse) {
+    Topic t = topics.get(topic);
+    if (t != null) {
+      t.subscribers.remove(sse);
+    }
+    return this;
+  }
+
+  /**
+   * Publish a message to all the subscribers of a topic.
+   *
+   * @param topic Topic name.
+   * @param data Message data.
+   * @return This hub.
+   */
+  public @Nonnull ServerSentHub publish(@Nonnull String topic, @Nonnull Object data) {
+    return publish(topic, data instanceof ServerSentMessage
+        ? (ServerSentMessage) data
+        : new ServerSentMessage(data));
+  }
+
+  /**
+   * Publish a message to all the subscribers of a topic. Message is encoded once.
+   *
+   * @param topic Topic name.
+   * @param message Message.
+   * @return This hub.
+   */
+  public @Nonnull ServerSentHub publish(@Nonnull String topic,
+      @Nonnull ServerSentMessage message) {
+    expire();
+    Topic t;
+    Event event = null;
+    List<ServerSentEmitter> subscribers = null;
+    do {
+      t = topic(topic);
+      synchronized (t) {
+        if (!t.removed) {
+          Object id = message.getId();
+          event = new Event(message, id == null ? Long.toString(++t.sequence) : id);
+          t.add(event);
+          t.lastActive = System.nanoTime();
+          subscribers = new ArrayList<>(t.subscribers);
+        }
+      }
+    } while (event == null);
+    send(t, subscribers, event);
+    return this;
+  }
+
+  /**
+   * Number of subscribers of a topic.
+   *
+   * @param topic Topic name.
+   * @return Number of subscribers of a topic.
+   */
+  public int getSubscribers(@Nonnull String topic) {
+    Topic t = topics.get(topic);
+    return t == null ? 0 : t.subscribers.size();
+  }
+
+  /**
+   * Set how long the buffered events of a topic without subscribers are kept. Once elapsed since
+   * the last publish, the topic is removed from the hub. Defaults to {@link #REPLAY_TIMEOUT}
+   * minutes.
+   *
+   * @param time Period of time.
+   * @param unit Time unit.
+   * @return This hub.
+   */
+  public @Nonnull ServerSentHub setReplayTimeout(long time, @Nonnull TimeUnit unit) {
+    if (time < 0) {
+      throw new IllegalArgumentException("Replay timeout must be positive: " + time);
+    }
+    this.replayTimeout = unit.toNanos(time);
+    this.nextExpire.set(System.nanoTime());
+    return this;
+  }
+
+  /**
+   * Send an empty comment to all the subscribers periodically, from a single timer. The comment
+   * prevents connections from timing out and detects closed connections.
+   *
+   * @param time Period of time.
+   * @param unit Time unit.
+   * @return This hub.
+   */
+  public synchronized @Nonnull ServerSentHub setKeepAlive(long time, @Nonnull TimeUnit unit) {
+    if (timer != null) {
+      throw new IllegalStateException("Keep alive already set");
+    }
+    timer = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "sse-keep-alive");
+      thread.setDaemon(true);
+      return thread;
+    });
+    timer.scheduleAtFixedRate(this::keepAlive, time, time, unit);
+    return this;
+  }
+
+  /**
+   * Stop the keep alive timer.
+   */
+  @Override public synchronized void close() {
+    if (timer != null) {
+      timer.shutdownNow();
+      timer = null;
+    }
+  }
+
+  private void keepAlive() {
+    try {
+      expire();
+      for (Topic topic : topics.values()) {
+        send(topic, new ArrayList<>(topic.subscribers), KEEP_ALIVE);
+      }
+    } catch (Exception x) {
+      // don't cancel next executions
+      log.error("server-sent-event keep alive resulted in exception", x);
+    }
+  }
+
+  private void send(Topic topic, List<ServerSentEmitter> subscribers, Event event) {
+    for (ServerSentEmitter sse : subscribers) {
+      synchronized (sse) {
+        send(topic, sse, event);
+      }
+    }
+  }
+
+  /**
+   * Write an event to a subscriber. A failing subscriber (write still in flight, connection lost,
+   * etc.) is closed and removed, without affecting the other subscribers.
+   *
+   * @return True when the subscriber is still open.
+   */
+  private boolean send(Topic topic, ServerSentEmitter sse, Event event) {
+    try {
+      if (sse.isOpen()) {
+        sse.send(event);
+      }
+    } catch (Exception x) {
+      log.debug("server-sent-event write failed, removing subscriber: {}", sse.getId(), x);
+      try {
+        sse.close();
+      } catch (Exception closeError) {
+        log.debug("server-sent-event close failed: {}", sse.getId(), closeError);
+      }
+      topic.subscribers.remove(sse);
+      return false;
+    }
+    // emitter closes itself on connection lost
+    if (!sse.isOpen()) {
+      topic.subscribers.remove(sse);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Remove topics without subscribers and with expired events. Runs at most once per replay
+   * timeout, from the calling thread.
+   */
+  private void expire() {
+    long now = System.nanoTime();
+    long next = nextExpire.get();
+    if (now - next < 0 || !nextExpire.compareAndSet(next, now + replayTimeout)) {
+      return;
+    }
+    for (Map.Entry<String, Topic> entry : topics.entrySet()) {
+      Topic t = entry.getValue();
+      synchronized (t) {
+        if (t.subscribers.isEmpty() && now - t.lastActive >= replayTimeout) {
+          t.removed = true;
+          topics.remove(entry.getKey(), t);
+        }
+      }
+    }
+  }
+
+  private Topic topic(String name) {
+    return topics.computeIfAbsent(name, k -> new Topic(replaySize));
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Add a <a href="https://www.w3.org/TR/server-timing/">Server-Timing</a> response header with
+ * request lifecycle timings:
+ *
+ * <pre>
+ * Server-Timing: parse;dur=0.041, match;dur=0.006, dispatch;dur=0.083, handler;dur=2.310
+ * </pre>
+ *
+ * Usage:
+ *
+ * <pre>{@code
+ * {
+ *   requestTiming(new ServerTiming());
+ * }
+ * }</pre>
+ *
+ * Header is set before sending the response, so it includes phases up to
+ * {@link RequestTiming.Phase#HANDLER}. Durations are in milliseconds.
+ *
+ * Timings might expose information about your application, consider to enable this listener for
+ * trusted clients only or in non production environments.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class ServerTiming implements RequestTiming.Listener {
+
+  private static final String HEADER = "Server-Timing";
+
+  private static final RequestTiming.Phase[] PHASES = {
+      RequestTiming.Phase.PARSE,
+      RequestTiming.Phase.MATCH,
+      RequestTiming.Phase.DISPATCH,
+      RequestTiming.Phase.HANDLER
+  };
+
+  @Override public void onResponse(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+    StringBuilder header = new StringBuilder(96);
+    for (RequestTiming.Phase phase : PHASES) {
+      long nanos = timing.duration(phase);
+      if (nanos >= 0) {
+        if (header.length() > 0) {
+          header.append(", ");
+        }
+        header.append(phase.value()).append(";dur=");
+        // milliseconds with microsecond precision
+        long micros = nanos / 1000;
+        header.append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+          header.append('0');
+        }
+        if (fraction < 10) {
+          header.append('0');
+        }
+        header.append(fraction);
+      }
+    }
+    if (header.length() > 0) {
+      ctx.setResponseHeader(HEADER, header.toString());
+    }
+  }
+}
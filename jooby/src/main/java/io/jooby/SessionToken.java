@@ -10,7 +10,6 @@ import io.jooby.internal.MultipleSessionToken;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.security.SecureRandom;
-import java.util.Base64;
 
 /**
  * Find, save and delete a session token (cookie, header, parameter, etc)
@@ -133,7 +132,13 @@ public interface SessionToken {
       .setHttpOnly(true)
       .setPath("/");
 
-  /** Secure random for default session token generator. */
+  /**
+   * Secure random for default session token generator.
+   *
+   * @deprecated Shared by all threads, no longer used by {@link #newToken()}. Use
+   *     {@link IdGenerator}.
+   */
+  @Deprecated
   SecureRandom RND = new SecureRandom();
 
   /** Size of default token generator. */
@@ -141,14 +146,13 @@ public interface SessionToken {
 
   /**
    * Generate a new token. This implementation produces an url encoder ID using a secure random
-   * of {@link #ID_SIZE}.
+   * of {@link #ID_SIZE}, see {@link IdGenerator#DEFAULT}. Override it to plug a custom
+   * {@link IdGenerator}.
    *
    * @return A new token.
    */
   default @Nonnull String newToken() {
-    byte[] bytes = new byte[ID_SIZE];
-    RND.nextBytes(bytes);
-    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    return IdGenerator.DEFAULT.generate();
   }
 
   /**
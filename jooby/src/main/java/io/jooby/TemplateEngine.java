@@ -5,10 +5,14 @@
  */
 package io.jooby;
 
+import io.jooby.internal.TemplateModel;
+import io.jooby.internal.TemplateWriter;
+
 import javax.annotation.Nonnull;
-import java.nio.charset.StandardCharsets;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Template engine renderer. This class renderer instances of {@link ModelAndView} objects.
@@ -35,14 +39,54 @@ public interface TemplateEngine extends MessageEncoder {
    */
   String render(Context ctx, ModelAndView modelAndView) throws Exception;
 
+  /**
+   * Render a model and view instance into the given writer. Template engines able to write
+   * output while rendering should override this method, default implementation writes the
+   * output of {@link #render(Context, ModelAndView)}.
+   *
+   * @param ctx Web context.
+   * @param modelAndView Model and view.
+   * @param writer Output.
+   * @throws Exception If something goes wrong.
+   */
+  default void render(@Nonnull Context ctx, @Nonnull ModelAndView modelAndView,
+      @Nonnull Writer writer) throws Exception {
+    writer.write(render(ctx, modelAndView));
+  }
+
+  /**
+   * Render a model and view instance using {@link #render(Context, ModelAndView, Writer)}. Output
+   * is encoded as <code>UTF-8</code> into a buffer of <code>server.bufferSize</code>. Output
+   * bigger than the buffer is sent as a chunked response while rendering.
+   *
+   * @param ctx Web context.
+   * @param value Model and view.
+   * @return Rendered template or <code>null</code> when response was sent while rendering.
+   * @throws Exception If something goes wrong.
+   */
   @Override default byte[] encode(@Nonnull Context ctx, @Nonnull Object value) throws Exception {
     // initialize flash and session attributes (if any)
     ctx.flash();
     ctx.sessionOrNull();
 
     ctx.setDefaultResponseType(MediaType.html);
-    String output = render(ctx, (ModelAndView) value);
-    return output.getBytes(StandardCharsets.UTF_8);
+    try (TemplateWriter writer = new TemplateWriter(ctx)) {
+      render(ctx, (ModelAndView) value, writer);
+      return writer.toByteArray();
+    }
+  }
+
+  /**
+   * Template model: context attributes plus model of the given model and view, model entries win
+   * over attributes. The returned map is a read-only view, entries are merged only when iterated.
+   *
+   * @param ctx Web context.
+   * @param modelAndView Model and view.
+   * @return Template model.
+   */
+  default @Nonnull Map<String, Object> model(@Nonnull Context ctx,
+      @Nonnull ModelAndView modelAndView) {
+    return TemplateModel.create(ctx, modelAndView);
   }
 
   /**
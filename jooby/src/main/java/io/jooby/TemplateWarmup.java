@@ -0,0 +1,203 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+
+/**
+ * Compile templates at application startup. Templates are discovered from the template
+ * directory (file system or classpath) and compiled in parallel on a fork-join pool during
+ * {@link Jooby#onStarting(SneakyThrows.Runnable)}. Application startup fails if one or more
+ * templates can't be compiled.
+ *
+ * Warm-up is turned on/off by template modules or with the <code>templates.warmup</code>
+ * property.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class TemplateWarmup {
+
+  /** Name of application property that turn on/off template warm-up. */
+  public static final String WARMUP = "templates.warmup";
+
+  private final String engine;
+
+  private final List<String> extensions;
+
+  private final SneakyThrows.Consumer<String> compiler;
+
+  /**
+   * Creates a new template warm-up.
+   *
+   * @param engine Template engine name, used for logging.
+   * @param extensions Template file extensions.
+   * @param compiler Compile a template by name, relative to the template directory.
+   */
+  public TemplateWarmup(@Nonnull String engine, @Nonnull List<String> extensions,
+      @Nonnull SneakyThrows.Consumer<String> compiler) {
+    this.engine = engine;
+    this.extensions = extensions;
+    this.compiler = compiler;
+  }
+
+  /**
+   * Compile templates from <code>onStarting</code> when warm-up is enabled.
+   *
+   * @param application Application.
+   * @param warmup Module option or <code>null</code> to use the <code>templates.warmup</code>
+   *     property, defaults to <code>false</code>.
+   * @param dir Template directory or <code>null</code> for <code>user.dir/path</code>.
+   * @param path Template path, used on classpath when the template directory doesn't exist.
+   */
+  public void install(@Nonnull Jooby application, @Nullable Boolean warmup, @Nullable Path dir,
+      @Nonnull String path) {
+    Config conf = application.getConfig();
+    boolean enabled = warmup == null
+        ? conf.hasPath(WARMUP) && conf.getBoolean(WARMUP)
+        : warmup.booleanValue();
+    if (enabled) {
+      application.onStarting(() -> {
+        List<String> templates = templates(application.getEnvironment(), dir, path);
+        compile(application.getLog(), templates);
+      });
+    }
+  }
+
+  /**
+   * Find templates by file extension.
+   *
+   * @param env Application environment.
+   * @param dir Template directory or <code>null</code> for <code>user.dir/path</code>.
+   * @param path Template path, used on classpath when the template directory doesn't exist.
+   * @return Template names relative to the template directory.
+   * @throws IOException If something goes wrong.
+   */
+  public @Nonnull List<String> templates(@Nonnull Environment env, @Nullable Path dir,
+      @Nonnull String path) throws IOException {
+    TreeSet<String> templates = new TreeSet<>();
+    Path root = dir == null ? Paths.get(System.getProperty("user.dir"), path) : dir;
+    if (Files.isDirectory(root)) {
+      walk(root, templates);
+    } else {
+      String prefix = path.startsWith("/") ? path.substring(1) : path;
+      Enumeration<URL> resources = env.getClassLoader().getResources(prefix);
+      while (resources.hasMoreElements()) {
+        URL resource = resources.nextElement();
+        if (resource.getProtocol().equals("file")) {
+          try {
+            walk(Paths.get(resource.toURI()), templates);
+          } catch (URISyntaxException x) {
+            throw SneakyThrows.propagate(x);
+          }
+        } else if (resource.getProtocol().equals("jar")) {
+          JarURLConnection connection = (JarURLConnection) resource.openConnection();
+          connection.setUseCaches(false);
+          String entryPrefix = connection.getEntryName() + "/";
+          try (JarFile jar = connection.getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+              JarEntry entry = entries.nextElement();
+              String name = entry.getName();
+              if (!entry.isDirectory() && name.startsWith(entryPrefix) && matches(name)) {
+                templates.add(name.substring(entryPrefix.length()));
+              }
+            }
+          }
+        }
+      }
+    }
+    return new ArrayList<>(templates);
+  }
+
+  /**
+   * Compile templates in parallel and log compile time per template.
+   *
+   * @param log Logger.
+   * @param templates Template names.
+   * @return Compile time in milliseconds per template.
+   * @throws Exception If one or more templates fail to compile.
+   */
+  public @Nonnull Map<String, Long> compile(@Nonnull Logger log, @Nonnull List<String> templates)
+      throws Exception {
+    Map<String, Long> times = new TreeMap<>();
+    Map<String, Throwable> errors = new TreeMap<>();
+    long start = System.nanoTime();
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      pool.submit(() -> templates.parallelStream().forEach(template -> {
+        long compileStart = System.nanoTime();
+        try {
+          compiler.accept(template);
+          long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compileStart);
+          synchronized (times) {
+            times.put(template, time);
+          }
+        } catch (Throwable x) {
+          synchronized (errors) {
+            errors.put(template, x);
+          }
+        }
+      })).get();
+    } finally {
+      pool.shutdown();
+    }
+    times.forEach((template, time) -> log.debug("  {} {}ms", template, time));
+    if (errors.size() > 0) {
+      IllegalStateException failure = new IllegalStateException(
+          engine + " failed to compile: " + errors.keySet());
+      errors.values().forEach(failure::addSuppressed);
+      throw failure;
+    }
+    long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    times.entrySet().stream()
+        .max(Map.Entry.comparingByValue())
+        .ifPresent(slowest -> log.info("{} compiled {} template(s) in {}ms, slowest: {} {}ms",
+            engine, times.size(), total, slowest.getKey(), slowest.getValue()));
+    return times;
+  }
+
+  private void walk(Path root, TreeSet<String> templates) throws IOException {
+    try (Stream<Path> files = Files.walk(root)) {
+      files.filter(Files::isRegularFile)
+          .map(file -> root.relativize(file).toString().replace('\\', '/'))
+          .filter(this::matches)
+          .forEach(templates::add);
+    }
+  }
+
+  private boolean matches(String name) {
+    for (String extension : extensions) {
+      if (name.endsWith(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -108,6 +108,35 @@ public interface WebSocket {
     void onError(@Nonnull WebSocket ws, @Nonnull Throwable cause);
   }
 
+  /**
+   * What to do with outbound messages of a client that doesn't keep up with them (a slow consumer).
+   *
+   * @see WebSocketConfigurer#setOutboundLimit(long, OverflowPolicy)
+   */
+  enum OverflowPolicy {
+    /**
+     * Queue new messages and discard the oldest queued messages once the queue goes over the
+     * limit.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discard new messages until the client catches up.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Coalesce pending messages: keep only the latest one, each new message replaces the queued
+     * one. Useful when messages are snapshots of a state, like prices or positions.
+     */
+    LATEST_ONLY,
+
+    /**
+     * Close the connection with a {@link WebSocketCloseStatus#SERVICE_OVERLOAD} status code.
+     */
+    DISCONNECT
+  }
+
   /** Max message size for websocket (128K). */
   int MAX_BUFFER_SIZE = 131072;
 
@@ -172,6 +201,28 @@ public interface WebSocket {
    */
   @Nonnull List<WebSocket> getSessions();
 
+  /**
+   * Number of outbound bytes of this client that have not been written to the network yet. It
+   * includes messages handed to the server and messages queued by the
+   * {@link WebSocketConfigurer#setOutboundLimit(long, OverflowPolicy)} policy.
+   *
+   * @return Number of outbound bytes not yet written to the network or <code>-1</code> when the
+   *     server doesn't keep track of them.
+   */
+  default long getQueuedBytes() {
+    return -1;
+  }
+
+  /**
+   * Number of outbound messages discarded due to the
+   * {@link WebSocketConfigurer#setOutboundLimit(long, OverflowPolicy)} policy.
+   *
+   * @return Number of discarded messages.
+   */
+  default long getDroppedMessages() {
+    return 0;
+  }
+
   /**
    * True if websocket is open.
    *
@@ -46,4 +46,23 @@ public interface WebSocketConfigurer {
    * @return This configurer.
    */
   @Nonnull WebSocketConfigurer onClose(@Nonnull WebSocket.OnClose callback);
+
+  /**
+   * Limit the number of outbound bytes of a client not yet written to the network. Once the
+   * client goes over the limit, new messages are handled by the given policy.
+   *
+   * Defaults are set from <code>websocket.maxOutboundSize</code> and
+   * <code>websocket.overflowPolicy</code> properties. Without them, there is no limit.
+   *
+   * Default implementation does nothing: messages are never limited. Servers supporting it
+   * override this method.
+   *
+   * @param maxSize Max number of bytes. Must be greater than zero.
+   * @param policy What to do with new messages once the limit is reached.
+   * @return This configurer.
+   */
+  default @Nonnull WebSocketConfigurer setOutboundLimit(long maxSize,
+      @Nonnull WebSocket.OverflowPolicy policy) {
+    return this;
+  }
 }
@@ -0,0 +1,163 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public class BoundedExpiringMap<K, V> {
+
+  /** Number of entries sampled per eviction. */
+  private static final int SAMPLES = 5;
+
+  private static class Entry<V> {
+    final V value;
+
+    volatile long accessTime;
+
+    Entry(V value, long accessTime) {
+      this.value = value;
+      this.accessTime = accessTime;
+    }
+  }
+
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+  private final int maximumSize;
+
+  private final long expireAfterAccess;
+
+  /** Access time is updated at most once per tick, to avoid a volatile write per lookup. */
+  private final long tick;
+
+  private final LongSupplier clock;
+
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  private volatile long nextSweep;
+
+  /** Where next eviction samples start. Guarded by evicting. */
+  private Iterator<Map.Entry<K, Entry<V>>> cursor;
+
+  public BoundedExpiringMap(int maximumSize, long expireAfterAccess, LongSupplier clock) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be greater than zero: " + maximumSize);
+    }
+    if (expireAfterAccess <= 0) {
+      throw new IllegalArgumentException(
+          "Expiration must be greater than zero: " + expireAfterAccess);
+    }
+    this.maximumSize = maximumSize;
+    this.expireAfterAccess = expireAfterAccess;
+    this.tick = Math.max(1, expireAfterAccess / 64);
+    this.clock = clock;
+    this.nextSweep = clock.getAsLong() + expireAfterAccess;
+  }
+
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+    long now = clock.getAsLong();
+    Entry<V> entry = entries.get(key);
+    if (entry != null && now - entry.accessTime >= expireAfterAccess) {
+      entries.remove(key, entry);
+      entry = null;
+    }
+    if (entry == null) {
+      entry = entries.computeIfAbsent(key, k -> new Entry<>(factory.apply(k), now));
+      if (entries.size() > maximumSize) {
+        evict(now);
+      }
+    } else if (now - entry.accessTime >= tick) {
+      entry.accessTime = now;
+    }
+    if (now - nextSweep >= 0) {
+      evict(now);
+    }
+    return entry.value;
+  }
+
+  public V get(K key) {
+    long now = clock.getAsLong();
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (now - entry.accessTime >= expireAfterAccess) {
+      entries.remove(key, entry);
+      return null;
+    }
+    if (now - entry.accessTime >= tick) {
+      entry.accessTime = now;
+    }
+    if (now - nextSweep >= 0) {
+      evict(now);
+    }
+    return entry.value;
+  }
+
+  public void put(K key, V value) {
+    long now = clock.getAsLong();
+    entries.put(key, new Entry<>(value, now));
+    if (entries.size() > maximumSize || now - nextSweep >= 0) {
+      evict(now);
+    }
+  }
+
+  public void remove(K key) {
+    entries.remove(key);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void evict(long now) {
+    if (!evicting.compareAndSet(false, true)) {
+      // another thread is already on it
+      return;
+    }
+    try {
+      if (now - nextSweep >= 0) {
+        nextSweep = now + expireAfterAccess;
+        entries.values().removeIf(entry -> now - entry.accessTime >= expireAfterAccess);
+      }
+      // approximated LRU: remove the least recently used of a few sampled entries. Samples are
+      // taken from a cursor that walks the whole map, so no entry is copied nor sorted.
+      while (entries.size() > maximumSize) {
+        Map.Entry<K, Entry<V>> oldest = null;
+        for (int i = 0; i < SAMPLES; i++) {
+          Map.Entry<K, Entry<V>> candidate = next();
+          if (candidate == null) {
+            break;
+          }
+          if (oldest == null
+              || candidate.getValue().accessTime - oldest.getValue().accessTime < 0) {
+            oldest = candidate;
+          }
+        }
+        if (oldest == null) {
+          break;
+        }
+        entries.remove(oldest.getKey(), oldest.getValue());
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  private Map.Entry<K, Entry<V>> next() {
+    if (cursor == null || !cursor.hasNext()) {
+      cursor = entries.entrySet().iterator();
+      if (!cursor.hasNext()) {
+        return null;
+      }
+    }
+    return cursor.next();
+  }
+}
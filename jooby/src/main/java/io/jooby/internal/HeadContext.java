@@ -170,6 +170,11 @@ public class HeadContext extends ForwardingContext {
       return this;
     }
 
+    @Nonnull @Override public Sender write(@Nonnull byte[] data, int offset, int length,
+        @Nonnull Callback callback) {
+      return this;
+    }
+
     @Override public void close() {
     }
   }
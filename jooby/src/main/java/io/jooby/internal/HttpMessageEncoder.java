@@ -30,6 +30,9 @@ public class HttpMessageEncoder implements MessageEncoder {
 
   private Map<MediaType, MessageEncoder> encoders;
 
+  /** Content negotiation types: encoder types plus ndjson when only json is registered. */
+  private List<MediaType> produces;
+
   private List<TemplateEngine> templateEngineList = new ArrayList<>(2);
 
   public HttpMessageEncoder add(MediaType type, MessageEncoder encoder) {
@@ -41,6 +44,11 @@ public class HttpMessageEncoder implements MessageEncoder {
         encoders = new LinkedHashMap<>();
       }
       encoders.put(type, encoder);
+      produces = new ArrayList<>(encoders.keySet());
+      if (encoders.containsKey(MediaType.json) && !encoders.containsKey(MediaType.ndjson)) {
+        // newline delimited json is written by the json encoder
+        produces.add(MediaType.ndjson);
+      }
     }
     return this;
   }
@@ -100,8 +108,15 @@ public class HttpMessageEncoder implements MessageEncoder {
     }
     if (encoders != null) {
       // Content negotiation, find best:
-      MediaType type = ctx.accept(new ArrayList<>(encoders.keySet()));
-      MessageEncoder encoder = encoders.getOrDefault(type, MessageEncoder.TO_STRING);
+      MediaType type = ctx.accept(produces);
+      MessageEncoder encoder = encoders.get(type);
+      if (encoder == null && MediaType.ndjson.equals(type)) {
+        ctx.setDefaultResponseType(MediaType.ndjson);
+        encoder = encoders.get(MediaType.json);
+      }
+      if (encoder == null) {
+        encoder = MessageEncoder.TO_STRING;
+      }
       return encoder.encode(ctx, value);
     } else {
       return MessageEncoder.TO_STRING.encode(ctx, value);
@@ -0,0 +1,137 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Bounded, lock-free, multiple producer single consumer ring buffer. Producers never block:
+ * {@link #offer(Object)} returns <code>false</code> when the buffer is full.
+ *
+ * Based on Dmitry Vyukov's bounded queue: every slot keeps a sequence number, producers claim a
+ * slot with a CAS over the tail counter and the single consumer advances the head without any
+ * atomic read-modify-write.
+ *
+ * @param <T> Element type.
+ */
+public class MpscRingBuffer<T> {
+
+  private final int mask;
+
+  private final AtomicReferenceArray<T> buffer;
+
+  private final AtomicLongArray sequences;
+
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Consumer index, only accessed by the consumer thread. */
+  private long head;
+
+  /**
+   * Creates a new ring buffer.
+   *
+   * @param capacity Requested capacity, rounded up to the next power of two.
+   */
+  public MpscRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.buffer = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Buffer capacity.
+   *
+   * @return Buffer capacity.
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Add an element to the buffer. Safe to call from multiple threads.
+   *
+   * @param value Element.
+   * @return True if the element was added, false if buffer was full.
+   */
+  public boolean offer(@Nonnull T value) {
+    long pos = tail.get();
+    int index;
+    while (true) {
+      index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        // full
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+    buffer.lazySet(index, value);
+    sequences.lazySet(index, pos + 1);
+    return true;
+  }
+
+  /**
+   * Remove next element. Must be called from the consumer thread only.
+   *
+   * @return Next element or <code>null</code> when empty.
+   */
+  public @Nullable T poll() {
+    int index = (int) (head & mask);
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+    T value = buffer.get(index);
+    buffer.lazySet(index, null);
+    sequences.lazySet(index, head + mask + 1);
+    head += 1;
+    return value;
+  }
+
+  /**
+   * Remove up to <code>limit</code> elements. Must be called from the consumer thread only.
+   *
+   * @param consumer Element consumer.
+   * @param limit Max number of elements to drain.
+   * @return Number of drained elements.
+   */
+  public int drain(@Nonnull Consumer<T> consumer, int limit) {
+    int count = 0;
+    T value;
+    while (count < limit && (value = poll()) != null) {
+      consumer.accept(value);
+      count += 1;
+    }
+    return count;
+  }
+
+  /**
+   * True when there is nothing to consume. Must be called from the consumer thread only.
+   *
+   * @return True when there is nothing to consume.
+   */
+  public boolean isEmpty() {
+    return sequences.get((int) (head & mask)) != head + 1;
+  }
+}
@@ -0,0 +1,580 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session table stored in a {@link ByteBuffer} (direct or memory mapped). Layout:
+ *
+ * <pre>
+ *   header | wheel heads | free list heads | index | data blocks
+ * </pre>
+ *
+ * - index: open addressing (linear probing) table of <code>(hash, offset)</code> pairs.
+ * - data blocks: power of two size classes, freed blocks are kept in a free list per class. When
+ *   a class has no free block and there is no room left, a larger free block is split.
+ * - expiration: timing wheel of <code>WHEEL</code> buckets. Each block is linked into the bucket
+ *   of its expiration time.
+ *
+ * Block layout:
+ * <pre>
+ *   sizeClass(int) next(int) prev(int) hash(int) creationTime(long) lastAccessedTime(long)
+ *   idLength(short) id(bytes) dataLength(int) count(int) [keyLength(short) key valueLength(int)
+ *   value]*
+ * </pre>
+ *
+ * Not thread-safe, callers must synchronize.
+ */
+public class OffHeapSessionSegment {
+
+  public static class Record {
+    public final long creationTime;
+
+    public final long lastAccessedTime;
+
+    public final Map<String, String> attributes;
+
+    Record(long creationTime, long lastAccessedTime, Map<String, String> attributes) {
+      this.creationTime = creationTime;
+      this.lastAccessedTime = lastAccessedTime;
+      this.attributes = attributes;
+    }
+  }
+
+  private static final int MAGIC = 0x4A534553;
+
+  private static final int VERSION = 1;
+
+  /** Number of timing wheel buckets, must be a power of two. */
+  public static final int WHEEL = 256;
+
+  private static final int MIN_BLOCK_SHIFT = 6;
+
+  private static final int SIZE_CLASSES = 15;
+
+  /** Max block size: 1MB. */
+  public static final int MAX_BLOCK_SIZE = 1 << (MIN_BLOCK_SHIFT + SIZE_CLASSES - 1);
+
+  private static final int EMPTY = 0;
+
+  private static final int TOMBSTONE = 1;
+
+  /* Header */
+  private static final int H_MAGIC = 0;
+  private static final int H_VERSION = 4;
+  private static final int H_INDEX_CAPACITY = 8;
+  private static final int H_CAPACITY = 12;
+  private static final int H_SIZE = 16;
+  private static final int H_TOMBSTONES = 20;
+  private static final int H_TOP = 24;
+  private static final int H_GRANULARITY = 28;
+  private static final int H_LAST_TICK = 36;
+  private static final int H_WHEEL = 44;
+  private static final int H_FREE = H_WHEEL + WHEEL * 4;
+  private static final int HEADER_SIZE = H_FREE + SIZE_CLASSES * 4;
+
+  /* Block */
+  private static final int B_CLASS = 0;
+  private static final int B_NEXT = 4;
+  private static final int B_PREV = 8;
+  private static final int B_HASH = 12;
+  private static final int B_CREATION_TIME = 16;
+  private static final int B_LAST_ACCESSED_TIME = 24;
+  private static final int B_ID = 32;
+
+  private final ByteBuffer buffer;
+
+  /** Used for bulk reads/writes. */
+  private final ByteBuffer view;
+
+  private final int indexCapacity;
+
+  private final int dataStart;
+
+  private final long timeout;
+
+  private final long granularity;
+
+  /**
+   * Creates a segment. Existing data is reused when the buffer has a valid header with same
+   * settings (memory mapped file), otherwise the segment is formatted.
+   *
+   * @param buffer Segment memory.
+   * @param indexCapacity Index capacity, must be a power of two.
+   * @param timeout Session timeout in millis or <code>0</code> for no timeout.
+   */
+  public OffHeapSessionSegment(ByteBuffer buffer, int indexCapacity, long timeout) {
+    this.buffer = buffer;
+    this.view = buffer.duplicate();
+    this.indexCapacity = indexCapacity;
+    this.dataStart = HEADER_SIZE + indexCapacity * 8;
+    this.timeout = timeout;
+    // timeout fits in the wheel: WHEEL * granularity > timeout + granularity
+    this.granularity = Math.max(1, (timeout + WHEEL - 3) / (WHEEL - 2));
+    if (dataStart + MAX_BLOCK_SIZE > buffer.capacity()) {
+      throw new IllegalArgumentException("Segment too small: " + buffer.capacity()
+          + ", required at least: " + (dataStart + MAX_BLOCK_SIZE));
+    }
+    if (!isValid()) {
+      format();
+    }
+  }
+
+  public static int requiredCapacity(int indexCapacity) {
+    return HEADER_SIZE + indexCapacity * 8 + MAX_BLOCK_SIZE;
+  }
+
+  public int size() {
+    return buffer.getInt(H_SIZE);
+  }
+
+  public int getMaxSize() {
+    return indexCapacity / 4 * 3;
+  }
+
+  public Record get(String id, int hash, long now, boolean touch) {
+    byte[] key = id.getBytes(StandardCharsets.UTF_8);
+    int slot = findSlot(hash, key);
+    if (slot < 0) {
+      return null;
+    }
+    int block = buffer.getInt(slotOffset(slot) + 4);
+    if (isExpired(block, now)) {
+      remove(slot, block);
+      return null;
+    }
+    if (touch) {
+      unlink(block);
+      buffer.putLong(block + B_LAST_ACCESSED_TIME, now);
+      link(block);
+    }
+    return readRecord(block, key.length);
+  }
+
+  public Record remove(String id, int hash, long now) {
+    byte[] key = id.getBytes(StandardCharsets.UTF_8);
+    int slot = findSlot(hash, key);
+    if (slot < 0) {
+      return null;
+    }
+    int block = buffer.getInt(slotOffset(slot) + 4);
+    Record record = isExpired(block, now) ? null : readRecord(block, key.length);
+    remove(slot, block);
+    return record;
+  }
+
+  public void put(String id, int hash, long creationTime, long lastAccessedTime,
+      Map<String, String> attributes, long now) {
+    byte[] key = id.getBytes(StandardCharsets.UTF_8);
+    List<byte[]> data = new ArrayList<>(attributes.size() * 2);
+    int dataLength = 4;
+    for (Map.Entry<String, String> e : attributes.entrySet()) {
+      byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+      if (name.length > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("Session attribute name too large: " + id
+            + ", size: " + name.length);
+      }
+      byte[] value = e.getValue().getBytes(StandardCharsets.UTF_8);
+      data.add(name);
+      data.add(value);
+      dataLength += 2 + name.length + 4 + value.length;
+    }
+    int length = B_ID + 2 + key.length + 4 + dataLength;
+    if (length > MAX_BLOCK_SIZE || key.length > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Session too large: " + id + ", size: " + length);
+    }
+    int sizeClass = sizeClass(length);
+
+    int slot = findSlot(hash, key);
+    int block;
+    if (slot >= 0) {
+      block = buffer.getInt(slotOffset(slot) + 4);
+      if (buffer.getInt(block + B_CLASS) == sizeClass) {
+        // overwrite in place
+        unlink(block);
+      } else {
+        remove(slot, block);
+        slot = -1;
+        block = allocate(sizeClass, now);
+      }
+    } else {
+      block = allocate(sizeClass, now);
+    }
+    if (slot < 0) {
+      insert(hash, block, now);
+    }
+
+    buffer.putInt(block + B_HASH, hash);
+    buffer.putLong(block + B_CREATION_TIME, creationTime);
+    buffer.putLong(block + B_LAST_ACCESSED_TIME, lastAccessedTime);
+    int pos = block + B_ID;
+    buffer.putShort(pos, (short) key.length);
+    pos = write(pos + 2, key);
+    buffer.putInt(pos, dataLength);
+    buffer.putInt(pos + 4, data.size() / 2);
+    pos += 8;
+    for (int i = 0; i < data.size(); i += 2) {
+      byte[] name = data.get(i);
+      byte[] value = data.get(i + 1);
+      buffer.putShort(pos, (short) name.length);
+      pos = write(pos + 2, name);
+      buffer.putInt(pos, value.length);
+      pos = write(pos + 4, value);
+    }
+    link(block);
+  }
+
+  /**
+   * Remove expired entries, visiting the timing wheel buckets that elapsed since last call.
+   *
+   * @param now Current time.
+   */
+  public void expire(long now) {
+    if (timeout <= 0) {
+      return;
+    }
+    long tick = now / granularity;
+    long lastTick = buffer.getLong(H_LAST_TICK);
+    if (tick - 1 <= lastTick) {
+      return;
+    }
+    long from = Math.max(lastTick + 1, tick - WHEEL);
+    for (long t = from; t < tick; t++) {
+      int bucket = H_WHEEL + (int) (t & (WHEEL - 1)) * 4;
+      int block = buffer.getInt(bucket);
+      while (block != 0) {
+        int next = buffer.getInt(block + B_NEXT);
+        if (isExpired(block, now)) {
+          remove(findSlot(block), block);
+        }
+        block = next;
+      }
+    }
+    buffer.putLong(H_LAST_TICK, tick - 1);
+  }
+
+  public void force() {
+    if (buffer instanceof MappedByteBuffer) {
+      ((MappedByteBuffer) buffer).force();
+    }
+  }
+
+  private boolean isValid() {
+    return buffer.getInt(H_MAGIC) == MAGIC
+        && buffer.getInt(H_VERSION) == VERSION
+        && buffer.getInt(H_INDEX_CAPACITY) == indexCapacity
+        && buffer.getInt(H_CAPACITY) == buffer.capacity()
+        && buffer.getLong(H_GRANULARITY) == granularity;
+  }
+
+  private void format() {
+    for (int i = 0; i < dataStart; i += 4) {
+      buffer.putInt(i, 0);
+    }
+    buffer.putInt(H_MAGIC, MAGIC);
+    buffer.putInt(H_VERSION, VERSION);
+    buffer.putInt(H_INDEX_CAPACITY, indexCapacity);
+    buffer.putInt(H_CAPACITY, buffer.capacity());
+    buffer.putInt(H_TOP, dataStart);
+    buffer.putLong(H_GRANULARITY, granularity);
+  }
+
+  private boolean isExpired(int block, long now) {
+    return timeout > 0 && buffer.getLong(block + B_LAST_ACCESSED_TIME) + timeout <= now;
+  }
+
+  private Record readRecord(int block, int keyLength) {
+    long creationTime = buffer.getLong(block + B_CREATION_TIME);
+    long lastAccessedTime = buffer.getLong(block + B_LAST_ACCESSED_TIME);
+    int pos = block + B_ID + 2 + keyLength + 4;
+    int count = buffer.getInt(pos);
+    pos += 4;
+    Map<String, String> attributes = new ConcurrentHashMap<>(Math.max(16, count * 2));
+    for (int i = 0; i < count; i++) {
+      int nameLength = buffer.getShort(pos);
+      String name = read(pos + 2, nameLength);
+      pos += 2 + nameLength;
+      int valueLength = buffer.getInt(pos);
+      String value = read(pos + 4, valueLength);
+      pos += 4 + valueLength;
+      attributes.put(name, value);
+    }
+    return new Record(creationTime, lastAccessedTime, attributes);
+  }
+
+  private String read(int pos, int length) {
+    byte[] bytes = new byte[length];
+    view.position(pos);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int write(int pos, byte[] bytes) {
+    view.position(pos);
+    view.put(bytes);
+    return pos + bytes.length;
+  }
+
+  /* Index */
+
+  private int slotOffset(int slot) {
+    return HEADER_SIZE + slot * 8;
+  }
+
+  private int findSlot(int hash, byte[] key) {
+    int mask = indexCapacity - 1;
+    for (int i = hash & mask, n = 0; n < indexCapacity; i = (i + 1) & mask, n++) {
+      int pos = slotOffset(i);
+      int block = buffer.getInt(pos + 4);
+      if (block == EMPTY) {
+        return -1;
+      }
+      if (block != TOMBSTONE && buffer.getInt(pos) == hash && keyEquals(block, key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int findSlot(int block) {
+    int hash = buffer.getInt(block + B_HASH);
+    int mask = indexCapacity - 1;
+    for (int i = hash & mask, n = 0; n < indexCapacity; i = (i + 1) & mask, n++) {
+      int offset = buffer.getInt(slotOffset(i) + 4);
+      if (offset == block) {
+        return i;
+      }
+      if (offset == EMPTY) {
+        break;
+      }
+    }
+    throw new IllegalStateException("Corrupted session index, block: " + block);
+  }
+
+  private boolean keyEquals(int block, byte[] key) {
+    int pos = block + B_ID;
+    if (buffer.getShort(pos) != key.length) {
+      return false;
+    }
+    pos += 2;
+    for (int i = 0; i < key.length; i++) {
+      if (buffer.get(pos + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void insert(int hash, int block, long now) {
+    int size = buffer.getInt(H_SIZE);
+    int tombstones = buffer.getInt(H_TOMBSTONES);
+    if (size + tombstones >= getMaxSize()) {
+      if (size >= getMaxSize()) {
+        // reclaim expired entries
+        expireAll(now);
+      }
+      if (buffer.getInt(H_TOMBSTONES) > 0) {
+        rehash();
+      }
+      if (buffer.getInt(H_SIZE) >= getMaxSize()) {
+        free(block);
+        throw new IllegalStateException("Session store is full: " + size);
+      }
+    }
+    int mask = indexCapacity - 1;
+    int i = hash & mask;
+    while (true) {
+      int pos = slotOffset(i);
+      int offset = buffer.getInt(pos + 4);
+      if (offset == EMPTY || offset == TOMBSTONE) {
+        if (offset == TOMBSTONE) {
+          buffer.putInt(H_TOMBSTONES, buffer.getInt(H_TOMBSTONES) - 1);
+        }
+        buffer.putInt(pos, hash);
+        buffer.putInt(pos + 4, block);
+        buffer.putInt(H_SIZE, buffer.getInt(H_SIZE) + 1);
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  private void remove(int slot, int block) {
+    unlink(block);
+    free(block);
+    buffer.putInt(slotOffset(slot) + 4, TOMBSTONE);
+    buffer.putInt(H_SIZE, buffer.getInt(H_SIZE) - 1);
+    buffer.putInt(H_TOMBSTONES, buffer.getInt(H_TOMBSTONES) + 1);
+  }
+
+  private void rehash() {
+    int size = buffer.getInt(H_SIZE);
+    int[] entries = new int[size * 2];
+    int n = 0;
+    for (int i = 0; i < indexCapacity; i++) {
+      int pos = slotOffset(i);
+      int block = buffer.getInt(pos + 4);
+      if (block != EMPTY && block != TOMBSTONE) {
+        entries[n++] = buffer.getInt(pos);
+        entries[n++] = block;
+      }
+      buffer.putLong(pos, 0L);
+    }
+    int mask = indexCapacity - 1;
+    for (int e = 0; e < n; e += 2) {
+      int i = entries[e] & mask;
+      while (buffer.getInt(slotOffset(i) + 4) != EMPTY) {
+        i = (i + 1) & mask;
+      }
+      buffer.putInt(slotOffset(i), entries[e]);
+      buffer.putInt(slotOffset(i) + 4, entries[e + 1]);
+    }
+    buffer.putInt(H_TOMBSTONES, 0);
+  }
+
+  /* Blocks */
+
+  private static int sizeClass(int length) {
+    int shift = 32 - Integer.numberOfLeadingZeros(length - 1);
+    return Math.max(0, shift - MIN_BLOCK_SHIFT);
+  }
+
+  private int allocate(int sizeClass, long now) {
+    int block = tryAllocate(sizeClass);
+    if (block == 0) {
+      // reclaim expired blocks
+      expireAll(now);
+      block = tryAllocate(sizeClass);
+      if (block == 0) {
+        throw new IllegalStateException("Session store is out of memory, size: " + size());
+      }
+    }
+    return block;
+  }
+
+  private int tryAllocate(int sizeClass) {
+    int block = pop(sizeClass);
+    if (block == 0) {
+      int top = buffer.getInt(H_TOP);
+      int blockSize = 1 << (MIN_BLOCK_SHIFT + sizeClass);
+      if (buffer.capacity() - top >= blockSize) {
+        block = top;
+        buffer.putInt(H_TOP, top + blockSize);
+      } else {
+        block = split(sizeClass);
+        if (block == 0) {
+          return 0;
+        }
+      }
+    }
+    buffer.putInt(block + B_CLASS, sizeClass);
+    buffer.putInt(block + B_NEXT, 0);
+    buffer.putInt(block + B_PREV, 0);
+    return block;
+  }
+
+  /**
+   * Split the smallest free block larger than the given class. The first part is returned, the
+   * rest goes to the free lists of the classes in between.
+   *
+   * @param sizeClass Size class.
+   * @return A block or <code>0</code>.
+   */
+  private int split(int sizeClass) {
+    for (int larger = sizeClass + 1; larger < SIZE_CLASSES; larger++) {
+      int block = pop(larger);
+      if (block != 0) {
+        for (int c = larger - 1; c >= sizeClass; c--) {
+          int half = block + (1 << (MIN_BLOCK_SHIFT + c));
+          buffer.putInt(half + B_CLASS, c);
+          free(half);
+        }
+        return block;
+      }
+    }
+    return 0;
+  }
+
+  private int pop(int sizeClass) {
+    int free = H_FREE + sizeClass * 4;
+    int block = buffer.getInt(free);
+    if (block != 0) {
+      buffer.putInt(free, buffer.getInt(block + B_NEXT));
+    }
+    return block;
+  }
+
+  private void free(int block) {
+    int free = H_FREE + buffer.getInt(block + B_CLASS) * 4;
+    buffer.putInt(block + B_NEXT, buffer.getInt(free));
+    buffer.putInt(free, block);
+  }
+
+  private void expireAll(long now) {
+    if (timeout <= 0) {
+      return;
+    }
+    for (int bucket = 0; bucket < WHEEL; bucket++) {
+      int block = buffer.getInt(H_WHEEL + bucket * 4);
+      while (block != 0) {
+        int next = buffer.getInt(block + B_NEXT);
+        if (isExpired(block, now)) {
+          remove(findSlot(block), block);
+        }
+        block = next;
+      }
+    }
+  }
+
+  /* Timing wheel */
+
+  private int bucket(int block) {
+    long expiresAt = buffer.getLong(block + B_LAST_ACCESSED_TIME) + timeout;
+    return H_WHEEL + (int) ((expiresAt / granularity) & (WHEEL - 1)) * 4;
+  }
+
+  private void link(int block) {
+    if (timeout <= 0) {
+      return;
+    }
+    int bucket = bucket(block);
+    int head = buffer.getInt(bucket);
+    buffer.putInt(block + B_NEXT, head);
+    buffer.putInt(block + B_PREV, 0);
+    if (head != 0) {
+      buffer.putInt(head + B_PREV, block);
+    }
+    buffer.putInt(bucket, block);
+  }
+
+  private void unlink(int block) {
+    if (timeout <= 0) {
+      return;
+    }
+    int prev = buffer.getInt(block + B_PREV);
+    int next = buffer.getInt(block + B_NEXT);
+    if (prev != 0) {
+      buffer.putInt(prev + B_NEXT, next);
+    } else {
+      int bucket = bucket(block);
+      if (buffer.getInt(bucket) == block) {
+        buffer.putInt(bucket, next);
+      }
+    }
+    if (next != 0) {
+      buffer.putInt(next + B_PREV, prev);
+    }
+    buffer.putInt(block + B_NEXT, 0);
+    buffer.putInt(block + B_PREV, 0);
+  }
+}
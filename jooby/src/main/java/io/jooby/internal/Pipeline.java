@@ -45,10 +45,60 @@ import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 
+/**
+ * Creates the response pipeline of a route from its return type. Optional (reactive and Kotlin)
+ * types are resolved once per instance, so a single instance should be reused while starting
+ * the application.
+ */
 public class Pipeline {
 
+  private final Optional<Class> single;
+
+  private final Optional<Class> maybe;
+
+  private final Optional<Class> flowable;
+
+  private final Optional<Class> observable;
+
+  private final Optional<Class> disposable;
+
+  private final Optional<Class> flux;
+
+  private final Optional<Class> mono;
+
+  private final Optional<Class> deferred;
+
+  private final Optional<Class> job;
+
+  private final Optional<Class> continuation;
+
+  private final Optional<Class> publisher;
+
+  public Pipeline(ClassLoader loader) {
+    /** Rx 2: */
+    single = loadClass(loader, "io.reactivex.Single");
+    maybe = loadClass(loader, "io.reactivex.Maybe");
+    flowable = loadClass(loader, "io.reactivex.Flowable");
+    observable = loadClass(loader, "io.reactivex.Observable");
+    disposable = loadClass(loader, "io.reactivex.disposables.Disposable");
+    /** Reactor: */
+    flux = loadClass(loader, "reactor.core.publisher.Flux");
+    mono = loadClass(loader, "reactor.core.publisher.Mono");
+    /** Kotlin: */
+    deferred = loadClass(loader, "kotlinx.coroutines.Deferred");
+    job = loadClass(loader, "kotlinx.coroutines.Job");
+    continuation = loadClass(loader, "kotlin.coroutines.Continuation");
+    /** ReactiveStream: */
+    publisher = loadClass(loader, "org.reactivestreams.Publisher");
+  }
+
   public static Handler compute(ClassLoader loader, Route route, ExecutionMode mode,
       Executor executor, ContextInitializer initializer, List<ResponseHandler> responseHandler) {
+    return new Pipeline(loader).compute(route, mode, executor, initializer, responseHandler);
+  }
+
+  public Handler compute(Route route, ExecutionMode mode, Executor executor,
+      ContextInitializer initializer, List<ResponseHandler> responseHandler) {
     Type returnType = route.getReturnType();
     Class<?> type = Reified.rawType(returnType);
     if (CompletionStage.class.isAssignableFrom(type)) {
@@ -56,81 +106,48 @@ public class Pipeline {
     }
     /** Rx 2: */
     // Single:
-    Optional<Class> single = loadClass(loader, "io.reactivex.Single");
-    if (single.isPresent()) {
-      if (single.get().isAssignableFrom(type)) {
-        return single(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(single, type)) {
+      return single(mode, route, executor, initializer);
     }
     // Maybe:
-    Optional<Class> maybe = loadClass(loader, "io.reactivex.Maybe");
-    if (maybe.isPresent()) {
-      if (maybe.get().isAssignableFrom(type)) {
-        return rxMaybe(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(maybe, type)) {
+      return rxMaybe(mode, route, executor, initializer);
     }
     // Flowable:
-    Optional<Class> flowable = loadClass(loader, "io.reactivex.Flowable");
-    if (flowable.isPresent()) {
-      if (flowable.get().isAssignableFrom(type)) {
-        return rxFlowable(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(flowable, type)) {
+      return rxFlowable(mode, route, executor, initializer);
     }
     // Observable:
-    Optional<Class> observable = loadClass(loader, "io.reactivex.Observable");
-    if (observable.isPresent()) {
-      if (observable.get().isAssignableFrom(type)) {
-        return rxObservable(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(observable, type)) {
+      return rxObservable(mode, route, executor, initializer);
     }
     // Disposable
-    Optional<Class> disposable = loadClass(loader, "io.reactivex.disposables.Disposable");
-    if (disposable.isPresent()) {
-      if (disposable.get().isAssignableFrom(type)) {
-        return rxDisposable(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(disposable, type)) {
+      return rxDisposable(mode, route, executor, initializer);
     }
     /** Reactor: */
     // Flux:
-    Optional<Class> flux = loadClass(loader, "reactor.core.publisher.Flux");
-    if (flux.isPresent()) {
-      if (flux.get().isAssignableFrom(type)) {
-        return reactorFlux(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(flux, type)) {
+      return reactorFlux(mode, route, executor, initializer);
     }
     // Mono:
-    Optional<Class> mono = loadClass(loader, "reactor.core.publisher.Mono");
-    if (mono.isPresent()) {
-      if (mono.get().isAssignableFrom(type)) {
-        return reactorMono(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(mono, type)) {
+      return reactorMono(mode, route, executor, initializer);
     }
     /** Kotlin: */
-    Optional<Class> deferred = loadClass(loader, "kotlinx.coroutines.Deferred");
-    if (deferred.isPresent()) {
-      if (deferred.get().isAssignableFrom(type)) {
-        return kotlinJob(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(deferred, type)) {
+      return kotlinJob(mode, route, executor, initializer);
     }
-    Optional<Class> job = loadClass(loader, "kotlinx.coroutines.Job");
-    if (job.isPresent()) {
-      if (job.get().isAssignableFrom(type)) {
-        return kotlinJob(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(job, type)) {
+      return kotlinJob(mode, route, executor, initializer);
     }
-    Optional<Class> continuation = loadClass(loader, "kotlin.coroutines.Continuation");
-    if (continuation.isPresent()) {
-      if (continuation.get().isAssignableFrom(type)) {
-        return kotlinContinuation(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(continuation, type)) {
+      return kotlinContinuation(mode, route, executor, initializer);
     }
 
     /** ReactiveStream: */
-    Optional<Class> publisher = loadClass(loader, "org.reactivestreams.Publisher");
-    if (publisher.isPresent()) {
-      if (publisher.get().isAssignableFrom(type)) {
-        return reactivePublisher(mode, route, executor, initializer);
-      }
+    if (isAssignableFrom(publisher, type)) {
+      return reactivePublisher(mode, route, executor, initializer);
     }
     /** Context: */
     if (Context.class.isAssignableFrom(type)) {
@@ -265,6 +282,10 @@ public class Pipeline {
     return new DispatchHandler(handler, executor);
   }
 
+  private static boolean isAssignableFrom(Optional<Class> superType, Class<?> type) {
+    return superType.isPresent() && superType.get().isAssignableFrom(type);
+  }
+
   private static Optional<Class> loadClass(ClassLoader loader, String name) {
     try {
       return Optional.of(loader.loadClass(name));
@@ -0,0 +1,103 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import io.jooby.IdGenerator;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+public class RandomIdGenerator implements IdGenerator {
+
+  /** Per thread generator and buffers. */
+  private static class State {
+    private final SecureRandom random;
+
+    private final byte[] bytes;
+
+    private final byte[] chars;
+
+    private int count;
+
+    State(int size) {
+      this.random = newRandom();
+      this.bytes = new byte[size];
+      this.chars = new byte[(size * 4 + 2) / 3];
+    }
+  }
+
+  /** Number of identifiers generated by a thread before reseeding its generator. */
+  private static final int RESEED_INTERVAL = 1 << 16;
+
+  private static final int SEED_SIZE = 32;
+
+  private static final byte[] ALPHABET = ("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"
+      + "0123456789-_").getBytes(StandardCharsets.US_ASCII);
+
+  /** System source, only used to (re)seed thread generators. */
+  private static final SecureRandom SEED = new SecureRandom();
+
+  private final ThreadLocal<State> state;
+
+  public RandomIdGenerator(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size must be greater than zero: " + size);
+    }
+    this.state = ThreadLocal.withInitial(() -> new State(size));
+  }
+
+  @Nonnull @Override public String generate() {
+    State state = this.state.get();
+    if (++state.count == RESEED_INTERVAL) {
+      state.count = 0;
+      // supplements, doesn't replace, existing seed
+      state.random.setSeed(seed());
+    }
+    byte[] bytes = state.bytes;
+    byte[] chars = state.chars;
+    state.random.nextBytes(bytes);
+    int i = 0;
+    int j = 0;
+    for (int end = bytes.length - bytes.length % 3; i < end; i += 3) {
+      int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+      chars[j++] = ALPHABET[(bits >>> 18) & 0x3f];
+      chars[j++] = ALPHABET[(bits >>> 12) & 0x3f];
+      chars[j++] = ALPHABET[(bits >>> 6) & 0x3f];
+      chars[j++] = ALPHABET[bits & 0x3f];
+    }
+    int remaining = bytes.length - i;
+    if (remaining > 0) {
+      int bits = (bytes[i] & 0xff) << 16 | (remaining == 2 ? (bytes[i + 1] & 0xff) << 8 : 0);
+      chars[j++] = ALPHABET[(bits >>> 18) & 0x3f];
+      chars[j++] = ALPHABET[(bits >>> 12) & 0x3f];
+      if (remaining == 2) {
+        chars[j++] = ALPHABET[(bits >>> 6) & 0x3f];
+      }
+    }
+    return new String(chars, 0, j, StandardCharsets.ISO_8859_1);
+  }
+
+  private static SecureRandom newRandom() {
+    SecureRandom random;
+    try {
+      // Not backed by a shared native source (unlike NativePRNG), so threads don't contend
+      random = SecureRandom.getInstance("SHA1PRNG");
+    } catch (NoSuchAlgorithmException x) {
+      random = new SecureRandom();
+    }
+    // seeding before first use prevents self-seeding
+    random.setSeed(seed());
+    return random;
+  }
+
+  private static byte[] seed() {
+    byte[] seed = new byte[SEED_SIZE];
+    SEED.nextBytes(seed);
+    return seed;
+  }
+}
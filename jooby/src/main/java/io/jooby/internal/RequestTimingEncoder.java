@@ -0,0 +1,31 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import io.jooby.Context;
+import io.jooby.MessageEncoder;
+import io.jooby.RequestTiming;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public class RequestTimingEncoder implements MessageEncoder {
+  private final MessageEncoder encoder;
+
+  public RequestTimingEncoder(MessageEncoder encoder) {
+    this.encoder = encoder;
+  }
+
+  @Nullable @Override public byte[] encode(@Nonnull Context ctx, @Nonnull Object value)
+      throws Exception {
+    byte[] bytes = encoder.encode(ctx, value);
+    RequestTiming timing = RequestTiming.get(ctx);
+    if (timing != null) {
+      timing.mark(RequestTiming.Phase.ENCODE);
+    }
+    return bytes;
+  }
+}
@@ -47,6 +47,7 @@ import io.jooby.Jooby;
 import io.jooby.MediaType;
 import io.jooby.MessageDecoder;
 import io.jooby.MessageEncoder;
+import io.jooby.RequestTiming;
 import io.jooby.ResponseHandler;
 import io.jooby.Route;
 import io.jooby.RouteSet;
@@ -63,6 +64,7 @@ import io.jooby.WebSocket;
 import io.jooby.exception.RegistryException;
 import io.jooby.exception.StatusCodeException;
 import io.jooby.internal.asm.ClassSource;
+import io.jooby.internal.handler.RequestTimingHandler;
 import io.jooby.internal.handler.ServerSentEventHandler;
 import io.jooby.internal.handler.WebSocketHandler;
 
@@ -188,6 +190,8 @@ public class RouterImpl implements Router {
 
   private ContextInitializer postDispatchInitializer;
 
+  private RequestTiming.Listener timingListener;
+
   private Set<RouterOption> routerOptions = EnumSet.of(RouterOption.RESET_HEADERS_ON_ERROR);
 
   private boolean trustProxy;
@@ -531,6 +535,7 @@ public class RouterImpl implements Router {
 
     ClassSource source = new ClassSource(classLoader);
     RouteAnalyzer analyzer = new RouteAnalyzer(source, false);
+    Pipeline pipelines = new Pipeline(source.getLoader());
 
     ExecutionMode mode = app.getExecutionMode();
     for (Route route : routes) {
@@ -571,13 +576,18 @@ public class RouterImpl implements Router {
             prependMediaType(route.getConsumes(), route.getBefore(), Route.SUPPORT_MEDIA_TYPE));
         route.setBefore(prependMediaType(route.getProduces(), route.getBefore(), Route.ACCEPT));
       }
+      /** Request timing: */
+      boolean timing = timingListener != null && !route.getMethod().equals(WS)
+          && !route.getMethod().equals(SSE);
+      if (timing) {
+        route.setPipeline(new RequestTimingHandler(route.getPipeline(), timingListener));
+      }
       /** Response handler: */
-      Route.Handler pipeline = Pipeline
-          .compute(source.getLoader(), route, forceMode(route, mode), executor,
-              postDispatchInitializer, handlers);
+      Route.Handler pipeline = pipelines
+          .compute(route, forceMode(route, mode), executor, postDispatchInitializer, handlers);
       route.setPipeline(pipeline);
       /** Final render */
-      route.setEncoder(encoder);
+      route.setEncoder(timing ? new RequestTimingEncoder(encoder) : encoder);
     }
     ((Chi) chi).setEncoder(encoder);
 
@@ -647,6 +657,37 @@ public class RouterImpl implements Router {
   }
 
   @Nonnull @Override public Match match(@Nonnull Context ctx) {
+    if (timingListener != null) {
+      return timedMatch(ctx, timingListener);
+    }
+    return find(ctx);
+  }
+
+  private Match timedMatch(Context ctx, RequestTiming.Listener listener) {
+    if (RequestTiming.get(ctx) != null) {
+      // match again (forward, cors, etc.): same request, timing already started
+      return find(ctx);
+    }
+    long now = System.nanoTime();
+    long received = ctx.getRequestStartNanoTime();
+    RequestTiming timing;
+    if (received == -1) {
+      // No server timestamp: skip parse phase
+      timing = new RequestTiming(now);
+    } else {
+      timing = new RequestTiming(received).mark(RequestTiming.Phase.PARSE, now);
+    }
+    ctx.attribute(RequestTiming.class.getName(), timing);
+    Match match = find(ctx);
+    timing.mark(RequestTiming.Phase.MATCH);
+    ctx.onComplete(context -> {
+      timing.mark(RequestTiming.Phase.WRITE);
+      listener.onComplete(context, timing);
+    });
+    return match;
+  }
+
+  private Match find(Context ctx) {
     if (preDispatchInitializer != null) {
       preDispatchInitializer.apply(ctx);
     }
@@ -706,6 +747,12 @@ public class RouterImpl implements Router {
     return this;
   }
 
+  @Nonnull @Override public Router requestTiming(@Nonnull RequestTiming.Listener listener) {
+    requireNonNull(listener, "Listener required.");
+    this.timingListener = timingListener == null ? listener : timingListener.then(listener);
+    return this;
+  }
+
   @Nonnull @Override public ServiceRegistry getServices() {
     return services;
   }
@@ -12,23 +12,69 @@ import io.jooby.SessionToken;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 public class SignedSessionStore implements SessionStore {
 
+  /** Decoded attributes of a token with a valid signature. */
+  private static class Verified {
+    private final Map<String, String> attributes;
+
+    private final long expiresAt;
+
+    Verified(Map<String, String> attributes, long expiresAt) {
+      this.attributes = attributes;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /** JSON Web Token expiration time claim, in seconds. */
+  private static final String EXP = "exp";
+
+  /** JSON Web Token not before claim, in seconds. */
+  private static final String NBF = "nbf";
+
+  /** Max time a verified token is cached, tokens without expiration are verified again after it. */
+  private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(DEFAULT_TIMEOUT);
+
+  private static final int CACHE_SIZE = 4096;
+
+  private static final long CACHE_EXPIRE_AFTER_ACCESS = TimeUnit.MINUTES.toMillis(1);
+
   private final Function<String, Map<String, String>> decoder;
 
   private final Function<Map<String, String>, String> encoder;
 
   private final SessionToken token;
 
+  private final LongSupplier clock;
+
+  private final long timeout;
+
+  /**
+   * Recently verified tokens. Only tokens with a valid signature (produced by us) are cached, so
+   * the cache can't be filled with random tokens.
+   */
+  private final BoundedExpiringMap<String, Verified> verified;
+
   public SignedSessionStore(SessionToken token, Function<String, Map<String, String>> decoder,
       Function<Map<String, String>, String> encoder) {
+    this(token, decoder, encoder, System::currentTimeMillis, TIMEOUT);
+  }
+
+  SignedSessionStore(SessionToken token, Function<String, Map<String, String>> decoder,
+      Function<Map<String, String>, String> encoder, LongSupplier clock, long timeout) {
     this.decoder = decoder;
     this.encoder = encoder;
     this.token = token;
+    this.clock = clock;
+    this.timeout = timeout;
+    this.verified = new BoundedExpiringMap<>(CACHE_SIZE, CACHE_EXPIRE_AFTER_ACCESS, clock);
   }
 
   @Nonnull @Override public Session newSession(@Nonnull Context ctx) {
@@ -40,7 +86,7 @@ public class SignedSessionStore implements SessionStore {
     if (signed == null) {
       return null;
     }
-    Map<String, String> attributes = decoder.apply(signed);
+    Map<String, String> attributes = decode(signed);
     if (attributes == null || attributes.size() == 0) {
       return null;
     }
@@ -62,4 +108,37 @@ public class SignedSessionStore implements SessionStore {
   @Override public void renewSessionId(@Nonnull Context ctx, @Nonnull Session session) {
     token.saveToken(ctx, encoder.apply(session.toMap()));
   }
+
+  private Map<String, String> decode(String signed) {
+    Verified entry = verified.get(signed);
+    if (entry != null) {
+      if (clock.getAsLong() < entry.expiresAt) {
+        return entry.attributes;
+      }
+      verified.remove(signed);
+    }
+    Map<String, String> attributes = decoder.apply(signed);
+    if (attributes != null && attributes.size() > 0) {
+      long now = clock.getAsLong();
+      long notBefore = millis(attributes.get(NBF), Long.MIN_VALUE);
+      long expiresAt = Math.min(millis(attributes.get(EXP), Long.MAX_VALUE), now + timeout);
+      // a token not valid yet is verified again on next request
+      if (now >= notBefore && now < expiresAt) {
+        Map<String, String> copy = Collections.unmodifiableMap(new HashMap<>(attributes));
+        verified.put(signed, new Verified(copy, expiresAt));
+      }
+    }
+    return attributes;
+  }
+
+  private static long millis(String seconds, long defaultValue) {
+    if (seconds != null) {
+      try {
+        return TimeUnit.SECONDS.toMillis(Long.parseLong(seconds));
+      } catch (NumberFormatException x) {
+        // not a JSON Web Token numeric date
+      }
+    }
+    return defaultValue;
+  }
 }
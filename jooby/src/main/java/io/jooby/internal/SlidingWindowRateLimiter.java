@@ -0,0 +1,93 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import io.jooby.RateLimiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+  private static final int MAX_COUNT_BITS = 24;
+
+  private final long limit;
+
+  private final long window;
+
+  private final LongSupplier clock;
+
+  private final long origin;
+
+  private final int countBits;
+
+  private final long countMask;
+
+  private final long windowMask;
+
+  /** Packed state: window index, previous window count and current window count. */
+  private final AtomicLong state = new AtomicLong();
+
+  public SlidingWindowRateLimiter(long limit, long window, LongSupplier clock) {
+    if (limit <= 0 || limit >= (1L << MAX_COUNT_BITS)) {
+      throw new IllegalArgumentException(
+          "Limit must be between 1 and " + ((1L << MAX_COUNT_BITS) - 1) + ": " + limit);
+    }
+    if (window <= 0) {
+      throw new IllegalArgumentException("Window must be greater than zero: " + window);
+    }
+    this.limit = limit;
+    this.window = window;
+    this.clock = clock;
+    this.origin = clock.getAsLong();
+    this.countBits = Long.SIZE - Long.numberOfLeadingZeros(limit);
+    this.countMask = (1L << countBits) - 1;
+    this.windowMask = -1L >>> (countBits * 2);
+  }
+
+  @Override public long tryConsume() {
+    while (true) {
+      long now = clock.getAsLong() - origin;
+      long index = (now / window) & windowMask;
+      long elapsed = now % window;
+
+      long current = state.get();
+      long currentIndex = current >>> (countBits * 2);
+      long previousCount;
+      long count;
+      if (currentIndex == index) {
+        previousCount = (current >>> countBits) & countMask;
+        count = current & countMask;
+      } else if (currentIndex == ((index - 1) & windowMask)) {
+        previousCount = current & countMask;
+        count = 0;
+      } else {
+        previousCount = 0;
+        count = 0;
+      }
+
+      double weight = (double) (window - elapsed) / window;
+      double estimate = previousCount * weight + count + 1;
+      if (estimate > limit) {
+        return -Math.max(1, nanosToWait(previousCount, count, elapsed));
+      }
+      long next = (index << (countBits * 2)) | (previousCount << countBits) | (count + 1);
+      if (state.compareAndSet(current, next)) {
+        return Math.max(0, (long) (limit - estimate));
+      }
+    }
+  }
+
+  private long nanosToWait(long previousCount, long count, long elapsed) {
+    if (count + 1 > limit) {
+      // current window is full, wait until the current count decays enough in the next window
+      return (window - elapsed) + (long) Math.ceil(window * (1 - (double) (limit - 1) / count));
+    }
+    // previous window count must decay enough
+    long at = (long) Math.ceil(window * (1 - (double) (limit - count - 1) / previousCount));
+    return at - elapsed;
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import io.jooby.Context;
+import io.jooby.ModelAndView;
+
+/**
+ * Read only view of context attributes plus model of a {@link ModelAndView}, model entries win
+ * over attributes. Lookups go to the source maps, entries are merged only when iterated.
+ */
+public class TemplateModel extends AbstractMap<String, Object> {
+
+  private final Map<String, Object> attributes;
+
+  private final Map<String, Object> model;
+
+  private Map<String, Object> entries;
+
+  private TemplateModel(Map<String, Object> attributes, Map<String, Object> model) {
+    this.attributes = attributes;
+    this.model = model;
+  }
+
+  /**
+   * Template model for the given context and model and view.
+   *
+   * @param ctx Web context.
+   * @param modelAndView Model and view.
+   * @return Template model.
+   */
+  public static Map<String, Object> create(Context ctx, ModelAndView modelAndView) {
+    Map<String, Object> attributes = ctx.getAttributes();
+    Map<String, Object> model = modelAndView.getModel();
+    if (attributes.isEmpty()) {
+      return model;
+    }
+    if (model.isEmpty()) {
+      return attributes;
+    }
+    return new TemplateModel(attributes, model);
+  }
+
+  @Override public Object get(Object key) {
+    Object value = model.get(key);
+    if (value == null && !model.containsKey(key)) {
+      return attributes.get(key);
+    }
+    return value;
+  }
+
+  @Override public boolean containsKey(Object key) {
+    return model.containsKey(key) || attributes.containsKey(key);
+  }
+
+  @Override public Set<Entry<String, Object>> entrySet() {
+    if (entries == null) {
+      entries = new LinkedHashMap<>(attributes);
+      entries.putAll(model);
+    }
+    return entries.entrySet();
+  }
+}
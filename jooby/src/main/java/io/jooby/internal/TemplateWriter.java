@@ -0,0 +1,229 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import com.typesafe.config.Config;
+import io.jooby.Context;
+import io.jooby.ServerOptions;
+
+/**
+ * UTF-8 writer for template engines. Characters are encoded straight into a byte buffer, reused
+ * across renders of the same thread. Output is written to the response while rendering:
+ *
+ * - Output smaller than buffer: {@link #toByteArray()} returns it, so it is sent with a
+ *   <code>Content-Length</code> header and template errors still produce an error page.
+ * - Output bigger than buffer: response is started as a chunked response and the buffer is
+ *   written to the response stream every time it fills up.
+ *
+ * Buffer size is set by <code>server.bufferSize</code>.
+ */
+public class TemplateWriter extends Writer {
+
+  private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<>();
+
+  private static final byte REPLACEMENT = '?';
+
+  private final Context ctx;
+
+  private byte[] buffer;
+
+  private int count;
+
+  /** Bytes written to the response. */
+  private long written;
+
+  /** Pending high surrogate or <code>0</code>. */
+  private char surrogate;
+
+  private OutputStream out;
+
+  public TemplateWriter(Context ctx) {
+    this.ctx = ctx;
+    Config conf = ctx.getRouter().getConfig();
+    int bufferSize = conf.hasPath("server.bufferSize")
+        ? conf.getInt("server.bufferSize")
+        : ServerOptions._16KB;
+    byte[] buffer = BUFFER.get();
+    if (buffer == null || buffer.length != bufferSize) {
+      buffer = new byte[bufferSize];
+    } else {
+      // nested render gets its own buffer
+      BUFFER.remove();
+    }
+    this.buffer = buffer;
+  }
+
+  @Override public void write(int c) throws IOException {
+    encode((char) c);
+  }
+
+  @Override public void write(char[] cbuf, int off, int len) throws IOException {
+    int end = off + len;
+    for (int i = off; i < end; i++) {
+      char c = cbuf[i];
+      if (c < 0x80 && count < buffer.length && surrogate == 0) {
+        buffer[count++] = (byte) c;
+      } else {
+        encode(c);
+      }
+    }
+  }
+
+  @Override public void write(String str, int off, int len) throws IOException {
+    int end = off + len;
+    for (int i = off; i < end; i++) {
+      char c = str.charAt(i);
+      if (c < 0x80 && count < buffer.length && surrogate == 0) {
+        buffer[count++] = (byte) c;
+      } else {
+        encode(c);
+      }
+    }
+  }
+
+  /**
+   * Write already encoded output.
+   *
+   * @param bytes UTF-8 bytes.
+   * @param off Offset.
+   * @param len Length.
+   * @throws IOException If something goes wrong.
+   */
+  public void writeBytes(byte[] bytes, int off, int len) throws IOException {
+    if (surrogate != 0) {
+      surrogate = 0;
+      put(REPLACEMENT);
+    }
+    int end = off + len;
+    while (off < end) {
+      if (count == buffer.length) {
+        drain();
+      }
+      int n = Math.min(end - off, buffer.length - count);
+      System.arraycopy(bytes, off, buffer, count, n);
+      count += n;
+      off += n;
+    }
+  }
+
+  /**
+   * Number of bytes written so far.
+   *
+   * @return Number of bytes written so far.
+   */
+  public long getByteLength() {
+    return written + count;
+  }
+
+  /**
+   * Template engines flush at the end of rendering, output is written when buffer is full or on
+   * {@link #toByteArray()}.
+   */
+  @Override public void flush() {
+  }
+
+  /**
+   * Complete rendering. Must be called once the template was rendered.
+   *
+   * @return Rendered output or <code>null</code> when output was already written to the response.
+   * @throws IOException If something goes wrong.
+   */
+  public @Nullable byte[] toByteArray() throws IOException {
+    if (surrogate != 0) {
+      surrogate = 0;
+      put(REPLACEMENT);
+    }
+    try {
+      if (out == null) {
+        return Arrays.copyOf(buffer, count);
+      }
+      out.write(buffer, 0, count);
+      out.close();
+      out = null;
+      return null;
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Release the buffer. When called before {@link #toByteArray()} (template error) and the
+   * response was started, the response is closed.
+   *
+   * @throws IOException If something goes wrong.
+   */
+  @Override public void close() throws IOException {
+    try {
+      if (out != null) {
+        out.close();
+        out = null;
+      }
+    } finally {
+      release();
+    }
+  }
+
+  private void release() {
+    if (buffer != null) {
+      BUFFER.set(buffer);
+      buffer = null;
+      count = 0;
+    }
+  }
+
+  private void encode(char c) throws IOException {
+    if (surrogate != 0) {
+      char high = surrogate;
+      surrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        int cp = Character.toCodePoint(high, c);
+        put((byte) (0xF0 | (cp >> 18)));
+        put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+        put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+        put((byte) (0x80 | (cp & 0x3F)));
+        return;
+      }
+      put(REPLACEMENT);
+    }
+    if (c < 0x80) {
+      put((byte) c);
+    } else if (c < 0x800) {
+      put((byte) (0xC0 | (c >> 6)));
+      put((byte) (0x80 | (c & 0x3F)));
+    } else if (Character.isHighSurrogate(c)) {
+      surrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      put(REPLACEMENT);
+    } else {
+      put((byte) (0xE0 | (c >> 12)));
+      put((byte) (0x80 | ((c >> 6) & 0x3F)));
+      put((byte) (0x80 | (c & 0x3F)));
+    }
+  }
+
+  private void put(byte b) throws IOException {
+    if (count == buffer.length) {
+      drain();
+    }
+    buffer[count++] = b;
+  }
+
+  private void drain() throws IOException {
+    if (out == null) {
+      out = ctx.responseStream();
+    }
+    out.write(buffer, 0, count);
+    written += count;
+    count = 0;
+  }
+}
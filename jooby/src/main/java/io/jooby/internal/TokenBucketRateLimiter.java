@@ -0,0 +1,51 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import io.jooby.RateLimiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class TokenBucketRateLimiter implements RateLimiter {
+
+  private final long period;
+
+  private final long interval;
+
+  private final LongSupplier clock;
+
+  /** Theoretical arrival time of the next request. */
+  private final AtomicLong tat;
+
+  public TokenBucketRateLimiter(long capacity, long period, LongSupplier clock) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be greater than zero: " + capacity);
+    }
+    if (period <= 0) {
+      throw new IllegalArgumentException("Period must be greater than zero: " + period);
+    }
+    this.period = period;
+    this.interval = Math.max(1, period / capacity);
+    this.clock = clock;
+    this.tat = new AtomicLong(clock.getAsLong());
+  }
+
+  @Override public long tryConsume() {
+    while (true) {
+      long now = clock.getAsLong();
+      long current = tat.get();
+      long next = (current - now < 0 ? now : current) + interval;
+      long debt = next - now;
+      if (debt > period) {
+        return -Math.max(1, debt - period);
+      }
+      if (tat.compareAndSet(current, next)) {
+        return (period - debt) / interval;
+      }
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import com.typesafe.config.Config;
+import io.jooby.WebSocket;
+
+/**
+ * Outbound accounting of a web socket connection. Keeps track of bytes handed to the server and
+ * not yet written to the network (in flight). Once in flight bytes go over the limit, messages are
+ * queued, discarded or the connection is closed, depending on the {@link WebSocket.OverflowPolicy}.
+ *
+ * Servers must call {@link #complete(int)} once a write completes (successfully or not).
+ *
+ * Server writes happen outside the lock. A single thread at a time (the drainer) writes messages,
+ * messages sent meanwhile are queued and written by it, in order.
+ *
+ * @param <T> Server message type.
+ */
+public class WebSocketOutbound<T> {
+
+  /**
+   * Server write operation.
+   *
+   * @param <T> Server message type.
+   */
+  public interface Writer<T> {
+    /**
+     * Write a message and call {@link #complete(int)} once written.
+     *
+     * @param message Message.
+     * @param size Message size in bytes.
+     */
+    void write(@Nonnull T message, int size);
+  }
+
+  private static class Entry<T> {
+    private final T message;
+
+    private final int size;
+
+    Entry(T message, int size) {
+      this.message = message;
+      this.size = size;
+    }
+  }
+
+  private final Writer<T> writer;
+
+  private final Consumer<T> discard;
+
+  private final Runnable overflow;
+
+  private final ArrayDeque<Entry<T>> pending = new ArrayDeque<>();
+
+  private long maxSize = Long.MAX_VALUE;
+
+  private WebSocket.OverflowPolicy policy = WebSocket.OverflowPolicy.DISCONNECT;
+
+  private long inflight;
+
+  private long pendingBytes;
+
+  private long dropped;
+
+  /** True while a thread is writing messages. */
+  private boolean draining;
+
+  private boolean closed;
+
+  /**
+   * Creates a new outbound.
+   *
+   * @param conf Application configuration, look for <code>websocket.maxOutboundSize</code> and
+   *     <code>websocket.overflowPolicy</code>.
+   * @param writer Server writer.
+   * @param discard Release discarded messages (if need it).
+   * @param overflow Close the connection, for {@link WebSocket.OverflowPolicy#DISCONNECT}.
+   */
+  public WebSocketOutbound(@Nonnull Config conf, @Nonnull Writer<T> writer,
+      @Nonnull Consumer<T> discard, @Nonnull Runnable overflow) {
+    this.writer = writer;
+    this.discard = discard;
+    this.overflow = overflow;
+    if (conf.hasPath("websocket.maxOutboundSize")) {
+      WebSocket.OverflowPolicy policy = conf.hasPath("websocket.overflowPolicy")
+          ? WebSocket.OverflowPolicy
+          .valueOf(conf.getString("websocket.overflowPolicy").trim().toUpperCase())
+          : this.policy;
+      setLimit(conf.getBytes("websocket.maxOutboundSize"), policy);
+    }
+  }
+
+  /**
+   * Set outbound limit and policy.
+   *
+   * @param maxSize Max number of bytes in flight.
+   * @param policy Overflow policy.
+   */
+  public synchronized void setLimit(long maxSize, @Nonnull WebSocket.OverflowPolicy policy) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Max outbound size must be greater than zero: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.policy = policy;
+  }
+
+  /**
+   * Write a message or apply the overflow policy when the limit has been reached.
+   *
+   * @param message Message.
+   * @param size Message size in bytes.
+   */
+  public void send(@Nonnull T message, int size) {
+    boolean write = false;
+    boolean disconnect = false;
+    synchronized (this) {
+      if (closed) {
+        discard.accept(message);
+        return;
+      }
+      if (draining && fits(pendingBytes + size)) {
+        // under the limit, written by the drainer once it is done with queued messages
+        enqueue(message, size);
+        return;
+      }
+      if (!draining && pending.isEmpty() && fits(size)) {
+        inflight += size;
+        draining = true;
+        write = true;
+      } else {
+        disconnect = applyPolicy(message, size);
+      }
+    }
+    if (write) {
+      drain(message, size);
+    } else if (disconnect) {
+      overflow.run();
+    }
+  }
+
+  /**
+   * Apply the overflow policy. Caller must own the lock.
+   *
+   * @param message Message.
+   * @param size Message size in bytes.
+   * @return True when the connection must be closed.
+   */
+  private boolean applyPolicy(T message, int size) {
+    boolean disconnect = false;
+    switch (policy) {
+      case DROP_NEWEST:
+        drop(message);
+        break;
+      case DROP_OLDEST:
+        enqueue(message, size);
+        while (pendingBytes > maxSize && pending.size() > 1) {
+          Entry<T> oldest = pending.poll();
+          pendingBytes -= oldest.size;
+          drop(oldest.message);
+        }
+        break;
+      case LATEST_ONLY:
+        discardPending();
+        enqueue(message, size);
+        break;
+      default:
+        drop(message);
+        disconnect = true;
+        break;
+    }
+    return disconnect;
+  }
+
+  /**
+   * Notify that a message has been written (or failed) and write queued messages.
+   *
+   * @param size Message size in bytes.
+   */
+  public void complete(int size) {
+    Entry<T> entry;
+    synchronized (this) {
+      inflight -= size;
+      // writes might complete on the calling thread, the drainer keeps writing
+      if (draining || closed) {
+        return;
+      }
+      entry = next();
+      if (entry == null) {
+        return;
+      }
+      draining = true;
+    }
+    drain(entry.message, entry.size);
+  }
+
+  /**
+   * Write a message, already counted as in flight, and queued messages that fit. Runs without
+   * holding the lock.
+   *
+   * @param message Message.
+   * @param size Message size in bytes.
+   */
+  private void drain(T message, int size) {
+    while (true) {
+      try {
+        writer.write(message, size);
+      } catch (Throwable x) {
+        synchronized (this) {
+          inflight -= size;
+          draining = false;
+        }
+        throw x;
+      }
+      synchronized (this) {
+        Entry<T> entry = closed ? null : next();
+        if (entry == null) {
+          draining = false;
+          return;
+        }
+        message = entry.message;
+        size = entry.size;
+      }
+    }
+  }
+
+  /**
+   * Take next queued message if it fits and count it as in flight. Caller must own the lock.
+   *
+   * @return Next message or <code>null</code>.
+   */
+  private Entry<T> next() {
+    Entry<T> entry = pending.peek();
+    if (entry == null || !fits(entry.size)) {
+      return null;
+    }
+    pending.poll();
+    pendingBytes -= entry.size;
+    inflight += entry.size;
+    return entry;
+  }
+
+  /**
+   * Discard queued messages. Messages sent after close are discarded too.
+   */
+  public synchronized void close() {
+    closed = true;
+    while (!pending.isEmpty()) {
+      discard.accept(pending.poll().message);
+    }
+    pendingBytes = 0;
+  }
+
+  /**
+   * Bytes in flight plus queued bytes.
+   *
+   * @return Bytes in flight plus queued bytes.
+   */
+  public synchronized long getQueuedBytes() {
+    return inflight + pendingBytes;
+  }
+
+  /**
+   * Number of discarded messages.
+   *
+   * @return Number of discarded messages.
+   */
+  public synchronized long getDroppedMessages() {
+    return dropped;
+  }
+
+  private boolean fits(long size) {
+    // a message bigger than the limit is written once nothing else is in flight
+    return inflight == 0 || inflight + size <= maxSize;
+  }
+
+  private void enqueue(T message, int size) {
+    pending.offer(new Entry<>(message, size));
+    pendingBytes += size;
+  }
+
+  private void discardPending() {
+    while (!pending.isEmpty()) {
+      drop(pending.poll().message);
+    }
+    pendingBytes = 0;
+  }
+
+  private void drop(T message) {
+    dropped += 1;
+    discard.accept(message);
+  }
+}
@@ -23,18 +23,21 @@ public class WebSocketSender extends ForwardingContext implements DefaultContext
 
   private final WebSocket ws;
 
-  public WebSocketSender(@Nonnull Context context, @Nonnull WebSocket ws) {
+  private final boolean broadcast;
+
+  public WebSocketSender(@Nonnull Context context, @Nonnull WebSocket ws, boolean broadcast) {
     super(context);
     this.ws = ws;
+    this.broadcast = broadcast;
   }
 
   @Nonnull @Override public Context send(@Nonnull String data, @Nonnull Charset charset) {
-    ws.send(data);
+    ws.send(data, broadcast);
     return this;
   }
 
   @Nonnull @Override public Context send(@Nonnull byte[] data) {
-    ws.send(data);
+    ws.send(data, broadcast);
     return this;
   }
 
@@ -0,0 +1,141 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.converter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import io.jooby.BeanConverter;
+import io.jooby.Router;
+import io.jooby.ValueNode;
+import io.jooby.exception.BadRequestException;
+import io.jooby.exception.ProvisioningException;
+
+/**
+ * Base class for bean converters generated by <code>jooby-apt</code>. Generated converters create
+ * the bean and set properties with direct constructor/setter calls, no reflection is involved.
+ *
+ * Works like {@link ReflectiveBeanConverter}: constructor arguments are looked up by name, the
+ * remaining values are set using setters and values without a setter are ignored.
+ *
+ * @param <T> Bean type.
+ */
+public abstract class GeneratedBeanConverter<T> implements BeanConverter {
+
+  private static final Object[] NO_ARGS = new Object[0];
+
+  private final Class<T> type;
+
+  private final String[] names;
+
+  private final String[] descriptions;
+
+  private final int arguments;
+
+  private final Map<String, Integer> properties;
+
+  /**
+   * Creates a bean converter.
+   *
+   * @param type Bean type.
+   * @param arguments Number of constructor arguments.
+   * @param names Names of constructor arguments followed by property names. Index matches the one
+   *     passed to {@link #convertValue(ValueNode, int)} and {@link #set(Object, int, Object)}.
+   * @param descriptions Error message prefix of each argument and property.
+   */
+  protected GeneratedBeanConverter(@Nonnull Class<T> type, int arguments,
+      @Nonnull String[] names, @Nonnull String[] descriptions) {
+    this.type = type;
+    this.arguments = arguments;
+    this.names = names;
+    this.descriptions = descriptions;
+    this.properties = new HashMap<>(names.length * 2);
+    for (int i = arguments; i < names.length; i++) {
+      this.properties.put(names[i], i);
+    }
+    // Constructor arguments are never set twice
+    for (int i = 0; i < arguments; i++) {
+      this.properties.remove(names[i]);
+    }
+  }
+
+  /**
+   * Register this converter, unless it was registered already.
+   *
+   * @param router Router.
+   */
+  public void install(@Nonnull Router router) {
+    if (!router.getBeanConverters().contains(this)) {
+      router.converter(this);
+    }
+  }
+
+  @Override public boolean supports(@Nonnull Class type) {
+    return this.type == type;
+  }
+
+  @Override public Object convert(@Nonnull ValueNode node, @Nonnull Class type) {
+    Object[] args = NO_ARGS;
+    if (arguments > 0) {
+      args = new Object[arguments];
+      for (int i = 0; i < arguments; i++) {
+        args[i] = value(node.get(names[i]), i);
+      }
+    }
+    T bean = newInstance(args);
+    for (ValueNode value : node) {
+      Integer index = properties.get(value.name());
+      if (index != null) {
+        int i = index.intValue();
+        try {
+          set(bean, i, value(value, i));
+        } catch (ProvisioningException x) {
+          throw x;
+        } catch (Exception x) {
+          throw new ProvisioningException(descriptions[i], x);
+        }
+      }
+    }
+    return bean;
+  }
+
+  /** Missing or invalid values are reported as {@link ProvisioningException}. */
+  private Object value(ValueNode value, int index) {
+    try {
+      return convertValue(value, index);
+    } catch (BadRequestException x) {
+      throw new ProvisioningException(descriptions[index], x);
+    }
+  }
+
+  /**
+   * Creates a new bean.
+   *
+   * @param args Constructor arguments.
+   * @return New bean.
+   */
+  protected abstract @Nonnull T newInstance(@Nonnull Object[] args);
+
+  /**
+   * Convert the value of a constructor argument or property.
+   *
+   * @param value Value.
+   * @param index Argument or property index.
+   * @return Converted value.
+   */
+  protected abstract Object convertValue(@Nonnull ValueNode value, int index);
+
+  /**
+   * Set a property.
+   *
+   * @param bean Bean.
+   * @param index Property index.
+   * @param value Converted value.
+   */
+  protected abstract void set(@Nonnull T bean, int index, Object value);
+}
@@ -0,0 +1,41 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.handler;
+
+import io.jooby.Context;
+import io.jooby.RequestTiming;
+import io.jooby.Route;
+
+import javax.annotation.Nonnull;
+
+public class RequestTimingHandler implements LinkedHandler {
+  private final Route.Handler next;
+
+  private final RequestTiming.Listener listener;
+
+  public RequestTimingHandler(Route.Handler next, RequestTiming.Listener listener) {
+    this.next = next;
+    this.listener = listener;
+  }
+
+  @Nonnull @Override public Object apply(@Nonnull Context ctx) throws Exception {
+    RequestTiming timing = RequestTiming.get(ctx);
+    if (timing == null) {
+      return next.apply(ctx);
+    }
+    timing.mark(RequestTiming.Phase.DISPATCH);
+    Object result = next.apply(ctx);
+    timing.mark(RequestTiming.Phase.HANDLER);
+    if (!ctx.isResponseStarted()) {
+      listener.onResponse(ctx, timing);
+    }
+    return result;
+  }
+
+  @Override public Route.Handler next() {
+    return next;
+  }
+}
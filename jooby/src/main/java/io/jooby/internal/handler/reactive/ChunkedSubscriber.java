@@ -5,6 +5,12 @@
  */
 package io.jooby.internal.handler.reactive;
 
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.typesafe.config.Config;
 import io.jooby.Context;
 import io.jooby.MediaType;
 import io.jooby.MessageEncoder;
@@ -13,24 +19,94 @@ import io.jooby.Sender;
 import io.jooby.Server;
 import org.slf4j.Logger;
 
+/**
+ * Write items of a reactive stream as a chunked response. Items are requested in batches of
+ * <code>stream.prefetch</code> and encoded items are aggregated into a single write. A write
+ * happens when:
+ *
+ * - all the requested items were received
+ * - aggregated items are bigger than <code>stream.bufferSize</code>
+ * - <code>stream.flushInterval</code> elapsed since the first aggregated item
+ * - the stream completes
+ *
+ * There is at most one write in progress, items received meanwhile are written once it completes.
+ * The buffer in use is handed to the sender as it is and a spare one takes its place, the written
+ * buffer becomes the spare once the write completes.
+ */
 public class ChunkedSubscriber {
 
+  /** Flush timer, shared by all the streaming responses. */
+  private static class Timer {
+    private static final ScheduledExecutorService INSTANCE = Executors
+        .newSingleThreadScheduledExecutor(task -> {
+          Thread thread = new Thread(task, "stream-flush");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private enum Format {
+    RAW,
+
+    /** Items as json array. */
+    JSON,
+
+    /** New line delimited json. */
+    NDJSON
+  }
+
   private static final byte JSON_LBRACKET = '[';
   private static final byte JSON_SEP = ',';
-  private static final byte[] JSON_RBRACKET = {']'};
+  private static final byte JSON_RBRACKET = ']';
+  private static final byte NDJSON_SEP = '\n';
+
+  private static final int PREFETCH = 32;
+  private static final int BUFFER_SIZE = 16384;
+  private static final long FLUSH_INTERVAL = 10;
+
   private ChunkedSubscription subscription;
   private final Context ctx;
   private final Sender sender;
-  private MediaType responseType;
+  private final int prefetch;
+  private final int bufferSize;
+  private final long flushInterval;
+
+  /** Guarded by this. Set on first item. */
+  private Format format;
+  private byte[] buffer;
+  private int size;
+  /** Buffer of the write in progress. */
+  private byte[] inflight;
+  /** Buffer to use on next drain. */
+  private byte[] spare;
+  private int items;
+  private long demand;
+  private long written;
+  private boolean writing;
+  private boolean scheduled;
+  private boolean completed;
+  private boolean errored;
 
   public ChunkedSubscriber(Context ctx) {
     this.ctx = ctx;
     this.sender = ctx.responseSender();
+    Config conf = ctx.getRouter().getConfig();
+    this.prefetch = conf.hasPath("stream.prefetch") ? conf.getInt("stream.prefetch") : PREFETCH;
+    this.bufferSize = conf.hasPath("stream.bufferSize")
+        ? conf.getBytes("stream.bufferSize").intValue()
+        : BUFFER_SIZE;
+    this.flushInterval = conf.hasPath("stream.flushInterval")
+        ? conf.getDuration("stream.flushInterval", TimeUnit.MILLISECONDS)
+        : FLUSH_INTERVAL;
+    this.buffer = new byte[Math.min(bufferSize, 1024)];
   }
 
   public void onSubscribe(ChunkedSubscription subscription) {
     this.subscription = subscription;
-    this.subscription.request(1);
+    synchronized (this) {
+      this.demand = prefetch;
+    }
+    this.subscription.request(prefetch);
   }
 
   public void onNext(Object item) {
@@ -39,24 +115,42 @@ public class ChunkedSubscriber {
       MessageEncoder encoder = route.getEncoder();
       byte[] data = encoder.encode(ctx, item);
 
-      if (responseType == null) {
-        responseType = ctx.getResponseType();
-        if (responseType.isJson()) {
-          data = prepend(data, JSON_LBRACKET);
+      byte[] batch;
+      int len;
+      synchronized (this) {
+        if (errored) {
+          return;
         }
-      } else {
-        if (responseType.isJson()) {
-          data = prepend(data, JSON_SEP);
+        if (format == null) {
+          format = format(ctx.getResponseType());
+          if (format == Format.JSON) {
+            append(JSON_LBRACKET);
+          }
+        } else if (format == Format.JSON) {
+          append(JSON_SEP);
         }
-      }
-
-      sender.write(data, (context, x) -> {
-        if (x == null) {
-          subscription.request(1);
-        } else {
-          onError(x, true);
+        append(data, data.length);
+        if (format == Format.NDJSON) {
+          append(NDJSON_SEP);
         }
-      });
+        items += 1;
+        demand -= 1;
+        if (writing) {
+          // written once current write completes
+          return;
+        }
+        if (size < bufferSize && demand > 0 && flushInterval > 0) {
+          // more items on the way, wait for them
+          if (!scheduled) {
+            scheduled = true;
+            Timer.INSTANCE.schedule(this::flush, flushInterval, TimeUnit.MILLISECONDS);
+          }
+          return;
+        }
+        len = drain();
+        batch = inflight;
+      }
+      write(batch, len);
     } catch (Exception x) {
       onError(x, true);
     }
@@ -68,7 +162,9 @@ public class ChunkedSubscriber {
 
   private void onError(Throwable x, boolean cancel) {
     // we use it to mark the response as errored so we don't sent a possible trailing json response.
-    responseType = null;
+    synchronized (this) {
+      errored = true;
+    }
     try {
       Logger log = ctx.getRouter().getLog();
       if (Server.connectionLost(x)) {
@@ -84,9 +180,84 @@ public class ChunkedSubscriber {
   }
 
   public void onComplete() {
-    if (responseType != null && responseType.isJson()) {
-      responseType = null;
-      sender.write(JSON_RBRACKET, (ctx, x) -> {
+    byte[] batch;
+    int len;
+    synchronized (this) {
+      completed = true;
+      if (writing) {
+        // finish once current write completes
+        return;
+      }
+      len = finish();
+      batch = inflight;
+    }
+    close(batch, len);
+  }
+
+  private void flush() {
+    byte[] batch;
+    int len;
+    synchronized (this) {
+      scheduled = false;
+      if (writing || items == 0 || completed || errored) {
+        return;
+      }
+      len = drain();
+      batch = inflight;
+    }
+    write(batch, len);
+  }
+
+  private void write(byte[] batch, int len) {
+    sender.write(batch, 0, len, (context, x) -> {
+      if (x == null) {
+        onWrite();
+      } else {
+        onError(x, true);
+      }
+    });
+  }
+
+  private void onWrite() {
+    byte[] batch = null;
+    int len = 0;
+    long n;
+    boolean close = false;
+    synchronized (this) {
+      writing = false;
+      // sender is done with it
+      spare = inflight;
+      inflight = null;
+      n = written;
+      written = 0;
+      if (errored) {
+        return;
+      }
+      if (completed) {
+        len = finish();
+        batch = inflight;
+        close = true;
+      } else {
+        demand += n;
+        if (items > 0) {
+          len = drain();
+          batch = inflight;
+        }
+      }
+    }
+    if (close) {
+      close(batch, len);
+    } else {
+      if (batch != null) {
+        write(batch, len);
+      }
+      subscription.request(n);
+    }
+  }
+
+  private void close(byte[] batch, int len) {
+    if (len > 0) {
+      sender.write(batch, 0, len, (ctx, x) -> {
         if (x != null) {
           onError(x);
         }
@@ -95,10 +266,63 @@ public class ChunkedSubscriber {
     sender.close();
   }
 
-  private static byte[] prepend(byte[] data, byte c) {
-    byte[] tmp = new byte[data.length + 1];
-    System.arraycopy(data, 0, tmp, 1, data.length);
-    tmp[0] = c;
-    return tmp;
+  /**
+   * Remaining items plus json trailer, if any. Caller must own the lock.
+   *
+   * @return Length of last write, available at {@link #inflight}, or <code>0</code>.
+   */
+  private int finish() {
+    if (errored) {
+      return 0;
+    }
+    if (format == Format.JSON) {
+      append(JSON_RBRACKET);
+    }
+    return size == 0 ? 0 : drain();
+  }
+
+  /**
+   * Move aggregated items to {@link #inflight} and mark a write in progress. Caller must own the
+   * lock.
+   *
+   * @return Length of aggregated items.
+   */
+  private int drain() {
+    int len = size;
+    inflight = buffer;
+    buffer = spare == null ? new byte[inflight.length] : spare;
+    spare = null;
+    written += items;
+    writing = true;
+    size = 0;
+    items = 0;
+    return len;
+  }
+
+  private void append(byte value) {
+    ensureCapacity(1);
+    buffer[size++] = value;
+  }
+
+  private void append(byte[] data, int len) {
+    ensureCapacity(len);
+    System.arraycopy(data, 0, buffer, size, len);
+    size += len;
+  }
+
+  private void ensureCapacity(int len) {
+    if (size + len > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + len));
+    }
+  }
+
+  private static Format format(MediaType type) {
+    if (type.isJson()) {
+      return Format.JSON;
+    }
+    if (type.getValue().equals(MediaType.NDJSON)) {
+      return Format.NDJSON;
+    }
+    return Format.RAW;
   }
 }
@@ -0,0 +1,71 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.json;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import io.jooby.exception.BadRequestException;
+
+/**
+ * Base class for bean codecs generated by <code>jooby-apt</code>. Generated codecs write
+ * properties with direct getter/field access and read them with a switch over the property index,
+ * no reflection is involved. Unknown properties are rejected with a {@link BadRequestException},
+ * like Jackson does with its default settings.
+ *
+ * @param <T> Bean type.
+ */
+public abstract class JsonBeanCodec<T> extends JsonCodec<T> {
+
+  private final Map<String, Integer> properties;
+
+  /**
+   * Creates a bean codec.
+   *
+   * @param properties Names of known properties. Writable properties go first and their index
+   *     matches the one passed to {@link #readProperty(JsonReader, Object, int)}, read-only
+   *     properties go last and are skipped by it.
+   */
+  protected JsonBeanCodec(@Nonnull String... properties) {
+    this.properties = new HashMap<>(properties.length * 2);
+    for (int i = 0; i < properties.length; i++) {
+      this.properties.put(properties[i], i);
+    }
+  }
+
+  @Override protected @Nonnull T readValue(@Nonnull JsonReader reader) {
+    T bean = newInstance();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      Integer index = properties.get(name);
+      if (index == null) {
+        throw new BadRequestException("Unrecognized JSON property: " + name);
+      }
+      readProperty(reader, bean, index.intValue());
+    }
+    reader.endObject();
+    return bean;
+  }
+
+  /**
+   * Creates a new bean.
+   *
+   * @return New bean.
+   */
+  protected abstract @Nonnull T newInstance();
+
+  /**
+   * Read a property value and set it.
+   *
+   * @param reader JSON reader.
+   * @param bean Bean.
+   * @param index Property index.
+   */
+  protected abstract void readProperty(@Nonnull JsonReader reader, @Nonnull T bean, int index);
+}
@@ -0,0 +1,264 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.json;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.jooby.exception.BadRequestException;
+
+/**
+ * Reflection-free JSON codec for a type. Codecs for beans are generated at compile time by
+ * <code>jooby-apt</code>, see {@link JsonBeanCodec}. This class provides codecs for simple
+ * values, enums and collections.
+ *
+ * @param <T> Value type.
+ */
+public abstract class JsonCodec<T> {
+
+  public static final JsonCodec<String> STRING = new JsonCodec<String>() {
+    @Override protected void writeValue(JsonWriter writer, String value) {
+      writer.value(value);
+    }
+
+    @Override protected String readValue(JsonReader reader) {
+      return reader.nextString();
+    }
+  };
+
+  public static final JsonCodec<Boolean> BOOLEAN = new JsonCodec<Boolean>() {
+    @Override protected void writeValue(JsonWriter writer, Boolean value) {
+      writer.value(value.booleanValue());
+    }
+
+    @Override protected Boolean readValue(JsonReader reader) {
+      return reader.nextBoolean();
+    }
+  };
+
+  public static final JsonCodec<Integer> INTEGER = new JsonCodec<Integer>() {
+    @Override protected void writeValue(JsonWriter writer, Integer value) {
+      writer.value(value.intValue());
+    }
+
+    @Override protected Integer readValue(JsonReader reader) {
+      return reader.nextInt();
+    }
+  };
+
+  public static final JsonCodec<Long> LONG = new JsonCodec<Long>() {
+    @Override protected void writeValue(JsonWriter writer, Long value) {
+      writer.value(value.longValue());
+    }
+
+    @Override protected Long readValue(JsonReader reader) {
+      return reader.nextLong();
+    }
+  };
+
+  public static final JsonCodec<Short> SHORT = new JsonCodec<Short>() {
+    @Override protected void writeValue(JsonWriter writer, Short value) {
+      writer.value(value.shortValue());
+    }
+
+    @Override protected Short readValue(JsonReader reader) {
+      return (short) reader.nextInt();
+    }
+  };
+
+  public static final JsonCodec<Byte> BYTE = new JsonCodec<Byte>() {
+    @Override protected void writeValue(JsonWriter writer, Byte value) {
+      writer.value(value.byteValue());
+    }
+
+    @Override protected Byte readValue(JsonReader reader) {
+      return (byte) reader.nextInt();
+    }
+  };
+
+  public static final JsonCodec<Double> DOUBLE = new JsonCodec<Double>() {
+    @Override protected void writeValue(JsonWriter writer, Double value) {
+      writer.value(value.doubleValue());
+    }
+
+    @Override protected Double readValue(JsonReader reader) {
+      return reader.nextDouble();
+    }
+  };
+
+  public static final JsonCodec<Float> FLOAT = new JsonCodec<Float>() {
+    @Override protected void writeValue(JsonWriter writer, Float value) {
+      writer.value(value.floatValue());
+    }
+
+    @Override protected Float readValue(JsonReader reader) {
+      return reader.nextFloat();
+    }
+  };
+
+  /**
+   * Write a value or <code>null</code>.
+   *
+   * @param writer JSON writer.
+   * @param value Value or <code>null</code>.
+   */
+  public void write(@Nonnull JsonWriter writer, @Nullable T value) {
+    if (value == null) {
+      writer.nullValue();
+    } else {
+      writeValue(writer, value);
+    }
+  }
+
+  /**
+   * Read a value or <code>null</code>.
+   *
+   * @param reader JSON reader.
+   * @return Value or <code>null</code>.
+   */
+  public @Nullable T read(@Nonnull JsonReader reader) {
+    if (reader.nextNull()) {
+      return null;
+    }
+    return readValue(reader);
+  }
+
+  protected abstract void writeValue(@Nonnull JsonWriter writer, @Nonnull T value);
+
+  protected abstract @Nonnull T readValue(@Nonnull JsonReader reader);
+
+  /**
+   * Codec for enum values, written by name.
+   *
+   * @param type Enum type.
+   * @param <E> Enum type.
+   * @return Enum codec.
+   */
+  public static @Nonnull <E extends Enum<E>> JsonCodec<E> enumCodec(@Nonnull Class<E> type) {
+    return new JsonCodec<E>() {
+      @Override protected void writeValue(JsonWriter writer, E value) {
+        writer.value(value.name());
+      }
+
+      @Override protected E readValue(JsonReader reader) {
+        String value = reader.nextString();
+        try {
+          return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException x) {
+          throw new BadRequestException(
+              "Invalid value for " + type.getSimpleName() + ": '" + value + "'");
+        }
+      }
+    };
+  }
+
+  /**
+   * Codec for lists. Lists are read as {@link ArrayList}.
+   *
+   * @param element Element codec.
+   * @param <E> Element type.
+   * @return List codec.
+   */
+  public static @Nonnull <E> JsonCodec<List<E>> list(@Nonnull JsonCodec<E> element) {
+    return new JsonCodec<List<E>>() {
+      @Override protected void writeValue(JsonWriter writer, List<E> value) {
+        writeCollection(writer, value, element);
+      }
+
+      @Override protected List<E> readValue(JsonReader reader) {
+        return readList(reader, element);
+      }
+    };
+  }
+
+  /**
+   * Codec for sets. Sets are read as {@link LinkedHashSet}.
+   *
+   * @param element Element codec.
+   * @param <E> Element type.
+   * @return Set codec.
+   */
+  public static @Nonnull <E> JsonCodec<Set<E>> set(@Nonnull JsonCodec<E> element) {
+    return new JsonCodec<Set<E>>() {
+      @Override protected void writeValue(JsonWriter writer, Set<E> value) {
+        writeCollection(writer, value, element);
+      }
+
+      @Override protected Set<E> readValue(JsonReader reader) {
+        return readSet(reader, element);
+      }
+    };
+  }
+
+  /**
+   * Write a collection or <code>null</code>.
+   *
+   * @param writer JSON writer.
+   * @param value Collection or <code>null</code>.
+   * @param element Element codec.
+   * @param <E> Element type.
+   */
+  public static <E> void writeCollection(@Nonnull JsonWriter writer,
+      @Nullable Collection<E> value, @Nonnull JsonCodec<E> element) {
+    if (value == null) {
+      writer.nullValue();
+    } else {
+      writer.beginArray();
+      for (E item : value) {
+        element.write(writer, item);
+      }
+      writer.endArray();
+    }
+  }
+
+  /**
+   * Read a list or <code>null</code>.
+   *
+   * @param reader JSON reader.
+   * @param element Element codec.
+   * @param <E> Element type.
+   * @return List or <code>null</code>.
+   */
+  public static @Nullable <E> List<E> readList(@Nonnull JsonReader reader,
+      @Nonnull JsonCodec<E> element) {
+    if (reader.nextNull()) {
+      return null;
+    }
+    return readCollection(reader, element, new ArrayList<>());
+  }
+
+  /**
+   * Read a set or <code>null</code>.
+   *
+   * @param reader JSON reader.
+   * @param element Element codec.
+   * @param <E> Element type.
+   * @return Set or <code>null</code>.
+   */
+  public static @Nullable <E> Set<E> readSet(@Nonnull JsonReader reader,
+      @Nonnull JsonCodec<E> element) {
+    if (reader.nextNull()) {
+      return null;
+    }
+    return readCollection(reader, element, new LinkedHashSet<>());
+  }
+
+  private static <E, C extends Collection<E>> C readCollection(JsonReader reader,
+      JsonCodec<E> element, C collection) {
+    reader.beginArray();
+    while (reader.hasNext()) {
+      collection.add(element.read(reader));
+    }
+    reader.endArray();
+    return collection;
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.json;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.jooby.Context;
+import io.jooby.Jooby;
+import io.jooby.MediaType;
+import io.jooby.MessageDecoder;
+import io.jooby.MessageEncoder;
+import io.jooby.Route;
+import io.jooby.ServiceRegistry;
+
+/**
+ * JSON encoder/decoder backed by codecs generated at compile time. Generated MVC modules add their
+ * codecs here. On application start, the encoder and the JSON decoder of each route are wrapped,
+ * so generated codecs take precedence over the JSON module (Jackson, Gson, etc.) regardless of
+ * the installation order. Types without a generated codec are delegated to the route
+ * encoder/decoder.
+ */
+public class JsonCodecs implements MessageEncoder, MessageDecoder {
+
+  private final Map<Type, JsonCodec> codecs;
+
+  private final MessageEncoder encoder;
+
+  private final MessageDecoder decoder;
+
+  /**
+   * Creates an empty codec registry, without fallback encoder/decoder.
+   */
+  public JsonCodecs() {
+    this(new HashMap<>(), MessageEncoder.TO_STRING, MessageDecoder.UNSUPPORTED_MEDIA_TYPE);
+  }
+
+  private JsonCodecs(Map<Type, JsonCodec> codecs, MessageEncoder encoder,
+      MessageDecoder decoder) {
+    this.codecs = codecs;
+    this.encoder = encoder;
+    this.decoder = decoder;
+  }
+
+  /**
+   * Get or create the JSON codecs of an application. Routes are decorated on application start.
+   *
+   * @param application Application.
+   * @return JSON codecs.
+   */
+  public static @Nonnull JsonCodecs install(@Nonnull Jooby application) {
+    ServiceRegistry services = application.getServices();
+    JsonCodecs codecs = services.getOrNull(JsonCodecs.class);
+    if (codecs == null) {
+      JsonCodecs registry = new JsonCodecs();
+      services.put(JsonCodecs.class, registry);
+      // JSON modules are installed by now
+      application.onStarting(() -> registry.decorate(application.getRoutes()));
+      codecs = registry;
+    }
+    return codecs;
+  }
+
+  /**
+   * Put generated codecs in front of the encoder and JSON decoder of each route. Routes sharing
+   * the same encoder/decoders share the same wrapper.
+   *
+   * @param routes Routes.
+   */
+  public void decorate(@Nonnull List<Route> routes) {
+    Map<MessageEncoder, MessageEncoder> encoders = new IdentityHashMap<>();
+    Map<Map<String, MessageDecoder>, Map<String, MessageDecoder>> decoders =
+        new IdentityHashMap<>();
+    for (Route route : routes) {
+      route.setEncoder(encoders.computeIfAbsent(route.getEncoder(),
+          fallback -> new JsonCodecs(codecs, fallback, MessageDecoder.UNSUPPORTED_MEDIA_TYPE)));
+      route.setDecoders(decoders.computeIfAbsent(route.getDecoders(), existing -> {
+        Map<String, MessageDecoder> result = new HashMap<>(existing);
+        MessageDecoder fallback = existing
+            .getOrDefault(MediaType.JSON, MessageDecoder.UNSUPPORTED_MEDIA_TYPE);
+        result.put(MediaType.JSON, new JsonCodecs(codecs, MessageEncoder.TO_STRING, fallback));
+        return result;
+      }));
+    }
+  }
+
+  /**
+   * Add a codec.
+   *
+   * @param type Type.
+   * @param codec Codec.
+   */
+  public void put(@Nonnull Type type, @Nonnull JsonCodec codec) {
+    codecs.put(type, codec);
+  }
+
+  /**
+   * Find a codec.
+   *
+   * @param type Type.
+   * @return Codec or <code>null</code>.
+   */
+  public @Nullable JsonCodec get(@Nonnull Type type) {
+    return codecs.get(type);
+  }
+
+  @Override public byte[] encode(@Nonnull Context ctx, @Nonnull Object value) throws Exception {
+    JsonCodec codec = codecs.get(value.getClass());
+    if (codec == null && value instanceof Collection) {
+      // List<Bean>, Set<Bean>, etc.. from route return type
+      Route route = ctx.getRoute();
+      Type returnType = route == null ? null : route.getReturnType();
+      if (returnType instanceof ParameterizedType) {
+        codec = codecs.get(returnType);
+      }
+    }
+    if (codec == null || !ctx.accept(MediaType.json)) {
+      return encoder.encode(ctx, value);
+    }
+    ctx.setDefaultResponseType(MediaType.json);
+    JsonWriter writer = new JsonWriter();
+    codec.write(writer, value);
+    return writer.toByteArray();
+  }
+
+  @Nonnull @Override public Object decode(@Nonnull Context ctx, @Nonnull Type type)
+      throws Exception {
+    JsonCodec codec = codecs.get(type);
+    if (codec == null) {
+      return decoder.decode(ctx, type);
+    }
+    JsonReader reader = new JsonReader(ctx.body().bytes());
+    Object value = codec.read(reader);
+    reader.endDocument();
+    return value;
+  }
+}
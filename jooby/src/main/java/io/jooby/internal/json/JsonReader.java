@@ -0,0 +1,398 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.json;
+
+import java.nio.charset.StandardCharsets;
+
+import io.jooby.exception.BadRequestException;
+
+/**
+ * Streaming (pull) JSON reader used by compile-time generated codecs. Input is UTF-8 encoded
+ * JSON. Malformed input produces a {@link BadRequestException}.
+ *
+ * Like Jackson defaults, numbers are accepted for primitive values when quoted and
+ * <code>null</code> is read as <code>0</code> or <code>false</code> for primitive values.
+ */
+public class JsonReader {
+
+  private final byte[] buffer;
+
+  private final int end;
+
+  private int pos;
+
+  /** True when next element is the first of an object or array (no comma expected). */
+  private boolean first;
+
+  /**
+   * Creates a JSON reader.
+   *
+   * @param bytes UTF-8 JSON input.
+   */
+  public JsonReader(byte[] bytes) {
+    this.buffer = bytes;
+    this.end = bytes.length;
+  }
+
+  public void beginObject() {
+    expect('{');
+    first = true;
+  }
+
+  public void endObject() {
+    expect('}');
+    first = false;
+  }
+
+  public void beginArray() {
+    expect('[');
+    first = true;
+  }
+
+  public void endArray() {
+    expect(']');
+    first = false;
+  }
+
+  /**
+   * True when current object or array has more elements.
+   *
+   * @return True when current object or array has more elements.
+   */
+  public boolean hasNext() {
+    byte b = peek();
+    if (b == '}' || b == ']') {
+      return false;
+    }
+    if (first) {
+      first = false;
+    } else {
+      expect(',');
+    }
+    return true;
+  }
+
+  /**
+   * Read a property name.
+   *
+   * @return Property name.
+   */
+  public String nextName() {
+    String name = string();
+    expect(':');
+    return name;
+  }
+
+  /**
+   * Consume a <code>null</code> literal.
+   *
+   * @return True when next value was <code>null</code>.
+   */
+  public boolean nextNull() {
+    if (peek() == 'n') {
+      literal("null");
+      return true;
+    }
+    return false;
+  }
+
+  public String nextString() {
+    if (nextNull()) {
+      return null;
+    }
+    return string();
+  }
+
+  public boolean nextBoolean() {
+    byte b = peek();
+    if (b == 't') {
+      literal("true");
+      return true;
+    }
+    if (b == 'f') {
+      literal("false");
+      return false;
+    }
+    if (b == 'n') {
+      literal("null");
+      return false;
+    }
+    throw error("Expected boolean");
+  }
+
+  public int nextInt() {
+    long value = nextLong();
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw error("Numeric value out of range of int");
+    }
+    return (int) value;
+  }
+
+  public long nextLong() {
+    byte b = peek();
+    if (b == '"') {
+      return parseLong(string());
+    }
+    if (b == 'n') {
+      literal("null");
+      return 0;
+    }
+    int start = pos;
+    boolean negative = b == '-';
+    if (negative) {
+      pos++;
+    }
+    long value = 0;
+    int digits = 0;
+    while (pos < end) {
+      int digit = buffer[pos] - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      // overflow-conscious code
+      if (digits++ >= 18) {
+        pos = start;
+        return parseLong(number());
+      }
+      value = value * 10 + digit;
+      pos++;
+    }
+    if (digits == 0) {
+      pos = start;
+      throw error("Expected number");
+    }
+    if (pos < end && (buffer[pos] == '.' || buffer[pos] == 'e' || buffer[pos] == 'E')) {
+      // float value for integer property, truncate like Jackson does
+      pos = start;
+      return (long) parseDouble(number());
+    }
+    return negative ? -value : value;
+  }
+
+  public double nextDouble() {
+    byte b = peek();
+    if (b == '"') {
+      return parseDouble(string());
+    }
+    if (b == 'n') {
+      literal("null");
+      return 0;
+    }
+    return parseDouble(number());
+  }
+
+  public float nextFloat() {
+    return (float) nextDouble();
+  }
+
+  /**
+   * Skip next value, including nested objects and arrays.
+   */
+  public void skipValue() {
+    byte b = peek();
+    switch (b) {
+      case '{':
+        beginObject();
+        while (hasNext()) {
+          nextName();
+          skipValue();
+        }
+        endObject();
+        break;
+      case '[':
+        beginArray();
+        while (hasNext()) {
+          skipValue();
+        }
+        endArray();
+        break;
+      case '"':
+        string();
+        break;
+      case 't':
+        literal("true");
+        break;
+      case 'f':
+        literal("false");
+        break;
+      case 'n':
+        literal("null");
+        break;
+      default:
+        number();
+    }
+  }
+
+  /**
+   * Check there is nothing but whitespaces after last value.
+   */
+  public void endDocument() {
+    skipWhitespaces();
+    if (pos < end) {
+      throw error("Unexpected content after end of document");
+    }
+  }
+
+  private String string() {
+    expect('"');
+    int start = pos;
+    while (pos < end) {
+      byte b = buffer[pos];
+      if (b == '"') {
+        String value = new String(buffer, start, pos - start, StandardCharsets.UTF_8);
+        pos++;
+        return value;
+      }
+      if (b == '\\') {
+        return escapedString(start);
+      }
+      pos++;
+    }
+    throw error("Unterminated string");
+  }
+
+  private String escapedString(int start) {
+    StringBuilder value = new StringBuilder(pos - start + 16);
+    value.append(new String(buffer, start, pos - start, StandardCharsets.UTF_8));
+    int chunk = pos;
+    while (pos < end) {
+      byte b = buffer[pos];
+      if (b == '"') {
+        value.append(new String(buffer, chunk, pos - chunk, StandardCharsets.UTF_8));
+        pos++;
+        return value.toString();
+      }
+      if (b == '\\') {
+        value.append(new String(buffer, chunk, pos - chunk, StandardCharsets.UTF_8));
+        pos++;
+        if (pos >= end) {
+          break;
+        }
+        byte escape = buffer[pos++];
+        switch (escape) {
+          case '"':
+          case '\\':
+          case '/':
+            value.append((char) escape);
+            break;
+          case 'n':
+            value.append('\n');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'u':
+            if (pos + 4 > end) {
+              throw error("Invalid unicode escape");
+            }
+            try {
+              value.append((char) Integer
+                  .parseInt(new String(buffer, pos, 4, StandardCharsets.US_ASCII), 16));
+            } catch (NumberFormatException x) {
+              throw error("Invalid unicode escape");
+            }
+            pos += 4;
+            break;
+          default:
+            pos--;
+            throw error("Invalid escape character");
+        }
+        chunk = pos;
+      } else {
+        pos++;
+      }
+    }
+    throw error("Unterminated string");
+  }
+
+  private String number() {
+    skipWhitespaces();
+    int start = pos;
+    while (pos < end) {
+      byte b = buffer[pos];
+      if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+        pos++;
+      } else {
+        break;
+      }
+    }
+    if (start == pos) {
+      throw error("Unexpected character");
+    }
+    return new String(buffer, start, pos - start, StandardCharsets.US_ASCII);
+  }
+
+  private long parseLong(String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException x) {
+      if (value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0) {
+        throw error("Numeric value out of range of long: " + value);
+      }
+      return (long) parseDouble(value);
+    }
+  }
+
+  private double parseDouble(String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException x) {
+      throw error("Invalid number: " + value);
+    }
+  }
+
+  private void literal(String literal) {
+    int len = literal.length();
+    if (pos + len > end) {
+      throw error("Expected '" + literal + "'");
+    }
+    for (int i = 0; i < len; i++) {
+      if (buffer[pos + i] != literal.charAt(i)) {
+        throw error("Expected '" + literal + "'");
+      }
+    }
+    pos += len;
+  }
+
+  private void expect(char c) {
+    if (peek() != c) {
+      throw error("Expected '" + c + "'");
+    }
+    pos++;
+  }
+
+  private byte peek() {
+    skipWhitespaces();
+    if (pos >= end) {
+      throw error("Unexpected end of input");
+    }
+    return buffer[pos];
+  }
+
+  private void skipWhitespaces() {
+    while (pos < end) {
+      byte b = buffer[pos];
+      if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+        pos++;
+      } else {
+        break;
+      }
+    }
+  }
+
+  private BadRequestException error(String message) {
+    return new BadRequestException("Malformed JSON at position " + pos + ": " + message);
+  }
+}
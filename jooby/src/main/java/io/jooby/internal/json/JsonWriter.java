@@ -0,0 +1,247 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.json;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Streaming JSON writer used by compile-time generated codecs. Output is UTF-8 encoded into a
+ * byte array. Separators between values are written automatically.
+ */
+public class JsonWriter {
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+  private static final byte[] NULL = "null".getBytes();
+
+  private static final byte[] TRUE = "true".getBytes();
+
+  private static final byte[] FALSE = "false".getBytes();
+
+  private byte[] buffer;
+
+  private int count;
+
+  /** True when next value must be preceded by a comma. */
+  private boolean comma;
+
+  /**
+   * Creates a JSON writer.
+   *
+   * @param bufferSize Initial buffer size.
+   */
+  public JsonWriter(int bufferSize) {
+    this.buffer = new byte[bufferSize];
+  }
+
+  /**
+   * Creates a JSON writer.
+   */
+  public JsonWriter() {
+    this(512);
+  }
+
+  public void beginObject() {
+    separator();
+    put('{');
+    comma = false;
+  }
+
+  public void endObject() {
+    put('}');
+    comma = true;
+  }
+
+  public void beginArray() {
+    separator();
+    put('[');
+    comma = false;
+  }
+
+  public void endArray() {
+    put(']');
+    comma = true;
+  }
+
+  /**
+   * Write a property name.
+   *
+   * @param name Property name.
+   */
+  public void name(String name) {
+    if (comma) {
+      put(',');
+    }
+    string(name);
+    put(':');
+    comma = false;
+  }
+
+  public void value(@Nullable String value) {
+    if (value == null) {
+      nullValue();
+    } else {
+      separator();
+      string(value);
+    }
+  }
+
+  public void value(long value) {
+    separator();
+    ascii(Long.toString(value));
+  }
+
+  public void value(double value) {
+    separator();
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      string(Double.toString(value));
+    } else {
+      ascii(Double.toString(value));
+    }
+  }
+
+  public void value(float value) {
+    separator();
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      string(Float.toString(value));
+    } else {
+      ascii(Float.toString(value));
+    }
+  }
+
+  public void value(boolean value) {
+    separator();
+    raw(value ? TRUE : FALSE);
+  }
+
+  public void nullValue() {
+    separator();
+    raw(NULL);
+  }
+
+  /**
+   * Copy of written bytes.
+   *
+   * @return Written bytes.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, count);
+  }
+
+  private void separator() {
+    if (comma) {
+      put(',');
+    }
+    comma = true;
+  }
+
+  private void string(String value) {
+    int len = value.length();
+    ensureCapacity(len + 2);
+    buffer[count++] = '"';
+    int i = 0;
+    // fast path: ASCII without escapes
+    while (i < len) {
+      char c = value.charAt(i);
+      if (c < 0x20 || c >= 0x80 || c == '"' || c == '\\') {
+        break;
+      }
+      buffer[count++] = (byte) c;
+      i++;
+    }
+    for (; i < len; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (c < 0x20) {
+          escape(c);
+        } else if (c == '"' || c == '\\') {
+          put('\\');
+          put(c);
+        } else {
+          put(c);
+        }
+      } else if (c < 0x800) {
+        ensureCapacity(2);
+        buffer[count++] = (byte) (0xC0 | (c >> 6));
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < len
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, value.charAt(++i));
+        ensureCapacity(4);
+        buffer[count++] = (byte) (0xF0 | (cp >> 18));
+        buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        buffer[count++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        put('?');
+      } else {
+        ensureCapacity(3);
+        buffer[count++] = (byte) (0xE0 | (c >> 12));
+        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    put('"');
+  }
+
+  private void escape(char c) {
+    put('\\');
+    switch (c) {
+      case '\n':
+        put('n');
+        break;
+      case '\r':
+        put('r');
+        break;
+      case '\t':
+        put('t');
+        break;
+      case '\b':
+        put('b');
+        break;
+      case '\f':
+        put('f');
+        break;
+      default:
+        ensureCapacity(5);
+        buffer[count++] = 'u';
+        buffer[count++] = '0';
+        buffer[count++] = '0';
+        buffer[count++] = HEX[c >> 4];
+        buffer[count++] = HEX[c & 0xF];
+    }
+  }
+
+  private void ascii(String value) {
+    int len = value.length();
+    ensureCapacity(len);
+    for (int i = 0; i < len; i++) {
+      buffer[count++] = (byte) value.charAt(i);
+    }
+  }
+
+  private void raw(byte[] bytes) {
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, count, bytes.length);
+    count += bytes.length;
+  }
+
+  private void put(char c) {
+    if (count == buffer.length) {
+      ensureCapacity(1);
+    }
+    buffer[count++] = (byte) c;
+  }
+
+  private void ensureCapacity(int len) {
+    int capacity = count + len;
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, capacity));
+    }
+  }
+}
@@ -13,11 +13,14 @@ import io.jooby.Router.PATCH
 import io.jooby.Router.POST
 import io.jooby.Router.PUT
 import io.jooby.Router.TRACE
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineExceptionHandler
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.CoroutineStart
 import kotlinx.coroutines.asCoroutineDispatcher
 import kotlinx.coroutines.launch
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
 import kotlin.coroutines.CoroutineContext
 import kotlin.coroutines.EmptyCoroutineContext
 
@@ -25,10 +28,28 @@ internal class RouterCoroutineScope(override val coroutineContext: CoroutineCont
 
 class CoroutineRouter(val coroutineStart: CoroutineStart, val router: Router) {
 
+  /**
+   * Dispatcher backed by the application worker. Coroutines run on it by default. When running on
+   * the event loop use it for blocking code: `withContext(worker) { ... }`.
+   */
+  val worker: CoroutineDispatcher by lazy {
+    router.worker.asCoroutineDispatcher()
+  }
+
   val coroutineScope: CoroutineScope by lazy {
-    RouterCoroutineScope(router.worker.asCoroutineDispatcher())
+    RouterCoroutineScope(worker)
   }
 
+  /**
+   * Run (and resume) coroutines of routes defined from now on, on the event loop of the
+   * connection, not on the [worker]. This saves two thread hand-offs per request, but handlers
+   * must never block the event loop. Ignored by servers without event loop (Jetty).
+   */
+  var eventLoop: Boolean = false
+
+  /** One dispatcher per event loop. */
+  private val eventLoops = ConcurrentHashMap<Executor, CoroutineDispatcher>()
+
   private var extraCoroutineContextProvider: HandlerContext.() -> CoroutineContext = { EmptyCoroutineContext }
   fun launchContext(provider: HandlerContext.() -> CoroutineContext) {
     extraCoroutineContextProvider = provider
@@ -66,20 +87,29 @@ class CoroutineRouter(val coroutineStart: CoroutineStart, val router: Router) {
   fun options(pattern: String, handler: suspend HandlerContext.() -> Any) =
       route(OPTIONS, pattern, handler)
 
-  fun route(method: String, pattern: String, handler: suspend HandlerContext.() -> Any): Route =
-      router.route(method, pattern) { ctx ->
-        val handlerContext = HandlerContext(ctx)
-        launch(handlerContext) {
-          val result = handler(handlerContext)
-          if (result != ctx) {
-            ctx.render(result)
-          }
+  fun route(method: String, pattern: String, handler: suspend HandlerContext.() -> Any): Route {
+    val eventLoop = this.eventLoop
+    return router.route(method, pattern) { ctx ->
+      val handlerContext = HandlerContext(ctx)
+      launch(handlerContext, eventLoop) {
+        val result = handler(handlerContext)
+        if (result != ctx) {
+          ctx.render(result)
         }
-      }.setHandle(handler).attribute("coroutine", true)
+      }
+    }.setHandle(handler).attribute("coroutine", true)
+  }
 
-  internal fun launch(handlerContext: HandlerContext, block: suspend CoroutineScope.() -> Unit) {
+  internal fun launch(handlerContext: HandlerContext, eventLoop: Boolean = false,
+      block: suspend CoroutineScope.() -> Unit) {
     val exceptionHandler = CoroutineExceptionHandler { _, x -> handlerContext.ctx.sendError(x) }
-    val coroutineContext = exceptionHandler + handlerContext.extraCoroutineContextProvider()
+    var coroutineContext = exceptionHandler + handlerContext.extraCoroutineContextProvider()
+    val ioExecutor = if (eventLoop) handlerContext.ctx.ioExecutor else null
+    if (ioExecutor != null) {
+      // extra context might override the dispatcher
+      coroutineContext = eventLoops.computeIfAbsent(ioExecutor) { it.asCoroutineDispatcher() } +
+          coroutineContext
+    }
     coroutineScope.launch(coroutineContext, coroutineStart, block)
   }
 }
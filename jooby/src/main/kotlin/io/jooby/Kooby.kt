@@ -229,8 +229,9 @@ open class Kooby constructor() : Jooby() {
   }
 
   @RouterDsl
-  fun coroutine(coroutineStart: CoroutineStart = CoroutineStart.DEFAULT, block: CoroutineRouter.() -> Unit): CoroutineRouter {
+  fun coroutine(coroutineStart: CoroutineStart = CoroutineStart.DEFAULT, eventLoop: Boolean = false, block: CoroutineRouter.() -> Unit): CoroutineRouter {
     val router = attributes.computeIfAbsent("coroutineRouter") { CoroutineRouter(coroutineStart, this) } as CoroutineRouter
+    router.eventLoop = eventLoop
     router.block()
     return router
   }
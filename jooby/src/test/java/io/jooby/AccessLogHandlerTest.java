@@ -0,0 +1,159 @@
+package io.jooby;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AccessLogHandlerTest {
+
+  @Test
+  public void ncsa() throws Exception {
+    List<String> lines = new ArrayList<>();
+    AccessLogHandler handler = new AccessLogHandler()
+        .dateFormatter(ZoneId.of("UTC"))
+        .log(lines::add);
+
+    Context ctx = context(0L, "/path", "?q=1");
+    handler.apply(c -> "OK").apply(ctx);
+
+    assertEquals(1, lines.size());
+    String line = lines.get(0);
+    assertTrue(line.startsWith("127.0.0.1 - - [01/Jan/1970:00:00:00 +0000] \"GET /path?q=1 HTTP/1.1\" 200 2 "), line);
+  }
+
+  @Test
+  public void latencyFromRequestStartTime() throws Exception {
+    List<String> lines = new ArrayList<>();
+    AccessLogHandler handler = new AccessLogHandler().log(lines::add);
+
+    long start = System.currentTimeMillis() - 1000;
+    Context ctx = context(start, "/", "");
+    handler.apply(c -> "OK").apply(ctx);
+
+    String line = lines.get(0);
+    long latency = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+    assertTrue(latency >= 1000, line);
+  }
+
+  @Test
+  public void missingRequestStartTime() throws Exception {
+    List<String> lines = new ArrayList<>();
+    AccessLogHandler handler = new AccessLogHandler().log(lines::add);
+
+    Context ctx = context(-1L, "/", "");
+    handler.apply(c -> "OK").apply(ctx);
+
+    String line = lines.get(0);
+    long latency = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+    assertTrue(latency >= 0 && latency < 60_000, line);
+  }
+
+  @Test
+  public void json() throws Exception {
+    List<String> lines = new ArrayList<>();
+    AccessLogHandler handler = new AccessLogHandler(ctx -> "a\"b")
+        .dateFormatter(ZoneId.of("UTC"))
+        .json()
+        .log(lines::add);
+
+    Context ctx = context(0L, "/path", "");
+    handler.apply(c -> "OK").apply(ctx);
+
+    String line = lines.get(0);
+    assertTrue(line.startsWith("{\"remoteAddress\":\"127.0.0.1\",\"user\":\"a\\\"b\","
+        + "\"timestamp\":\"01/Jan/1970:00:00:00 +0000\",\"method\":\"GET\",\"path\":\"/path\","
+        + "\"query\":\"\",\"protocol\":\"HTTP/1.1\",\"status\":200,\"length\":2,\"latency\":"), line);
+    assertTrue(line.endsWith("}"), line);
+  }
+
+  @Test
+  public void async() throws Exception {
+    List<String> lines = new CopyOnWriteArrayList<>();
+    List<Integer> batches = new CopyOnWriteArrayList<>();
+    AccessLogHandler handler = new AccessLogHandler()
+        .async(16)
+        .logBatch(batch -> {
+          batches.add(batch.size());
+          lines.addAll(batch);
+        });
+
+    Route.Handler route = handler.apply(c -> "OK");
+    for (int i = 0; i < 10; i++) {
+      route.apply(context(0L, "/" + i, ""));
+    }
+    handler.close();
+
+    assertEquals(10, lines.size() + handler.getDroppedCount());
+    assertEquals(lines.size(), batches.stream().mapToInt(Integer::intValue).sum());
+  }
+
+  @Test
+  public void syncAfterClose() throws Exception {
+    List<String> lines = new CopyOnWriteArrayList<>();
+    AccessLogHandler handler = new AccessLogHandler()
+        .async(16)
+        .log(lines::add);
+
+    Route.Handler route = handler.apply(c -> "OK");
+    route.apply(context(0L, "/before", ""));
+    handler.close();
+    assertEquals(1, lines.size());
+
+    route.apply(context(0L, "/after", ""));
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(1).contains("/after"), lines.get(1));
+  }
+
+  @Test
+  public void dropWhenFull() throws Exception {
+    List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    Object lock = new Object();
+    AccessLogHandler handler = new AccessLogHandler()
+        .async(4)
+        .log(line -> {
+          synchronized (lock) {
+            lines.add(line);
+          }
+        });
+
+    Route.Handler route = handler.apply(c -> "OK");
+    synchronized (lock) {
+      for (int i = 0; i < 100; i++) {
+        route.apply(context(0L, "/" + i, ""));
+      }
+    }
+    handler.close();
+
+    assertTrue(handler.getDroppedCount() > 0);
+    assertEquals(100, lines.size() + handler.getDroppedCount());
+  }
+
+  private Context context(long startTime, String path, String query) {
+    Context ctx = mock(Context.class);
+    when(ctx.getRemoteAddress()).thenReturn("127.0.0.1");
+    when(ctx.getRequestStartTime()).thenReturn(startTime);
+    when(ctx.getMethod()).thenReturn("GET");
+    when(ctx.getRequestPath()).thenReturn(path);
+    when(ctx.queryString()).thenReturn(query);
+    when(ctx.getProtocol()).thenReturn("HTTP/1.1");
+    when(ctx.getResponseCode()).thenReturn(StatusCode.OK);
+    when(ctx.getResponseLength()).thenReturn(2L);
+    doAnswer(invocation -> {
+      Route.Complete listener = invocation.getArgument(0);
+      listener.apply(ctx);
+      return ctx;
+    }).when(ctx).onComplete(any());
+    return ctx;
+  }
+}
@@ -5,6 +5,7 @@ import com.typesafe.config.ConfigFactory;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -42,6 +43,21 @@ public class CookieTest {
         .unsign("RcFzlzECN2Lv32Ie9jfSWVr13j6OjllJwDDZe4mVS4c|foo=bar&x=u iq", "987654345!$009P"));
   }
 
+  @Test
+  public void unsignInvalid() {
+    String signed = Cookie.sign("foo=bar", "987654345!$009P");
+    // secret changes on same thread
+    assertNull(Cookie.unsign(signed, "another secret"));
+    assertEquals("foo=bar", Cookie.unsign(signed, "987654345!$009P"));
+
+    assertNull(Cookie.unsign("1bqmVaHYY/O6zMFHI8iwJXLWaNmYKbYkuMX4gnRdO+Y|foo=baz",
+        "987654345!$009P"));
+    assertNull(Cookie.unsign("1bqmVaHYY/O6zMFHI8iwJXLWaNmYKbYkuMX4gnRdO+|foo=bar",
+        "987654345!$009P"));
+    assertNull(Cookie.unsign("|foo=bar", "987654345!$009P"));
+    assertNull(Cookie.unsign("foo=bar", "987654345!$009P"));
+  }
+
   @Test
   public void testCreateSameSite() {
     assertEquals(SameSite.LAX, Cookie.create("mycookie",
@@ -60,6 +60,20 @@ public class CorsTest {
       assertEquals(true, cors.allowOrigin("http://foo.com"));
       assertEquals(false, cors.allowOrigin("http://bar.com"));
     });
+
+    cors(baseconf().withValue("origin",
+        fromAnyRef(asList("http://foo.com", "https://*.foo.com", "http://(bar|baz).com"))),
+        cors -> {
+          assertEquals(false, cors.anyOrigin());
+          assertEquals(true, cors.allowOrigin("http://foo.com"));
+          assertEquals(true, cors.allowOrigin("HTTP://FOO.COM"));
+          assertEquals(true, cors.allowOrigin("https://api.foo.com"));
+          assertEquals(true, cors.allowOrigin("http://bar.com"));
+          assertEquals(true, cors.allowOrigin("http://baz.com"));
+          assertEquals(false, cors.allowOrigin("http://fooXcom"));
+          assertEquals(false, cors.allowOrigin("https://foo.com"));
+          assertEquals(false, cors.allowOrigin("http://qux.com"));
+        });
   }
 
   @Test
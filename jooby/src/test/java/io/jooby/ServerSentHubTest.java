@@ -0,0 +1,226 @@
+package io.jooby;
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServerSentHubTest {
+
+  private static class Emitter implements ServerSentEmitter {
+    private final Context ctx;
+
+    private final String lastEventId;
+
+    private final List<byte[]> messages = new ArrayList<>();
+
+    private final List<SneakyThrows.Runnable> closeTasks = new ArrayList<>();
+
+    private boolean open = true;
+
+    Emitter(Context ctx, String lastEventId) {
+      this.ctx = ctx;
+      this.lastEventId = lastEventId;
+    }
+
+    @Override public void onClose(SneakyThrows.Runnable task) {
+      closeTasks.add(task);
+    }
+
+    @Nonnull @Override public Context getContext() {
+      return ctx;
+    }
+
+    @Nonnull @Override public ServerSentEmitter send(@Nonnull ServerSentMessage data) {
+      messages.add(data.toByteArray(ctx));
+      return this;
+    }
+
+    @Nonnull @Override public ServerSentEmitter keepAlive(long timeInMillis) {
+      return this;
+    }
+
+    @Nullable @Override public String getLastEventId() {
+      return lastEventId;
+    }
+
+    @Nonnull @Override public String getId() {
+      return "sse";
+    }
+
+    @Nonnull @Override public ServerSentEmitter setId(@Nonnull String id) {
+      return this;
+    }
+
+    @Override public boolean isOpen() {
+      return open;
+    }
+
+    @Override public void close() {
+      if (open) {
+        open = false;
+        closeTasks.forEach(SneakyThrows.Runnable::run);
+      }
+    }
+
+    List<String> messages() {
+      List<String> result = new ArrayList<>();
+      for (byte[] message : messages) {
+        result.add(new String(message, StandardCharsets.UTF_8));
+      }
+      return result;
+    }
+  }
+
+  @Test
+  public void encodeOnce() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    Context ctx = context(calls);
+    ServerSentHub hub = new ServerSentHub();
+    Emitter sse1 = new Emitter(ctx, null);
+    Emitter sse2 = new Emitter(ctx, null);
+    hub.subscribe("news", sse1);
+    hub.subscribe("news", sse2);
+    hub.subscribe("sports", new Emitter(ctx, null));
+
+    hub.publish("news", "hello");
+
+    assertEquals(Arrays.asList("id:1\ndata:hello\n\n"), sse1.messages());
+    assertSame(sse1.messages.get(0), sse2.messages.get(0));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void replayMissedEvents() throws Exception {
+    Context ctx = context(new AtomicInteger());
+    ServerSentHub hub = new ServerSentHub(2);
+    hub.publish("news", "a");
+    hub.publish("news", "b");
+    hub.publish("news", "c");
+
+    Emitter resume = new Emitter(ctx, "2");
+    hub.subscribe("news", resume);
+    assertEquals(Arrays.asList("id:3\ndata:c\n\n"), resume.messages());
+
+    Emitter unknown = new Emitter(ctx, "1");
+    hub.subscribe("news", unknown);
+    assertEquals(Arrays.asList("id:2\ndata:b\n\n", "id:3\ndata:c\n\n"), unknown.messages());
+
+    Emitter fresh = new Emitter(ctx, null);
+    hub.subscribe("news", fresh);
+    assertEquals(0, fresh.messages().size());
+  }
+
+  @Test
+  public void removeClosedSubscribers() throws Exception {
+    Context ctx = context(new AtomicInteger());
+    ServerSentHub hub = new ServerSentHub();
+    Emitter sse = new Emitter(ctx, null);
+    hub.subscribe("news", sse);
+    hub.subscribe("news", new Emitter(ctx, null));
+    assertEquals(2, hub.getSubscribers("news"));
+
+    sse.close();
+    hub.publish("news", new ServerSentMessage("a").setId("x").setEvent("update"));
+    assertEquals(1, hub.getSubscribers("news"));
+    assertEquals(0, sse.messages().size());
+  }
+
+  @Test
+  public void removeFailingSubscribers() throws Exception {
+    Context ctx = context(new AtomicInteger());
+    ServerSentHub hub = new ServerSentHub();
+    Emitter first = new Emitter(ctx, null);
+    Emitter failing = new Emitter(ctx, null) {
+      @Nonnull @Override public ServerSentEmitter send(@Nonnull ServerSentMessage data) {
+        throw new IllegalStateException("write in progress");
+      }
+    };
+    Emitter last = new Emitter(ctx, null);
+    hub.subscribe("news", first);
+    hub.subscribe("news", failing);
+    hub.subscribe("news", last);
+
+    hub.publish("news", "a");
+
+    assertEquals(Arrays.asList("id:1\ndata:a\n\n"), first.messages());
+    assertEquals(Arrays.asList("id:1\ndata:a\n\n"), last.messages());
+    assertFalse(failing.isOpen());
+    assertEquals(2, hub.getSubscribers("news"));
+  }
+
+  @Test
+  public void replayNonStringIds() throws Exception {
+    Context ctx = context(new AtomicInteger());
+    ServerSentHub hub = new ServerSentHub();
+    hub.publish("news", new ServerSentMessage("a").setId(1L));
+    hub.publish("news", new ServerSentMessage("b").setId(2L));
+
+    Emitter resume = new Emitter(ctx, "1");
+    hub.subscribe("news", resume);
+    assertEquals(Arrays.asList("id:2\ndata:b\n\n"), resume.messages());
+  }
+
+  @Test
+  public void unsubscribeOnClose() throws Exception {
+    Context ctx = context(new AtomicInteger());
+    ServerSentHub hub = new ServerSentHub();
+    Emitter sse = new Emitter(ctx, null);
+    hub.subscribe("news", sse);
+    hub.subscribe("news", new Emitter(ctx, null));
+    assertEquals(2, hub.getSubscribers("news"));
+
+    sse.close();
+    assertEquals(1, hub.getSubscribers("news"));
+  }
+
+  @Test
+  public void removeExpiredTopics() throws Exception {
+    Context ctx = context(new AtomicInteger());
+    ServerSentHub hub = new ServerSentHub().setReplayTimeout(0, TimeUnit.MILLISECONDS);
+    Emitter sse = new Emitter(ctx, null);
+    hub.subscribe("news", sse);
+    hub.publish("news", "a");
+    assertEquals(Arrays.asList("id:1\ndata:a\n\n"), sse.messages());
+
+    // still subscribed: kept
+    Emitter resume = new Emitter(ctx, "0");
+    hub.subscribe("news", resume);
+    assertEquals(Arrays.asList("id:1\ndata:a\n\n"), resume.messages());
+
+    sse.close();
+    resume.close();
+    hub.publish("sports", "b");
+
+    // no subscribers and expired: removed
+    Emitter late = new Emitter(ctx, "0");
+    hub.subscribe("news", late);
+    assertEquals(0, late.messages().size());
+  }
+
+  private static Context context(AtomicInteger calls) throws Exception {
+    Context ctx = mock(Context.class);
+    MessageEncoder encoder = mock(MessageEncoder.class);
+    when(encoder.encode(any(), any())).thenAnswer(invocation -> {
+      calls.incrementAndGet();
+      return invocation.getArgument(1).toString().getBytes(StandardCharsets.UTF_8);
+    });
+    Route route = mock(Route.class);
+    when(route.getEncoder()).thenReturn(encoder);
+    when(ctx.getRoute()).thenReturn(route);
+    return ctx;
+  }
+}
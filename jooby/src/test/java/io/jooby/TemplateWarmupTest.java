@@ -0,0 +1,90 @@
+package io.jooby;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TemplateWarmupTest {
+
+  private static final List<String> EXT = Arrays.asList(".ftl", ".html");
+
+  @Test
+  public void fileSystem(@TempDir Path dir) throws Exception {
+    write(dir, "index.ftl", "layout/main.ftl", "partials/nav.html", "style.css");
+
+    TemplateWarmup warmup = new TemplateWarmup("test", EXT, name -> {
+    });
+    List<String> templates = warmup.templates(env(getClass().getClassLoader()), dir, "views");
+    assertEquals(Arrays.asList("index.ftl", "layout/main.ftl", "partials/nav.html"), templates);
+  }
+
+  @Test
+  public void classpath(@TempDir Path dir) throws Exception {
+    write(dir.resolve("views"), "index.ftl", "admin/users.ftl", "readme.md");
+    Path jar = dir.resolve("views.jar");
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("views/"));
+      out.putNextEntry(new JarEntry("views/lib.ftl"));
+      out.write("lib".getBytes(StandardCharsets.UTF_8));
+      out.putNextEntry(new JarEntry("other/ignored.ftl"));
+    }
+    try (URLClassLoader loader = new URLClassLoader(
+        new URL[]{dir.toUri().toURL(), jar.toUri().toURL()}, null)) {
+      TemplateWarmup warmup = new TemplateWarmup("test", EXT, name -> {
+      });
+      List<String> templates = warmup.templates(env(loader), null, "/views");
+      assertEquals(Arrays.asList("admin/users.ftl", "index.ftl", "lib.ftl"), templates);
+    }
+  }
+
+  @Test
+  public void compile() throws Exception {
+    TemplateWarmup warmup = new TemplateWarmup("test", EXT, name -> {
+    });
+    Map<String, Long> times = warmup
+        .compile(LoggerFactory.getLogger(getClass()), Arrays.asList("a.ftl", "b.ftl", "c.ftl"));
+    assertEquals(Arrays.asList("a.ftl", "b.ftl", "c.ftl"), Arrays.asList(times.keySet().toArray()));
+  }
+
+  @Test
+  public void failOnCompilationError() {
+    TemplateWarmup warmup = new TemplateWarmup("test", EXT, name -> {
+      if (name.startsWith("bad")) {
+        throw new IOException("Syntax error: " + name);
+      }
+    });
+    IllegalStateException x = assertThrows(IllegalStateException.class,
+        () -> warmup.compile(LoggerFactory.getLogger(getClass()),
+            Arrays.asList("bad1.ftl", "good.ftl", "bad2.ftl")));
+    assertEquals("test failed to compile: [bad1.ftl, bad2.ftl]", x.getMessage());
+    assertEquals(2, x.getSuppressed().length);
+  }
+
+  private static Environment env(ClassLoader loader) {
+    return new Environment(loader, ConfigFactory.empty(), "test");
+  }
+
+  private static void write(Path dir, String... files) throws IOException {
+    for (String file : files) {
+      Path path = dir.resolve(file);
+      Files.createDirectories(path.getParent());
+      Files.write(path, file.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
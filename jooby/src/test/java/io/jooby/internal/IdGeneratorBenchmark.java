@@ -0,0 +1,50 @@
+package io.jooby.internal;
+
+import io.jooby.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Identifier generation from many threads at the same time (new sessions, logins).
+ */
+@Fork(5)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+  private final SecureRandom shared = new SecureRandom();
+
+  @Benchmark
+  public String sharedSecureRandom() {
+    byte[] bytes = new byte[30];
+    shared.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  @Benchmark
+  public String randomUUID() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public String idGenerator() {
+    return IdGenerator.DEFAULT.generate();
+  }
+}
@@ -0,0 +1,196 @@
+package io.jooby.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapSessionSegmentTest {
+
+  private static final int INDEX = 16;
+
+  private static final long TIMEOUT = 1000;
+
+  @Test
+  public void putGetRemove() {
+    OffHeapSessionSegment segment = segment(TIMEOUT);
+    segment.put("a", "a".hashCode(), 1, 2, attributes("foo", "bar"), 2);
+    segment.put("b", "b".hashCode(), 3, 4, Collections.emptyMap(), 4);
+    assertEquals(2, segment.size());
+
+    OffHeapSessionSegment.Record a = segment.get("a", "a".hashCode(), 10, false);
+    assertNotNull(a);
+    assertEquals(1, a.creationTime);
+    assertEquals(2, a.lastAccessedTime);
+    assertEquals(attributes("foo", "bar"), a.attributes);
+
+    OffHeapSessionSegment.Record b = segment.get("b", "b".hashCode(), 10, true);
+    assertEquals(Collections.emptyMap(), b.attributes);
+    assertEquals(10, segment.get("b", "b".hashCode(), 10, false).lastAccessedTime);
+
+    assertNull(segment.get("c", "c".hashCode(), 10, false));
+
+    assertEquals(attributes("foo", "bar"), segment.remove("a", "a".hashCode(), 10).attributes);
+    assertNull(segment.get("a", "a".hashCode(), 10, false));
+    assertEquals(1, segment.size());
+  }
+
+  @Test
+  public void overwriteWithLargerRecord() {
+    OffHeapSessionSegment segment = segment(TIMEOUT);
+    segment.put("a", "a".hashCode(), 1, 1, attributes("foo", "bar"), 1);
+
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      value.append(i);
+    }
+    Map<String, String> large = attributes("foo", value.toString());
+    large.put("bar", "baz");
+    segment.put("a", "a".hashCode(), 1, 2, large, 2);
+    assertEquals(1, segment.size());
+    assertEquals(large, segment.get("a", "a".hashCode(), 2, false).attributes);
+
+    segment.put("a", "a".hashCode(), 1, 3, attributes("x", "y"), 3);
+    assertEquals(attributes("x", "y"), segment.get("a", "a".hashCode(), 3, false).attributes);
+  }
+
+  @Test
+  public void expire() {
+    OffHeapSessionSegment segment = segment(TIMEOUT);
+    segment.put("a", "a".hashCode(), 0, 0, attributes("foo", "bar"), 0);
+    segment.put("b", "b".hashCode(), 0, 500, attributes("foo", "bar"), 500);
+
+    segment.expire(999);
+    assertEquals(2, segment.size());
+
+    segment.expire(1100);
+    assertEquals(1, segment.size());
+    assertNull(segment.get("a", "a".hashCode(), 1100, false));
+
+    // touch moves the session to a later bucket
+    assertNotNull(segment.get("b", "b".hashCode(), 1200, true));
+    segment.expire(1600);
+    assertEquals(1, segment.size());
+
+    // expired on read, even if not reclaimed yet
+    assertNull(segment.get("b", "b".hashCode(), 2200, false));
+    assertEquals(0, segment.size());
+  }
+
+  @Test
+  public void full() {
+    OffHeapSessionSegment segment = segment(0);
+    for (int i = 0; i < segment.getMaxSize(); i++) {
+      String id = "s" + i;
+      segment.put(id, id.hashCode(), 0, 0, Collections.emptyMap(), 0);
+    }
+    assertThrows(IllegalStateException.class,
+        () -> segment.put("x", "x".hashCode(), 0, 0, Collections.emptyMap(), 0));
+
+    // reuse tombstones
+    segment.remove("s0", "s0".hashCode(), 0);
+    segment.put("x", "x".hashCode(), 0, 0, Collections.emptyMap(), 0);
+    assertEquals(segment.getMaxSize(), segment.size());
+    for (int i = 1; i < segment.getMaxSize(); i++) {
+      String id = "s" + i;
+      assertNotNull(segment.get(id, id.hashCode(), 0, false), id);
+    }
+  }
+
+  @Test
+  public void reclaimExpiredWhenFull() {
+    OffHeapSessionSegment segment = segment(TIMEOUT);
+    for (int i = 0; i < segment.getMaxSize(); i++) {
+      String id = "s" + i;
+      segment.put(id, id.hashCode(), 0, 0, Collections.emptyMap(), 0);
+    }
+    segment.put("x", "x".hashCode(), 5000, 5000, Collections.emptyMap(), 5000);
+    assertEquals(1, segment.size());
+  }
+
+  @Test
+  public void splitLargerFreeBlocks() {
+    OffHeapSessionSegment segment = segment(TIMEOUT);
+    char[] value = new char[OffHeapSessionSegment.MAX_BLOCK_SIZE / 2 + 1];
+    Arrays.fill(value, 'x');
+    // takes all the data blocks
+    segment.put("big", "big".hashCode(), 0, 0, attributes("foo", new String(value)), 0);
+    assertThrows(IllegalStateException.class,
+        () -> segment.put("a", "a".hashCode(), 0, 0, attributes("foo", "bar"), 0));
+
+    segment.remove("big", "big".hashCode(), 0);
+    for (int i = 0; i < segment.getMaxSize(); i++) {
+      String id = "s" + i;
+      segment.put(id, id.hashCode(), 0, 0, attributes("foo", "bar" + i), 0);
+    }
+    for (int i = 0; i < segment.getMaxSize(); i++) {
+      String id = "s" + i;
+      assertEquals(attributes("foo", "bar" + i), segment.get(id, id.hashCode(), 0, false)
+          .attributes);
+    }
+  }
+
+  @Test
+  public void rejectLargeAttributeNames() {
+    OffHeapSessionSegment segment = segment(TIMEOUT);
+    char[] name = new char[Short.MAX_VALUE + 1];
+    Arrays.fill(name, 'x');
+    assertThrows(IllegalArgumentException.class,
+        () -> segment.put("a", "a".hashCode(), 0, 0, attributes(new String(name), "bar"), 0));
+    assertEquals(0, segment.size());
+  }
+
+  @Test
+  public void persistent(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("sessions.bin");
+    int capacity = OffHeapSessionSegment.requiredCapacity(INDEX);
+    try (FileChannel channel = open(file)) {
+      OffHeapSessionSegment segment = new OffHeapSessionSegment(
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), INDEX, TIMEOUT);
+      segment.put("a", "a".hashCode(), 1, 2, attributes("foo", "bar"), 2);
+      segment.force();
+    }
+
+    try (FileChannel channel = open(file)) {
+      OffHeapSessionSegment segment = new OffHeapSessionSegment(
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), INDEX, TIMEOUT);
+      assertEquals(1, segment.size());
+      assertEquals(attributes("foo", "bar"), segment.get("a", "a".hashCode(), 3, false).attributes);
+    }
+
+    // settings changed: formatted
+    try (FileChannel channel = open(file)) {
+      OffHeapSessionSegment segment = new OffHeapSessionSegment(
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), INDEX, TIMEOUT * 2);
+      assertEquals(0, segment.size());
+    }
+  }
+
+  private static FileChannel open(Path file) throws Exception {
+    return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  private static OffHeapSessionSegment segment(long timeout) {
+    return new OffHeapSessionSegment(
+        ByteBuffer.allocateDirect(OffHeapSessionSegment.requiredCapacity(INDEX)), INDEX, timeout);
+  }
+
+  private static Map<String, String> attributes(String name, String value) {
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put(name, value);
+    return attributes;
+  }
+}
@@ -214,6 +214,19 @@ public class PipelineTest {
     assertTrue(next == h, "found: " + next + ", expected: " + h.getClass());
   }
 
+  @Test
+  public void reusePipelineAcrossRoutes() {
+    Pipeline pipelines = new Pipeline(getClass().getClassLoader());
+    Route.Handler h = ctx -> "OK";
+    LinkedHandler future = (LinkedHandler) pipelines.compute(route(CompletableFuture.class, h),
+        ExecutionMode.EVENT_LOOP, null, null, null);
+    assertTrue(future instanceof DetachHandler, "found: " + future);
+    LinkedHandler string = (LinkedHandler) pipelines.compute(route(String.class, h),
+        ExecutionMode.EVENT_LOOP, null, null, null);
+    assertTrue(string instanceof SendCharSequence, "found: " + string);
+    assertTrue(string.next() == h, "found: " + string.next() + ", expected: " + h.getClass());
+  }
+
   private Route.Handler pipeline(Route route, ExecutionMode mode) {
     return pipeline(route, mode, null);
   }
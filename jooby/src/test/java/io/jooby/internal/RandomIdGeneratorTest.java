@@ -0,0 +1,54 @@
+package io.jooby.internal;
+
+import io.jooby.IdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RandomIdGeneratorTest {
+
+  @Test
+  public void base64Url() {
+    for (int size = 1; size <= 32; size++) {
+      IdGenerator generator = IdGenerator.random(size);
+      for (int i = 0; i < 100; i++) {
+        String id = generator.generate();
+        assertTrue(id.matches("[A-Za-z0-9_-]+"), id);
+        assertEquals(size, Base64.getUrlDecoder().decode(id).length, id);
+      }
+    }
+  }
+
+  @Test
+  public void defaultGenerator() {
+    Set<String> ids = new HashSet<>();
+    for (int i = 0; i < 10_000; i++) {
+      String id = IdGenerator.DEFAULT.generate();
+      assertEquals(40, id.length());
+      assertTrue(ids.add(id), id);
+    }
+  }
+
+  @Test
+  public void reseed() {
+    IdGenerator generator = IdGenerator.random(3);
+    Set<String> ids = new HashSet<>();
+    // crosses reseed interval
+    for (int i = 0; i < 70_000; i++) {
+      ids.add(generator.generate());
+    }
+    // 2^24 possible values, few collisions expected
+    assertTrue(ids.size() > 69_000, Integer.toString(ids.size()));
+  }
+
+  @Test
+  public void invalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> IdGenerator.random(0));
+  }
+}
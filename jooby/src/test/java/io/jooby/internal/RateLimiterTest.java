@@ -0,0 +1,129 @@
+package io.jooby.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void tokenBucket() {
+    AtomicLong clock = new AtomicLong(100);
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 5 * SECOND, clock::get);
+
+    assertEquals(4, limiter.tryConsume());
+    assertEquals(3, limiter.tryConsume());
+    assertEquals(2, limiter.tryConsume());
+    assertEquals(1, limiter.tryConsume());
+    assertEquals(0, limiter.tryConsume());
+    // empty, next token in 1s
+    assertEquals(-SECOND, limiter.tryConsume());
+
+    clock.addAndGet(SECOND / 2);
+    assertEquals(-SECOND / 2, limiter.tryConsume());
+
+    clock.addAndGet(SECOND / 2);
+    assertEquals(0, limiter.tryConsume());
+    assertTrue(limiter.tryConsume() < 0);
+
+    // full refill, never above capacity
+    clock.addAndGet(60 * SECOND);
+    assertEquals(4, limiter.tryConsume());
+  }
+
+  @Test
+  public void slidingWindow() {
+    AtomicLong clock = new AtomicLong(-SECOND);
+    SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, SECOND, clock::get);
+
+    assertEquals(3, limiter.tryConsume());
+    assertEquals(2, limiter.tryConsume());
+    assertEquals(1, limiter.tryConsume());
+    assertEquals(0, limiter.tryConsume());
+    long wait = limiter.tryConsume();
+    assertTrue(wait < 0);
+
+    // next window: previous count weights 75% => 3 used
+    clock.addAndGet(SECOND + SECOND / 4);
+    assertEquals(0, limiter.tryConsume());
+    assertTrue(limiter.tryConsume() < 0);
+
+    // previous window weights 50% => 2 + 1 used
+    clock.addAndGet(SECOND / 4);
+    assertEquals(0, limiter.tryConsume());
+    assertTrue(limiter.tryConsume() < 0);
+
+    // idle for a long time
+    clock.addAndGet(10 * SECOND);
+    assertEquals(3, limiter.tryConsume());
+  }
+
+  @Test
+  public void slidingWindowNanosToWait() {
+    AtomicLong clock = new AtomicLong(0);
+    SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(2, SECOND, clock::get);
+    limiter.tryConsume();
+    limiter.tryConsume();
+    long wait = -limiter.tryConsume();
+    // 2 requests in previous window: must wait until they weight 50%
+    assertEquals(SECOND + SECOND / 2, wait);
+
+    clock.addAndGet(wait);
+    assertEquals(0, limiter.tryConsume());
+  }
+
+  @Test
+  public void expiringMapEvictsIdleEntries() {
+    AtomicLong clock = new AtomicLong();
+    BoundedExpiringMap<String, Object> map = new BoundedExpiringMap<>(100, SECOND, clock::get);
+    Object a = map.computeIfAbsent("a", k -> new Object());
+    map.computeIfAbsent("b", k -> new Object());
+    assertSame(a, map.computeIfAbsent("a", k -> new Object()));
+    assertEquals(2, map.size());
+
+    clock.addAndGet(SECOND / 2);
+    map.computeIfAbsent("a", k -> new Object());
+
+    clock.addAndGet(SECOND / 2 + 1);
+    // b is idle
+    assertSame(a, map.computeIfAbsent("a", k -> new Object()));
+    assertEquals(1, map.size());
+
+    clock.addAndGet(2 * SECOND);
+    assertNotSame(a, map.computeIfAbsent("a", k -> new Object()));
+  }
+
+  @Test
+  public void expiringMapIsBounded() {
+    AtomicLong clock = new AtomicLong();
+    BoundedExpiringMap<Integer, Object> map = new BoundedExpiringMap<>(10, 60 * SECOND,
+        clock::get);
+    for (int i = 0; i < 1000; i++) {
+      clock.addAndGet(SECOND);
+      map.computeIfAbsent(i, k -> new Object());
+      assertTrue(map.size() <= 10, "size: " + map.size());
+    }
+  }
+
+  @Test
+  public void expiringMapKeepsRecentlyUsedEntries() {
+    AtomicLong clock = new AtomicLong();
+    BoundedExpiringMap<Integer, Object> map = new BoundedExpiringMap<>(10, 60 * SECOND,
+        clock::get);
+    Object hot = map.computeIfAbsent(-1, k -> new Object());
+    for (int i = 0; i < 1000; i++) {
+      clock.addAndGet(SECOND);
+      assertSame(hot, map.computeIfAbsent(-1, k -> new Object()));
+      map.computeIfAbsent(i, k -> new Object());
+      assertTrue(map.size() <= 10, "size: " + map.size());
+    }
+  }
+}
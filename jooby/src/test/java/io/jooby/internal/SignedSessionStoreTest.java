@@ -0,0 +1,142 @@
+package io.jooby.internal;
+
+import io.jooby.Context;
+import io.jooby.Cookie;
+import io.jooby.Session;
+import io.jooby.SessionToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SignedSessionStoreTest {
+
+  private static final String SECRET = "987654345!$009P";
+
+  private static final SessionToken TOKEN = SessionToken.cookieId(SessionToken.SID);
+
+  @Test
+  public void verifyOnce() {
+    AtomicInteger calls = new AtomicInteger();
+    SignedSessionStore store = new SignedSessionStore(TOKEN, decoder(calls),
+        Cookie::encode);
+
+    String signed = Cookie.sign("foo=bar", SECRET);
+    Session session = store.findSession(context(signed));
+    assertEquals("bar", session.get("foo").value());
+
+    session = store.findSession(context(signed));
+    assertEquals("bar", session.get("foo").value());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void invalidTokensAreNotCached() {
+    AtomicInteger calls = new AtomicInteger();
+    SignedSessionStore store = new SignedSessionStore(TOKEN, decoder(calls),
+        Cookie::encode);
+
+    String signed = Cookie.sign("foo=bar", "another secret");
+    assertNull(store.findSession(context(signed)));
+    assertNull(store.findSession(context(signed)));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void honourExpiration() {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicLong clock = new AtomicLong(1000);
+    Function<String, Map<String, String>> decoder = value -> {
+      calls.incrementAndGet();
+      if (clock.get() >= 5000) {
+        // expired
+        return null;
+      }
+      Map<String, String> attributes = new HashMap<>();
+      attributes.put("sub", "edgar");
+      attributes.put("exp", "5");
+      return attributes;
+    };
+    SignedSessionStore store = new SignedSessionStore(TOKEN, decoder, Cookie::encode,
+        clock::get, Long.MAX_VALUE / 2);
+
+    assertEquals("edgar", store.findSession(context("jwt")).get("sub").value());
+    clock.set(4999);
+    assertEquals("edgar", store.findSession(context("jwt")).get("sub").value());
+    assertEquals(1, calls.get());
+
+    clock.set(5000);
+    assertNull(store.findSession(context("jwt")));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void tokenWithoutExpirationIsCachedUpToTimeout() {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicLong clock = new AtomicLong(1000);
+    SignedSessionStore store = new SignedSessionStore(TOKEN, decoder(calls), Cookie::encode,
+        clock::get, 10_000);
+
+    String signed = Cookie.sign("foo=bar", SECRET);
+    assertEquals("bar", store.findSession(context(signed)).get("foo").value());
+    clock.set(10_999);
+    assertEquals("bar", store.findSession(context(signed)).get("foo").value());
+    assertEquals(1, calls.get());
+
+    clock.set(11_000);
+    assertEquals("bar", store.findSession(context(signed)).get("foo").value());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void tokenNotValidYetIsNotCached() {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicLong clock = new AtomicLong(1000);
+    Function<String, Map<String, String>> decoder = value -> {
+      calls.incrementAndGet();
+      Map<String, String> attributes = new HashMap<>();
+      attributes.put("sub", "edgar");
+      attributes.put("nbf", "5");
+      return attributes;
+    };
+    SignedSessionStore store = new SignedSessionStore(TOKEN, decoder, Cookie::encode,
+        clock::get, 60_000);
+
+    store.findSession(context("jwt"));
+    store.findSession(context("jwt"));
+    assertEquals(2, calls.get());
+
+    clock.set(5000);
+    store.findSession(context("jwt"));
+    store.findSession(context("jwt"));
+    assertEquals(3, calls.get());
+  }
+
+  private static Function<String, Map<String, String>> decoder(AtomicInteger calls) {
+    return value -> {
+      calls.incrementAndGet();
+      String unsign = Cookie.unsign(value, SECRET);
+      return unsign == null ? null : Cookie.decode(unsign);
+    };
+  }
+
+  private static Context context(String token) {
+    Context ctx = mock(Context.class);
+    when(ctx.cookieMap()).thenReturn(singletonMap(SessionToken.SID.getName(), token));
+    return ctx;
+  }
+
+  private static Map<String, String> singletonMap(String name, String value) {
+    Map<String, String> map = new HashMap<>();
+    map.put(name, value);
+    return map;
+  }
+}
@@ -0,0 +1,86 @@
+package io.jooby.internal;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import io.jooby.Context;
+import io.jooby.Router;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TemplateWriterTest {
+
+  @Test
+  public void bufferedOutput() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Context ctx = context(64, out);
+    String text = "ascii, ñandú, € and 😀";
+    try (TemplateWriter writer = new TemplateWriter(ctx)) {
+      writer.write(text);
+      writer.flush();
+      assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+    }
+    verify(ctx, never()).responseStream();
+  }
+
+  @Test
+  public void streamWhenBufferIsFull() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Context ctx = context(4, out);
+    String text = "héllo wörld 😀!";
+    try (TemplateWriter writer = new TemplateWriter(ctx)) {
+      writer.write(text.toCharArray(), 0, 8);
+      writer.write(text, 8, text.length() - 8);
+      assertEquals(text.getBytes(StandardCharsets.UTF_8).length, writer.getByteLength());
+      assertNull(writer.toByteArray());
+    }
+    assertEquals(text, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void surrogatePairAcrossWrites() throws Exception {
+    Context ctx = context(16, new ByteArrayOutputStream());
+    try (TemplateWriter writer = new TemplateWriter(ctx)) {
+      writer.write('\uD83D');
+      writer.write("\uDE00");
+      writer.write("\uD83Da");
+      writer.write('\uDE00');
+      assertEquals("😀?a?",
+          new String(writer.toByteArray(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void rawBytes() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Context ctx = context(4, out);
+    try (TemplateWriter writer = new TemplateWriter(ctx)) {
+      writer.write("<p>");
+      writer.writeBytes("static content".getBytes(StandardCharsets.UTF_8), 7, 7);
+      writer.write("</p>");
+      assertNull(writer.toByteArray());
+    }
+    assertEquals("<p>content</p>", new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  private static Context context(int bufferSize, ByteArrayOutputStream out) {
+    Config conf = ConfigFactory.empty()
+        .withValue("server.bufferSize", ConfigValueFactory.fromAnyRef(bufferSize));
+    Router router = mock(Router.class);
+    when(router.getConfig()).thenReturn(conf);
+    Context ctx = mock(Context.class);
+    when(ctx.getRouter()).thenReturn(router);
+    when(ctx.responseStream()).thenReturn(out);
+    return ctx;
+  }
+}
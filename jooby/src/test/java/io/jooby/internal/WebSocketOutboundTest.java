@@ -0,0 +1,180 @@
+package io.jooby.internal;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import io.jooby.WebSocket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WebSocketOutboundTest {
+
+  private static class Client {
+    private List<String> written = new ArrayList<>();
+
+    private List<String> discarded = new ArrayList<>();
+
+    private AtomicInteger overflow = new AtomicInteger();
+
+    private WebSocketOutbound<String> outbound;
+
+    Client(Config conf) {
+      outbound = new WebSocketOutbound<>(conf, (message, size) -> written.add(message),
+          discarded::add, overflow::incrementAndGet);
+    }
+
+    Client(long maxSize, WebSocket.OverflowPolicy policy) {
+      this(ConfigFactory.empty());
+      outbound.setLimit(maxSize, policy);
+    }
+
+    void send(String... messages) {
+      for (String message : messages) {
+        outbound.send(message, message.length());
+      }
+    }
+
+    void complete(String message) {
+      outbound.complete(message.length());
+    }
+  }
+
+  @Test
+  public void unlimited() {
+    Client client = new Client(ConfigFactory.empty());
+    client.send("a", "b", "c");
+    assertEquals(Arrays.asList("a", "b", "c"), client.written);
+    assertEquals(3, client.outbound.getQueuedBytes());
+
+    client.complete("a");
+    client.complete("b");
+    assertEquals(1, client.outbound.getQueuedBytes());
+    assertEquals(0, client.outbound.getDroppedMessages());
+  }
+
+  @Test
+  public void dropNewest() {
+    Client client = new Client(4, WebSocket.OverflowPolicy.DROP_NEWEST);
+    client.send("aa", "bb", "cc", "dd");
+    assertEquals(Arrays.asList("aa", "bb"), client.written);
+    assertEquals(Arrays.asList("cc", "dd"), client.discarded);
+    assertEquals(2, client.outbound.getDroppedMessages());
+
+    client.complete("aa");
+    client.send("ee");
+    assertEquals(Arrays.asList("aa", "bb", "ee"), client.written);
+    assertEquals(4, client.outbound.getQueuedBytes());
+  }
+
+  @Test
+  public void dropOldest() {
+    Client client = new Client(4, WebSocket.OverflowPolicy.DROP_OLDEST);
+    client.send("aa", "bb", "cc", "dd", "ee");
+    assertEquals(Arrays.asList("aa", "bb"), client.written);
+    assertEquals(Arrays.asList("cc"), client.discarded);
+    assertEquals(8, client.outbound.getQueuedBytes());
+
+    client.complete("aa");
+    client.complete("bb");
+    assertEquals(Arrays.asList("aa", "bb", "dd", "ee"), client.written);
+    assertEquals(1, client.outbound.getDroppedMessages());
+    assertEquals(4, client.outbound.getQueuedBytes());
+  }
+
+  @Test
+  public void latestOnly() {
+    Client client = new Client(2, WebSocket.OverflowPolicy.LATEST_ONLY);
+    client.send("p1", "p2", "p3", "p4");
+    assertEquals(Arrays.asList("p1"), client.written);
+    assertEquals(Arrays.asList("p2", "p3"), client.discarded);
+
+    client.complete("p1");
+    assertEquals(Arrays.asList("p1", "p4"), client.written);
+    assertEquals(2, client.outbound.getDroppedMessages());
+  }
+
+  @Test
+  public void disconnect() {
+    Client client = new Client(ConfigFactory.empty()
+        .withValue("websocket.maxOutboundSize", ConfigValueFactory.fromAnyRef("2b"))
+        .withValue("websocket.overflowPolicy", ConfigValueFactory.fromAnyRef("disconnect")));
+    client.send("aa", "bb");
+    assertEquals(Arrays.asList("aa"), client.written);
+    assertEquals(Arrays.asList("bb"), client.discarded);
+    assertEquals(1, client.overflow.get());
+  }
+
+  @Test
+  public void largeMessageIsWrittenWhenIdle() {
+    Client client = new Client(2, WebSocket.OverflowPolicy.DROP_NEWEST);
+    client.send("large message");
+    assertEquals(Arrays.asList("large message"), client.written);
+  }
+
+  @Test
+  public void synchronousCompletionKeepsOrder() {
+    List<String> written = new ArrayList<>();
+    List<WebSocketOutbound<String>> ref = new ArrayList<>();
+    WebSocketOutbound<String> outbound = new WebSocketOutbound<>(ConfigFactory.empty(),
+        (message, size) -> {
+          written.add(message);
+          // completes on caller thread
+          ref.get(0).complete(size);
+        }, message -> {
+        }, () -> {
+        });
+    ref.add(outbound);
+    outbound.setLimit(1, WebSocket.OverflowPolicy.DROP_OLDEST);
+    outbound.send("a", 1);
+    outbound.send("b", 1);
+    assertEquals(Arrays.asList("a", "b"), written);
+    assertEquals(0, outbound.getQueuedBytes());
+  }
+
+  @Test
+  public void writesOutsideTheLock() {
+    List<String> written = new ArrayList<>();
+    List<WebSocketOutbound<String>> ref = new ArrayList<>();
+    WebSocketOutbound<String> outbound = new WebSocketOutbound<>(ConfigFactory.empty(),
+        (message, size) -> {
+          assertFalse(Thread.holdsLock(ref.get(0)));
+          written.add(message);
+          if (message.equals("a")) {
+            // sent while writing, queued and written next
+            ref.get(0).send("b", 1);
+          }
+        }, message -> {
+        }, () -> {
+        });
+    ref.add(outbound);
+    outbound.send("a", 1);
+    outbound.complete(1);
+    assertEquals(Arrays.asList("a", "b"), written);
+    assertEquals(1, outbound.getQueuedBytes());
+  }
+
+  @Test
+  public void closeDiscardsQueuedMessages() {
+    Client client = new Client(2, WebSocket.OverflowPolicy.DROP_OLDEST);
+    client.send("aa", "bb");
+    client.outbound.close();
+    client.send("cc");
+    assertEquals(Arrays.asList("bb", "cc"), client.discarded);
+    assertEquals(2, client.outbound.getQueuedBytes());
+  }
+
+  @Test
+  public void invalidLimit() {
+    Client client = new Client(ConfigFactory.empty());
+    assertThrows(IllegalArgumentException.class,
+        () -> client.outbound.setLimit(0, WebSocket.OverflowPolicy.DROP_NEWEST));
+  }
+}
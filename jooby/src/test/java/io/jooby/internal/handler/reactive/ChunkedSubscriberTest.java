@@ -0,0 +1,189 @@
+package io.jooby.internal.handler.reactive;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.MessageEncoder;
+import io.jooby.Route;
+import io.jooby.Router;
+import io.jooby.Sender;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkedSubscriberTest {
+
+  private static class Stream implements ChunkedSubscription {
+    private final List<String> items;
+
+    private ChunkedSubscriber subscriber;
+
+    private int next;
+
+    private List<Long> requests = new ArrayList<>();
+
+    Stream(String... items) {
+      this.items = Arrays.asList(items);
+    }
+
+    @Override public void request(long n) {
+      requests.add(n);
+      for (long i = 0; i < n && next < items.size(); i++) {
+        subscriber.onNext(items.get(next++));
+      }
+      if (next == items.size()) {
+        next += 1;
+        subscriber.onComplete();
+      }
+    }
+
+    @Override public void cancel() {
+    }
+  }
+
+  private static class CapturingSender implements Sender {
+    private List<String> writes = new ArrayList<>();
+
+    private List<byte[]> buffers = new ArrayList<>();
+
+    private List<Callback> callbacks = new ArrayList<>();
+
+    private boolean closed;
+
+    @Nonnull @Override public Sender write(@Nonnull byte[] data, @Nonnull Callback callback) {
+      return write(data, 0, data.length, callback);
+    }
+
+    @Nonnull @Override public Sender write(@Nonnull byte[] data, int offset, int length,
+        @Nonnull Callback callback) {
+      writes.add(new String(data, offset, length, StandardCharsets.UTF_8));
+      buffers.add(data);
+      callbacks.add(callback);
+      return this;
+    }
+
+    @Override public void close() {
+      closed = true;
+    }
+
+    void complete(Context ctx) {
+      callbacks.remove(0).onComplete(ctx, null);
+    }
+  }
+
+  @Test
+  public void jsonArrayInBatches() throws Exception {
+    CapturingSender sender = new CapturingSender();
+    Context ctx = context(sender, MediaType.json, 2);
+    Stream stream = new Stream("1", "2", "3", "4", "5");
+    stream.subscriber = new ChunkedSubscriber(ctx);
+    stream.subscriber.onSubscribe(stream);
+
+    assertEquals(Arrays.asList("[1,2"), sender.writes);
+    sender.complete(ctx);
+    assertEquals(Arrays.asList("[1,2", ",3,4"), sender.writes);
+    sender.complete(ctx);
+    assertEquals(Arrays.asList("[1,2", ",3,4", ",5]"), sender.writes);
+    assertTrue(sender.closed);
+    assertEquals(Arrays.asList(2L, 2L, 2L), stream.requests);
+  }
+
+  @Test
+  public void writtenBuffersAreReused() throws Exception {
+    CapturingSender sender = new CapturingSender();
+    Context ctx = context(sender, MediaType.json, 2);
+    Stream stream = new Stream("1", "2", "3", "4", "5");
+    stream.subscriber = new ChunkedSubscriber(ctx);
+    stream.subscriber.onSubscribe(stream);
+
+    sender.complete(ctx);
+    sender.complete(ctx);
+    assertEquals(Arrays.asList("[1,2", ",3,4", ",5]"), sender.writes);
+    assertNotSame(sender.buffers.get(0), sender.buffers.get(1));
+    assertSame(sender.buffers.get(0), sender.buffers.get(2));
+  }
+
+  @Test
+  public void ndjson() throws Exception {
+    CapturingSender sender = new CapturingSender();
+    Context ctx = context(sender, MediaType.ndjson, 3);
+    Stream stream = new Stream("{\"a\":1}", "{\"b\":2}");
+    stream.subscriber = new ChunkedSubscriber(ctx);
+    stream.subscriber.onSubscribe(stream);
+
+    assertEquals(Arrays.asList("{\"a\":1}\n{\"b\":2}\n"), sender.writes);
+    assertTrue(sender.closed);
+  }
+
+  @Test
+  public void itemsReceivedDuringWriteAreAggregated() throws Exception {
+    CapturingSender sender = new CapturingSender();
+    Context ctx = context(sender, MediaType.text, 1);
+    ChunkedSubscriber subscriber = new ChunkedSubscriber(ctx);
+    subscriber.onSubscribe(new ChunkedSubscription() {
+      @Override public void request(long n) {
+        // push based
+      }
+
+      @Override public void cancel() {
+      }
+    });
+
+    subscriber.onNext("a");
+    subscriber.onNext("b");
+    subscriber.onNext("c");
+    subscriber.onComplete();
+    assertEquals(Arrays.asList("a"), sender.writes);
+
+    sender.complete(ctx);
+    assertEquals(Arrays.asList("a", "bc"), sender.writes);
+    assertTrue(sender.closed);
+  }
+
+  @Test
+  public void emptyStream() throws Exception {
+    CapturingSender sender = new CapturingSender();
+    Context ctx = context(sender, MediaType.json, 2);
+    Stream stream = new Stream();
+    stream.subscriber = new ChunkedSubscriber(ctx);
+    stream.subscriber.onSubscribe(stream);
+
+    assertEquals(0, sender.writes.size());
+    assertTrue(sender.closed);
+  }
+
+  private static Context context(Sender sender, MediaType type, int prefetch) throws Exception {
+    Config conf = ConfigFactory.empty()
+        .withValue("stream.prefetch", ConfigValueFactory.fromAnyRef(prefetch))
+        .withValue("stream.flushInterval", ConfigValueFactory.fromAnyRef("1m"));
+    Router router = mock(Router.class);
+    when(router.getConfig()).thenReturn(conf);
+
+    MessageEncoder encoder = mock(MessageEncoder.class);
+    when(encoder.encode(any(), any())).thenAnswer(
+        invocation -> invocation.getArgument(1).toString().getBytes(StandardCharsets.UTF_8));
+    Route route = mock(Route.class);
+    when(route.getEncoder()).thenReturn(encoder);
+
+    Context ctx = mock(Context.class);
+    when(ctx.getRouter()).thenReturn(router);
+    when(ctx.getRoute()).thenReturn(route);
+    when(ctx.responseSender()).thenReturn(sender);
+    when(ctx.getResponseType()).thenReturn(type);
+    return ctx;
+  }
+}
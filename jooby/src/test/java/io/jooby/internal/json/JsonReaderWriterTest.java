@@ -0,0 +1,121 @@
+package io.jooby.internal.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jooby.exception.BadRequestException;
+
+public class JsonReaderWriterTest {
+
+  @Test
+  public void shouldWriteValues() {
+    JsonWriter writer = new JsonWriter(4);
+    writer.beginObject();
+    writer.name("s");
+    writer.value("a\"b\\c\n\u0001é€😀");
+    writer.name("n");
+    writer.value(-42L);
+    writer.name("d");
+    writer.value(1.5d);
+    writer.name("nan");
+    writer.value(Double.NaN);
+    writer.name("b");
+    writer.value(true);
+    writer.name("null");
+    writer.nullValue();
+    writer.name("a");
+    writer.beginArray();
+    writer.value(1L);
+    writer.beginObject();
+    writer.endObject();
+    writer.beginArray();
+    writer.endArray();
+    writer.endArray();
+    writer.endObject();
+
+    assertEquals("{\"s\":\"a\\\"b\\\\c\\n\\u0001é€😀\",\"n\":-42,\"d\":1.5,\"nan\":\"NaN\","
+        + "\"b\":true,\"null\":null,\"a\":[1,{},[]]}", json(writer));
+  }
+
+  @Test
+  public void shouldReadValues() {
+    JsonReader reader = reader(" { \"s\" : \"a\\\"b\\u00e9\\n€\", \"n\": -42, \"q\": \"7\", "
+        + "\"f\": 2.9, \"d\": 1e3, \"b\": false, \"x\": null, \"skip\": {\"a\": [1, \"]\", {}]}, "
+        + "\"big\": 12345678901234567890 } ");
+    reader.beginObject();
+    assertTrue(reader.hasNext());
+    assertEquals("s", reader.nextName());
+    assertEquals("a\"bé\n€", reader.nextString());
+    assertTrue(reader.hasNext());
+    assertEquals("n", reader.nextName());
+    assertEquals(-42, reader.nextInt());
+    assertTrue(reader.hasNext());
+    assertEquals("q", reader.nextName());
+    assertEquals(7L, reader.nextLong());
+    assertTrue(reader.hasNext());
+    assertEquals("f", reader.nextName());
+    assertEquals(2, reader.nextInt());
+    assertTrue(reader.hasNext());
+    assertEquals("d", reader.nextName());
+    assertEquals(1000d, reader.nextDouble());
+    assertTrue(reader.hasNext());
+    assertEquals("b", reader.nextName());
+    assertFalse(reader.nextBoolean());
+    assertTrue(reader.hasNext());
+    assertEquals("x", reader.nextName());
+    assertNull(reader.nextString());
+    assertTrue(reader.hasNext());
+    assertEquals("skip", reader.nextName());
+    reader.skipValue();
+    assertTrue(reader.hasNext());
+    assertEquals("big", reader.nextName());
+    BadRequestException x = assertThrows(BadRequestException.class, reader::nextLong);
+    assertEquals("Malformed JSON at position 147: Numeric value out of range of long: "
+        + "12345678901234567890", x.getMessage());
+  }
+
+  @Test
+  public void shouldReadCollections() {
+    JsonCodec<List<String>> codec = JsonCodec.list(JsonCodec.STRING);
+    assertEquals(Arrays.asList("a", null, "c"), codec.read(reader("[\"a\", null, \"c\"]")));
+    assertNull(codec.read(reader("null")));
+
+    JsonWriter writer = new JsonWriter();
+    codec.write(writer, Arrays.asList("a", null));
+    assertEquals("[\"a\",null]", json(writer));
+  }
+
+  @Test
+  public void shouldRejectMalformedJson() {
+    assertThrows(BadRequestException.class, () -> reader("{\"a\" 1}").skipValue());
+    assertThrows(BadRequestException.class, () -> reader("[1 2]").skipValue());
+    assertThrows(BadRequestException.class, () -> reader("\"abc").skipValue());
+    assertThrows(BadRequestException.class, () -> reader("tru").skipValue());
+    assertThrows(BadRequestException.class, () -> reader("").skipValue());
+    assertThrows(BadRequestException.class, () -> reader("\"x\"").nextInt());
+    BadRequestException x = assertThrows(BadRequestException.class, () -> {
+      JsonReader reader = reader("{} x");
+      reader.skipValue();
+      reader.endDocument();
+    });
+    assertEquals("Malformed JSON at position 3: Unexpected content after end of document",
+        x.getMessage());
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String json(JsonWriter writer) {
+    return new String(writer.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -41,6 +41,8 @@ import javax.tools.StandardLocation;
 import io.jooby.MvcFactory;
 import io.jooby.SneakyThrows;
 import io.jooby.internal.apt.HandlerCompiler;
+import io.jooby.internal.apt.BeanConverterCompiler;
+import io.jooby.internal.apt.JsonCodecCompiler;
 import io.jooby.internal.apt.ModuleCompiler;
 import io.jooby.internal.apt.Opts;
 
@@ -54,7 +56,9 @@ import io.jooby.internal.apt.Opts;
     Opts.OPT_INCREMENTAL,
     Opts.OPT_SERVICES,
     Opts.OPT_SKIP_ATTRIBUTE_ANNOTATIONS,
-    Opts.OPT_EXTENDED_LOOKUP_OF_SUPERTYPES})
+    Opts.OPT_EXTENDED_LOOKUP_OF_SUPERTYPES,
+    Opts.OPT_JSON,
+    Opts.OPT_BEAN_CONVERTERS})
 public class JoobyProcessor extends AbstractProcessor {
 
   private ProcessingEnvironment processingEnv;
@@ -71,6 +75,8 @@ public class JoobyProcessor extends AbstractProcessor {
   private boolean incremental;
   private boolean services;
   private boolean extendedLooupOfSuperTypes;
+  private boolean json;
+  private boolean beanConverters;
 
   private int round;
 
@@ -84,9 +90,10 @@ public class JoobyProcessor extends AbstractProcessor {
       // only 'aggregating' mode is supported since it's likely that
       // more then one originating element is passed to the Filer
       // API on writing the resource file - isolating mode does not
-      // allow this.
+      // allow this. Same for bean converters and JSON codecs: they are generated from all the
+      // controllers using the bean.
       options.add(String.format("org.gradle.annotation.processing.%s",
-          services ? "aggregating" : "isolating"));
+          services || beanConverters || json ? "aggregating" : "isolating"));
     }
 
     return options;
@@ -111,10 +118,14 @@ public class JoobyProcessor extends AbstractProcessor {
     incremental = Opts.boolOpt(processingEnv, Opts.OPT_INCREMENTAL, true);
     services = Opts.boolOpt(processingEnv, Opts.OPT_SERVICES, true);
     extendedLooupOfSuperTypes = Opts.boolOpt(processingEnv, Opts.OPT_EXTENDED_LOOKUP_OF_SUPERTYPES, false);
+    json = Opts.boolOpt(processingEnv, Opts.OPT_JSON, false);
+    beanConverters = Opts.boolOpt(processingEnv, Opts.OPT_BEAN_CONVERTERS, true);
 
     debug("Incremental annotation processing is turned %s.", incremental ? "ON" : "OFF");
     debug("Generation of service provider configuration is turned %s.", services ? "ON" : "OFF");
     debug("Extended lookup of superTypes %s.", extendedLooupOfSuperTypes ? "ON" : "OFF");
+    debug("Generation of JSON codecs is turned %s.", json ? "ON" : "OFF");
+    debug("Generation of bean converters is turned %s.", beanConverters ? "ON" : "OFF");
   }
 
   @Override
@@ -256,12 +267,46 @@ public class JoobyProcessor extends AbstractProcessor {
       }
     }
 
+    /** JSON codecs for body and return types: */
+    JsonCodecCompiler jsonCodecs = null;
+    if (json) {
+      jsonCodecs = new JsonCodecCompiler(processingEnv);
+      for (Map.Entry<TypeElement, List<HandlerCompiler>> entry : classes.entrySet()) {
+        jsonCodecs.add(entry.getKey(), entry.getValue());
+      }
+      jsonCodecs.resolve();
+      for (Map.Entry<String, byte[]> codec : jsonCodecs.compile().entrySet()) {
+        String codecClass = codec.getKey();
+        debug("JSON codec %s", codecClass);
+        onClass(codecClass, codec.getValue());
+        writeClass(filer.createClassFile(codecClass, jsonCodecs.getOriginatingElement(codecClass)),
+            codec.getValue());
+      }
+    }
+
+    /** Bean converters for parameters of bean type: */
+    BeanConverterCompiler converters = null;
+    if (beanConverters) {
+      converters = new BeanConverterCompiler(processingEnv);
+      for (Map.Entry<TypeElement, List<HandlerCompiler>> entry : classes.entrySet()) {
+        converters.add(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<String, byte[]> converter : converters.compile().entrySet()) {
+        String converterClass = converter.getKey();
+        debug("Bean converter %s", converterClass);
+        onClass(converterClass, converter.getValue());
+        writeClass(filer.createClassFile(converterClass,
+            converters.getOriginatingElement(converterClass)), converter.getValue());
+      }
+    }
+
     Map<TypeElement, String> modules = new LinkedHashMap<>();
     for (Map.Entry<TypeElement, List<HandlerCompiler>> entry : classes.entrySet()) {
       TypeElement type = entry.getKey();
       String typeName = typeUtils.erasure(type.asType()).toString();
       List<HandlerCompiler> handlers = entry.getValue();
-      ModuleCompiler module = new ModuleCompiler(processingEnv, typeName);
+      ModuleCompiler module = new ModuleCompiler(processingEnv, typeName, jsonCodecs,
+          converters);
       String moduleClass = module.getModuleClass();
       byte[] moduleBin = module.compile(handlers);
       onClass(moduleClass, moduleBin);
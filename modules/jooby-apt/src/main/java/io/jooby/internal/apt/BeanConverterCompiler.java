@@ -0,0 +1,836 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.apt;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+import static org.objectweb.asm.Opcodes.AASTORE;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+/**
+ * Generates reflection-free bean converters for MVC parameters of bean type, like:
+ * <code>@QueryParam SearchFilter filter</code>. Generated converters work like the reflective bean
+ * converter: constructor arguments are looked up by name (or <code>@Named</code>) and remaining
+ * values are set with setters.
+ *
+ * A converter is generated for public and concrete classes whose constructor (single public
+ * constructor, <code>@Inject</code> constructor or public no-args constructor) and setters take
+ * primitives (except char and short), classes or List/Set/Optional of a class. Beans with
+ * file uploads or overloaded setters are ignored, they keep using the reflective converter.
+ */
+public class BeanConverterCompiler {
+
+  private static final String BEAN_CONVERTER = "io/jooby/internal/converter/GeneratedBeanConverter";
+
+  private static final String BEAN_CONVERTER_DESC = "L" + BEAN_CONVERTER + ";";
+
+  private static final String VALUE_NODE = "io/jooby/ValueNode";
+
+  private static final String INJECT = "javax.inject.Inject";
+
+  private static final String NAMED = "javax.inject.Named";
+
+  private static final String FILE_UPLOAD = "io.jooby.FileUpload";
+
+  private static final Pattern SYNTHETIC_NAME = Pattern.compile("arg\\d+");
+
+  private static final Map<String, String> COLLECTIONS = new LinkedHashMap<>();
+
+  static {
+    COLLECTIONS.put("java.util.List", "toList");
+    COLLECTIONS.put("java.util.Collection", "toList");
+    COLLECTIONS.put("java.util.Set", "toSet");
+    COLLECTIONS.put("java.util.Optional", "toOptional");
+  }
+
+  private static class Property {
+    private final String name;
+
+    private final TypeMirror type;
+
+    private final String description;
+
+    private final ExecutableElement setter;
+
+    Property(String name, TypeMirror type, String description, ExecutableElement setter) {
+      this.name = name;
+      this.type = type;
+      this.description = description;
+      this.setter = setter;
+    }
+  }
+
+  private static class Bean {
+    private final TypeElement element;
+
+    private final String className;
+
+    private final Element originatingElement;
+
+    private final List<Property> arguments = new ArrayList<>();
+
+    private final List<Property> properties = new ArrayList<>();
+
+    private ExecutableElement constructor;
+
+    private boolean supported = true;
+
+    Bean(TypeElement element, String className, Element originatingElement) {
+      this.element = element;
+      this.className = className;
+      this.originatingElement = originatingElement;
+    }
+
+    String getConverterClass() {
+      return className + "$Converter";
+    }
+
+    String getConverterInternalName() {
+      return getConverterClass().replace('.', '/');
+    }
+
+    Type getType() {
+      return Type.getObjectType(className.replace('.', '/'));
+    }
+
+    List<Property> all() {
+      List<Property> result = new ArrayList<>(arguments);
+      result.addAll(properties);
+      return result;
+    }
+  }
+
+  private final ProcessingEnvironment environment;
+
+  private final Types typeUtils;
+
+  private final Elements elements;
+
+  private final Map<String, Bean> beans = new LinkedHashMap<>();
+
+  public BeanConverterCompiler(ProcessingEnvironment environment) {
+    this.environment = environment;
+    this.typeUtils = environment.getTypeUtils();
+    this.elements = environment.getElementUtils();
+  }
+
+  /**
+   * Collect bean parameters of a controller. Types that don't qualify for a generated converter
+   * are ignored.
+   *
+   * @param controller Controller.
+   * @param handlers Route handlers.
+   */
+  public void add(TypeElement controller, List<HandlerCompiler> handlers) {
+    for (HandlerCompiler handler : handlers) {
+      for (TypeMirror type : types(handler)) {
+        bean(type, controller);
+      }
+    }
+  }
+
+  /**
+   * Generates the converter registration for bean parameters of a controller (and beans
+   * referenced by them).
+   *
+   * @param visitor Install method.
+   * @param handlers Route handlers.
+   */
+  public void install(MethodVisitor visitor, List<HandlerCompiler> handlers) {
+    Set<Bean> result = new LinkedHashSet<>();
+    for (HandlerCompiler handler : handlers) {
+      for (TypeMirror type : types(handler)) {
+        collect(bean(type, null), result);
+      }
+    }
+    for (Bean bean : result) {
+      visitor.visitFieldInsn(GETSTATIC, bean.getConverterInternalName(), "INSTANCE",
+          BEAN_CONVERTER_DESC);
+      visitor.visitVarInsn(ALOAD, 0);
+      visitor.visitMethodInsn(INVOKEVIRTUAL, BEAN_CONVERTER, "install", "(Lio/jooby/Router;)V",
+          false);
+    }
+  }
+
+  /**
+   * Generates converter classes of supported beans.
+   *
+   * @return Map of converter class name and bytecode.
+   */
+  public Map<String, byte[]> compile() {
+    Map<String, byte[]> result = new LinkedHashMap<>();
+    for (Bean bean : beans.values()) {
+      if (bean.supported) {
+        result.put(bean.getConverterClass(), compile(bean));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Element that triggered the generation of a converter class.
+   *
+   * @param converterClass Converter class name.
+   * @return Originating element.
+   */
+  public Element getOriginatingElement(String converterClass) {
+    for (Bean bean : beans.values()) {
+      if (bean.getConverterClass().equals(converterClass)) {
+        return bean.originatingElement;
+      }
+    }
+    throw new IllegalArgumentException("Not a bean converter: " + converterClass);
+  }
+
+  private void collect(Bean bean, Set<Bean> result) {
+    if (bean != null && bean.supported && result.add(bean)) {
+      for (Property property : bean.all()) {
+        collect(bean(element(property.type), null), result);
+      }
+    }
+  }
+
+  private List<TypeMirror> types(HandlerCompiler handler) {
+    List<TypeMirror> result = new ArrayList<>();
+    for (VariableElement parameter : handler.getExecutable().getParameters()) {
+      ParamDefinition param = ParamDefinition.create(environment, parameter);
+      ParamKind kind = param.getKind();
+      if (kind != ParamKind.BODY_PARAM && kind != ParamKind.TYPE
+          && kind != ParamKind.FILE_UPLOAD && kind != ParamKind.ROUTE_PARAM
+          && !param.isSimpleType()) {
+        result.add(element(parameter.asType()));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Element type of List/Set/Optional, otherwise the type itself.
+   */
+  private TypeMirror element(TypeMirror type) {
+    if (type.getKind() == TypeKind.DECLARED) {
+      DeclaredType declaredType = (DeclaredType) type;
+      String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+      if (COLLECTIONS.containsKey(name) && declaredType.getTypeArguments().size() == 1) {
+        return declaredType.getTypeArguments().get(0);
+      }
+    }
+    return type;
+  }
+
+  /**
+   * Find a bean. Beans are analyzed (and collected) when an owner is present.
+   */
+  private Bean bean(TypeMirror type, Element owner) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    DeclaredType declaredType = (DeclaredType) type;
+    TypeElement element = (TypeElement) declaredType.asElement();
+    if (element.getKind() != ElementKind.CLASS || !declaredType.getTypeArguments().isEmpty()) {
+      return null;
+    }
+    String className = className(type);
+    Bean bean = beans.get(className);
+    if (bean == null && owner != null) {
+      bean = new Bean(element, className, owner);
+      beans.put(className, bean);
+      bean.supported = analyze(bean);
+      if (bean.supported) {
+        // Nested beans
+        for (Property property : bean.all()) {
+          bean(element(property.type), owner);
+        }
+      }
+    }
+    return bean;
+  }
+
+  private boolean analyze(Bean bean) {
+    TypeElement element = bean.element;
+    String packageName = elements.getPackageOf(element).getQualifiedName().toString();
+    if (packageName.startsWith("java.") || packageName.startsWith("javax.")
+        || packageName.startsWith("kotlin.") || packageName.startsWith("io.jooby")
+        || element.getModifiers().contains(Modifier.ABSTRACT)
+        || !element.getTypeParameters().isEmpty()
+        || !isPublic(element)) {
+      return false;
+    }
+    ExecutableElement constructor = constructor(element);
+    if (constructor == null) {
+      return false;
+    }
+    bean.constructor = constructor;
+    Set<String> names = new LinkedHashSet<>();
+    for (VariableElement parameter : constructor.getParameters()) {
+      TypeMirror type = parameter.asType();
+      if (!isSupported(type)) {
+        return false;
+      }
+      String name = named(parameter);
+      if (name == null) {
+        return false;
+      }
+      names.add(name);
+      bean.arguments.add(new Property(name, type,
+          description(name, type, constructor), null));
+    }
+    // Setters first, then any other single argument method (same lookup as reflective converter)
+    Map<String, List<ExecutableElement>> methods = methods(element);
+    List<Property> fallback = new ArrayList<>();
+    for (Map.Entry<String, List<ExecutableElement>> e : methods.entrySet()) {
+      String name = e.getKey();
+      List<ExecutableElement> overloads = e.getValue();
+      boolean setter = name.startsWith("set") && name.length() > 3;
+      if (overloads.size() > 1) {
+        if (setter) {
+          return false;
+        }
+        continue;
+      }
+      ExecutableElement method = overloads.get(0);
+      VariableElement parameter = method.getParameters().get(0);
+      TypeMirror type = parameter.asType();
+      if (!isSupported(type)) {
+        if (setter) {
+          return false;
+        }
+        continue;
+      }
+      String description = description(parameter.getSimpleName().toString(), type, method);
+      if (setter) {
+        String property = name.substring(3);
+        String lowerCase = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+        for (String it : new LinkedHashSet<>(Arrays.asList(lowerCase, property))) {
+          if (!names.contains(it)) {
+            bean.properties.add(new Property(it, type, description, method));
+          }
+        }
+      } else {
+        fallback.add(new Property(name, type, description, method));
+      }
+    }
+    for (Property property : bean.properties) {
+      names.add(property.name);
+    }
+    for (Property property : fallback) {
+      if (names.add(property.name)) {
+        bean.properties.add(property);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Same rules as reflective converter: single public constructor, or the one annotated with
+   * <code>@Inject</code>, or the public no-args constructor.
+   */
+  private ExecutableElement constructor(TypeElement element) {
+    List<ExecutableElement> constructors = new ArrayList<>();
+    for (Element member : element.getEnclosedElements()) {
+      if (member.getKind() == ElementKind.CONSTRUCTOR
+          && member.getModifiers().contains(Modifier.PUBLIC)) {
+        constructors.add((ExecutableElement) member);
+      }
+    }
+    if (constructors.size() == 1) {
+      return constructors.get(0);
+    }
+    ExecutableElement injectConstructor = null;
+    ExecutableElement defaultConstructor = null;
+    for (ExecutableElement constructor : constructors) {
+      if (annotation(constructor, INJECT) == null) {
+        if (constructor.getParameters().isEmpty()) {
+          defaultConstructor = constructor;
+        }
+      } else if (injectConstructor == null) {
+        injectConstructor = constructor;
+      } else {
+        return null;
+      }
+    }
+    return injectConstructor == null ? defaultConstructor : injectConstructor;
+  }
+
+  /**
+   * Public single argument methods by name, including inherited ones.
+   */
+  private Map<String, List<ExecutableElement>> methods(TypeElement element) {
+    Map<String, List<ExecutableElement>> result = new LinkedHashMap<>();
+    TypeElement it = element;
+    Set<String> signatures = new LinkedHashSet<>();
+    while (it != null && !it.getQualifiedName().contentEquals("java.lang.Object")) {
+      for (Element member : it.getEnclosedElements()) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (member.getKind() == ElementKind.METHOD && modifiers.contains(Modifier.PUBLIC)
+            && !modifiers.contains(Modifier.STATIC)) {
+          ExecutableElement method = (ExecutableElement) member;
+          if (method.getParameters().size() == 1) {
+            String name = method.getSimpleName().toString();
+            // Skip overridden methods
+            String signature = name + "(" + typeUtils
+                .erasure(method.getParameters().get(0).asType()) + ")";
+            if (signatures.add(signature)) {
+              result.computeIfAbsent(name, k -> new ArrayList<>()).add(method);
+            }
+          }
+        }
+      }
+      TypeMirror superclass = it.getSuperclass();
+      it = superclass.getKind() == TypeKind.DECLARED
+          ? (TypeElement) ((DeclaredType) superclass).asElement()
+          : null;
+    }
+    return result;
+  }
+
+  private boolean isSupported(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      case DECLARED:
+        DeclaredType declaredType = (DeclaredType) type;
+        TypeElement element = (TypeElement) declaredType.asElement();
+        String name = element.getQualifiedName().toString();
+        List<? extends TypeMirror> args = declaredType.getTypeArguments();
+        if (COLLECTIONS.containsKey(name)) {
+          if (args.size() != 1) {
+            return false;
+          }
+          TypeMirror arg = args.get(0);
+          return arg.getKind() == TypeKind.DECLARED
+              && ((DeclaredType) arg).getTypeArguments().isEmpty()
+              && !isFileUpload(arg);
+        }
+        return args.isEmpty() && !isFileUpload(type);
+      default:
+        return false;
+    }
+  }
+
+  private boolean isFileUpload(TypeMirror type) {
+    return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+        .contentEquals(FILE_UPLOAD);
+  }
+
+  private String named(VariableElement parameter) {
+    AnnotationMirror named = annotation(parameter, NAMED);
+    if (named != null) {
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : named
+          .getElementValues().entrySet()) {
+        String value = e.getValue().getValue().toString();
+        if (e.getKey().getSimpleName().contentEquals("value") && value.length() > 0) {
+          return value;
+        }
+      }
+    }
+    String name = parameter.getSimpleName().toString();
+    // Compiled without -parameters: let the reflective converter report the problem
+    return SYNTHETIC_NAME.matcher(name).matches() ? null : name;
+  }
+
+  private AnnotationMirror annotation(Element element, String type) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (annotation.getAnnotationType().toString().equals(type)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Same message as <code>ProvisioningException</code>.
+   */
+  private String description(String name, TypeMirror type, ExecutableElement method) {
+    TypeElement owner = (TypeElement) method.getEnclosingElement();
+    StringBuilder buff = new StringBuilder();
+    buff.append("Unable to provision parameter: '").append(name).append(": ").append(type)
+        .append("', require by: ");
+    if (method.getKind() == ElementKind.CONSTRUCTOR) {
+      buff.append("constructor ").append(owner.getQualifiedName());
+    } else {
+      buff.append("method ").append(owner.getQualifiedName()).append(".")
+          .append(method.getSimpleName());
+    }
+    StringJoiner params = new StringJoiner(", ", "(", ")");
+    for (VariableElement parameter : method.getParameters()) {
+      params.add(parameter.asType().toString());
+    }
+    return buff.append(params).toString();
+  }
+
+  private boolean isPublic(Element element) {
+    Element it = element;
+    while (it instanceof TypeElement) {
+      if (!it.getModifiers().contains(Modifier.PUBLIC)) {
+        return false;
+      }
+      if (it.getEnclosingElement() instanceof TypeElement
+          && !it.getModifiers().contains(Modifier.STATIC)) {
+        return false;
+      }
+      it = it.getEnclosingElement();
+    }
+    return true;
+  }
+
+  private String className(TypeMirror type) {
+    TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+    return elements.getBinaryName(element).toString();
+  }
+
+  /**
+   * ***********************************************************************************************
+   * Code generation:
+   * ***********************************************************************************************
+   */
+  private byte[] compile(Bean bean) {
+    String internalName = bean.getConverterInternalName();
+    Type beanType = bean.getType();
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName,
+        "L" + BEAN_CONVERTER + "<" + beanType.getDescriptor() + ">;", BEAN_CONVERTER, null);
+    writer.visitSource(bean.element.getSimpleName() + ".java", null);
+
+    writer.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, "INSTANCE", BEAN_CONVERTER_DESC, null,
+        null).visitEnd();
+
+    staticInitializer(writer, internalName);
+
+    constructor(writer, bean);
+
+    newInstance(writer, bean);
+
+    convertValue(writer, bean);
+
+    set(writer, bean);
+
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  private void staticInitializer(ClassWriter writer, String internalName) {
+    MethodVisitor visitor = writer.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+    visitor.visitCode();
+    visitor.visitTypeInsn(NEW, internalName);
+    visitor.visitInsn(DUP);
+    visitor.visitMethodInsn(INVOKESPECIAL, internalName, "<init>", "()V", false);
+    visitor.visitFieldInsn(PUTSTATIC, internalName, "INSTANCE", BEAN_CONVERTER_DESC);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void constructor(ClassWriter writer, Bean bean) {
+    MethodVisitor visitor = writer.visitMethod(ACC_PRIVATE, "<init>", "()V", null, null);
+    visitor.visitCode();
+    visitor.visitVarInsn(ALOAD, 0);
+    visitor.visitLdcInsn(bean.getType());
+    push(visitor, bean.arguments.size());
+    List<Property> all = bean.all();
+    stringArray(visitor, all, true);
+    stringArray(visitor, all, false);
+    visitor.visitMethodInsn(INVOKESPECIAL, BEAN_CONVERTER, "<init>",
+        "(Ljava/lang/Class;I[Ljava/lang/String;[Ljava/lang/String;)V", false);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void stringArray(MethodVisitor visitor, List<Property> properties, boolean names) {
+    push(visitor, properties.size());
+    visitor.visitTypeInsn(ANEWARRAY, "java/lang/String");
+    for (int i = 0; i < properties.size(); i++) {
+      Property property = properties.get(i);
+      visitor.visitInsn(DUP);
+      push(visitor, i);
+      visitor.visitLdcInsn(names ? property.name : property.description);
+      visitor.visitInsn(AASTORE);
+    }
+  }
+
+  private void newInstance(ClassWriter writer, Bean bean) {
+    Type beanType = bean.getType();
+    MethodVisitor visitor = writer.visitMethod(ACC_PROTECTED, "newInstance",
+        "([Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+    visitor.visitParameter("args", 0);
+    visitor.visitCode();
+    visitor.visitTypeInsn(NEW, beanType.getInternalName());
+    visitor.visitInsn(DUP);
+    StringBuilder descriptor = new StringBuilder("(");
+    for (int i = 0; i < bean.arguments.size(); i++) {
+      Property argument = bean.arguments.get(i);
+      Type type = jvmType(argument.type);
+      visitor.visitVarInsn(ALOAD, 1);
+      push(visitor, i);
+      visitor.visitInsn(Opcodes.AALOAD);
+      unbox(visitor, type);
+      descriptor.append(type.getDescriptor());
+    }
+    descriptor.append(")V");
+    visitor.visitMethodInsn(INVOKESPECIAL, beanType.getInternalName(), "<init>",
+        descriptor.toString(), false);
+    visitor.visitInsn(ARETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void convertValue(ClassWriter writer, Bean bean) {
+    MethodVisitor visitor = writer.visitMethod(ACC_PROTECTED, "convertValue",
+        "(L" + VALUE_NODE + ";I)Ljava/lang/Object;", null, null);
+    visitor.visitParameter("value", 0);
+    visitor.visitParameter("index", 0);
+    visitor.visitCode();
+    List<Property> all = bean.all();
+    Label defaultLabel = new Label();
+    if (all.size() > 0) {
+      Label[] labels = labels(all.size());
+      visitor.visitVarInsn(ILOAD, 2);
+      visitor.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+      for (int i = 0; i < labels.length; i++) {
+        visitor.visitLabel(labels[i]);
+        visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+        visitor.visitVarInsn(ALOAD, 1);
+        convert(visitor, all.get(i).type);
+        visitor.visitInsn(ARETURN);
+      }
+      visitor.visitLabel(defaultLabel);
+      visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+    }
+    visitor.visitInsn(ACONST_NULL);
+    visitor.visitInsn(ARETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  /**
+   * Convert the value on top of the stack: primitives use <code>intValue()</code>,
+   * <code>longValue()</code>, etc. Anything else goes through <code>to(Class)</code>,
+   * <code>toList(Class)</code>, <code>toSet(Class)</code> or <code>toOptional(Class)</code>.
+   */
+  private void convert(MethodVisitor visitor, TypeMirror type) {
+    Type jvmType = jvmType(type);
+    switch (jvmType.getSort()) {
+      case Type.BOOLEAN:
+        primitive(visitor, "booleanValue", jvmType, "java/lang/Boolean");
+        break;
+      case Type.BYTE:
+        primitive(visitor, "byteValue", jvmType, "java/lang/Byte");
+        break;
+      case Type.INT:
+        primitive(visitor, "intValue", jvmType, "java/lang/Integer");
+        break;
+      case Type.LONG:
+        primitive(visitor, "longValue", jvmType, "java/lang/Long");
+        break;
+      case Type.FLOAT:
+        primitive(visitor, "floatValue", jvmType, "java/lang/Float");
+        break;
+      case Type.DOUBLE:
+        primitive(visitor, "doubleValue", jvmType, "java/lang/Double");
+        break;
+      default: {
+        DeclaredType declaredType = (DeclaredType) type;
+        String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+        String method = COLLECTIONS.get(name);
+        if (method == null || declaredType.getTypeArguments().isEmpty()) {
+          visitor.visitLdcInsn(jvmType);
+          visitor.visitMethodInsn(INVOKEINTERFACE, VALUE_NODE, "to",
+              "(Ljava/lang/Class;)Ljava/lang/Object;", true);
+        } else {
+          visitor.visitLdcInsn(jvmType(declaredType.getTypeArguments().get(0)));
+          visitor.visitMethodInsn(INVOKEINTERFACE, VALUE_NODE, method,
+              "(Ljava/lang/Class;)" + jvmType.getDescriptor(), true);
+        }
+      }
+    }
+  }
+
+  private void primitive(MethodVisitor visitor, String method, Type type, String boxed) {
+    visitor.visitMethodInsn(INVOKEINTERFACE, VALUE_NODE, method, "()" + type.getDescriptor(),
+        true);
+    visitor.visitMethodInsn(INVOKESTATIC, boxed, "valueOf",
+        "(" + type.getDescriptor() + ")L" + boxed + ";", false);
+  }
+
+  private void set(ClassWriter writer, Bean bean) {
+    Type beanType = bean.getType();
+    MethodVisitor visitor = writer.visitMethod(ACC_PROTECTED, "set",
+        "(Ljava/lang/Object;ILjava/lang/Object;)V", null, null);
+    visitor.visitParameter("bean", 0);
+    visitor.visitParameter("index", 0);
+    visitor.visitParameter("value", 0);
+    visitor.visitCode();
+    int offset = bean.arguments.size();
+    Label defaultLabel = new Label();
+    if (bean.properties.size() > 0) {
+      Label[] labels = labels(bean.properties.size());
+      visitor.visitVarInsn(ILOAD, 2);
+      visitor.visitTableSwitchInsn(offset, offset + labels.length - 1, defaultLabel, labels);
+      for (int i = 0; i < labels.length; i++) {
+        Property property = bean.properties.get(i);
+        Type type = jvmType(property.type);
+        Type returnType = jvmType(property.setter.getReturnType());
+        visitor.visitLabel(labels[i]);
+        visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitTypeInsn(CHECKCAST, beanType.getInternalName());
+        visitor.visitVarInsn(ALOAD, 3);
+        unbox(visitor, type);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, beanType.getInternalName(),
+            property.setter.getSimpleName().toString(),
+            Type.getMethodDescriptor(returnType, type), false);
+        if (returnType.getSize() == 2) {
+          visitor.visitInsn(POP2);
+        } else if (returnType.getSize() == 1) {
+          visitor.visitInsn(POP);
+        }
+        visitor.visitInsn(RETURN);
+      }
+      visitor.visitLabel(defaultLabel);
+      visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+    }
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void unbox(MethodVisitor visitor, Type type) {
+    switch (type.getSort()) {
+      case Type.BOOLEAN:
+        unbox(visitor, "java/lang/Boolean", "booleanValue", type);
+        break;
+      case Type.BYTE:
+        unbox(visitor, "java/lang/Byte", "byteValue", type);
+        break;
+      case Type.INT:
+        unbox(visitor, "java/lang/Integer", "intValue", type);
+        break;
+      case Type.LONG:
+        unbox(visitor, "java/lang/Long", "longValue", type);
+        break;
+      case Type.FLOAT:
+        unbox(visitor, "java/lang/Float", "floatValue", type);
+        break;
+      case Type.DOUBLE:
+        unbox(visitor, "java/lang/Double", "doubleValue", type);
+        break;
+      default:
+        visitor.visitTypeInsn(CHECKCAST, type.getInternalName());
+    }
+  }
+
+  private void unbox(MethodVisitor visitor, String boxed, String method, Type type) {
+    visitor.visitTypeInsn(CHECKCAST, boxed);
+    visitor.visitMethodInsn(INVOKEVIRTUAL, boxed, method, "()" + type.getDescriptor(), false);
+  }
+
+  private Type jvmType(TypeMirror type) {
+    switch (type.getKind()) {
+      case VOID:
+        return Type.VOID_TYPE;
+      case BOOLEAN:
+        return Type.BOOLEAN_TYPE;
+      case BYTE:
+        return Type.BYTE_TYPE;
+      case SHORT:
+        return Type.SHORT_TYPE;
+      case CHAR:
+        return Type.CHAR_TYPE;
+      case INT:
+        return Type.INT_TYPE;
+      case LONG:
+        return Type.LONG_TYPE;
+      case FLOAT:
+        return Type.FLOAT_TYPE;
+      case DOUBLE:
+        return Type.DOUBLE_TYPE;
+      case ARRAY:
+        return Type.getType("[" + jvmType(((ArrayType) type)
+            .getComponentType()).getDescriptor());
+      default:
+        return Type.getObjectType(className(typeUtils.erasure(type)).replace('.', '/'));
+    }
+  }
+
+  private static Label[] labels(int size) {
+    Label[] labels = new Label[size];
+    for (int i = 0; i < size; i++) {
+      labels[i] = new Label();
+    }
+    return labels;
+  }
+
+  private static void push(MethodVisitor visitor, int value) {
+    if (value <= 5) {
+      visitor.visitInsn(Opcodes.ICONST_0 + value);
+    } else if (value <= Byte.MAX_VALUE) {
+      visitor.visitIntInsn(BIPUSH, value);
+    } else {
+      visitor.visitIntInsn(SIPUSH, value);
+    }
+  }
+}
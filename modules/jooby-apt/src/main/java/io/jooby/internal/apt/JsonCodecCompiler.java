@@ -0,0 +1,918 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.apt;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.I2B;
+import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.I2S;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+/**
+ * Generates reflection-free JSON codecs for MVC body and return types. A codec is generated for
+ * plain beans only: public class with a public no-args constructor whose properties (public
+ * fields or getters/setters) are primitives, strings, enums, beans or list/set of them. Types
+ * annotated with Jackson, Gson or JSON-B annotations are ignored (they keep using the JSON module
+ * installed in the application).
+ */
+public class JsonCodecCompiler {
+
+  private static final String CODECS = "io/jooby/internal/json/JsonCodecs";
+
+  private static final String CODEC = "io/jooby/internal/json/JsonCodec";
+
+  private static final String CODEC_DESC = "L" + CODEC + ";";
+
+  private static final String BEAN_CODEC = "io/jooby/internal/json/JsonBeanCodec";
+
+  private static final String READER = "io/jooby/internal/json/JsonReader";
+
+  private static final String WRITER = "io/jooby/internal/json/JsonWriter";
+
+  private static final String[] ANNOTATIONS = {"com.fasterxml.jackson.", "com.google.gson.",
+      "javax.json.bind.", "jakarta.json.bind."};
+
+  private static final Map<String, String> BOXED = new HashMap<>();
+
+  static {
+    BOXED.put("java.lang.String", "STRING");
+    BOXED.put("java.lang.Boolean", "BOOLEAN");
+    BOXED.put("java.lang.Integer", "INTEGER");
+    BOXED.put("java.lang.Long", "LONG");
+    BOXED.put("java.lang.Short", "SHORT");
+    BOXED.put("java.lang.Byte", "BYTE");
+    BOXED.put("java.lang.Double", "DOUBLE");
+    BOXED.put("java.lang.Float", "FLOAT");
+  }
+
+  private enum Kind {
+    PRIMITIVE,
+    STRING,
+    BOXED,
+    ENUM,
+    BEAN,
+    LIST,
+    SET
+  }
+
+  private static class Property {
+    private final String name;
+
+    private TypeMirror type;
+
+    private ExecutableElement getter;
+
+    private ExecutableElement setter;
+
+    private VariableElement field;
+
+    Property(String name) {
+      this.name = name;
+    }
+
+    boolean isReadable() {
+      return getter != null || field != null;
+    }
+
+    boolean isWritable() {
+      return setter != null || (field != null && !field.getModifiers().contains(Modifier.FINAL));
+    }
+  }
+
+  private static class Bean {
+    private final TypeElement element;
+
+    private final String className;
+
+    private final Element originatingElement;
+
+    private final List<Property> properties = new ArrayList<>();
+
+    private final Set<String> dependencies = new LinkedHashSet<>();
+
+    private boolean supported = true;
+
+    Bean(TypeElement element, String className, Element originatingElement) {
+      this.element = element;
+      this.className = className;
+      this.originatingElement = originatingElement;
+    }
+
+    String getCodecClass() {
+      return className + "$Json";
+    }
+
+    String getCodecInternalName() {
+      return getCodecClass().replace('.', '/');
+    }
+
+    Type getType() {
+      return Type.getObjectType(className.replace('.', '/'));
+    }
+  }
+
+  private final ProcessingEnvironment environment;
+
+  private final Types typeUtils;
+
+  private final Elements elements;
+
+  private final Map<String, Bean> beans = new LinkedHashMap<>();
+
+  public JsonCodecCompiler(ProcessingEnvironment environment) {
+    this.environment = environment;
+    this.typeUtils = environment.getTypeUtils();
+    this.elements = environment.getElementUtils();
+  }
+
+  /**
+   * Collect body and return types of a controller. Types that don't qualify for a generated codec
+   * are ignored.
+   *
+   * @param controller Controller.
+   * @param handlers Route handlers.
+   */
+  public void add(TypeElement controller, List<HandlerCompiler> handlers) {
+    for (HandlerCompiler handler : handlers) {
+      for (TypeMirror type : types(handler)) {
+        kind(type, controller);
+      }
+    }
+  }
+
+  /**
+   * Mark as unsupported beans depending on unsupported beans. Must be called once all the types
+   * were collected.
+   */
+  public void resolve() {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Bean bean : beans.values()) {
+        if (bean.supported) {
+          for (String dependency : bean.dependencies) {
+            if (!beans.get(dependency).supported) {
+              bean.supported = false;
+              changed = true;
+              break;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Generates the <code>JsonCodecs</code> registration for body and return types of a
+   * controller. Generated code uses local variable <code>3</code>.
+   *
+   * @param visitor Install method.
+   * @param handlers Route handlers.
+   */
+  public void install(MethodVisitor visitor, List<HandlerCompiler> handlers) {
+    Map<String, TypeMirror> types = new LinkedHashMap<>();
+    for (HandlerCompiler handler : handlers) {
+      for (TypeMirror type : types(handler)) {
+        if (supports(type)) {
+          String className = beanOf(type).className;
+          types.putIfAbsent(kind(type, null) == Kind.BEAN
+              ? className
+              : collectionType(type) + "<" + className + ">", type);
+        }
+      }
+    }
+    if (types.isEmpty()) {
+      return;
+    }
+    visitor.visitVarInsn(ALOAD, 0);
+    visitor.visitMethodInsn(INVOKESTATIC, CODECS, "install",
+        "(Lio/jooby/Jooby;)L" + CODECS + ";", false);
+    visitor.visitVarInsn(ASTORE, 3);
+    for (TypeMirror type : types.values()) {
+      Bean bean = beanOf(type);
+      Kind kind = kind(type, null);
+      visitor.visitVarInsn(ALOAD, 3);
+      if (kind == Kind.BEAN) {
+        visitor.visitLdcInsn(bean.getType());
+        beanCodec(visitor, bean);
+      } else {
+        String collection = collectionType(type);
+        visitor.visitLdcInsn(Type.getObjectType(collection.replace('.', '/')));
+        push(visitor, 1);
+        visitor.visitTypeInsn(ANEWARRAY, "java/lang/reflect/Type");
+        visitor.visitInsn(DUP);
+        push(visitor, 0);
+        visitor.visitLdcInsn(bean.getType());
+        visitor.visitInsn(Opcodes.AASTORE);
+        visitor.visitMethodInsn(INVOKESTATIC, "io/jooby/Reified", "getParameterized",
+            "(Ljava/lang/reflect/Type;[Ljava/lang/reflect/Type;)Lio/jooby/Reified;", false);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, "io/jooby/Reified", "getType",
+            "()Ljava/lang/reflect/Type;", false);
+        beanCodec(visitor, bean);
+        String factory = kind == Kind.SET ? "set" : "list";
+        visitor.visitMethodInsn(INVOKESTATIC, CODEC, factory,
+            "(" + CODEC_DESC + ")" + CODEC_DESC, false);
+      }
+      visitor.visitMethodInsn(INVOKEVIRTUAL, CODECS, "put",
+          "(Ljava/lang/reflect/Type;" + CODEC_DESC + ")V", false);
+    }
+  }
+
+  /**
+   * Generates codec classes of supported beans.
+   *
+   * @return Map of codec class name and bytecode.
+   */
+  public Map<String, byte[]> compile() {
+    Map<String, byte[]> result = new LinkedHashMap<>();
+    for (Bean bean : beans.values()) {
+      if (bean.supported) {
+        result.put(bean.getCodecClass(), compile(bean));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Element that triggered the generation of a codec class.
+   *
+   * @param codecClass Codec class name.
+   * @return Originating element.
+   */
+  public Element getOriginatingElement(String codecClass) {
+    for (Bean bean : beans.values()) {
+      if (bean.getCodecClass().equals(codecClass)) {
+        return bean.originatingElement;
+      }
+    }
+    throw new IllegalArgumentException("Not a JSON codec: " + codecClass);
+  }
+
+  private List<TypeMirror> types(HandlerCompiler handler) {
+    List<TypeMirror> result = new ArrayList<>();
+    ExecutableElement executable = handler.getExecutable();
+    if (!handler.isSuspendFunction()) {
+      TypeMirror returnType = executable.getReturnType();
+      if (returnType.getKind() == TypeKind.DECLARED) {
+        result.add(returnType);
+      }
+    }
+    for (VariableElement parameter : executable.getParameters()) {
+      ParamDefinition param = ParamDefinition.create(environment, parameter);
+      if (param.getKind() == ParamKind.BODY_PARAM
+          && parameter.asType().getKind() == TypeKind.DECLARED) {
+        result.add(parameter.asType());
+      }
+    }
+    return result;
+  }
+
+  private boolean supports(TypeMirror type) {
+    Bean bean = beanOf(type);
+    return bean != null && bean.supported;
+  }
+
+  private Bean beanOf(TypeMirror type) {
+    Kind kind = kind(type, null);
+    if (kind == Kind.LIST || kind == Kind.SET) {
+      TypeMirror element = ((DeclaredType) type).getTypeArguments().get(0);
+      return kind(element, null) == Kind.BEAN ? beans.get(className(element)) : null;
+    }
+    return kind == Kind.BEAN ? beans.get(className(type)) : null;
+  }
+
+  private void beanCodec(MethodVisitor visitor, Bean bean) {
+    visitor.visitFieldInsn(GETSTATIC, bean.getCodecInternalName(), "INSTANCE", CODEC_DESC);
+  }
+
+  /**
+   * Classify a type. Beans are analyzed (and collected) when an owner is present.
+   */
+  private Kind kind(TypeMirror type, Element owner) {
+    if (type.getKind().isPrimitive()) {
+      return type.getKind() == TypeKind.CHAR ? null : Kind.PRIMITIVE;
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    DeclaredType declaredType = (DeclaredType) type;
+    TypeElement element = (TypeElement) declaredType.asElement();
+    String name = element.getQualifiedName().toString();
+    List<? extends TypeMirror> args = declaredType.getTypeArguments();
+    if (name.equals("java.lang.String")) {
+      return Kind.STRING;
+    }
+    if (BOXED.containsKey(name)) {
+      return Kind.BOXED;
+    }
+    if (name.equals("java.util.List") || name.equals("java.util.Collection")
+        || name.equals("java.util.Set")) {
+      if (args.size() != 1) {
+        return null;
+      }
+      Kind element0 = kind(args.get(0), owner);
+      if (element0 == null || element0 == Kind.PRIMITIVE || element0 == Kind.LIST
+          || element0 == Kind.SET) {
+        return null;
+      }
+      return name.equals("java.util.Set") ? Kind.SET : Kind.LIST;
+    }
+    if (!isPublic(element)) {
+      return null;
+    }
+    if (element.getKind() == ElementKind.ENUM) {
+      return Kind.ENUM;
+    }
+    if (element.getKind() != ElementKind.CLASS || !args.isEmpty()) {
+      return null;
+    }
+    String className = className(type);
+    Bean bean = beans.get(className);
+    if (bean == null) {
+      if (owner == null) {
+        return null;
+      }
+      bean = new Bean(element, className, owner);
+      beans.put(className, bean);
+      analyze(bean);
+    }
+    return bean.supported ? Kind.BEAN : null;
+  }
+
+  private void analyze(Bean bean) {
+    TypeElement element = bean.element;
+    String packageName = elements.getPackageOf(element).getQualifiedName().toString();
+    if (packageName.startsWith("java.") || packageName.startsWith("javax.")
+        || packageName.startsWith("kotlin.")
+        || element.getModifiers().contains(Modifier.ABSTRACT)
+        || !element.getTypeParameters().isEmpty()
+        || !hasDefaultConstructor(element)) {
+      bean.supported = false;
+      return;
+    }
+    Map<String, Property> properties = new LinkedHashMap<>();
+    for (TypeElement type : hierarchy(element)) {
+      if (hasJsonAnnotation(type)) {
+        bean.supported = false;
+        return;
+      }
+      for (Element member : type.getEnclosedElements()) {
+        if (hasJsonAnnotation(member)) {
+          bean.supported = false;
+          return;
+        }
+        Set<Modifier> modifiers = member.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+          continue;
+        }
+        if (member.getKind() == ElementKind.FIELD) {
+          if (!modifiers.contains(Modifier.TRANSIENT)) {
+            String name = member.getSimpleName().toString();
+            Property property = properties.computeIfAbsent(name, Property::new);
+            property.field = (VariableElement) member;
+          }
+        } else if (member.getKind() == ElementKind.METHOD) {
+          accessor(properties, (ExecutableElement) member);
+        }
+      }
+    }
+    for (Property property : properties.values()) {
+      property.type = propertyType(property);
+      if (property.type == null) {
+        bean.supported = false;
+        return;
+      }
+      Kind kind = kind(property.type, bean.originatingElement);
+      if (kind == null) {
+        bean.supported = false;
+        return;
+      }
+      if (kind == Kind.BEAN) {
+        bean.dependencies.add(className(property.type));
+      } else if (kind == Kind.LIST || kind == Kind.SET) {
+        TypeMirror item = ((DeclaredType) property.type).getTypeArguments().get(0);
+        if (kind(item, bean.originatingElement) == Kind.BEAN) {
+          bean.dependencies.add(className(item));
+        }
+      }
+      if (property.isReadable() || property.isWritable()) {
+        bean.properties.add(property);
+      }
+    }
+  }
+
+  private void accessor(Map<String, Property> properties, ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    List<? extends VariableElement> parameters = method.getParameters();
+    TypeMirror returnType = method.getReturnType();
+    if (parameters.isEmpty() && returnType.getKind() != TypeKind.VOID) {
+      String property = null;
+      if (name.startsWith("get") && name.length() > 3) {
+        property = name.substring(3);
+      } else if (name.startsWith("is") && name.length() > 2
+          && returnType.getKind() == TypeKind.BOOLEAN) {
+        property = name.substring(2);
+      }
+      if (property != null) {
+        properties.computeIfAbsent(mangle(property), Property::new).getter = method;
+      }
+    } else if (parameters.size() == 1 && returnType.getKind() == TypeKind.VOID
+        && name.startsWith("set") && name.length() > 3) {
+      properties.computeIfAbsent(mangle(name.substring(3)), Property::new).setter = method;
+    }
+  }
+
+  /**
+   * Property type. Getter, setter and field type must match.
+   */
+  private TypeMirror propertyType(Property property) {
+    TypeMirror type = null;
+    List<TypeMirror> types = new ArrayList<>();
+    if (property.getter != null) {
+      types.add(property.getter.getReturnType());
+    }
+    if (property.setter != null) {
+      types.add(property.setter.getParameters().get(0).asType());
+    }
+    if (property.field != null) {
+      types.add(property.field.asType());
+    }
+    for (TypeMirror it : types) {
+      if (type == null) {
+        type = it;
+      } else if (!typeUtils.isSameType(type, it)) {
+        return null;
+      }
+    }
+    return type;
+  }
+
+  /**
+   * Jackson default naming: leading upper case characters are converted to lower case.
+   */
+  private static String mangle(String name) {
+    StringBuilder result = new StringBuilder(name.length());
+    int i = 0;
+    while (i < name.length() && Character.isUpperCase(name.charAt(i))) {
+      result.append(Character.toLowerCase(name.charAt(i)));
+      i++;
+    }
+    return result.append(name, i, name.length()).toString();
+  }
+
+  private List<TypeElement> hierarchy(TypeElement element) {
+    List<TypeElement> result = new ArrayList<>();
+    TypeElement it = element;
+    while (it != null && !it.getQualifiedName().contentEquals("java.lang.Object")) {
+      result.add(0, it);
+      TypeMirror superclass = it.getSuperclass();
+      it = superclass.getKind() == TypeKind.DECLARED
+          ? (TypeElement) ((DeclaredType) superclass).asElement()
+          : null;
+    }
+    return result;
+  }
+
+  private boolean hasDefaultConstructor(TypeElement element) {
+    for (Element member : element.getEnclosedElements()) {
+      if (member.getKind() == ElementKind.CONSTRUCTOR
+          && member.getModifiers().contains(Modifier.PUBLIC)
+          && ((ExecutableElement) member).getParameters().isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasJsonAnnotation(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      String name = annotation.getAnnotationType().toString();
+      for (String prefix : ANNOTATIONS) {
+        if (name.startsWith(prefix)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isPublic(Element element) {
+    Element it = element;
+    while (it instanceof TypeElement) {
+      if (!it.getModifiers().contains(Modifier.PUBLIC)) {
+        return false;
+      }
+      it = it.getEnclosingElement();
+    }
+    return true;
+  }
+
+  private String className(TypeMirror type) {
+    TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+    return elements.getBinaryName(element).toString();
+  }
+
+  private String collectionType(TypeMirror type) {
+    return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+  }
+
+  /**
+   * ***********************************************************************************************
+   * Code generation:
+   * ***********************************************************************************************
+   */
+  private byte[] compile(Bean bean) {
+    String internalName = bean.getCodecInternalName();
+    Type beanType = bean.getType();
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName,
+        "L" + BEAN_CODEC + "<" + beanType.getDescriptor() + ">;", BEAN_CODEC, null);
+    writer.visitSource(bean.element.getSimpleName() + ".java", null);
+
+    writer.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, "INSTANCE", CODEC_DESC, null, null)
+        .visitEnd();
+
+    Map<String, String> enums = new LinkedHashMap<>();
+    for (Property property : bean.properties) {
+      TypeMirror type = property.type;
+      Kind kind = kind(type, null);
+      if (kind == Kind.LIST || kind == Kind.SET) {
+        type = ((DeclaredType) type).getTypeArguments().get(0);
+        kind = kind(type, null);
+      }
+      if (kind == Kind.ENUM) {
+        String enumType = className(type);
+        if (!enums.containsKey(enumType)) {
+          String field = "ENUM" + enums.size();
+          enums.put(enumType, field);
+          writer.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, field, CODEC_DESC, null, null)
+              .visitEnd();
+        }
+      }
+    }
+
+    staticInitializer(writer, internalName, enums);
+
+    constructor(writer, bean);
+
+    newInstance(writer, beanType);
+
+    writeValue(writer, internalName, bean, enums);
+
+    readProperty(writer, internalName, bean, enums);
+
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  private void staticInitializer(ClassWriter writer, String internalName,
+      Map<String, String> enums) {
+    MethodVisitor visitor = writer.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+    visitor.visitCode();
+    for (Map.Entry<String, String> e : enums.entrySet()) {
+      visitor.visitLdcInsn(Type.getObjectType(e.getKey().replace('.', '/')));
+      visitor.visitMethodInsn(INVOKESTATIC, CODEC, "enumCodec",
+          "(Ljava/lang/Class;)" + CODEC_DESC, false);
+      visitor.visitFieldInsn(PUTSTATIC, internalName, e.getValue(), CODEC_DESC);
+    }
+    visitor.visitTypeInsn(NEW, internalName);
+    visitor.visitInsn(DUP);
+    visitor.visitMethodInsn(INVOKESPECIAL, internalName, "<init>", "()V", false);
+    visitor.visitFieldInsn(PUTSTATIC, internalName, "INSTANCE", CODEC_DESC);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void constructor(ClassWriter writer, Bean bean) {
+    MethodVisitor visitor = writer.visitMethod(ACC_PRIVATE, "<init>", "()V", null, null);
+    visitor.visitCode();
+    visitor.visitVarInsn(ALOAD, 0);
+    // writable properties first, so they match readProperty index. Read-only properties go last:
+    // they are known (written by this codec) and readProperty skips them.
+    List<Property> known = writable(bean);
+    for (Property property : bean.properties) {
+      if (property.isReadable() && !property.isWritable()) {
+        known.add(property);
+      }
+    }
+    push(visitor, known.size());
+    visitor.visitTypeInsn(ANEWARRAY, "java/lang/String");
+    for (int i = 0; i < known.size(); i++) {
+      visitor.visitInsn(DUP);
+      push(visitor, i);
+      visitor.visitLdcInsn(known.get(i).name);
+      visitor.visitInsn(Opcodes.AASTORE);
+    }
+    visitor.visitMethodInsn(INVOKESPECIAL, BEAN_CODEC, "<init>", "([Ljava/lang/String;)V", false);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void newInstance(ClassWriter writer, Type beanType) {
+    MethodVisitor visitor = writer.visitMethod(ACC_PROTECTED, "newInstance",
+        "()Ljava/lang/Object;", null, null);
+    visitor.visitCode();
+    visitor.visitTypeInsn(NEW, beanType.getInternalName());
+    visitor.visitInsn(DUP);
+    visitor.visitMethodInsn(INVOKESPECIAL, beanType.getInternalName(), "<init>", "()V", false);
+    visitor.visitInsn(ARETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void writeValue(ClassWriter writer, String internalName, Bean bean,
+      Map<String, String> enums) {
+    Type beanType = bean.getType();
+    MethodVisitor visitor = writer.visitMethod(ACC_PROTECTED, "writeValue",
+        "(L" + WRITER + ";Ljava/lang/Object;)V", null, null);
+    visitor.visitParameter("writer", 0);
+    visitor.visitParameter("value", 0);
+    visitor.visitCode();
+    visitor.visitVarInsn(ALOAD, 2);
+    visitor.visitTypeInsn(CHECKCAST, beanType.getInternalName());
+    visitor.visitVarInsn(ASTORE, 3);
+
+    visitor.visitVarInsn(ALOAD, 1);
+    visitor.visitMethodInsn(INVOKEVIRTUAL, WRITER, "beginObject", "()V", false);
+    for (Property property : bean.properties) {
+      if (!property.isReadable()) {
+        continue;
+      }
+      // writer.name("property")
+      visitor.visitVarInsn(ALOAD, 1);
+      visitor.visitLdcInsn(property.name);
+      visitor.visitMethodInsn(INVOKEVIRTUAL, WRITER, "name", "(Ljava/lang/String;)V", false);
+
+      Kind kind = kind(property.type, null);
+      Type type = jvmType(property.type);
+      switch (kind) {
+        case PRIMITIVE: {
+          visitor.visitVarInsn(ALOAD, 1);
+          get(visitor, beanType, property, type);
+          String descriptor = type.getDescriptor();
+          if (type.getSort() == Type.INT || type.getSort() == Type.SHORT
+              || type.getSort() == Type.BYTE) {
+            visitor.visitInsn(I2L);
+            descriptor = "J";
+          }
+          visitor.visitMethodInsn(INVOKEVIRTUAL, WRITER, "value", "(" + descriptor + ")V", false);
+          break;
+        }
+        case STRING:
+          visitor.visitVarInsn(ALOAD, 1);
+          get(visitor, beanType, property, type);
+          visitor.visitMethodInsn(INVOKEVIRTUAL, WRITER, "value", "(Ljava/lang/String;)V", false);
+          break;
+        case LIST:
+        case SET:
+          visitor.visitVarInsn(ALOAD, 1);
+          get(visitor, beanType, property, type);
+          codec(visitor, internalName, ((DeclaredType) property.type).getTypeArguments().get(0),
+              enums);
+          visitor.visitMethodInsn(INVOKESTATIC, CODEC, "writeCollection",
+              "(L" + WRITER + ";Ljava/util/Collection;" + CODEC_DESC + ")V", false);
+          break;
+        default:
+          codec(visitor, internalName, property.type, enums);
+          visitor.visitVarInsn(ALOAD, 1);
+          get(visitor, beanType, property, type);
+          visitor.visitMethodInsn(INVOKEVIRTUAL, CODEC, "write",
+              "(L" + WRITER + ";Ljava/lang/Object;)V", false);
+      }
+    }
+    visitor.visitVarInsn(ALOAD, 1);
+    visitor.visitMethodInsn(INVOKEVIRTUAL, WRITER, "endObject", "()V", false);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void readProperty(ClassWriter writer, String internalName, Bean bean,
+      Map<String, String> enums) {
+    Type beanType = bean.getType();
+    MethodVisitor visitor = writer.visitMethod(ACC_PROTECTED, "readProperty",
+        "(L" + READER + ";Ljava/lang/Object;I)V", null, null);
+    visitor.visitParameter("reader", 0);
+    visitor.visitParameter("bean", 0);
+    visitor.visitParameter("index", 0);
+    visitor.visitCode();
+    List<Property> writable = writable(bean);
+    Label defaultLabel = new Label();
+    if (writable.size() > 0) {
+      Label[] labels = new Label[writable.size()];
+      for (int i = 0; i < labels.length; i++) {
+        labels[i] = new Label();
+      }
+      visitor.visitVarInsn(ILOAD, 3);
+      visitor.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+      for (int i = 0; i < labels.length; i++) {
+        Property property = writable.get(i);
+        visitor.visitLabel(labels[i]);
+        visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+        visitor.visitVarInsn(ALOAD, 2);
+        visitor.visitTypeInsn(CHECKCAST, beanType.getInternalName());
+        Type type = jvmType(property.type);
+        read(visitor, internalName, property, type, enums);
+        set(visitor, beanType, property, type);
+        visitor.visitInsn(RETURN);
+      }
+      visitor.visitLabel(defaultLabel);
+      visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+    }
+    visitor.visitVarInsn(ALOAD, 1);
+    visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "skipValue", "()V", false);
+    visitor.visitInsn(RETURN);
+    visitor.visitMaxs(0, 0);
+    visitor.visitEnd();
+  }
+
+  private void read(MethodVisitor visitor, String internalName, Property property, Type type,
+      Map<String, String> enums) {
+    Kind kind = kind(property.type, null);
+    switch (kind) {
+      case PRIMITIVE:
+        visitor.visitVarInsn(ALOAD, 1);
+        switch (type.getSort()) {
+          case Type.INT:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextInt", "()I", false);
+            break;
+          case Type.SHORT:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextInt", "()I", false);
+            visitor.visitInsn(I2S);
+            break;
+          case Type.BYTE:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextInt", "()I", false);
+            visitor.visitInsn(I2B);
+            break;
+          case Type.LONG:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextLong", "()J", false);
+            break;
+          case Type.DOUBLE:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextDouble", "()D", false);
+            break;
+          case Type.FLOAT:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextFloat", "()F", false);
+            break;
+          default:
+            visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextBoolean", "()Z", false);
+        }
+        break;
+      case STRING:
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, READER, "nextString", "()Ljava/lang/String;",
+            false);
+        break;
+      case LIST:
+      case SET:
+        visitor.visitVarInsn(ALOAD, 1);
+        codec(visitor, internalName, ((DeclaredType) property.type).getTypeArguments().get(0),
+            enums);
+        if (kind == Kind.SET) {
+          visitor.visitMethodInsn(INVOKESTATIC, CODEC, "readSet",
+              "(L" + READER + ";" + CODEC_DESC + ")Ljava/util/Set;", false);
+        } else {
+          visitor.visitMethodInsn(INVOKESTATIC, CODEC, "readList",
+              "(L" + READER + ";" + CODEC_DESC + ")Ljava/util/List;", false);
+        }
+        break;
+      default:
+        codec(visitor, internalName, property.type, enums);
+        visitor.visitVarInsn(ALOAD, 1);
+        visitor.visitMethodInsn(INVOKEVIRTUAL, CODEC, "read",
+            "(L" + READER + ";)Ljava/lang/Object;", false);
+        visitor.visitTypeInsn(CHECKCAST, type.getInternalName());
+    }
+  }
+
+  private void get(MethodVisitor visitor, Type beanType, Property property, Type type) {
+    visitor.visitVarInsn(ALOAD, 3);
+    if (property.getter != null) {
+      visitor.visitMethodInsn(INVOKEVIRTUAL, beanType.getInternalName(),
+          property.getter.getSimpleName().toString(), "()" + type.getDescriptor(), false);
+    } else {
+      visitor.visitFieldInsn(GETFIELD, beanType.getInternalName(),
+          property.field.getSimpleName().toString(), type.getDescriptor());
+    }
+  }
+
+  private void set(MethodVisitor visitor, Type beanType, Property property, Type type) {
+    if (property.setter != null) {
+      visitor.visitMethodInsn(INVOKEVIRTUAL, beanType.getInternalName(),
+          property.setter.getSimpleName().toString(), "(" + type.getDescriptor() + ")V", false);
+    } else {
+      visitor.visitFieldInsn(PUTFIELD, beanType.getInternalName(),
+          property.field.getSimpleName().toString(), type.getDescriptor());
+    }
+  }
+
+  private void codec(MethodVisitor visitor, String internalName, TypeMirror type,
+      Map<String, String> enums) {
+    Kind kind = kind(type, null);
+    if (kind == Kind.STRING || kind == Kind.BOXED) {
+      String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+          .toString();
+      visitor.visitFieldInsn(GETSTATIC, CODEC, BOXED.get(name), CODEC_DESC);
+    } else if (kind == Kind.ENUM) {
+      visitor.visitFieldInsn(GETSTATIC, internalName, enums.get(className(type)), CODEC_DESC);
+    } else {
+      beanCodec(visitor, beans.get(className(type)));
+    }
+  }
+
+  private List<Property> writable(Bean bean) {
+    List<Property> result = new ArrayList<>();
+    for (Property property : bean.properties) {
+      if (property.isWritable()) {
+        result.add(property);
+      }
+    }
+    return result;
+  }
+
+  private Type jvmType(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return Type.BOOLEAN_TYPE;
+      case BYTE:
+        return Type.BYTE_TYPE;
+      case SHORT:
+        return Type.SHORT_TYPE;
+      case INT:
+        return Type.INT_TYPE;
+      case LONG:
+        return Type.LONG_TYPE;
+      case FLOAT:
+        return Type.FLOAT_TYPE;
+      case DOUBLE:
+        return Type.DOUBLE_TYPE;
+      default:
+        return Type.getObjectType(className(type).replace('.', '/'));
+    }
+  }
+
+  private static void push(MethodVisitor visitor, int value) {
+    if (value <= 5) {
+      visitor.visitInsn(Opcodes.ICONST_0 + value);
+    } else if (value <= Byte.MAX_VALUE) {
+      visitor.visitIntInsn(BIPUSH, value);
+    } else {
+      visitor.visitIntInsn(SIPUSH, value);
+    }
+  }
+}
@@ -62,14 +62,28 @@ public class ModuleCompiler {
   private final String moduleJava;
   private final ProcessingEnvironment processingEnv;
   private final boolean debug;
+  private final JsonCodecCompiler jsonCodecs;
+  private final BeanConverterCompiler beanConverters;
 
   public ModuleCompiler(ProcessingEnvironment processingEnv, String controllerClass) {
+    this(processingEnv, controllerClass, null);
+  }
+
+  public ModuleCompiler(ProcessingEnvironment processingEnv, String controllerClass,
+      JsonCodecCompiler jsonCodecs) {
+    this(processingEnv, controllerClass, jsonCodecs, null);
+  }
+
+  public ModuleCompiler(ProcessingEnvironment processingEnv, String controllerClass,
+      JsonCodecCompiler jsonCodecs, BeanConverterCompiler beanConverters) {
     this.controllerClass = controllerClass;
     this.moduleClass = this.controllerClass + "$Module";
     this.moduleJava = this.moduleClass + ".java";
     this.moduleInternalName = moduleClass.replace(".", "/");
     this.processingEnv = processingEnv;
     this.debug = Boolean.parseBoolean(processingEnv.getOptions().getOrDefault("debug", "false"));
+    this.jsonCodecs = jsonCodecs;
+    this.beanConverters = beanConverters;
   }
 
   public String getModuleClass() {
@@ -162,6 +176,24 @@ public class ModuleCompiler {
     RouteAttributesWriter routeAttributes = new RouteAttributesWriter(processingEnv.getElementUtils(),
         processingEnv.getTypeUtils(), writer, moduleInternalName, visitor, userAttrFilter);
 
+    /**
+     * ******************************************************************************************
+     * JSON codecs
+     * ******************************************************************************************
+     */
+    if (jsonCodecs != null) {
+      jsonCodecs.install(visitor, handlers);
+    }
+
+    /**
+     * ******************************************************************************************
+     * Bean converters
+     * ******************************************************************************************
+     */
+    if (beanConverters != null) {
+      beanConverters.install(visitor, handlers);
+    }
+
     NameGenerator nameRegistry = new NameGenerator();
     for (HandlerCompiler handler : handlers) {
       visitor.visitVarInsn(ALOAD, 0);
@@ -14,6 +14,8 @@ public interface Opts {
   String OPT_SERVICES = "jooby.services";
   String OPT_SKIP_ATTRIBUTE_ANNOTATIONS = "jooby.skipAttributeAnnotations";
   String OPT_EXTENDED_LOOKUP_OF_SUPERTYPES = "jooby.extendedLookupOfSuperTypes";
+  String OPT_JSON = "jooby.json";
+  String OPT_BEAN_CONVERTERS = "jooby.beanConverters";
 
   static boolean boolOpt(ProcessingEnvironment processingEnvironment, String option, boolean defaultValue) {
     return Boolean.parseBoolean(processingEnvironment
@@ -19,6 +19,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -34,12 +35,20 @@ public class MvcModuleCompilerRunner {
   }
 
   public MvcModuleCompilerRunner(Object instance, boolean debug) throws Exception {
+    this(instance, debug, new String[0]);
+  }
+
+  public MvcModuleCompilerRunner(Object instance, boolean debug, String... options)
+      throws Exception {
     this.instance = instance;
     this.processor = new TestMvcProcessor();
+    List<String> compilerOptions = new ArrayList<>();
+    compilerOptions.add("-Adebug=" + debug);
+    compilerOptions.addAll(Arrays.asList(options));
     Truth.assert_()
         .about(JavaSourcesSubjectFactory.javaSources())
         .that(sources(sourceNames(instance.getClass())))
-        .withCompilerOptions("-Adebug=" + debug)
+        .withCompilerOptions(compilerOptions)
         .processedWith(processor)
         .compilesWithoutError();
   }
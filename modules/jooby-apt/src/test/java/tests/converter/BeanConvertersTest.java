@@ -0,0 +1,111 @@
+package tests.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.jooby.BeanConverter;
+import io.jooby.Context;
+import io.jooby.Jooby;
+import io.jooby.QueryString;
+import io.jooby.apt.MvcModuleCompilerRunner;
+import io.jooby.exception.ProvisioningException;
+import io.jooby.internal.ValueConverters;
+import io.jooby.internal.converter.GeneratedBeanConverter;
+import io.jooby.internal.converter.ReflectiveBeanConverter;
+
+public class BeanConvertersTest {
+
+  @Test
+  public void shouldRegisterConverters() throws Exception {
+    new MvcModuleCompilerRunner(new ConverterController())
+        .module(app -> {
+          assertTrue(converter(app, Filter.class) instanceof GeneratedBeanConverter);
+          assertTrue(converter(app, Range.class) instanceof GeneratedBeanConverter);
+          assertTrue(converter(app, Overloaded.class) instanceof ReflectiveBeanConverter);
+          // Registered once
+          assertEquals(3, app.getBeanConverters().size());
+        });
+  }
+
+  @Test
+  public void shouldNotGenerateConverters() throws Exception {
+    new MvcModuleCompilerRunner(new ConverterController(), false,
+        "-Ajooby.beanConverters=false")
+        .module(app -> {
+          assertEquals(1, app.getBeanConverters().size());
+        });
+  }
+
+  @Test
+  public void shouldConvertBean() throws Exception {
+    new MvcModuleCompilerRunner(new ConverterController())
+        .module(app -> {
+          Filter filter = query(app, "q=jooby&size=10&offset=20&score=0.5&active=true&sort=desc"
+              + "&tags=a&tags=b&limit=5&range.start=1&range.to=9&unknown=x")
+              .to(Filter.class);
+          assertEquals("jooby", filter.getQ());
+          assertEquals(10, filter.getSize());
+          assertEquals(20L, filter.getOffset());
+          assertEquals(0.5, filter.getScore());
+          assertTrue(filter.isActive());
+          assertEquals(Sort.DESC, filter.getSort());
+          assertEquals(Arrays.asList("a", "b"), filter.getTags());
+          assertEquals(Optional.of(5), filter.getLimit());
+          assertEquals(1, filter.getRange().getFrom());
+          assertEquals(9, filter.getRange().getTo().intValue());
+
+          Filter partial = query(app, "Q=x&range.start=3").to(Filter.class);
+          assertEquals("x", partial.getQ());
+          assertEquals(0, partial.getSize());
+          assertNull(partial.getTags());
+          assertNull(partial.getRange().getTo());
+        });
+  }
+
+  @Test
+  public void shouldReportInvalidValues() throws Exception {
+    new MvcModuleCompilerRunner(new ConverterController())
+        .module(app -> {
+          ProvisioningException size = assertThrows(ProvisioningException.class,
+              () -> query(app, "size=x").to(Filter.class));
+          assertEquals("Unable to provision parameter: 'size: int', require by: method "
+              + "tests.converter.Filter.setSize(int)", size.getMessage());
+
+          ProvisioningException start = assertThrows(ProvisioningException.class,
+              () -> query(app, "to=1&x=2").to(Range.class));
+          assertEquals("Unable to provision parameter: 'start: int', require by: constructor "
+              + "tests.converter.Range(int, java.lang.Integer)", start.getMessage());
+        });
+  }
+
+  private static BeanConverter converter(Jooby app, Class type) {
+    // Generated converters must go before the reflective one
+    assertFalse(app.getBeanConverters().isEmpty());
+    app.getBeanConverters().removeIf(ReflectiveBeanConverter.class::isInstance);
+    app.getBeanConverters().add(new ReflectiveBeanConverter());
+    return app.getBeanConverters().stream()
+        .filter(it -> it.supports(type))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException(type.getName()));
+  }
+
+  private static QueryString query(Jooby app, String query) {
+    converter(app, Filter.class);
+    Context ctx = mock(Context.class);
+    when(ctx.convert(any(), any())).thenAnswer(
+        invocation -> ValueConverters.convert(invocation.getArgument(0),
+            (Class) invocation.getArgument(1), app));
+    return QueryString.create(ctx, query);
+  }
+}
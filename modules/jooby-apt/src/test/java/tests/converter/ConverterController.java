@@ -0,0 +1,24 @@
+package tests.converter;
+
+import java.util.Optional;
+
+import io.jooby.annotations.GET;
+import io.jooby.annotations.QueryParam;
+
+public class ConverterController {
+
+  @GET("/search")
+  public Filter search(@QueryParam Filter filter) {
+    return filter;
+  }
+
+  @GET("/optional")
+  public Optional<Filter> optional(@QueryParam Optional<Filter> filter) {
+    return filter;
+  }
+
+  @GET("/overloaded")
+  public Overloaded overloaded(@QueryParam Overloaded overloaded) {
+    return overloaded;
+  }
+}
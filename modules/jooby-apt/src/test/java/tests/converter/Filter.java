@@ -0,0 +1,97 @@
+package tests.converter;
+
+import java.util.List;
+import java.util.Optional;
+
+public class Filter {
+  private String q;
+
+  private int size;
+
+  private long offset;
+
+  private double score;
+
+  private boolean active;
+
+  private Sort sort;
+
+  private List<String> tags;
+
+  private Optional<Integer> limit;
+
+  private Range range;
+
+  public String getQ() {
+    return q;
+  }
+
+  public void setQ(String q) {
+    this.q = q;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public Filter setOffset(long offset) {
+    this.offset = offset;
+    return this;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public void setScore(double score) {
+    this.score = score;
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+
+  public void active(boolean active) {
+    this.active = active;
+  }
+
+  public Sort getSort() {
+    return sort;
+  }
+
+  public void setSort(Sort sort) {
+    this.sort = sort;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public void setTags(List<String> tags) {
+    this.tags = tags;
+  }
+
+  public Optional<Integer> getLimit() {
+    return limit;
+  }
+
+  public void setLimit(Optional<Integer> limit) {
+    this.limit = limit;
+  }
+
+  public Range getRange() {
+    return range;
+  }
+
+  public void setRange(Range range) {
+    this.range = range;
+  }
+}
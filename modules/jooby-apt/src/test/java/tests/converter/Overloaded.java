@@ -0,0 +1,17 @@
+package tests.converter;
+
+public class Overloaded {
+  private String value;
+
+  public String getValue() {
+    return value;
+  }
+
+  public void setValue(String value) {
+    this.value = value;
+  }
+
+  public void setValue(int value) {
+    this.value = String.valueOf(value);
+  }
+}
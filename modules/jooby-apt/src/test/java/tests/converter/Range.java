@@ -0,0 +1,22 @@
+package tests.converter;
+
+import javax.inject.Named;
+
+public class Range {
+  private final int from;
+
+  private final Integer to;
+
+  public Range(@Named("start") int from, @Named("to") Integer to) {
+    this.from = from;
+    this.to = to;
+  }
+
+  public int getFrom() {
+    return from;
+  }
+
+  public Integer getTo() {
+    return to;
+  }
+}
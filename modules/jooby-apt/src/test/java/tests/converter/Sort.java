@@ -0,0 +1,6 @@
+package tests.converter;
+
+public enum Sort {
+  ASC,
+  DESC
+}
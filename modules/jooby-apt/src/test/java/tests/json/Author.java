@@ -0,0 +1,11 @@
+package tests.json;
+
+import java.util.Set;
+
+public class Author {
+  public String name;
+
+  public Set<Genre> genres;
+
+  public Author mentor;
+}
@@ -0,0 +1,81 @@
+package tests.json;
+
+import java.util.List;
+
+public class Book {
+  private String title;
+
+  private int year;
+
+  private double price;
+
+  private Long isbn;
+
+  private Genre genre;
+
+  private Author author;
+
+  private List<String> tags;
+
+  public boolean available;
+
+  public String getTitle() {
+    return title;
+  }
+
+  public void setTitle(String title) {
+    this.title = title;
+  }
+
+  public int getYear() {
+    return year;
+  }
+
+  public void setYear(int year) {
+    this.year = year;
+  }
+
+  public double getPrice() {
+    return price;
+  }
+
+  public void setPrice(double price) {
+    this.price = price;
+  }
+
+  public Long getISBN() {
+    return isbn;
+  }
+
+  public void setISBN(Long isbn) {
+    this.isbn = isbn;
+  }
+
+  public Genre getGenre() {
+    return genre;
+  }
+
+  public void setGenre(Genre genre) {
+    this.genre = genre;
+  }
+
+  public Author getAuthor() {
+    return author;
+  }
+
+  public void setAuthor(Author author) {
+    this.author = author;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public void setTags(List<String> tags) {
+    this.tags = tags;
+  }
+
+  public int getTitleLength() {
+    return title == null ? 0 : title.length();
+  }
+}
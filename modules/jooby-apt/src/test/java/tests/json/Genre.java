@@ -0,0 +1,6 @@
+package tests.json;
+
+public enum Genre {
+  FICTION,
+  ESSAY
+}
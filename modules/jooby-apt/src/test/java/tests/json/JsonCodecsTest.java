@@ -0,0 +1,177 @@
+package tests.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.Jooby;
+import io.jooby.MediaType;
+import io.jooby.MessageDecoder;
+import io.jooby.MessageEncoder;
+import io.jooby.Reified;
+import io.jooby.Route;
+import io.jooby.Router;
+import io.jooby.apt.MvcModuleCompilerRunner;
+import io.jooby.exception.BadRequestException;
+import io.jooby.internal.json.JsonCodecs;
+
+public class JsonCodecsTest {
+
+  private static final String BOOK = "{\"available\":true,\"title\":\"Ficciones\",\"year\":1944,"
+      + "\"price\":9.5,\"isbn\":42,\"genre\":\"FICTION\",\"author\":{\"name\":\"Borges\","
+      + "\"genres\":[\"FICTION\",\"ESSAY\"],\"mentor\":null},\"tags\":[\"short\",\"stories\"],"
+      + "\"titleLength\":9}";
+
+  @Test
+  public void shouldNotGenerateCodecsByDefault() throws Exception {
+    new MvcModuleCompilerRunner(new JsonController())
+        .module(app -> {
+          assertNull(app.getServices().getOrNull(JsonCodecs.class));
+        });
+  }
+
+  @Test
+  public void shouldRegisterCodecs() throws Exception {
+    new MvcModuleCompilerRunner(new JsonController(), false, "-Ajooby.json=true")
+        .module(app -> {
+          JsonCodecs codecs = app.getServices().get(JsonCodecs.class);
+          assertNotNull(codecs.get(Book.class));
+          assertNotNull(codecs.get(Reified.list(Book.class).getType()));
+          assertNull(codecs.get(Author.class));
+          assertNull(codecs.get(Opaque.class));
+        });
+  }
+
+  @Test
+  public void shouldEncodeBean() throws Exception {
+    new MvcModuleCompilerRunner(new JsonController(), false, "-Ajooby.json=true")
+        .module(app -> {
+          JsonCodecs codecs = app.getServices().get(JsonCodecs.class);
+          Context ctx = acceptJson();
+          assertEquals(BOOK, json(codecs.encode(ctx, book())));
+        });
+  }
+
+  @Test
+  public void shouldEncodeListFromRouteReturnType() throws Exception {
+    new MvcModuleCompilerRunner(new JsonController(), false, "-Ajooby.json=true")
+        .module(app -> {
+          JsonCodecs codecs = app.getServices().get(JsonCodecs.class);
+          Context ctx = acceptJson();
+          when(ctx.getRoute()).thenReturn(route(app, Router.GET, "/books"));
+          assertEquals("[" + BOOK + "," + BOOK + "]",
+              json(codecs.encode(ctx, Arrays.asList(book(), book()))));
+        });
+  }
+
+  @Test
+  public void shouldDecodeBean() throws Exception {
+    new MvcModuleCompilerRunner(new JsonController(), false, "-Ajooby.json=true")
+        .module(app -> {
+          JsonCodecs codecs = app.getServices().get(JsonCodecs.class);
+          Book book = (Book) codecs.decode(body(BOOK + " "), Book.class);
+          assertEquals(BOOK, json(codecs.encode(acceptJson(), book)));
+
+          Book partial = (Book) codecs.decode(body("{\"year\": \"2001\", \"isbn\": null, "
+              + "\"author\": {\"mentor\": {\"name\": \"M\"}}}"), Book.class);
+          assertEquals(2001, partial.getYear());
+          assertNull(partial.getISBN());
+          assertNull(partial.getTitle());
+          assertEquals("M", partial.getAuthor().mentor.name);
+
+          List<Book> books = (List<Book>) codecs
+              .decode(body("[" + BOOK + "]"), Reified.list(Book.class).getType());
+          assertEquals(1, books.size());
+          assertEquals("Ficciones", books.get(0).getTitle());
+
+          assertThrows(BadRequestException.class,
+              () -> codecs.decode(body("{\"title\": \"x\"} {}"), Book.class));
+          assertThrows(BadRequestException.class,
+              () -> codecs.decode(body("{\"genre\": \"POETRY\"}"), Book.class));
+          // unknown properties fail, same as Jackson defaults
+          assertThrows(BadRequestException.class,
+              () -> codecs.decode(body("{\"title\": \"x\", \"unknown\": [1, true]}"),
+                  Book.class));
+        });
+  }
+
+  @Test
+  public void shouldFallbackToJsonModule() throws Exception {
+    new MvcModuleCompilerRunner(new JsonController(), false, "-Ajooby.json=true")
+        .module(app -> {
+          // JSON module installed after the generated module
+          app.encoder(MediaType.json, (ctx, value) -> "fallback".getBytes(StandardCharsets.UTF_8));
+          app.decoder(MediaType.json, (ctx, type) -> "fallback");
+
+          // application start
+          app.getServices().get(JsonCodecs.class).decorate(app.getRoutes());
+
+          Route route = route(app, Router.GET, "/opaque");
+          Context ctx = acceptJson();
+          when(ctx.accept(anyList())).thenReturn(MediaType.json);
+          MessageEncoder encoder = route.getEncoder();
+          MessageDecoder decoder = route.decoder(MediaType.json);
+          assertEquals("fallback", json(encoder.encode(ctx, new Opaque("opaque"))));
+          assertEquals("fallback", decoder.decode(ctx, Opaque.class));
+          assertEquals(BOOK, json(encoder.encode(ctx, book())));
+
+          // ndjson: written by the JSON module
+          Context ndjson = mock(Context.class);
+          when(ndjson.accept(anyList())).thenReturn(MediaType.ndjson);
+          assertEquals("fallback", json(encoder.encode(ndjson, book())));
+        });
+  }
+
+  private static Context acceptJson() {
+    Context ctx = mock(Context.class);
+    when(ctx.accept(MediaType.json)).thenReturn(true);
+    return ctx;
+  }
+
+  private static Book book() {
+    Author author = new Author();
+    author.name = "Borges";
+    author.genres = new java.util.LinkedHashSet<>(Arrays.asList(Genre.FICTION, Genre.ESSAY));
+    Book book = new Book();
+    book.available = true;
+    book.setTitle("Ficciones");
+    book.setYear(1944);
+    book.setPrice(9.5);
+    book.setISBN(42L);
+    book.setGenre(Genre.FICTION);
+    book.setAuthor(author);
+    book.setTags(Arrays.asList("short", "stories"));
+    return book;
+  }
+
+  private static Context body(String json) {
+    Body body = mock(Body.class);
+    when(body.bytes()).thenReturn(json.getBytes(StandardCharsets.UTF_8));
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+    return ctx;
+  }
+
+  private static Route route(Jooby app, String method, String pattern) {
+    return app.getRoutes().stream()
+        .filter(it -> it.getMethod().equals(method) && it.getPattern().equals(pattern))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException(method + " " + pattern));
+  }
+
+  private static String json(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,25 @@
+package tests.json;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.jooby.annotations.GET;
+import io.jooby.annotations.POST;
+
+public class JsonController {
+
+  @POST("/books")
+  public Book create(Book book) {
+    return book;
+  }
+
+  @GET("/books")
+  public List<Book> list() {
+    return Collections.emptyList();
+  }
+
+  @GET("/opaque")
+  public Opaque opaque() {
+    return new Opaque("opaque");
+  }
+}
@@ -0,0 +1,17 @@
+package tests.json;
+
+public class Opaque {
+  private final String value;
+
+  public Opaque(String value) {
+    this.value = value;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  @Override public String toString() {
+    return value;
+  }
+}
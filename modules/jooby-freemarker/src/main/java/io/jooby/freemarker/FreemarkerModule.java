@@ -20,6 +20,7 @@ import io.jooby.Jooby;
 import io.jooby.ServiceRegistry;
 import io.jooby.SneakyThrows;
 import io.jooby.TemplateEngine;
+import io.jooby.TemplateWarmup;
 
 import javax.annotation.Nonnull;
 import java.nio.file.Files;
@@ -233,6 +234,8 @@ public class FreemarkerModule implements Extension {
 
   private Path templatesPath;
 
+  private Boolean warmup;
+
   /**
    * Creates a new freemarker module using a the given freemarker instance.
    *
@@ -268,15 +271,34 @@ public class FreemarkerModule implements Extension {
     this(TemplateEngine.PATH);
   }
 
+  /**
+   * Compile all the templates at application startup, in parallel. Startup fails when a template
+   * can't be compiled. Default is <code>false</code> or the value of the
+   * <code>templates.warmup</code> property.
+   *
+   * @param warmup True for compiling templates at startup.
+   * @return This module.
+   */
+  public @Nonnull FreemarkerModule setWarmup(boolean warmup) {
+    this.warmup = warmup;
+    return this;
+  }
+
   @Override public void install(@Nonnull Jooby application) {
+    Environment env = application.getEnvironment();
     if (freemarker == null) {
       freemarker = create()
           .setTemplatesPath(templatesPathString)
           .setTemplatesPath(templatesPath)
-          .build(application.getEnvironment());
+          .build(env);
     }
     application.encoder(new FreemarkerTemplateEngine(freemarker, EXT));
 
+    String path = normalizePath(env.getProperty(TEMPLATE_PATH,
+        Optional.ofNullable(templatesPathString).orElse(TemplateEngine.PATH)));
+    new TemplateWarmup("freemarker", EXT, freemarker::getTemplate)
+        .install(application, warmup, templatesPath, path);
+
     ServiceRegistry services = application.getServices();
     services.put(Configuration.class, freemarker);
   }
@@ -14,11 +14,10 @@ import io.jooby.TemplateEngine;
 
 import javax.annotation.Nonnull;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 class FreemarkerTemplateEngine implements TemplateEngine {
 
@@ -35,17 +34,21 @@ class FreemarkerTemplateEngine implements TemplateEngine {
   }
 
   @Override public String render(Context ctx, ModelAndView modelAndView) throws Exception {
-    Template template = freemarker.getTemplate(modelAndView.getView());
     StringWriter writer = new StringWriter();
-    Map<String, Object> model = new HashMap<>(ctx.getAttributes());
-    model.putAll(modelAndView.getModel());
+    render(ctx, modelAndView, writer);
+    return writer.toString();
+  }
+
+  @Override public void render(@Nonnull Context ctx, @Nonnull ModelAndView modelAndView,
+      @Nonnull Writer writer) throws Exception {
+    Template template = freemarker.getTemplate(modelAndView.getView());
     Locale locale = modelAndView.getLocale();
     if (locale == null) {
       locale = ctx.locale();
     }
-    Environment env = template.createProcessingEnvironment(model, writer);
+    Environment env = template
+        .createProcessingEnvironment(model(ctx, modelAndView), writer);
     env.setLocale(locale);
     env.process();
-    return writer.toString();
   }
 }
@@ -11,13 +11,20 @@ import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.SchemaGenerator;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
+import io.jooby.Context;
 import io.jooby.Extension;
 import io.jooby.Jooby;
 import io.jooby.Route;
 import io.jooby.ServiceRegistry;
 import io.jooby.SneakyThrows;
 import io.jooby.internal.graphql.BlockingGraphQLHandler;
+import io.jooby.internal.graphql.DataLoaders;
+import io.jooby.internal.graphql.DocumentCache;
 import io.jooby.internal.graphql.GraphQLHandler;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.stats.SimpleStatisticsCollector;
+import org.dataloader.stats.StatisticsCollector;
 
 import javax.annotation.Nonnull;
 import java.io.FileNotFoundException;
@@ -27,8 +34,11 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * GraphQL module on top of https://www.graphql-java.com.
@@ -45,17 +55,68 @@ import java.util.concurrent.CompletableFuture;
  * the route path by setting the <code>graphql.path</code> property in your application
  * configuration file.
  *
+ * Parsed and validated documents are cached by query hash, see {@link #setDocumentCacheSize(int)}.
+ * The cache also implements Automatic Persisted Queries: clients might send the
+ * <code>extensions.persistedQuery.sha256Hash</code> of a query instead of the query itself.
+ *
+ * Data loaders registered with {@link #batchLoader(String, BatchLoader)} or
+ * {@link #dataLoader(String, DataLoaderFactory)} are created per request and attached to the
+ * execution input. Loads are dispatched per query level, so nested resolvers issue one batch per
+ * level instead of one call per item.
+ *
  * @author edgar
  * @since 2.4.0
  */
 public class GraphQLModule implements Extension {
 
+  /**
+   * Creates a data loader for the current request.
+   */
+  public interface DataLoaderFactory {
+    /**
+     * Creates a data loader for the current request.
+     *
+     * @param ctx Web context.
+     * @param options Data loader options with max batch size and statistics collector. Pass them
+     *     to the data loader to get batch and cache metrics.
+     * @return Data loader.
+     */
+    @Nonnull DataLoader<?, ?> newDataLoader(@Nonnull Context ctx,
+        @Nonnull DataLoaderOptions options);
+  }
+
+  /**
+   * Blocking batch loader. Batches are executed in the application worker.
+   *
+   * @param <K> Key type.
+   * @param <V> Value type.
+   */
+  public interface BatchLoader<K, V> {
+    /**
+     * Load all the values for the given keys. Values must be returned in the same order as keys.
+     *
+     * @param ctx Web context.
+     * @param keys Keys to load.
+     * @return Values.
+     * @throws Exception If something goes wrong.
+     */
+    @Nonnull List<V> load(@Nonnull Context ctx, @Nonnull List<K> keys) throws Exception;
+  }
+
   private GraphQL graphQL;
 
   private boolean async = true;
 
   private boolean supportGetRequest;
 
+  private int documentCacheSize = 1000;
+
+  private Map<String, DataLoaderFactory> dataLoaders = new LinkedHashMap<>();
+
+  private int maxBatchSize = -1;
+
+  private Executor worker;
+
   /**
    * Creates a new GraphQL module.
    *
@@ -107,9 +168,21 @@ public class GraphQLModule implements Extension {
   @Override public void install(@Nonnull Jooby application) throws Exception {
     String graphqlPath = application.getEnvironment().getProperty("graphql.path", "/graphql");
 
+    if (documentCacheSize > 0) {
+      DocumentCache documentCache = new DocumentCache(documentCacheSize);
+      graphQL = graphQL.transform(builder -> builder.preparsedDocumentProvider(documentCache));
+    }
+
+    StatisticsCollector statistics = new SimpleStatisticsCollector();
+    DataLoaders loaders = null;
+    if (dataLoaders.size() > 0) {
+      worker = application.getWorker();
+      loaders = new DataLoaders(dataLoaders, maxBatchSize, statistics);
+    }
+
     GraphQLHandler handler = async
-        ? new GraphQLHandler(graphQL)
-        : new BlockingGraphQLHandler(graphQL);
+        ? new GraphQLHandler(graphQL, loaders)
+        : new BlockingGraphQLHandler(graphQL, loaders);
 
     if (supportGetRequest) {
       executionMode(application.get(graphqlPath, handler), async);
@@ -119,6 +192,7 @@ public class GraphQLModule implements Extension {
 
     ServiceRegistry services = application.getServices();
     services.put(GraphQL.class, graphQL);
+    services.put(StatisticsCollector.class, statistics);
   }
 
   /**
@@ -143,6 +217,91 @@ public class GraphQLModule implements Extension {
     return this;
   }
 
+  /**
+   * Maximum number of parsed and validated documents to keep in memory. Least recently used
+   * documents are evicted first. Default is <code>1000</code>.
+   *
+   * Set it to <code>0</code> to turn off caching and persisted queries. This is required when the
+   * {@link GraphQL} instance has its own <code>PreparsedDocumentProvider</code>, otherwise it gets
+   * replaced by the module cache.
+   *
+   * @param documentCacheSize Maximum number of cached documents.
+   * @return This module.
+   */
+  public GraphQLModule setDocumentCacheSize(int documentCacheSize) {
+    this.documentCacheSize = documentCacheSize;
+    return this;
+  }
+
+  /**
+   * Register a blocking batch loader. A data loader is created per request and registered under
+   * the given name. In async mode, batches are executed in the application worker; otherwise they
+   * run in the calling thread (already a worker thread).
+   *
+   * <pre>{@code
+   *   install(new GraphQLModule(...)
+   *       .batchLoader("author", (ctx, ids) -> repository.findAuthors(ids))
+   *   );
+   * }</pre>
+   *
+   * Use it from a data fetcher:
+   *
+   * <pre>{@code
+   *   DataLoader<Long, Author> author = env.getDataLoader("author");
+   *   return author.load(book.getAuthorId());
+   * }</pre>
+   *
+   * @param name Data loader name.
+   * @param loader Batch loader.
+   * @param <K> Key type.
+   * @param <V> Value type.
+   * @return This module.
+   */
+  public <K, V> GraphQLModule batchLoader(@Nonnull String name,
+      @Nonnull BatchLoader<K, V> loader) {
+    return dataLoader(name, (ctx, options) -> DataLoader.<K, V>newDataLoader(keys -> {
+      if (async) {
+        return CompletableFuture.supplyAsync(() -> load(loader, ctx, keys), worker);
+      }
+      return CompletableFuture.completedFuture(load(loader, ctx, keys));
+    }, options));
+  }
+
+  /**
+   * Register a data loader factory. The factory is invoked per request and the data loader is
+   * registered under the given name.
+   *
+   * @param name Data loader name.
+   * @param factory Data loader factory.
+   * @return This module.
+   */
+  public GraphQLModule dataLoader(@Nonnull String name, @Nonnull DataLoaderFactory factory) {
+    dataLoaders.put(name, factory);
+    return this;
+  }
+
+  /**
+   * Maximum number of keys per batch. Default is unbounded.
+   *
+   * Batch and cache metrics of all the data loaders are available as {@link StatisticsCollector}
+   * service: <code>require(StatisticsCollector.class).getStatistics()</code>.
+   *
+   * @param maxBatchSize Maximum number of keys per batch.
+   * @return This module.
+   */
+  public GraphQLModule setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+    return this;
+  }
+
+  private static <K, V> List<V> load(BatchLoader<K, V> loader, Context ctx, List<K> keys) {
+    try {
+      return loader.load(ctx, keys);
+    } catch (Exception x) {
+      throw SneakyThrows.propagate(x);
+    }
+  }
+
   private void executionMode(Route route, boolean async) {
     if (async) {
       route.setReturnType(CompletableFuture.class);
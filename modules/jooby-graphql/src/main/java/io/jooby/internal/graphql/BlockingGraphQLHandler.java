@@ -12,8 +12,12 @@ import javax.annotation.Nonnull;
 
 public class BlockingGraphQLHandler extends GraphQLHandler {
 
+  public BlockingGraphQLHandler(GraphQL graphQL, DataLoaders dataLoaders) {
+    super(graphQL, dataLoaders);
+  }
+
   public BlockingGraphQLHandler(GraphQL graphQL) {
-    super(graphQL);
+    this(graphQL, null);
   }
 
   @Nonnull @Override public Object apply(@Nonnull Context ctx) {
@@ -0,0 +1,48 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.graphql;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.stats.StatisticsCollector;
+
+import io.jooby.Context;
+import io.jooby.graphql.GraphQLModule;
+
+/**
+ * Creates a {@link DataLoaderRegistry} per request. All the data loaders share the same
+ * statistics collector, so batch and cache metrics are aggregated across requests.
+ */
+public class DataLoaders {
+
+  private final Map<String, GraphQLModule.DataLoaderFactory> factories;
+
+  private final int maxBatchSize;
+
+  private final StatisticsCollector statistics;
+
+  public DataLoaders(Map<String, GraphQLModule.DataLoaderFactory> factories, int maxBatchSize,
+      StatisticsCollector statistics) {
+    this.factories = factories;
+    this.maxBatchSize = maxBatchSize;
+    this.statistics = statistics;
+  }
+
+  public @Nonnull DataLoaderRegistry newRegistry(@Nonnull Context ctx) {
+    DataLoaderRegistry registry = new DataLoaderRegistry();
+    for (Map.Entry<String, GraphQLModule.DataLoaderFactory> e : factories.entrySet()) {
+      DataLoaderOptions options = DataLoaderOptions.newOptions()
+          .setMaxBatchSize(maxBatchSize)
+          .setStatisticsCollector(() -> statistics);
+      registry.register(e.getKey(), e.getValue().newDataLoader(ctx, options));
+    }
+    return registry;
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.internal.graphql;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.jooby.SneakyThrows;
+
+/**
+ * Bounded (LRU) cache of parsed and validated documents, keyed by the SHA-256 hash of the query.
+ *
+ * Implements Automatic Persisted Queries: when the request has a
+ * <code>extensions.persistedQuery.sha256Hash</code> and no query, the document is looked up by
+ * hash. A miss produces a <code>PersistedQueryNotFound</code> error, which tells the client to
+ * send the query again along with the hash.
+ */
+public class DocumentCache implements PreparsedDocumentProvider {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final Map<String, PreparsedDocumentEntry> documents;
+
+  public DocumentCache(int maximumSize) {
+    this.documents = Collections.synchronizedMap(
+        new LinkedHashMap<String, PreparsedDocumentEntry>(16, 0.75f, true) {
+          @Override protected boolean removeEldestEntry(
+              Map.Entry<String, PreparsedDocumentEntry> eldest) {
+            return size() > maximumSize;
+          }
+        });
+  }
+
+  @Override public PreparsedDocumentEntry getDocument(ExecutionInput input,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+    String hash = persistedQueryHash(input);
+    String query = input.getQuery();
+    if (query == null || query.isEmpty()
+        || query.equals(PersistedQuerySupport.PERSISTED_QUERY_MARKER)) {
+      if (hash == null) {
+        return parseAndValidate.apply(input);
+      }
+      PreparsedDocumentEntry entry = documents.get(hash.toLowerCase());
+      if (entry == null) {
+        PersistedQueryNotFound notFound = new PersistedQueryNotFound(hash);
+        return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+            .errorType(notFound)
+            .message(notFound.getMessage())
+            .extensions(notFound.getExtensions())
+            .build());
+      }
+      return entry;
+    }
+    String key = sha256(query);
+    if (hash != null && !hash.equalsIgnoreCase(key)) {
+      return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+          .errorType(ErrorType.ValidationError)
+          .message("Provided sha256Hash does not match query")
+          .build());
+    }
+    PreparsedDocumentEntry entry = documents.get(key);
+    if (entry == null) {
+      // Parse outside the lock, concurrent misses for the same query might parse it twice
+      entry = parseAndValidate.apply(input);
+      if (!entry.hasErrors()) {
+        documents.put(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Number of cached documents.
+   *
+   * @return Number of cached documents.
+   */
+  public int size() {
+    return documents.size();
+  }
+
+  static String sha256(String query) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(query.getBytes(StandardCharsets.UTF_8));
+      char[] hex = new char[digest.length * 2];
+      for (int i = 0; i < digest.length; i++) {
+        hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+        hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+      }
+      return new String(hex);
+    } catch (NoSuchAlgorithmException x) {
+      throw SneakyThrows.propagate(x);
+    }
+  }
+
+  private static String persistedQueryHash(ExecutionInput input) {
+    Map<String, Object> extensions = input.getExtensions();
+    if (extensions == null) {
+      return null;
+    }
+    Object persistedQuery = extensions.get("persistedQuery");
+    if (persistedQuery instanceof Map) {
+      Object hash = ((Map) persistedQuery).get("sha256Hash");
+      return hash == null ? null : hash.toString();
+    }
+    return null;
+  }
+}
@@ -10,11 +10,21 @@ import com.google.gson.GsonBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.jooby.Body;
 import io.jooby.Context;
+import io.jooby.ForwardingContext;
+import io.jooby.MediaType;
+import io.jooby.MessageDecoder;
+import io.jooby.Reified;
 import io.jooby.Route;
 import io.jooby.Router;
+import io.jooby.SneakyThrows;
+import io.jooby.exception.UnsupportedMediaType;
 
 import javax.annotation.Nonnull;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 
@@ -22,10 +32,19 @@ public class GraphQLHandler implements Route.Handler {
   private static final Gson json = new GsonBuilder()
       .create();
 
+  private static final Type MAP = Reified.map(String.class, Object.class).getType();
+
   protected GraphQL graphQL;
 
-  public GraphQLHandler(GraphQL graphQL) {
+  private final DataLoaders dataLoaders;
+
+  public GraphQLHandler(GraphQL graphQL, DataLoaders dataLoaders) {
     this.graphQL = graphQL;
+    this.dataLoaders = dataLoaders;
+  }
+
+  public GraphQLHandler(GraphQL graphQL) {
+    this(graphQL, null);
   }
 
   @Nonnull @Override public Object apply(@Nonnull Context ctx) {
@@ -39,20 +58,48 @@ public class GraphQLHandler implements Route.Handler {
       request = ctx.body(GraphQLRequest.class);
     } else {
       request = new GraphQLRequest();
-      String query = ctx.query("query").value();
+      String query = ctx.query("query").valueOrNull();
       String operationName = ctx.query("operationName").valueOrNull();
-      Map<String, Object> variables = ctx.query("variables").toOptional()
-          .filter(string -> !string.equals("{}"))
-          .map(str -> json.fromJson(str,Map.class))
-          .orElseGet(Collections::emptyMap);
       request.setOperationName(operationName);
       request.setQuery(query);
-      request.setVariables(variables);
+      request.setVariables(parseJson(ctx, ctx.query("variables").valueOrNull()));
+      request.setExtensions(parseJson(ctx, ctx.query("extensions").valueOrNull()));
     }
-    return ExecutionInput.newExecutionInput(request.getQuery())
+    String query = request.getQuery();
+    ExecutionInput.Builder input = ExecutionInput
+        .newExecutionInput(query == null ? PersistedQuerySupport.PERSISTED_QUERY_MARKER : query)
         .operationName(request.getOperationName())
         .context(ctx)
         .variables(request.getVariables())
-        .build();
+        .extensions(request.getExtensions());
+    if (dataLoaders != null) {
+      input.dataLoaderRegistry(dataLoaders.newRegistry(ctx));
+    }
+    return input.build();
+  }
+
+  private static Map<String, Object> parseJson(Context ctx, String value) {
+    if (value == null || value.isEmpty() || value.equals("{}")) {
+      return Collections.emptyMap();
+    }
+    MessageDecoder decoder = ctx.decoder(MediaType.json);
+    if (decoder == MessageDecoder.UNSUPPORTED_MEDIA_TYPE) {
+      // No JSON module installed
+      return json.fromJson(value, MAP);
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    Context jsonContext = new ForwardingContext(ctx) {
+      @Nonnull @Override public Body body() {
+        return Body.of(ctx, bytes);
+      }
+    };
+    try {
+      return (Map<String, Object>) decoder.decode(jsonContext, MAP);
+    } catch (UnsupportedMediaType x) {
+      // Decoder without JSON module (generated codecs, etc.)
+      return json.fromJson(value, MAP);
+    } catch (Exception x) {
+      throw SneakyThrows.propagate(x);
+    }
   }
 }
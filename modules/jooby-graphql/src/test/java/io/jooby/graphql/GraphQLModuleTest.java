@@ -0,0 +1,110 @@
+package io.jooby.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.dataloader.stats.Statistics;
+import org.dataloader.stats.StatisticsCollector;
+import org.junit.jupiter.api.Test;
+
+import graphql.ExecutionResult;
+import graphql.schema.idl.RuntimeWiring;
+import io.jooby.Context;
+import io.jooby.Jooby;
+import io.jooby.Route;
+import io.jooby.Router;
+import io.jooby.internal.graphql.GraphQLRequest;
+
+public class GraphQLModuleTest {
+
+  private static final String SCHEMA = "schema.graphql";
+
+  @Test
+  public void batchNestedResolvers() throws Exception {
+    List<List<Long>> batches = new ArrayList<>();
+
+    Jooby app = new Jooby();
+    app.setWorker(Runnable::run);
+    new GraphQLModule(SCHEMA, wiring())
+        .<Long, String>batchLoader("author", (ctx, ids) -> {
+          batches.add(new ArrayList<>(ids));
+          return ids.stream().map(id -> "Author " + id).collect(Collectors.toList());
+        })
+        .install(app);
+
+    Map result = execute(app, "{ books { title author } }");
+
+    assertEquals(1, batches.size());
+    assertEquals(Arrays.asList(1L, 2L), batches.get(0));
+    assertEquals("{books=[{title=Book 1, author=Author 1}, {title=Book 2, author=Author 2}, "
+        + "{title=Book 3, author=Author 1}]}", result.get("data").toString());
+
+    Statistics statistics = app.require(StatisticsCollector.class).getStatistics();
+    assertEquals(3, statistics.getLoadCount());
+    assertEquals(1, statistics.getBatchInvokeCount());
+    assertEquals(2, statistics.getBatchLoadCount());
+    assertEquals(1, statistics.getCacheHitCount());
+  }
+
+  @Test
+  public void maxBatchSize() throws Exception {
+    List<List<Long>> batches = new ArrayList<>();
+
+    Jooby app = new Jooby();
+    new GraphQLModule(SCHEMA, wiring())
+        .setAsync(false)
+        .setMaxBatchSize(1)
+        .<Long, String>batchLoader("author", (ctx, ids) -> {
+          batches.add(new ArrayList<>(ids));
+          return ids.stream().map(id -> "Author " + id).collect(Collectors.toList());
+        })
+        .install(app);
+
+    execute(app, "{ books { author } }");
+
+    assertEquals(2, batches.size());
+  }
+
+  private static Map execute(Jooby app, String query) throws Exception {
+    GraphQLRequest request = new GraphQLRequest();
+    request.setQuery(query);
+    Context ctx = mock(Context.class);
+    when(ctx.getMethod()).thenReturn(Router.POST);
+    when(ctx.body(GraphQLRequest.class)).thenReturn(request);
+
+    Route route = app.getRoutes().stream()
+        .filter(it -> it.getMethod().equals(Router.POST))
+        .findFirst()
+        .get();
+    Object result = route.getHandler().apply(ctx);
+    if (result instanceof CompletableFuture) {
+      return (Map) ((CompletableFuture) result).get();
+    }
+    return ((ExecutionResult) result).toSpecification();
+  }
+
+  private static RuntimeWiring wiring() {
+    return RuntimeWiring.newRuntimeWiring()
+        .type("Query", builder -> builder.dataFetcher("books", env -> Arrays.asList(
+            book("Book 1", 1L), book("Book 2", 2L), book("Book 3", 1L))))
+        .type("Book", builder -> builder.dataFetcher("author",
+            env -> env.getDataLoader("author").load(((Map) env.getSource()).get("authorId"))))
+        .build();
+  }
+
+  private static Map<String, Object> book(String title, long authorId) {
+    Map<String, Object> book = new HashMap<>();
+    book.put("title", title);
+    book.put("authorId", authorId);
+    return book;
+  }
+}
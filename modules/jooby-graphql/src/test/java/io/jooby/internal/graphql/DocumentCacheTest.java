@@ -0,0 +1,104 @@
+package io.jooby.internal.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+
+public class DocumentCacheTest {
+
+  private static final String QUERY = "{ hello(name: \"jooby\") }";
+
+  @Test
+  public void cacheValidDocuments() {
+    DocumentCache cache = new DocumentCache(10);
+    GraphQL graphQL = graphQL(cache);
+
+    assertEquals("Hello jooby", data(graphQL.execute(QUERY)));
+    assertEquals("Hello jooby", data(graphQL.execute(QUERY)));
+    assertEquals(1, cache.size());
+
+    ExecutionResult invalid = graphQL.execute("{ missing }");
+    assertEquals(1, invalid.getErrors().size());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() {
+    DocumentCache cache = new DocumentCache(1);
+    GraphQL graphQL = graphQL(cache);
+
+    graphQL.execute(QUERY);
+    graphQL.execute("{ hello }");
+    assertEquals(1, cache.size());
+
+    ExecutionResult result = graphQL.execute(persisted(DocumentCache.sha256(QUERY)));
+    assertEquals("PersistedQueryNotFound", result.getErrors().get(0).getMessage());
+  }
+
+  @Test
+  public void persistedQuery() {
+    DocumentCache cache = new DocumentCache(10);
+    GraphQL graphQL = graphQL(cache);
+    String hash = DocumentCache.sha256(QUERY);
+
+    ExecutionResult notFound = graphQL.execute(persisted(hash));
+    assertEquals(1, notFound.getErrors().size());
+    assertEquals("PersistedQueryNotFound", notFound.getErrors().get(0).getMessage());
+
+    ExecutionResult registered = graphQL.execute(ExecutionInput.newExecutionInput(QUERY)
+        .extensions(extensions(hash)));
+    assertEquals("Hello jooby", data(registered));
+
+    assertEquals("Hello jooby", data(graphQL.execute(persisted(hash.toUpperCase()))));
+  }
+
+  @Test
+  public void persistedQueryHashMismatch() {
+    GraphQL graphQL = graphQL(new DocumentCache(10));
+
+    ExecutionResult result = graphQL.execute(ExecutionInput.newExecutionInput(QUERY)
+        .extensions(extensions(DocumentCache.sha256("{ hello }"))));
+    assertEquals(1, result.getErrors().size());
+    assertTrue(result.getErrors().get(0).getMessage().contains("sha256Hash"));
+  }
+
+  private static ExecutionInput.Builder persisted(String hash) {
+    return ExecutionInput.newExecutionInput(PersistedQuerySupport.PERSISTED_QUERY_MARKER)
+        .extensions(extensions(hash));
+  }
+
+  private static Map<String, Object> extensions(String hash) {
+    return Collections.singletonMap("persistedQuery",
+        Collections.singletonMap("sha256Hash", hash));
+  }
+
+  private static Object data(ExecutionResult result) {
+    assertEquals(Collections.emptyList(), result.getErrors());
+    return ((Map) result.getData()).get("hello");
+  }
+
+  private static GraphQL graphQL(DocumentCache cache) {
+    RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+        .type("Query", builder -> builder.dataFetcher("hello",
+            env -> "Hello " + env.getArgumentOrDefault("name", "world")))
+        .build();
+    GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(
+        new SchemaParser().parse("type Query { hello(name: String): String }"), wiring);
+    return GraphQL.newGraphQL(schema)
+        .preparsedDocumentProvider(cache)
+        .build();
+  }
+}
@@ -0,0 +1,88 @@
+package io.jooby.internal.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.MessageDecoder;
+import io.jooby.Router;
+import io.jooby.ValueNode;
+import io.jooby.exception.UnsupportedMediaType;
+
+public class GraphQLHandlerTest {
+
+  @Test
+  public void decodeGetParametersWithJsonDecoder() {
+    Context ctx = mock(Context.class);
+    when(ctx.getMethod()).thenReturn(Router.GET);
+    query(ctx, "query", null);
+    query(ctx, "operationName", null);
+    query(ctx, "variables", "{\"name\":\"jooby\"}");
+    query(ctx, "extensions", "{\"persistedQuery\":{}}");
+    MessageDecoder decoder = (context, type) -> {
+      String json = new String(context.body().bytes(), StandardCharsets.UTF_8);
+      return json.contains("name")
+          ? Collections.singletonMap("name", "jooby")
+          : Collections.singletonMap("persistedQuery", Collections.emptyMap());
+    };
+    when(ctx.decoder(MediaType.json)).thenReturn(decoder);
+
+    ExecutionInput input = new GraphQLHandler(null).newExecutionInput(ctx);
+
+    assertEquals(PersistedQuerySupport.PERSISTED_QUERY_MARKER, input.getQuery());
+    assertEquals(Collections.singletonMap("name", "jooby"), input.getVariables());
+    assertEquals(Collections.singletonMap("persistedQuery", Collections.emptyMap()),
+        input.getExtensions());
+  }
+
+  @Test
+  public void decodeGetParametersWithoutJsonDecoder() {
+    Context ctx = mock(Context.class);
+    when(ctx.getMethod()).thenReturn(Router.GET);
+    query(ctx, "query", "{ hello }");
+    query(ctx, "operationName", null);
+    query(ctx, "variables", "{\"name\":\"jooby\"}");
+    query(ctx, "extensions", null);
+    when(ctx.decoder(MediaType.json)).thenReturn(MessageDecoder.UNSUPPORTED_MEDIA_TYPE);
+
+    ExecutionInput input = new GraphQLHandler(null).newExecutionInput(ctx);
+
+    assertEquals("{ hello }", input.getQuery());
+    assertEquals(Collections.singletonMap("name", "jooby"), input.getVariables());
+    assertEquals(Collections.emptyMap(), input.getExtensions());
+  }
+
+  @Test
+  public void decodeGetParametersWithUnsupportedJsonDecoder() {
+    Context ctx = mock(Context.class);
+    when(ctx.getMethod()).thenReturn(Router.GET);
+    query(ctx, "query", "{ hello }");
+    query(ctx, "operationName", null);
+    query(ctx, "variables", "{\"name\":\"jooby\"}");
+    query(ctx, "extensions", null);
+    // wraps the unsupported decoder, like generated JSON codecs without a JSON module
+    MessageDecoder decoder = (context, type) -> {
+      throw new UnsupportedMediaType("application/json");
+    };
+    when(ctx.decoder(MediaType.json)).thenReturn(decoder);
+
+    ExecutionInput input = new GraphQLHandler(null).newExecutionInput(ctx);
+
+    assertEquals(Collections.singletonMap("name", "jooby"), input.getVariables());
+  }
+
+  private static void query(Context ctx, String name, String value) {
+    ValueNode param = mock(ValueNode.class);
+    when(param.valueOrNull()).thenReturn(value);
+    when(ctx.query(name)).thenReturn(param);
+  }
+}
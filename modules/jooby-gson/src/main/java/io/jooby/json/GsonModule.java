@@ -7,6 +7,14 @@ package io.jooby.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import io.jooby.Body;
 import io.jooby.Context;
 import io.jooby.Extension;
@@ -18,9 +26,17 @@ import io.jooby.ServiceRegistry;
 
 import javax.annotation.Nonnull;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -62,6 +78,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * }
  * }</pre>
  *
+ * Type adapters are looked up once per type and cached. Output is encoded into a byte buffer
+ * reused by each thread.
+ *
  * Complete documentation is available at: https://jooby.io/modules/gson.
  *
  * @author edgar
@@ -69,8 +88,23 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class GsonModule implements Extension, MessageDecoder, MessageEncoder {
 
+  private static final int BUFFER_SIZE = 4096;
+
+  /** Buffers bigger than this are not reused. */
+  private static final int MAX_BUFFER_SIZE = 65536;
+
+  private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(Output::new);
+
+  private static final class Output {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+
+    private final Writer writer = new OutputStreamWriter(bytes, UTF_8);
+  }
+
   private Gson gson;
 
+  private final Map<Type, TypeAdapter> adapters = new ConcurrentHashMap<>();
+
   /**
    * Creates a new module and use a Gson instance.
    *
@@ -99,16 +133,74 @@ public class GsonModule implements Extension, MessageDecoder, MessageEncoder {
       throws Exception {
     Body body = ctx.body();
     if (body.isInMemory()) {
-      return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(body.bytes()), UTF_8), type);
+      return read(new InputStreamReader(new ByteArrayInputStream(body.bytes()), UTF_8), type);
     } else {
       try (InputStream stream = body.stream()) {
-        return gson.fromJson(new InputStreamReader(stream, UTF_8), type);
+        return read(new InputStreamReader(stream, UTF_8), type);
       }
     }
   }
 
-  @Nonnull @Override public byte[] encode(@Nonnull Context ctx, @Nonnull Object value) {
+  @Nonnull @Override public byte[] encode(@Nonnull Context ctx, @Nonnull Object value)
+      throws IOException {
     ctx.setDefaultResponseType(MediaType.json);
-    return gson.toJson(value).getBytes(UTF_8);
+    Output output = OUTPUT.get();
+    try {
+      JsonWriter writer = gson.newJsonWriter(output.writer);
+      writer.setLenient(true);
+      adapter(value.getClass()).write(writer, value);
+      writer.flush();
+      byte[] bytes = output.bytes.toByteArray();
+      if (bytes.length > MAX_BUFFER_SIZE) {
+        OUTPUT.remove();
+      } else {
+        output.bytes.reset();
+      }
+      return bytes;
+    } catch (Throwable x) {
+      // discard partial output
+      OUTPUT.remove();
+      throw x;
+    }
+  }
+
+  /**
+   * Same as {@link Gson#fromJson(Reader, Type)} but with a cached adapter: an empty document is
+   * read as <code>null</code> and malformed input fails with {@link JsonSyntaxException}.
+   */
+  private Object read(Reader reader, Type type) {
+    JsonReader json = gson.newJsonReader(reader);
+    boolean lenient = json.isLenient();
+    json.setLenient(true);
+    Object value;
+    boolean empty = true;
+    try {
+      json.peek();
+      empty = false;
+      value = adapter(type).read(json);
+    } catch (EOFException x) {
+      if (empty) {
+        return null;
+      }
+      throw new JsonSyntaxException(x);
+    } catch (IllegalStateException | IOException x) {
+      throw new JsonSyntaxException(x);
+    } finally {
+      json.setLenient(lenient);
+    }
+    try {
+      if (value != null && json.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+    } catch (MalformedJsonException x) {
+      throw new JsonSyntaxException(x);
+    } catch (IOException x) {
+      throw new JsonIOException(x);
+    }
+    return value;
+  }
+
+  private TypeAdapter<Object> adapter(Type type) {
+    return adapters.computeIfAbsent(type, key -> gson.getAdapter(TypeToken.get(key)));
   }
 }
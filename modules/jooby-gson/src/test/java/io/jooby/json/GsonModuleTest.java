@@ -0,0 +1,96 @@
+package io.jooby.json;
+
+import com.google.gson.JsonSyntaxException;
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.Reified;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GsonModuleTest {
+
+  public static class User {
+    public long id;
+    public String name;
+  }
+
+  @Test
+  public void render() throws Exception {
+    GsonModule gson = new GsonModule();
+    User user = new User();
+    user.id = -1;
+    user.name = "Lorem €@!?";
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      large.append('x');
+    }
+
+    Context ctx = mock(Context.class);
+    assertEquals("{\"id\":-1,\"name\":\"Lorem €@!?\"}",
+        new String(gson.encode(ctx, user), StandardCharsets.UTF_8));
+    assertEquals(100_002, gson.encode(ctx, large.toString()).length);
+    assertEquals("[\"a\",\"b\"]",
+        new String(gson.encode(ctx, Arrays.asList("a", "b")), StandardCharsets.UTF_8));
+    // partial output is discarded on errors
+    assertThrows(IllegalArgumentException.class,
+        () -> gson.encode(ctx, Arrays.asList(1.0, Double.NaN)));
+    assertEquals("1", new String(gson.encode(ctx, 1), StandardCharsets.UTF_8));
+
+    verify(ctx, times(5)).setDefaultResponseType(MediaType.json);
+  }
+
+  @Test
+  public void parse() throws Exception {
+    Type type = Reified.list(User.class).getType();
+    GsonModule gson = new GsonModule();
+    for (int i = 0; i < 2; i++) {
+      Context ctx = context("[{\"id\":-1,\"name\":\"Lorem\"}]");
+      User user = (User) ((List) gson.decode(ctx, type)).get(0);
+      assertEquals(-1, user.id);
+      assertEquals("Lorem", user.name);
+    }
+    assertEquals(Collections.singletonMap("k", "v"),
+        gson.decode(context("{\"k\":\"v\"}"), Reified.map(String.class, String.class).getType()));
+  }
+
+  @Test
+  public void parseEmptyBody() throws Exception {
+    GsonModule gson = new GsonModule();
+    assertNull(gson.decode(context(""), User.class));
+    assertNull(gson.decode(context("  "), User.class));
+  }
+
+  @Test
+  public void parseMalformedBody() {
+    GsonModule gson = new GsonModule();
+    assertThrows(JsonSyntaxException.class,
+        () -> gson.decode(context("{\"id\":1,"), User.class));
+    assertThrows(JsonSyntaxException.class,
+        () -> gson.decode(context("{\"id\":1}}"), User.class));
+    assertThrows(JsonSyntaxException.class,
+        () -> gson.decode(context("[{\"id\":1}"), Reified.list(User.class).getType()));
+  }
+
+  private static Context context(String json) {
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(json.getBytes(StandardCharsets.UTF_8));
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+    return ctx;
+  }
+}
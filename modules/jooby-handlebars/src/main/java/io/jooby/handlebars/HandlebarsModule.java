@@ -17,6 +17,7 @@ import io.jooby.Extension;
 import io.jooby.Jooby;
 import io.jooby.ServiceRegistry;
 import io.jooby.TemplateEngine;
+import io.jooby.TemplateWarmup;
 
 import javax.annotation.Nonnull;
 import java.net.URL;
@@ -194,6 +195,9 @@ public class HandlebarsModule implements Extension {
   private String templatesPathString;
 
   private Path templatesPath;
+
+  private Boolean warmup;
+
   /**
    * Creates a new handlebars module.
    *
@@ -230,15 +234,34 @@ public class HandlebarsModule implements Extension {
     this(TemplateEngine.PATH);
   }
 
+  /**
+   * Compile all the templates at application startup, in parallel. Startup fails when a template
+   * can't be compiled. Default is <code>false</code> or the value of the
+   * <code>templates.warmup</code> property.
+   *
+   * @param warmup True for compiling templates at startup.
+   * @return This module.
+   */
+  public @Nonnull HandlebarsModule setWarmup(boolean warmup) {
+    this.warmup = warmup;
+    return this;
+  }
+
   @Override public void install(@Nonnull Jooby application) throws Exception {
+    Environment env = application.getEnvironment();
     if (handlebars == null) {
       handlebars = create()
           .setTemplatesPath(templatesPathString)
           .setTemplatesPath(templatesPath)
-          .build(application.getEnvironment());
+          .build(env);
     }
     application.encoder(new HbsTemplateEngine(handlebars, EXT));
 
+    String path = normalizePath(env.getProperty(TEMPLATE_PATH,
+        Optional.ofNullable(templatesPathString).orElse(TemplateEngine.PATH)));
+    new TemplateWarmup("handlebars", EXT, handlebars::compile)
+        .install(application, warmup, templatesPath, path);
+
     ServiceRegistry services = application.getServices();
     services.put(Handlebars.class, handlebars);
   }
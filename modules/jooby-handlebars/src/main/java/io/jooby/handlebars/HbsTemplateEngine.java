@@ -12,10 +12,9 @@ import io.jooby.ModelAndView;
 import io.jooby.TemplateEngine;
 
 import javax.annotation.Nonnull;
+import java.io.Writer;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 class HbsTemplateEngine implements TemplateEngine {
 
@@ -33,8 +32,12 @@ class HbsTemplateEngine implements TemplateEngine {
 
   @Override public String render(Context ctx, ModelAndView modelAndView) throws Exception {
     Template template = handlebars.compile(modelAndView.getView());
-    Map<String, Object> model = new HashMap<>(ctx.getAttributes());
-    model.putAll(modelAndView.getModel());
-    return template.apply(model);
+    return template.apply(model(ctx, modelAndView));
+  }
+
+  @Override public void render(@Nonnull Context ctx, @Nonnull ModelAndView modelAndView,
+      @Nonnull Writer writer) throws Exception {
+    Template template = handlebars.compile(modelAndView.getView());
+    template.apply(model(ctx, modelAndView), writer);
   }
 }
@@ -6,9 +6,12 @@
 package io.jooby.json;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -22,6 +25,7 @@ import io.jooby.MediaType;
 import io.jooby.MessageDecoder;
 import io.jooby.MessageEncoder;
 import io.jooby.ServiceRegistry;
+import io.jooby.SneakyThrows;
 import io.jooby.StatusCode;
 
 import javax.annotation.Nonnull;
@@ -31,6 +35,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
@@ -71,6 +76,20 @@ import java.util.stream.Stream;
  * }
  * }</pre>
  *
+ * Writers and readers are created once per type and cached. Output is encoded into a byte buffer
+ * reused by each thread.
+ *
+ * Binary formats are supported by installing a format specific mapper, selected via content
+ * negotiation:
+ *
+ * <pre>{@code
+ * {
+ *   install(new JacksonModule());                        // application/json
+ *   install(new JacksonModule(new CBORMapper()));        // application/cbor
+ *   install(new JacksonModule(new MessagePackMapper())); // application/msgpack
+ * }
+ * }</pre>
+ *
  * Complete documentation is available at: https://jooby.io/modules/jackson.
  *
  * @author edgar
@@ -85,10 +104,26 @@ public class JacksonModule implements Extension, MessageDecoder, MessageEncoder
 
   private final Set<Class<? extends Module>> modules = new HashSet<>();
 
+  private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+  private boolean blackbird;
+
   private static final Map<String, MediaType> defaultTypes = new HashMap<>();
 
+  private static final String BLACKBIRD = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+  /** Buffers bigger than this are not reused. */
+  private static final int MAX_BUFFER_SIZE = 65536;
+
+  private static final ThreadLocal<ByteArrayBuilder> BUFFER = ThreadLocal
+      .withInitial(ByteArrayBuilder::new);
+
   static {
     defaultTypes.put("XmlMapper", MediaType.xml);
+    defaultTypes.put("CBORMapper", MediaType.cbor);
+    defaultTypes.put("MessagePackMapper", MediaType.msgpack);
   }
 
   /**
@@ -131,14 +166,33 @@ public class JacksonModule implements Extension, MessageDecoder, MessageEncoder
     return this;
   }
 
+  /**
+   * Turn on/off the Blackbird module. Blackbird replaces reflection access to getters, setters
+   * and constructors with generated lambdas (<code>LambdaMetafactory</code>). It requires the
+   * <code>com.fasterxml.jackson.module:jackson-module-blackbird</code> dependency.
+   *
+   * @param blackbird True to register the Blackbird module. Default is: <code>false</code>.
+   * @return This module.
+   */
+  public JacksonModule blackbird(boolean blackbird) {
+    this.blackbird = blackbird;
+    return this;
+  }
+
   @Override public void install(@Nonnull Jooby application) {
+    if (blackbird) {
+      mapper.registerModule(blackbird(application.getClassLoader()));
+    }
     application.decoder(mediaType, this);
     application.encoder(mediaType, this);
 
     ServiceRegistry services = application.getServices();
     Class mapperType = mapper.getClass();
     services.put(mapperType, mapper);
-    services.put(ObjectMapper.class, mapper);
+    // binary/xml mappers don't replace the JSON mapper
+    if (mediaType.isJson() || services.getOrNull(ObjectMapper.class) == null) {
+      services.put(ObjectMapper.class, mapper);
+    }
 
     // Parsing exception as 400
     application.errorCode(JsonParseException.class, StatusCode.BAD_REQUEST);
@@ -148,12 +202,25 @@ public class JacksonModule implements Extension, MessageDecoder, MessageEncoder
         Module module = application.require(type);
         mapper.registerModule(module);
       }
+      // new modules might change serialization, discard writers/readers created so far
+      writers.clear();
+      readers.clear();
     });
   }
 
   @Override public byte[] encode(@Nonnull Context ctx, @Nonnull Object value) throws Exception {
     ctx.setDefaultResponseType(mediaType);
-    return mapper.writer().writeValueAsBytes(value);
+    ObjectWriter writer = writers.computeIfAbsent(value.getClass(), mapper::writerFor);
+    ByteArrayBuilder buffer = BUFFER.get();
+    try {
+      writer.writeValue(buffer, value);
+      return buffer.toByteArray();
+    } finally {
+      buffer.reset();
+      if (buffer.getCurrentSegment().length > MAX_BUFFER_SIZE) {
+        BUFFER.remove();
+      }
+    }
   }
 
   @Override public Object decode(Context ctx, Type type) throws Exception {
@@ -162,17 +229,33 @@ public class JacksonModule implements Extension, MessageDecoder, MessageEncoder
       if (type == JsonNode.class) {
         return mapper.readTree(body.bytes());
       }
-      return mapper.readValue(body.bytes(), typeFactory.constructType(type));
+      return reader(type).readValue(body.bytes());
     } else {
       try (InputStream stream = body.stream()) {
         if (type == JsonNode.class) {
           return mapper.readTree(stream);
         }
-        return mapper.readValue(stream, typeFactory.constructType(type));
+        return reader(type).readValue(stream);
       }
     }
   }
 
+  private ObjectReader reader(Type type) {
+    return readers.computeIfAbsent(type, key -> mapper.readerFor(typeFactory.constructType(key)));
+  }
+
+  private static Module blackbird(ClassLoader loader) {
+    try {
+      return (Module) loader.loadClass(BLACKBIRD).newInstance();
+    } catch (ClassNotFoundException x) {
+      throw new IllegalStateException(
+          "Blackbird module not found, add com.fasterxml.jackson.module:jackson-module-blackbird "
+              + "to your project", x);
+    } catch (ReflectiveOperationException x) {
+      throw SneakyThrows.propagate(x);
+    }
+  }
+
   /**
    * Default object mapper. Install {@link Jdk8Module}, {@link JavaTimeModule},
    * {@link ParameterNamesModule}.
@@ -0,0 +1,96 @@
+package io.jooby.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.Reified;
+import org.msgpack.jackson.dataformat.MessagePackMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of JSON vs CBOR vs MessagePack using the same module/payload. Payload size of each
+ * format is printed at setup.
+ */
+@Fork(5)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark {
+
+  @Param({"json", "cbor", "msgpack"})
+  public String format;
+
+  private JacksonModule module;
+
+  private Context ctx;
+
+  private List<JacksonModuleBenchmark.Item> items;
+
+  private Type type;
+
+  @Setup
+  public void setup() throws Exception {
+    ObjectMapper mapper;
+    switch (format) {
+      case "cbor":
+        mapper = new CBORMapper();
+        break;
+      case "msgpack":
+        mapper = new MessagePackMapper();
+        break;
+      default:
+        mapper = new ObjectMapper();
+    }
+    module = new JacksonModule(mapper);
+    items = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      JacksonModuleBenchmark.Item item = new JacksonModuleBenchmark.Item();
+      item.id = i * 1000L;
+      item.name = "Item " + i;
+      item.price = i * 1.5;
+      item.tags = new ArrayList<>();
+      item.tags.add("tag" + i);
+      items.add(item);
+    }
+    type = Reified.list(JacksonModuleBenchmark.Item.class).getType();
+    byte[] payload = mapper.writeValueAsBytes(items);
+    System.out.printf("%n%s payload size: %d bytes%n", format, payload.length);
+
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(payload);
+    ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+  }
+
+  @Benchmark
+  public byte[] encode() throws Exception {
+    return module.encode(ctx, items);
+  }
+
+  @Benchmark
+  public Object decode() throws Exception {
+    return module.decode(ctx, type);
+  }
+}
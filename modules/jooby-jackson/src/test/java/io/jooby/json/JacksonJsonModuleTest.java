@@ -1,17 +1,27 @@
 package io.jooby.json;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import io.jooby.Body;
 import io.jooby.Context;
+import io.jooby.Jooby;
 import io.jooby.MediaType;
+import io.jooby.Reified;
 import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackMapper;
 
+import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +40,52 @@ public class JacksonJsonModuleTest {
     verify(ctx).setDefaultResponseType(MediaType.json);
   }
 
+  @Test
+  public void renderWithCachedWriter() throws Exception {
+    Context ctx = mock(Context.class);
+
+    JacksonModule jackson = new JacksonModule(new ObjectMapper());
+
+    assertEquals("{\"k\":\"v\"}",
+        new String(jackson.encode(ctx, mapOf("k", "v")), StandardCharsets.UTF_8));
+    assertEquals("[\"a\",\"b\"]",
+        new String(jackson.encode(ctx, Arrays.asList("a", "b")), StandardCharsets.UTF_8));
+    assertEquals("{\"k\":\"v2\"}",
+        new String(jackson.encode(ctx, mapOf("k", "v2")), StandardCharsets.UTF_8));
+    // big output is not kept by buffer
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      large.append('x');
+    }
+    assertEquals(100_002, jackson.encode(ctx, large.toString()).length);
+    assertEquals("1", new String(jackson.encode(ctx, 1), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void parseGenericType() throws Exception {
+    byte[] bytes = "[{\"k\":\"v\"}]".getBytes(StandardCharsets.UTF_8);
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(bytes);
+
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+
+    JacksonModule jackson = new JacksonModule(new ObjectMapper());
+
+    Type type = Reified.list(Reified.map(String.class, String.class).getType()).getType();
+    assertEquals(Arrays.asList(mapOf("k", "v")), jackson.decode(ctx, type));
+    assertEquals(Arrays.asList(mapOf("k", "v")), jackson.decode(ctx, type));
+  }
+
+  @Test
+  public void blackbirdNotFound() {
+    Jooby app = new Jooby();
+    Throwable x = assertThrows(Throwable.class,
+        () -> app.install(new JacksonModule().blackbird(true)));
+    assertTrue(x.getMessage().contains("jackson-module-blackbird"), x.getMessage());
+  }
+
   @Test
   public void parseJson() throws Exception {
     byte[] bytes = "{\"k\":\"v\"}".getBytes(StandardCharsets.UTF_8);
@@ -74,6 +130,54 @@ public class JacksonJsonModuleTest {
     assertEquals(mapOf("k", "v"), result);
   }
 
+  @Test
+  public void cbor() throws Exception {
+    Context ctx = mock(Context.class);
+
+    JacksonModule jackson = new JacksonModule(new CBORMapper());
+
+    byte[] bytes = jackson.encode(ctx, mapOf("k", "v"));
+    assertArrayEquals(new byte[]{(byte) 0xBF, 0x61, 'k', 0x61, 'v', (byte) 0xFF}, bytes);
+    verify(ctx).setDefaultResponseType(MediaType.cbor);
+
+    assertEquals(mapOf("k", "v"), jackson.decode(body(bytes), Map.class));
+  }
+
+  @Test
+  public void msgpack() throws Exception {
+    Context ctx = mock(Context.class);
+
+    JacksonModule jackson = new JacksonModule(new MessagePackMapper());
+
+    byte[] bytes = jackson.encode(ctx, mapOf("k", "v"));
+    assertArrayEquals(new byte[]{(byte) 0x81, (byte) 0xA1, 'k', (byte) 0xA1, 'v'}, bytes);
+    verify(ctx).setDefaultResponseType(MediaType.msgpack);
+
+    assertEquals(mapOf("k", "v"), jackson.decode(body(bytes), Map.class));
+  }
+
+  @Test
+  public void binaryMapperDoesNotReplaceJsonMapper() {
+    Jooby app = new Jooby();
+    ObjectMapper json = new ObjectMapper();
+    CBORMapper cbor = new CBORMapper();
+    app.install(new JacksonModule(json));
+    app.install(new JacksonModule(cbor));
+
+    assertSame(json, app.require(ObjectMapper.class));
+    assertSame(cbor, app.require(CBORMapper.class));
+  }
+
+  private Context body(byte[] bytes) {
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(bytes);
+
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+    return ctx;
+  }
+
   private Map<String, String> mapOf(String... values) {
     Map<String, String> hash = new HashMap<>();
     for (int i = 0; i < values.length; i += 2) {
@@ -0,0 +1,96 @@
+package io.jooby.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.Reified;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Fork(5)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JacksonModuleBenchmark {
+
+  public static class Item {
+    public long id;
+    public String name;
+    public double price;
+    public List<String> tags;
+  }
+
+  private ObjectMapper mapper;
+
+  private JacksonModule jackson;
+
+  private Context ctx;
+
+  private List<Item> items;
+
+  private Type type;
+
+  private byte[] json;
+
+  @Setup
+  public void setup() throws Exception {
+    mapper = JacksonModule.create();
+    jackson = new JacksonModule(mapper);
+    items = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      Item item = new Item();
+      item.id = i;
+      item.name = "Item " + i;
+      item.price = i * 1.5;
+      item.tags = new ArrayList<>();
+      item.tags.add("tag" + i);
+      items.add(item);
+    }
+    type = Reified.list(Item.class).getType();
+    json = mapper.writeValueAsBytes(items);
+
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(json);
+    ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+  }
+
+  @Benchmark
+  public byte[] mapperEncode() throws Exception {
+    return mapper.writer().writeValueAsBytes(items);
+  }
+
+  @Benchmark
+  public byte[] moduleEncode() throws Exception {
+    return jackson.encode(ctx, items);
+  }
+
+  @Benchmark
+  public Object mapperDecode() throws Exception {
+    return mapper.readValue(json, mapper.getTypeFactory().constructType(type));
+  }
+
+  @Benchmark
+  public Object moduleDecode() throws Exception {
+    return jackson.decode(ctx, type);
+  }
+}
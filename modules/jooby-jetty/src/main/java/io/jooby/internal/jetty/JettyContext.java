@@ -80,6 +80,8 @@ public class JettyContext implements DefaultContext {
   private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.wrap(new byte[0]);
   private final int bufferSize;
   private final long maxRequestSize;
+  // created once jetty has parsed request line and headers
+  private final long requestStartNanoTime = System.nanoTime();
   Request request;
   Response response;
   private QueryString query;
@@ -283,6 +285,14 @@ public class JettyContext implements DefaultContext {
     return request.getProtocol();
   }
 
+  @Override public long getRequestStartTime() {
+    return request.getTimeStamp();
+  }
+
+  @Override public long getRequestStartNanoTime() {
+    return requestStartNanoTime;
+  }
+
   @Nonnull @Override public List<Certificate> getClientCertificates() {
     return Arrays.asList((Certificate[]) request.getAttribute("javax.servlet.request.X509Certificate"));
   }
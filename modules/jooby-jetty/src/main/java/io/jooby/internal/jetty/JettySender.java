@@ -21,8 +21,13 @@ public class JettySender implements Sender {
   }
 
   @Override public Sender write(@Nonnull byte[] data, @Nonnull Callback callback) {
+    return write(data, 0, data.length, callback);
+  }
+
+  @Override public Sender write(@Nonnull byte[] data, int offset, int length,
+      @Nonnull Callback callback) {
     try {
-      sender.write(data);
+      sender.write(data, offset, length);
       sender.flush();
       callback.onComplete(ctx, null);
     } catch (IOException e) {
@@ -85,7 +85,14 @@ public class JettyServerSentEmitter implements ServerSentEmitter {
   }
 
   @Override public void onClose(SneakyThrows.Runnable task) {
-    this.closeTask = task;
+    SneakyThrows.Runnable previous = closeTask;
+    this.closeTask = previous == null ? task : () -> {
+      try {
+        previous.run();
+      } finally {
+        task.run();
+      }
+    };
   }
 
   @Nonnull @Override public void close() {
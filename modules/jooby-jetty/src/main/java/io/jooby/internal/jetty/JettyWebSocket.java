@@ -5,13 +5,15 @@
  */
 package io.jooby.internal.jetty;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -23,6 +25,8 @@ import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketListener;
 import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.common.WebSocketRemoteEndpoint;
+import org.eclipse.jetty.websocket.common.frames.TextFrame;
 
 import io.jooby.Context;
 import io.jooby.Server;
@@ -31,11 +35,12 @@ import io.jooby.WebSocket;
 import io.jooby.WebSocketCloseStatus;
 import io.jooby.WebSocketConfigurer;
 import io.jooby.WebSocketMessage;
+import io.jooby.internal.WebSocketOutbound;
 
 public class JettyWebSocket implements WebSocketListener, WebSocketConfigurer, WebSocket,
     WriteCallback {
   /** All connected websocket. */
-  private static final ConcurrentMap<String, List<WebSocket>> all = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Set<JettyWebSocket>> all = new ConcurrentHashMap<>();
 
   public static final String WEBSOCKET_SERVER_FACTORY = "___ws_s_f_";
 
@@ -48,11 +53,16 @@ public class JettyWebSocket implements WebSocketListener, WebSocketConfigurer, W
   private AtomicReference<WebSocket.OnClose> onCloseCallback = new AtomicReference<>();
   private WebSocket.OnError onErrorCallback;
   private AtomicBoolean open = new AtomicBoolean(false);
+  private final WebSocketOutbound<ByteBuffer> outbound;
 
   public JettyWebSocket(JettyContext ctx) {
     this.ctx = ctx;
     this.path = ctx.getRequestPath();
     this.key = ctx.getRoute().getPattern();
+    this.outbound = new WebSocketOutbound<>(ctx.getRouter().getConfig(), this::writeText,
+        buffer -> {
+          // heap buffer, nothing to release
+        }, this::handleOverflow);
   }
 
   @Override public void onWebSocketBinary(byte[] payload, int offset, int len) {
@@ -141,12 +151,18 @@ public class JettyWebSocket implements WebSocketListener, WebSocketConfigurer, W
     return this;
   }
 
+  @Nonnull @Override public WebSocketConfigurer setOutboundLimit(long maxSize,
+      @Nonnull OverflowPolicy policy) {
+    outbound.setLimit(maxSize, policy);
+    return this;
+  }
+
   @Nonnull @Override public Context getContext() {
     return Context.readOnly(ctx);
   }
 
   @Nonnull @Override public List<WebSocket> getSessions() {
-    List<WebSocket> sessions = all.get(key);
+    Set<JettyWebSocket> sessions = all.get(key);
     if (sessions == null) {
       return Collections.emptyList();
     }
@@ -155,46 +171,86 @@ public class JettyWebSocket implements WebSocketListener, WebSocketConfigurer, W
     return result;
   }
 
+  @Override public long getQueuedBytes() {
+    return outbound.getQueuedBytes();
+  }
+
+  @Override public long getDroppedMessages() {
+    return outbound.getDroppedMessages();
+  }
+
   @Override public boolean isOpen() {
     return open.get() && session.isOpen();
   }
 
   @Nonnull @Override public WebSocket send(@Nonnull String message, boolean broadcast) {
+    return send(message.getBytes(StandardCharsets.UTF_8), broadcast);
+  }
+
+  @Nonnull @Override public WebSocket send(@Nonnull byte[] message, boolean broadcast) {
+    ByteBuffer buffer = ByteBuffer.wrap(message);
     if (broadcast) {
-      for (WebSocket ws : all.getOrDefault(key, Collections.emptyList())) {
-        ws.send(message, false);
+      for (JettyWebSocket ws : all.getOrDefault(key, Collections.emptySet())) {
+        // shared content, independent position/limit per frame
+        ws.sendText(buffer.duplicate());
       }
     } else {
-      if (isOpen()) {
-        try {
-          RemoteEndpoint remote = session.getRemote();
-          remote.sendString(message, this);
-        } catch (Throwable x) {
-          onWebSocketError(x);
-        }
-      } else {
-        onWebSocketError(
-            new IllegalStateException("Attempt to send a message on closed web socket"));
-      }
+      sendText(buffer);
     }
     return this;
   }
 
-  @Nonnull @Override public WebSocket send(@Nonnull byte[] message, boolean broadcast) {
-    return send(new String(message, StandardCharsets.UTF_8), broadcast);
-  }
-
-  @Nonnull @Override public WebSocket render(@Nonnull Object value, boolean broadcast) {
-    if (broadcast) {
-      for (WebSocket ws : all.getOrDefault(key, Collections.emptyList())) {
-        ws.render(value, false);
-      }
-    } else {
+  private void sendText(ByteBuffer buffer) {
+    if (isOpen()) {
       try {
-        Context.websocket(ctx, this).render(value);
+        outbound.send(buffer, buffer.remaining());
       } catch (Throwable x) {
         onWebSocketError(x);
       }
+    } else {
+      onWebSocketError(
+          new IllegalStateException("Attempt to send a message on closed web socket"));
+    }
+  }
+
+  private void writeText(ByteBuffer buffer, int size) {
+    WriteCallback callback = new WriteCallback() {
+      @Override public void writeFailed(Throwable x) {
+        outbound.complete(size);
+        JettyWebSocket.this.writeFailed(x);
+      }
+
+      @Override public void writeSuccess() {
+        outbound.complete(size);
+      }
+    };
+    RemoteEndpoint remote = session.getRemote();
+    if (remote instanceof WebSocketRemoteEndpoint) {
+      // text frame from encoded bytes, sendString encodes the message again
+      TextFrame frame = new TextFrame();
+      frame.setPayload(buffer);
+      ((WebSocketRemoteEndpoint) remote).uncheckedSendFrame(frame, callback);
+    } else {
+      remote.sendString(StandardCharsets.UTF_8.decode(buffer).toString(), callback);
+    }
+  }
+
+  private void handleOverflow() {
+    handleClose(WebSocketCloseStatus.SERVICE_OVERLOAD);
+    // don't wait for the close frame, it is queued behind the pending messages
+    try {
+      session.disconnect();
+    } catch (IOException x) {
+      ctx.getRouter().getLog().debug("Websocket disconnect resulted in exception: {}", path, x);
+    }
+  }
+
+  @Nonnull @Override public WebSocket render(@Nonnull Object value, boolean broadcast) {
+    try {
+      // encode once, broadcast is done by send
+      Context.websocket(ctx, this, broadcast).render(value);
+    } catch (Throwable x) {
+      onWebSocketError(x);
     }
     return this;
   }
@@ -238,6 +294,8 @@ public class JettyWebSocket implements WebSocketListener, WebSocketConfigurer, W
         cause = x;
       }
     }
+    // release queued messages:
+    outbound.close();
     // clear from active sessions:
     removeSession(this);
 
@@ -248,11 +306,11 @@ public class JettyWebSocket implements WebSocketListener, WebSocketConfigurer, W
   }
 
   private static void addSession(JettyWebSocket ws) {
-    all.computeIfAbsent(ws.key, k -> new CopyOnWriteArrayList<>()).add(ws);
+    all.computeIfAbsent(ws.key, k -> ConcurrentHashMap.newKeySet()).add(ws);
   }
 
   private static void removeSession(JettyWebSocket ws) {
-    List<WebSocket> sockets = all.get(ws.key);
+    Set<JettyWebSocket> sockets = all.get(ws.key);
     if (sockets != null) {
       sockets.remove(ws);
     }
@@ -15,6 +15,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -39,7 +40,8 @@ import java.util.function.Function;
  * specify programmatically or in your application configuration file.
  *
  * This session store delegates to {@link SessionStore#signed(SessionToken, Function, Function)}
- * using JSON Web Token library.
+ * using JSON Web Token library. Recently verified tokens are cached, so the signature of a token
+ * is checked once (until the token expires or is evicted from the cache).
  *
  * @author edgar
  * @since 2.2.0
@@ -106,9 +108,11 @@ public class JwtSessionStore implements SessionStore {
   }
 
   static SneakyThrows.Function<String, Map<String, String>> decoder(Key key) {
+    // immutable and thread-safe
+    JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
     return value -> {
       try {
-        Jws<Claims> claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(value);
+        Jws<Claims> claims = parser.parseClaimsJws(value);
         Map<String, String> attributes = new HashMap<>();
         for (Map.Entry<String, Object> entry : claims.getBody().entrySet()) {
           attributes.put(entry.getKey(), entry.getValue().toString());
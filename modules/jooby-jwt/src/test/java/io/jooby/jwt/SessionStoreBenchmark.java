@@ -0,0 +1,101 @@
+package io.jooby.jwt;
+
+import io.jooby.Context;
+import io.jooby.Cookie;
+import io.jooby.SessionStore;
+import io.jooby.SessionToken;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+
+@Fork(5)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SessionStoreBenchmark {
+
+  private static final String SECRET = "7a85c3b6-3ef0-4625-82d3-a1da36094804";
+
+  private Context ctx;
+
+  private String signedToken;
+
+  private String jwtToken;
+
+  private SessionStore signed;
+
+  private SessionStore jwt;
+
+  private Function<String, Map<String, String>> jwtDecoder;
+
+  @Setup
+  public void setup() {
+    ctx = mock(Context.class);
+
+    Map<String, String> attributes = new LinkedHashMap<>();
+    attributes.put("sub", "edgar");
+    attributes.put("role", "admin");
+    attributes.put("locale", "en-US");
+
+    signedToken = Cookie.sign(Cookie.encode(attributes), SECRET);
+    signed = SessionStore.signed(SECRET, token(signedToken));
+
+    Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    jwtDecoder = JwtSessionStore.decoder(key);
+    jwtToken = JwtSessionStore.encoder(key).apply(attributes);
+    jwt = new JwtSessionStore(key, token(jwtToken));
+  }
+
+  @Benchmark
+  public Object signedFindSession() {
+    return signed.findSession(ctx);
+  }
+
+  @Benchmark
+  public Object signedUnsign() {
+    return Cookie.decode(Cookie.unsign(signedToken, SECRET));
+  }
+
+  @Benchmark
+  public Object jwtFindSession() {
+    return jwt.findSession(ctx);
+  }
+
+  @Benchmark
+  public Object jwtDecode() {
+    return jwtDecoder.apply(jwtToken);
+  }
+
+  private static SessionToken token(String value) {
+    return new SessionToken() {
+      @Override public String findToken(Context ctx) {
+        return value;
+      }
+
+      @Override public void saveToken(Context ctx, String token) {
+      }
+
+      @Override public void deleteToken(Context ctx, String token) {
+      }
+    };
+  }
+}
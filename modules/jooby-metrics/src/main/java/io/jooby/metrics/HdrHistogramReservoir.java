@@ -0,0 +1,203 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import javax.annotation.Nonnull;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Reservoir} backed by a <a href="http://hdrhistogram.org">HdrHistogram</a>. Recording is
+ * wait-free and allocation-free, which makes this reservoir a good fit for timers updated on every
+ * request.
+ *
+ * Snapshots reflect the values recorded in a sliding time window (10 minutes by default). The
+ * window is split in 5 intervals, the oldest interval is discarded as time moves on. The sum of all
+ * the recorded values, since creation time, is available from the snapshot and exported as
+ * <code>_sum</code> by {@link PrometheusHandler}.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class HdrHistogramReservoir implements Reservoir {
+
+  private static final int SLICES = 5;
+
+  private static final long WINDOW = TimeUnit.MINUTES.toNanos(10);
+
+  private final int significantDigits;
+
+  private final Recorder recorder;
+
+  private final LongAdder sum = new LongAdder();
+
+  /** Guarded by this. Circular buffer of interval histograms, current is the newest. */
+  private final Histogram[] slices;
+
+  private final long sliceLength;
+
+  private int current;
+
+  private long sliceStart;
+
+  private Histogram interval;
+
+  /**
+   * Creates a new reservoir.
+   *
+   * @param significantDigits Number of significant decimal digits to keep (between 0 and 5).
+   * @param window Length of the sliding time window.
+   * @param unit Time unit of the window.
+   */
+  public HdrHistogramReservoir(int significantDigits, long window, @Nonnull TimeUnit unit) {
+    this.significantDigits = significantDigits;
+    this.recorder = new Recorder(significantDigits);
+    this.slices = new Histogram[SLICES];
+    for (int i = 0; i < SLICES; i++) {
+      slices[i] = new Histogram(significantDigits);
+    }
+    this.sliceLength = Math.max(1, unit.toNanos(window) / SLICES);
+    this.sliceStart = System.nanoTime();
+  }
+
+  /**
+   * Creates a new reservoir with a sliding time window of <code>10</code> minutes.
+   *
+   * @param significantDigits Number of significant decimal digits to keep (between 0 and 5).
+   */
+  public HdrHistogramReservoir(int significantDigits) {
+    this(significantDigits, WINDOW, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Creates a new reservoir with <code>2</code> significant decimal digits.
+   */
+  public HdrHistogramReservoir() {
+    this(2);
+  }
+
+  @Override public int size() {
+    return (int) Math.min(Integer.MAX_VALUE, update().getTotalCount());
+  }
+
+  @Override public void update(long value) {
+    long normalized = Math.max(0, value);
+    recorder.recordValue(normalized);
+    sum.add(normalized);
+  }
+
+  @Override public Snapshot getSnapshot() {
+    return new HdrSnapshot(update(), sum.sum());
+  }
+
+  /**
+   * Move recorded values to the current interval and merge the intervals of the window.
+   *
+   * @return Values of the window.
+   */
+  private synchronized Histogram update() {
+    long now = System.nanoTime();
+    long elapsed = now - sliceStart;
+    if (elapsed >= sliceLength * SLICES) {
+      // idle for the whole window
+      for (Histogram slice : slices) {
+        slice.reset();
+      }
+      sliceStart = now;
+    } else {
+      for (; elapsed >= sliceLength; elapsed -= sliceLength) {
+        current = (current + 1) % SLICES;
+        slices[current].reset();
+        sliceStart += sliceLength;
+      }
+    }
+    interval = recorder.getIntervalHistogram(interval);
+    slices[current].add(interval);
+    Histogram window = new Histogram(significantDigits);
+    for (Histogram slice : slices) {
+      window.add(slice);
+    }
+    return window;
+  }
+
+  static class HdrSnapshot extends Snapshot {
+    private final Histogram histogram;
+
+    private final long sum;
+
+    HdrSnapshot(Histogram histogram, long sum) {
+      this.histogram = histogram;
+      this.sum = sum;
+    }
+
+    /**
+     * Sum of all the values recorded by the reservoir, not just the ones in the window.
+     *
+     * @return Sum of all the recorded values.
+     */
+    long getSum() {
+      return sum;
+    }
+
+    @Override public double getValue(double quantile) {
+      return histogram.getValueAtPercentile(quantile * 100.0);
+    }
+
+    /**
+     * One value per recorded histogram bucket, not every single recorded value.
+     *
+     * @return Recorded bucket values.
+     */
+    @Override public long[] getValues() {
+      List<Long> values = new ArrayList<>();
+      for (HistogramIterationValue value : histogram.recordedValues()) {
+        values.add(value.getValueIteratedTo());
+      }
+      return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Override public int size() {
+      return (int) Math.min(Integer.MAX_VALUE, histogram.getTotalCount());
+    }
+
+    @Override public long getMax() {
+      return histogram.getTotalCount() == 0 ? 0 : histogram.getMaxValue();
+    }
+
+    @Override public double getMean() {
+      return histogram.getTotalCount() == 0 ? 0 : histogram.getMean();
+    }
+
+    @Override public long getMin() {
+      return histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue();
+    }
+
+    @Override public double getStdDev() {
+      return histogram.getTotalCount() == 0 ? 0 : histogram.getStdDeviation();
+    }
+
+    @Override public void dump(@Nonnull OutputStream output) {
+      try (PrintWriter writer = new PrintWriter(
+          new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for (long value : getValues()) {
+          writer.println(value);
+        }
+      }
+    }
+  }
+}
@@ -6,31 +6,163 @@
 package io.jooby.metrics;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import io.jooby.Context;
 import io.jooby.Route;
 
 import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Collect request metrics:
+ *
+ * <ul>
+ *   <li><code>request.actives</code>: number of active requests.</li>
+ *   <li><code>request</code>: request timer.</li>
+ *   <li><code>responses.[code]</code>: response status code meter.</li>
+ *   <li><code>request.[method] [pattern].[code]</code>: per route latency timer, see
+ *     {@link RouteTimer}.</li>
+ * </ul>
+ *
+ * Metric handles are resolved once (per route and status code) and kept by the decorated route
+ * handler, so the request path does neither string concatenation nor map/registry lookups.
+ *
+ * @author edgar
+ * @since 2.0.0
+ */
 public class MetricsDecorator implements Route.Decorator {
 
+  /** Metrics indexed by status code. */
+  private static class ByStatus<M extends Metric> {
+    private static final int MIN = 100;
+
+    private static final int MAX = 599;
+
+    private final AtomicReferenceArray<M> metrics = new AtomicReferenceArray<>(MAX - MIN + 1);
+
+    private final Map<Integer, M> fallback = new ConcurrentHashMap<>();
+
+    private final IntFunction<M> factory;
+
+    ByStatus(IntFunction<M> factory) {
+      this.factory = factory;
+    }
+
+    M get(int statusCode) {
+      if (statusCode < MIN || statusCode > MAX) {
+        return fallback.computeIfAbsent(statusCode, factory::apply);
+      }
+      int index = statusCode - MIN;
+      M metric = metrics.get(index);
+      if (metric == null) {
+        metric = factory.apply(statusCode);
+        if (!metrics.compareAndSet(index, null, metric)) {
+          metric = metrics.get(index);
+        }
+      }
+      return metric;
+    }
+  }
+
+  /** Global handles. */
+  private static class Metrics {
+    private final Counter actives;
+
+    private final Timer request;
+
+    private final ByStatus<Meter> responses;
+
+    Metrics(MetricRegistry registry) {
+      this.actives = registry.counter("request.actives");
+      this.request = registry.timer("request");
+      this.responses = new ByStatus<>(code -> registry.meter("responses." + code));
+    }
+  }
+
+  private volatile MetricRegistry registry;
+
+  private volatile Metrics metrics;
+
+  /**
+   * Creates a new decorator. The {@link MetricRegistry} is looked up from the application
+   * services on first request.
+   */
+  public MetricsDecorator() {
+  }
+
+  /**
+   * Creates a new decorator that use the given registry.
+   *
+   * @param registry Metric registry.
+   */
+  public MetricsDecorator(@Nonnull MetricRegistry registry) {
+    this.registry = registry;
+  }
+
   @Nonnull
   @Override
   public Route.Handler apply(@Nonnull Route.Handler next) {
-    return ctx -> {
-      MetricRegistry registry = ctx.require(MetricRegistry.class);
-      Counter counter = registry.counter("request.actives");
-      Timer.Context timer = registry.timer("request").time();
+    // Applied once per route pipeline
+    return new Route.Handler() {
+      /** Route timers, resolved on first request. */
+      private volatile ByStatus<Timer> timers;
+
+      @Nonnull @Override public Object apply(@Nonnull Context ctx) throws Exception {
+        Metrics metrics = metrics(ctx);
+        ByStatus<Timer> timers = this.timers;
+        if (timers == null) {
+          timers = newRouteMetrics(ctx.getRoute());
+          this.timers = timers;
+        }
+        long start = System.nanoTime();
 
-      counter.inc();
+        metrics.actives.inc();
 
-      ctx.onComplete(context -> {
-        timer.stop();
-        counter.dec();
-        registry.meter("responses." + context.getResponseCode().value()).mark();
-      });
+        ByStatus<Timer> routeTimers = timers;
+        ctx.onComplete(context -> {
+          long elapsed = System.nanoTime() - start;
+          int statusCode = context.getResponseCode().value();
+          metrics.actives.dec();
+          metrics.request.update(elapsed, NANOSECONDS);
+          metrics.responses.get(statusCode).mark();
+          routeTimers.get(statusCode).update(elapsed, NANOSECONDS);
+        });
 
-      return next.apply(ctx);
+        return next.apply(ctx);
+      }
     };
   }
+
+  private ByStatus<Timer> newRouteMetrics(Route route) {
+    String method = route.getMethod();
+    String pattern = route.getPattern();
+    String prefix = "request." + method + " " + pattern + ".";
+    return new ByStatus<>(code -> registry.timer(prefix + code,
+        () -> new RouteTimer(method, pattern, code)));
+  }
+
+  private Metrics metrics(Context ctx) {
+    Metrics metrics = this.metrics;
+    if (metrics == null) {
+      synchronized (this) {
+        metrics = this.metrics;
+        if (metrics == null) {
+          if (registry == null) {
+            registry = ctx.require(MetricRegistry.class);
+          }
+          metrics = new Metrics(registry);
+          this.metrics = metrics;
+        }
+      }
+    }
+    return metrics;
+  }
 }
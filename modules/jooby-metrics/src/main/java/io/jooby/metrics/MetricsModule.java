@@ -13,11 +13,13 @@ import com.codahale.metrics.health.HealthCheckRegistry;
 import com.typesafe.config.Config;
 import io.jooby.Extension;
 import io.jooby.Jooby;
+import io.jooby.RequestTiming;
 import io.jooby.Router;
 import io.jooby.ServiceRegistry;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -52,6 +54,8 @@ public class MetricsModule implements Extension {
   private final MetricRegistry metricRegistry;
   private final HealthCheckRegistry healthCheckRegistry;
 
+  private boolean requestTiming;
+
   /**
    * Creates a new {@link MetricsModule}.
    *
@@ -145,6 +149,48 @@ public class MetricsModule implements Extension {
     return this;
   }
 
+  /**
+   * Append a handler that export all the metrics using the Prometheus text format. See
+   * {@link PrometheusHandler}.
+   *
+   * @return This metrics module.
+   */
+  public MetricsModule prometheus() {
+    routes.add(router -> router
+        .get(this.pattern + "/prometheus", new PrometheusHandler()));
+
+    return this;
+  }
+
+  /**
+   * Enable request timing (see {@link RequestTiming}) and record the duration of each request
+   * lifecycle phase in <code>request.phase.[phase]</code> timers. See {@link RequestTimingMetrics}.
+   *
+   * @return This metrics module.
+   */
+  public MetricsModule requestTiming() {
+    this.requestTiming = true;
+    return this;
+  }
+
+  /**
+   * Enable request timing (see {@link RequestTiming}) and keep the last <code>size</code> requests
+   * that took longer than <code>threshold</code>. Samples are available at
+   * <code>/sys/slow-requests</code>. See {@link SlowRequestHandler}.
+   *
+   * @param threshold Requests taking longer than this value are sampled.
+   * @param size Max number of samples to keep.
+   * @return This metrics module.
+   */
+  public MetricsModule slowRequests(final Duration threshold, final int size) {
+    SlowRequestHandler handler = new SlowRequestHandler(threshold, size);
+    routes.add(router -> router
+        .requestTiming(handler)
+        .get(this.pattern + "/slow-requests", handler));
+
+    return this;
+  }
+
   /**
    * Append a metric to the {@link MetricRegistry}, this call is identical to
    * {@link MetricRegistry#register(String, Metric)}.
@@ -229,6 +275,10 @@ public class MetricsModule implements Extension {
 
     routes.forEach(r -> r.accept(application));
 
+    if (requestTiming) {
+      application.requestTiming(new RequestTimingMetrics(metricRegistry));
+    }
+
     ServiceRegistry registry = application.getServices();
 
     registry.putIfAbsent(MetricRegistry.class, metricRegistry);
@@ -0,0 +1,166 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.Route;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export metrics using the
+ * <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>.
+ *
+ * <ul>
+ *   <li>Counters and gauges are exported as <code>gauge</code>.</li>
+ *   <li>Meters are exported as <code>counter</code> with a <code>_total</code> suffix.</li>
+ *   <li>Histograms and timers are exported as <code>summary</code>. Timers are in seconds.
+ *     <code>_sum</code> is exact for {@link HdrHistogramReservoir}, other reservoirs report
+ *     mean times count.</li>
+ *   <li>{@link RouteTimer} are exported as a single <code>http_server_requests_seconds</code>
+ *     summary with <code>method</code>, <code>route</code> and <code>status</code> labels.</li>
+ * </ul>
+ *
+ * Metric names are sanitized: any character not allowed by Prometheus is replaced by
+ * <code>_</code>.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class PrometheusHandler implements Route.Handler {
+
+  private static final MediaType TEXT_FORMAT = MediaType.valueOf("text/plain;version=0.0.4");
+
+  private static final String ROUTE_TIMER = "http_server_requests_seconds";
+
+  private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+
+  private static final double SECONDS = 1.0 / TimeUnit.SECONDS.toNanos(1);
+
+  @Nonnull @Override public Object apply(@Nonnull Context ctx) {
+    MetricRegistry registry = ctx.require(MetricRegistry.class);
+    StringBuilder buff = new StringBuilder();
+    List<RouteTimer> routeTimers = new ArrayList<>();
+    for (Map.Entry<String, Metric> e : registry.getMetrics().entrySet()) {
+      String name = sanitize(e.getKey());
+      Metric metric = e.getValue();
+      if (metric instanceof RouteTimer) {
+        routeTimers.add((RouteTimer) metric);
+      } else if (metric instanceof Gauge) {
+        Object value = ((Gauge) metric).getValue();
+        if (value instanceof Number) {
+          type(buff, name, "gauge");
+          sample(buff, name, null, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+          type(buff, name, "gauge");
+          sample(buff, name, null, ((Boolean) value) ? 1 : 0);
+        }
+      } else if (metric instanceof Counter) {
+        type(buff, name, "gauge");
+        sample(buff, name, null, ((Counter) metric).getCount());
+      } else if (metric instanceof Timer) {
+        Timer timer = (Timer) metric;
+        type(buff, name + "_seconds", "summary");
+        summary(buff, name + "_seconds", null, timer.getSnapshot(), timer.getCount(), SECONDS);
+      } else if (metric instanceof Histogram) {
+        Histogram histogram = (Histogram) metric;
+        type(buff, name, "summary");
+        summary(buff, name, null, histogram.getSnapshot(), histogram.getCount(), 1);
+      } else if (metric instanceof Meter) {
+        type(buff, name + "_total", "counter");
+        sample(buff, name + "_total", null, ((Meter) metric).getCount());
+      }
+    }
+    if (routeTimers.size() > 0) {
+      type(buff, ROUTE_TIMER, "summary");
+      for (RouteTimer timer : routeTimers) {
+        StringBuilder labels = new StringBuilder();
+        label(labels, "method", timer.getMethod());
+        label(labels, "route", timer.getPattern());
+        label(labels, "status", Integer.toString(timer.getStatusCode()));
+        summary(buff, ROUTE_TIMER, labels.toString(), timer.getSnapshot(), timer.getCount(),
+            SECONDS);
+      }
+    }
+
+    ctx.setResponseHeader(MetricsModule.CACHE_HEADER_NAME, MetricsModule.CACHE_HEADER_VALUE);
+    return ctx.setResponseType(TEXT_FORMAT).send(buff.toString());
+  }
+
+  private static void summary(StringBuilder buff, String name, String labels, Snapshot snapshot,
+      long count, double factor) {
+    String prefix = labels == null ? "" : labels + ",";
+    for (double quantile : QUANTILES) {
+      sample(buff, name, prefix + "quantile=\"" + quantile + "\"",
+          snapshot.getValue(quantile) * factor);
+    }
+    sample(buff, name + "_count", labels, count);
+    double sum = snapshot instanceof HdrHistogramReservoir.HdrSnapshot
+        ? ((HdrHistogramReservoir.HdrSnapshot) snapshot).getSum()
+        : snapshot.getMean() * count;
+    sample(buff, name + "_sum", labels, sum * factor);
+  }
+
+  private static void type(StringBuilder buff, String name, String type) {
+    buff.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder buff, String name, String labels, double value) {
+    buff.append(name);
+    if (labels != null) {
+      buff.append('{').append(labels).append('}');
+    }
+    buff.append(' ');
+    if (value == Math.rint(value) && !Double.isInfinite(value)) {
+      buff.append((long) value);
+    } else {
+      buff.append(value);
+    }
+    buff.append('\n');
+  }
+
+  private static void label(StringBuilder buff, String name, String value) {
+    if (buff.length() > 0) {
+      buff.append(',');
+    }
+    buff.append(name).append("=\"");
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+      if (ch == '\\' || ch == '"') {
+        buff.append('\\').append(ch);
+      } else if (ch == '\n') {
+        buff.append("\\n");
+      } else {
+        buff.append(ch);
+      }
+    }
+    buff.append('"');
+  }
+
+  static String sanitize(String name) {
+    StringBuilder buff = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char ch = name.charAt(i);
+      boolean valid = (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_'
+          || ch == ':' || (i > 0 && ch >= '0' && ch <= '9');
+      buff.append(valid ? ch : '_');
+    }
+    return buff.toString();
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.jooby.Context;
+import io.jooby.RequestTiming;
+
+import javax.annotation.Nonnull;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Feed request lifecycle timings into <code>request.phase.[phase]</code> timers. See
+ * {@link RequestTiming}.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class RequestTimingMetrics implements RequestTiming.Listener {
+
+  private static final RequestTiming.Phase[] PHASES = RequestTiming.Phase.values();
+
+  private final Timer[] timers = new Timer[PHASES.length];
+
+  /**
+   * Creates a new request timing listener.
+   *
+   * @param registry Metric registry.
+   */
+  public RequestTimingMetrics(@Nonnull MetricRegistry registry) {
+    // first phase is the request start, there is no duration for it
+    for (int i = 1; i < PHASES.length; i++) {
+      timers[i] = registry.timer("request.phase." + PHASES[i].value(),
+          () -> new Timer(new HdrHistogramReservoir()));
+    }
+  }
+
+  @Override public void onComplete(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+    for (int i = 1; i < PHASES.length; i++) {
+      long nanos = timing.duration(PHASES[i]);
+      if (nanos >= 0) {
+        timers[i].update(nanos, NANOSECONDS);
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.metrics;
+
+import com.codahale.metrics.Timer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Per route latency timer created by {@link MetricsDecorator}. Keeps the route method, pattern and
+ * response status code as dimensions, so exporters (like {@link PrometheusHandler}) can publish
+ * them as labels.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class RouteTimer extends Timer {
+
+  private final String method;
+
+  private final String pattern;
+
+  private final int statusCode;
+
+  RouteTimer(String method, String pattern, int statusCode) {
+    super(new HdrHistogramReservoir());
+    this.method = method;
+    this.pattern = pattern;
+    this.statusCode = statusCode;
+  }
+
+  /**
+   * HTTP method.
+   *
+   * @return HTTP method.
+   */
+  public @Nonnull String getMethod() {
+    return method;
+  }
+
+  /**
+   * Route pattern.
+   *
+   * @return Route pattern.
+   */
+  public @Nonnull String getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Response status code.
+   *
+   * @return Response status code.
+   */
+  public int getStatusCode() {
+    return statusCode;
+  }
+}
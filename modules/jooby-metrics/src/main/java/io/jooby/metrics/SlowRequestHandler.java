@@ -0,0 +1,103 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.metrics;
+
+import io.jooby.Context;
+import io.jooby.RequestTiming;
+import io.jooby.Route;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Keep the last N requests that took longer than a threshold and list them (newest first).
+ * Timings are reported in milliseconds.
+ *
+ * It is a {@link RequestTiming.Listener}, so requires request timing to be enabled. See
+ * {@link MetricsModule#slowRequests(Duration, int)}.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class SlowRequestHandler implements Route.Handler, RequestTiming.Listener {
+
+  private static final RequestTiming.Phase[] PHASES = RequestTiming.Phase.values();
+
+  private final long threshold;
+
+  private final Map<String, Object>[] samples;
+
+  private int next;
+
+  /**
+   * Creates a new slow request handler.
+   *
+   * @param threshold Requests taking longer than this value are sampled.
+   * @param size Max number of samples to keep.
+   */
+  @SuppressWarnings("unchecked")
+  public SlowRequestHandler(@Nonnull Duration threshold, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size must be positive: " + size);
+    }
+    this.threshold = threshold.toNanos();
+    this.samples = new Map[size];
+  }
+
+  @Override public void onComplete(@Nonnull Context ctx, @Nonnull RequestTiming timing) {
+    long total = timing.total();
+    if (total < threshold) {
+      return;
+    }
+    Map<String, Object> sample = new LinkedHashMap<>();
+    long startTime = ctx.getRequestStartTime();
+    if (startTime < 0) {
+      startTime = System.currentTimeMillis() - NANOSECONDS.toMillis(total);
+    }
+    sample.put("timestamp", Instant.ofEpochMilli(startTime).toString());
+    sample.put("method", ctx.getMethod());
+    sample.put("path", ctx.getRequestPath());
+    sample.put("route", ctx.getRoute().getPattern());
+    sample.put("status", ctx.getResponseCode().value());
+    sample.put("total", millis(total));
+    for (int i = 1; i < PHASES.length; i++) {
+      long nanos = timing.duration(PHASES[i]);
+      if (nanos >= 0) {
+        sample.put(PHASES[i].value(), millis(nanos));
+      }
+    }
+    synchronized (samples) {
+      samples[next] = sample;
+      next = (next + 1) % samples.length;
+    }
+  }
+
+  @Nonnull @Override public Object apply(@Nonnull Context ctx) {
+    List<Map<String, Object>> result = new ArrayList<>(samples.length);
+    synchronized (samples) {
+      for (int i = 1; i <= samples.length; i++) {
+        Map<String, Object> sample = samples[(next - i + samples.length) % samples.length];
+        if (sample != null) {
+          result.add(sample);
+        }
+      }
+    }
+    ctx.setResponseHeader(MetricsModule.CACHE_HEADER_NAME, MetricsModule.CACHE_HEADER_VALUE);
+    return result;
+  }
+
+  private static double millis(long nanos) {
+    return (double) nanos / MILLISECONDS.toNanos(1);
+  }
+}
@@ -133,11 +133,16 @@ public class NettyContext implements DefaultContext, ChannelFutureListener {
   private Map<String, Object> attributes = new HashMap<>();
   private long contentLength = -1;
   private boolean needsFlush;
+  /** True while the event loop runs the read cycle of this request, flushed on read complete. */
+  boolean reading = true;
   private Map<String, String> cookies;
   private Map<String, String> responseCookies;
   private Boolean resetHeadersOnError;
   NettyWebSocket webSocket;
   private String method;
+  private final long requestStartTime = System.currentTimeMillis();
+  // created once the codec has parsed request line and headers
+  private final long requestStartNanoTime = System.nanoTime();
   private CompletionListeners listeners;
   private String remoteAddress;
   private String host;
@@ -215,6 +220,10 @@ public class NettyContext implements DefaultContext, ChannelFutureListener {
     return ctx.channel().eventLoop().inEventLoop();
   }
 
+  @Override public Executor getIoExecutor() {
+    return ctx.channel().eventLoop();
+  }
+
   @Nonnull @Override public Context dispatch(@Nonnull Runnable action) {
     return dispatch(router.getWorker(), action);
   }
@@ -291,6 +300,14 @@ public class NettyContext implements DefaultContext, ChannelFutureListener {
     }
   }
 
+  @Override public long getRequestStartTime() {
+    return requestStartTime;
+  }
+
+  @Override public long getRequestStartNanoTime() {
+    return requestStartNanoTime;
+  }
+
   @Nonnull @Override public List<Certificate> getClientCertificates() {
     SslHandler sslHandler = (SslHandler) ctx.channel().pipeline().get("ssl");
     if (sslHandler != null) {
@@ -518,6 +535,7 @@ public class NettyContext implements DefaultContext, ChannelFutureListener {
   }
 
   @Nonnull @Override public OutputStream responseStream() {
+    responseStarted = true;
     return newOutputStream();
   }
 
@@ -550,7 +568,7 @@ public class NettyContext implements DefaultContext, ChannelFutureListener {
     setHeaders.set(CONTENT_LENGTH, Long.toString(data.readableBytes()));
     DefaultFullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, status,
         data, setHeaders, NO_TRAILING);
-    if (ctx.channel().eventLoop().inEventLoop()) {
+    if (ctx.channel().eventLoop().inEventLoop() && reading) {
       needsFlush = true;
       ctx.write(response, promise(this));
     } else {
@@ -82,6 +82,9 @@ public class NettyHandler extends ChannelInboundHandlerAdapter {
 
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    if (context != null) {
+      context.reading = true;
+    }
     try {
       if (msg instanceof HttpRequest) {
         HttpRequest req = (HttpRequest) msg;
@@ -145,6 +148,8 @@ public class NettyHandler extends ChannelInboundHandlerAdapter {
 
   @Override public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
     if (context != null) {
+      // tasks running later on the event loop (like coroutines) must flush their own writes
+      context.reading = false;
       context.flush();
     }
   }
@@ -25,7 +25,12 @@ public class NettySender implements Sender {
   }
 
   @Override public Sender write(@Nonnull byte[] data, @Nonnull Callback callback) {
-    context.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(data)))
+    return write(data, 0, data.length, callback);
+  }
+
+  @Override public Sender write(@Nonnull byte[] data, int offset, int length,
+      @Nonnull Callback callback) {
+    context.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(data, offset, length)))
         .addListener(newChannelFutureListener(ctx, callback));
     return this;
   }
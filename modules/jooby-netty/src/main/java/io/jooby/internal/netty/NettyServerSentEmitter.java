@@ -74,7 +74,14 @@ public class NettyServerSentEmitter implements ServerSentEmitter, GenericFutureL
   }
 
   @Override public void onClose(SneakyThrows.Runnable task) {
-    this.closeTask = task;
+    SneakyThrows.Runnable previous = closeTask;
+    this.closeTask = previous == null ? task : () -> {
+      try {
+        previous.run();
+      } finally {
+        task.run();
+      }
+    };
   }
 
   @Nonnull @Override public void close() {
@@ -5,13 +5,12 @@
  */
 package io.jooby.internal.netty;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -26,7 +25,9 @@ import io.jooby.WebSocket;
 import io.jooby.WebSocketCloseStatus;
 import io.jooby.WebSocketConfigurer;
 import io.jooby.WebSocketMessage;
+import io.jooby.internal.WebSocketOutbound;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -39,7 +40,7 @@ import io.netty.util.AttributeKey;
 
 public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFutureListener {
   /** All connected websocket. */
-  private static final ConcurrentMap<String, List<NettyWebSocket>> all = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Set<NettyWebSocket>> all = new ConcurrentHashMap<>();
 
   static final AttributeKey<NettyWebSocket> WS = AttributeKey
       .newInstance(NettyWebSocket.class.getName());
@@ -54,16 +55,19 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
   private OnError onErrorCallback;
   private CountDownLatch ready = new CountDownLatch(1);
   private AtomicBoolean open = new AtomicBoolean(false);
+  private final WebSocketOutbound<ByteBuf> outbound;
 
   public NettyWebSocket(NettyContext ctx) {
     this.netty = ctx;
     this.key = ctx.getRoute().getPattern();
     this.dispatch = !ctx.isInIoThread();
+    this.outbound = new WebSocketOutbound<>(ctx.getRouter().getConfig(), this::writeFrame,
+        ByteBuf::release, this::handleOverflow);
     this.netty.ctx.channel().attr(WS).set(this);
   }
 
   public WebSocket send(String text, boolean broadcast) {
-    return send(Unpooled.copiedBuffer(text, StandardCharsets.UTF_8), broadcast);
+    return send(ByteBufUtil.writeUtf8(netty.ctx.alloc(), text), broadcast);
   }
 
   public WebSocket send(byte[] bytes, boolean broadcast) {
@@ -71,41 +75,59 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
   }
 
   @Override public WebSocket render(Object value, boolean broadcast) {
-    if (broadcast) {
-      for (WebSocket ws : all.getOrDefault(key, Collections.emptyList())) {
-        ws.render(value, false);
-      }
-    } else {
-      try {
-        Context.websocket(netty, this).render(value);
-      } catch (Throwable x) {
-        handleError(x);
-      }
+    try {
+      // encode once, broadcast is done by send
+      Context.websocket(netty, this, broadcast).render(value);
+    } catch (Throwable x) {
+      handleError(x);
     }
     return this;
   }
 
   private WebSocket send(ByteBuf buffer, boolean broadcast) {
     if (broadcast) {
-      for (NettyWebSocket ws : all.getOrDefault(key, Collections.emptyList())) {
-        ws.send(buffer, false);
+      try {
+        for (NettyWebSocket ws : all.getOrDefault(key, Collections.emptySet())) {
+          // shared content, independent indexes and reference count per frame
+          ws.sendFrame(buffer.retainedDuplicate());
+        }
+      } finally {
+        buffer.release();
       }
     } else {
-      if (isOpen()) {
-        netty.ctx.channel().writeAndFlush(new TextWebSocketFrame(buffer)).addListener(this);
-      } else {
-        handleError(new IllegalStateException("Attempt to send a message on closed web socket"));
-      }
+      sendFrame(buffer);
     }
     return this;
   }
 
+  private void sendFrame(ByteBuf buffer) {
+    if (isOpen()) {
+      outbound.send(buffer, buffer.readableBytes());
+    } else {
+      buffer.release();
+      handleError(new IllegalStateException("Attempt to send a message on closed web socket"));
+    }
+  }
+
+  private void writeFrame(ByteBuf buffer, int size) {
+    netty.ctx.channel().writeAndFlush(new TextWebSocketFrame(buffer)).addListener(future -> {
+      outbound.complete(size);
+      operationComplete((ChannelFuture) future);
+    });
+  }
+
+  private void handleOverflow() {
+    handleClose(WebSocketCloseStatus.SERVICE_OVERLOAD);
+    // don't wait for the close frame, it is queued behind the pending messages
+    netty.ctx.channel().close();
+  }
+
   @Override public Context getContext() {
     return Context.readOnly(netty);
   }
 
   @Nonnull @Override public List<WebSocket> getSessions() {
-    List<NettyWebSocket> sessions = all.get(key);
+    Set<NettyWebSocket> sessions = all.get(key);
     if (sessions == null) {
       return Collections.emptyList();
     }
@@ -114,6 +136,14 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
     return result;
   }
 
+  @Override public long getQueuedBytes() {
+    return outbound.getQueuedBytes();
+  }
+
+  @Override public long getDroppedMessages() {
+    return outbound.getDroppedMessages();
+  }
+
   public boolean isOpen() {
     return open.get() && netty.ctx.channel().isOpen();
   }
@@ -138,6 +168,11 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
     return this;
   }
 
+  @Override public WebSocketConfigurer setOutboundLimit(long maxSize, OverflowPolicy policy) {
+    outbound.setLimit(maxSize, policy);
+    return this;
+  }
+
   @Override public WebSocket close(WebSocketCloseStatus closeStatus) {
     handleClose(closeStatus);
     return this;
@@ -197,6 +232,8 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
         fireCallback(webSocketTask(() -> callback.onClose(this, closeStatus), false));
       }
     } finally {
+      // release queued messages:
+      outbound.close();
       // clear from active sessions:
       this.netty.ctx.channel().attr(WS).set(null);
       removeSession(this);
@@ -223,6 +260,8 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
   }
 
   void fireConnect() {
+    // open once handshake has been sent, so connected clients get broadcast messages
+    open.set(true);
     addSession(this);
     if (connectCallback != null) {
       fireCallback(webSocketTask(() -> {
@@ -259,11 +298,11 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
   }
 
   private void addSession(NettyWebSocket ws) {
-    all.computeIfAbsent(ws.key, k -> new CopyOnWriteArrayList<>()).add(ws);
+    all.computeIfAbsent(ws.key, k -> ConcurrentHashMap.newKeySet()).add(ws);
   }
 
   private void removeSession(NettyWebSocket ws) {
-    List<NettyWebSocket> sockets = all.get(ws.key);
+    Set<NettyWebSocket> sockets = all.get(ws.key);
     if (sockets != null) {
       sockets.remove(ws);
     }
@@ -293,7 +332,6 @@ public class NettyWebSocket implements WebSocketConfigurer, WebSocket, ChannelFu
   private void waitForConnect() {
     try {
       ready.await();
-      open.set(true);
     } catch (InterruptedException x) {
       Thread.currentThread().interrupt();
     }
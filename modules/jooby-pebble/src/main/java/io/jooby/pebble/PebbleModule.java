@@ -21,6 +21,7 @@ import io.jooby.Extension;
 import io.jooby.Jooby;
 import io.jooby.ServiceRegistry;
 import io.jooby.TemplateEngine;
+import io.jooby.TemplateWarmup;
 
 import javax.annotation.Nonnull;
 import java.nio.file.Files;
@@ -29,6 +30,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import static java.util.Arrays.asList;
@@ -271,6 +273,8 @@ public class PebbleModule implements Extension {
 
   private String templatesPath;
 
+  private Boolean warmup;
+
   /**
    * Creates a new pebble module.
    *
@@ -297,12 +301,31 @@ public class PebbleModule implements Extension {
     this(TemplateEngine.PATH);
   }
 
+  /**
+   * Compile all the templates at application startup, in parallel. Startup fails when a template
+   * can't be compiled. Default is <code>false</code> or the value of the
+   * <code>templates.warmup</code> property.
+   *
+   * @param warmup True for compiling templates at startup.
+   * @return This module.
+   */
+  public @Nonnull PebbleModule setWarmup(boolean warmup) {
+    this.warmup = warmup;
+    return this;
+  }
+
   @Override
   public void install(@Nonnull Jooby application) throws Exception {
     if (builder == null) {
       builder = create().setTemplatesPath(templatesPath).build(application.getEnvironment());
     }
-    application.encoder(new PebbleTemplateEngine(builder, EXT));
+    PebbleTemplateEngine engine = new PebbleTemplateEngine(builder, EXT);
+    application.encoder(engine);
+
+    String path = stripLeadingSlash(
+        Optional.ofNullable(templatesPath).orElse(TemplateEngine.PATH));
+    new TemplateWarmup("pebble", EXT, engine::compile)
+        .install(application, warmup, null, path);
 
     ServiceRegistry services = application.getServices();
     services.put(PebbleEngine.Builder.class, builder);
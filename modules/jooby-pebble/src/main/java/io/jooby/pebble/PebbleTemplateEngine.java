@@ -15,10 +15,8 @@ import javax.annotation.Nonnull;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 class PebbleTemplateEngine implements TemplateEngine {
 
@@ -36,17 +34,25 @@ class PebbleTemplateEngine implements TemplateEngine {
     return extensions;
   }
 
+  void compile(String name) {
+    engine.getTemplate(name);
+  }
+
   @Override
   public String render(Context ctx, ModelAndView modelAndView) throws Exception {
-    PebbleTemplate template = engine.getTemplate(modelAndView.getView());
     Writer writer = new StringWriter();
-    Map<String, Object> model = new HashMap<>(ctx.getAttributes());
-    model.putAll(modelAndView.getModel());
+    render(ctx, modelAndView, writer);
+    return writer.toString();
+  }
+
+  @Override
+  public void render(@Nonnull Context ctx, @Nonnull ModelAndView modelAndView,
+      @Nonnull Writer writer) throws Exception {
+    PebbleTemplate template = engine.getTemplate(modelAndView.getView());
     Locale locale = modelAndView.getLocale();
     if (locale == null) {
       locale = ctx.locale();
     }
-    template.evaluate(writer, model, locale);
-    return writer.toString();
+    template.evaluate(writer, model(ctx, modelAndView), locale);
   }
 }
@@ -0,0 +1,151 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.protobuf;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.Extension;
+import io.jooby.Jooby;
+import io.jooby.MediaType;
+import io.jooby.MessageDecoder;
+import io.jooby.MessageEncoder;
+import io.jooby.Reified;
+import io.jooby.SneakyThrows;
+import io.jooby.StatusCode;
+import io.jooby.exception.NotAcceptableException;
+
+/**
+ * Protocol Buffers module: https://jooby.io/modules/protobuf.
+ *
+ * Usage:
+ *
+ * <pre>{@code
+ * {
+ *
+ *   install(new ProtobufModule());
+ *
+ *   get("/", ctx -> {
+ *     MyMessage message = ...;
+ *     // send protobuf
+ *     return message;
+ *   });
+ *
+ *   post("/", ctx -> {
+ *     // read protobuf
+ *     MyMessage message = ctx.body(MyMessage.class);
+ *     // send protobuf
+ *     return message;
+ *   });
+ * }
+ * }</pre>
+ *
+ * For body decoding the client must specify the <code>Content-Type</code> header set to
+ * <code>application/x-protobuf</code>. Responses are selected via content negotiation, so the
+ * module is usually installed after a JSON module and clients ask for protobuf with the
+ * <code>Accept</code> header.
+ *
+ * Messages are serialized into a byte array of their exact size (no intermediate buffer), so the
+ * response gets a <code>Content-Length</code> and the encoder works everywhere an encoder is used
+ * (reactive streams, WebSocket, Server-Sent Events). Parsers are looked up once per message type
+ * and cached.
+ *
+ * Complete documentation is available at: https://jooby.io/modules/protobuf.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class ProtobufModule implements Extension, MessageDecoder, MessageEncoder {
+
+  private final MediaType mediaType;
+
+  private final ExtensionRegistryLite extensionRegistry;
+
+  private final Map<Type, Parser<?>> parsers = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a protobuf module.
+   *
+   * @param extensionRegistry Extension registry used while parsing messages.
+   * @param contentType Content type.
+   */
+  public ProtobufModule(@Nonnull ExtensionRegistryLite extensionRegistry,
+      @Nonnull MediaType contentType) {
+    this.extensionRegistry = extensionRegistry;
+    this.mediaType = contentType;
+  }
+
+  /**
+   * Creates a protobuf module.
+   *
+   * @param extensionRegistry Extension registry used while parsing messages.
+   */
+  public ProtobufModule(@Nonnull ExtensionRegistryLite extensionRegistry) {
+    this(extensionRegistry, MediaType.protobuf);
+  }
+
+  /**
+   * Creates a protobuf module for <code>application/x-protobuf</code>.
+   */
+  public ProtobufModule() {
+    this(ExtensionRegistryLite.getEmptyRegistry());
+  }
+
+  @Override public void install(@Nonnull Jooby application) {
+    application.decoder(mediaType, this);
+    application.encoder(mediaType, this);
+
+    // Parsing exception as 400
+    application.errorCode(InvalidProtocolBufferException.class, StatusCode.BAD_REQUEST);
+  }
+
+  @Override public byte[] encode(@Nonnull Context ctx, @Nonnull Object value) throws Exception {
+    if (!(value instanceof MessageLite)) {
+      throw new NotAcceptableException(ctx.header(Context.ACCEPT).valueOrNull());
+    }
+    ctx.setDefaultResponseType(mediaType);
+    return ((MessageLite) value).toByteArray();
+  }
+
+  @Override public Object decode(@Nonnull Context ctx, @Nonnull Type type) throws Exception {
+    Parser<?> parser = parsers.computeIfAbsent(type, ProtobufModule::parser);
+    if (parser == null) {
+      return MessageDecoder.UNSUPPORTED_MEDIA_TYPE.decode(ctx, type);
+    }
+    Body body = ctx.body();
+    if (body.isInMemory()) {
+      return parser.parseFrom(body.bytes(), extensionRegistry);
+    } else {
+      try (InputStream stream = body.stream()) {
+        return parser.parseFrom(stream, extensionRegistry);
+      }
+    }
+  }
+
+  private static @Nullable Parser<?> parser(Type type) {
+    Class<?> rawType = Reified.get(type).getRawType();
+    if (!MessageLite.class.isAssignableFrom(rawType)) {
+      return null;
+    }
+    try {
+      MessageLite instance = (MessageLite) rawType.getMethod("getDefaultInstance").invoke(null);
+      return instance.getParserForType();
+    } catch (ReflectiveOperationException x) {
+      throw SneakyThrows.propagate(x);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package io.jooby.protobuf;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.json.JacksonModule;
+
+/**
+ * Protobuf vs Jackson JSON throughput over the same data. Protobuf side uses a generated message
+ * shipped with protobuf-java (<code>DescriptorProto</code>), JSON side an equivalent bean. Payload
+ * size of both formats is printed at setup.
+ */
+@Fork(5)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ProtobufModuleBenchmark {
+
+  public static class Field {
+    public String name;
+    public int number;
+    public String typeName;
+    public String jsonName;
+  }
+
+  public static class Message {
+    public String name;
+    public List<Field> field;
+  }
+
+  private ProtobufModule protobuf;
+
+  private JacksonModule jackson;
+
+  private DescriptorProto message;
+
+  private Message bean;
+
+  private Context protobufCtx;
+
+  private Context jsonCtx;
+
+  @Setup
+  public void setup() throws Exception {
+    protobuf = new ProtobufModule();
+    jackson = new JacksonModule();
+    bean = new Message();
+    bean.name = "Item";
+    bean.field = new ArrayList<>();
+    DescriptorProto.Builder builder = DescriptorProto.newBuilder().setName(bean.name);
+    for (int i = 0; i < 50; i++) {
+      Field field = new Field();
+      field.name = "field_" + i;
+      field.number = i + 1;
+      field.typeName = ".jooby.Type" + i;
+      field.jsonName = "field" + i;
+      bean.field.add(field);
+
+      builder.addField(FieldDescriptorProto.newBuilder()
+          .setName(field.name)
+          .setNumber(field.number)
+          .setTypeName(field.typeName)
+          .setJsonName(field.jsonName));
+    }
+    message = builder.build();
+
+    byte[] protobufPayload = message.toByteArray();
+    byte[] jsonPayload = jackson.encode(mock(Context.class), bean);
+    System.out.printf("%nprotobuf payload size: %d bytes%njson payload size: %d bytes%n",
+        protobufPayload.length, jsonPayload.length);
+
+    protobufCtx = context(protobufPayload);
+    jsonCtx = context(jsonPayload);
+  }
+
+  @Benchmark
+  public byte[] protobufEncode() throws Exception {
+    return protobuf.encode(protobufCtx, message);
+  }
+
+  @Benchmark
+  public byte[] jsonEncode() throws Exception {
+    return jackson.encode(jsonCtx, bean);
+  }
+
+  @Benchmark
+  public Object protobufDecode() throws Exception {
+    return protobuf.decode(protobufCtx, DescriptorProto.class);
+  }
+
+  @Benchmark
+  public Object jsonDecode() throws Exception {
+    return jackson.decode(jsonCtx, Message.class);
+  }
+
+  private static Context context(byte[] payload) {
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(payload);
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+    return ctx;
+  }
+}
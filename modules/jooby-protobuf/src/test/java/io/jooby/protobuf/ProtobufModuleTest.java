@@ -0,0 +1,111 @@
+package io.jooby.protobuf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import io.jooby.Body;
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.exception.NotAcceptableException;
+import io.jooby.exception.UnsupportedMediaType;
+
+public class ProtobufModuleTest {
+
+  @Test
+  public void encodeMessage() throws Exception {
+    Context ctx = mock(Context.class);
+
+    ProtobufModule protobuf = new ProtobufModule();
+
+    assertArrayEquals(message().toByteArray(), protobuf.encode(ctx, message()));
+
+    verify(ctx).setDefaultResponseType(MediaType.protobuf);
+  }
+
+  @Test
+  public void notAcceptable() {
+    io.jooby.Value accept = mock(io.jooby.Value.class);
+    when(accept.valueOrNull()).thenReturn(MediaType.PROTOBUF);
+    Context ctx = mock(Context.class);
+    when(ctx.header(Context.ACCEPT)).thenReturn(accept);
+
+    ProtobufModule protobuf = new ProtobufModule();
+
+    assertThrows(NotAcceptableException.class, () -> protobuf.encode(ctx, "text"));
+  }
+
+  @Test
+  public void parseMessage() throws Exception {
+    byte[] bytes = message().toByteArray();
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(bytes);
+
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+
+    ProtobufModule protobuf = new ProtobufModule();
+
+    assertEquals(message(), protobuf.decode(ctx, Struct.class));
+    assertEquals(message(), protobuf.decode(ctx, Struct.class));
+  }
+
+  @Test
+  public void parseMessageFromStream() throws Exception {
+    byte[] bytes = message().toByteArray();
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(false);
+    when(body.stream()).thenReturn(new ByteArrayInputStream(bytes));
+
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+
+    ProtobufModule protobuf = new ProtobufModule();
+
+    assertEquals(message(), protobuf.decode(ctx, Struct.class));
+  }
+
+  @Test
+  public void malformedMessage() {
+    Body body = mock(Body.class);
+    when(body.isInMemory()).thenReturn(true);
+    when(body.bytes()).thenReturn(new byte[]{0x0A, 0x7F});
+
+    Context ctx = mock(Context.class);
+    when(ctx.body()).thenReturn(body);
+
+    ProtobufModule protobuf = new ProtobufModule();
+
+    assertThrows(InvalidProtocolBufferException.class, () -> protobuf.decode(ctx, Struct.class));
+  }
+
+  @Test
+  public void unsupportedType() {
+    io.jooby.Value contentType = mock(io.jooby.Value.class);
+    when(contentType.valueOrNull()).thenReturn(MediaType.PROTOBUF);
+    Context ctx = mock(Context.class);
+    when(ctx.header("Content-Type")).thenReturn(contentType);
+
+    ProtobufModule protobuf = new ProtobufModule();
+
+    assertThrows(UnsupportedMediaType.class, () -> protobuf.decode(ctx, String.class));
+  }
+
+  private static Struct message() {
+    return Struct.newBuilder()
+        .putFields("name", Value.newBuilder().setStringValue("jooby").build())
+        .putFields("stars", Value.newBuilder().setNumberValue(1500).build())
+        .build();
+  }
+}
@@ -0,0 +1,284 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.redis;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jooby.Context;
+import io.jooby.Session;
+import io.jooby.SessionStore;
+import io.jooby.SessionToken;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.RedisPubSubListener;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+/**
+ * Keep a short lived, size bounded local copy of recently used sessions in front of a remote
+ * session store. Requests hitting the same node within {@link #setTimeToLive(Duration)} don't go
+ * to the remote store.
+ *
+ * Writes go through to the remote store. Nodes notify each other about session changes using
+ * Redis pub/sub (channel: <code>[namespace]:invalidate</code>), so other nodes drop their local
+ * copy. Use the same connection for the remote store and for this store: invalidation messages
+ * are then published after the session writes.
+ *
+ * <pre>{@code
+ * {
+ *   install(new RedisModule());
+ *
+ *   RedisSessionStore redis = new RedisSessionStore(require(StatefulRedisConnection.class));
+ *
+ *   NearCacheSessionStore store = new NearCacheSessionStore(redis,
+ *       require(StatefulRedisConnection.class), require(StatefulRedisPubSubConnection.class));
+ *   setSessionStore(store);
+ *   onStop(store);
+ * }
+ * }</pre>
+ *
+ * {@link #close()} stops listening for invalidation messages, call it on application shutdown.
+ * Connections are never closed by this store.
+ *
+ * Remote session expiration is refreshed when the session is saved, so session might expire in
+ * the remote store up to {@link #getTimeToLive()} earlier than expected.
+ *
+ * @author edgar
+ * @since 2.14.1
+ */
+public class NearCacheSessionStore implements SessionStore, AutoCloseable {
+
+  /** Local copy of a session. */
+  private static class Snapshot {
+    private final Map<String, String> attributes;
+
+    private final Instant creationTime;
+
+    private final Instant lastAccessedTime;
+
+    Snapshot(Session session) {
+      this.attributes = new HashMap<>(session.toMap());
+      this.creationTime = session.getCreationTime();
+      this.lastAccessedTime = session.getLastAccessedTime();
+    }
+  }
+
+  private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private static final Duration DEFAULT_TTL = Duration.ofSeconds(10);
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+
+  private final SessionStore store;
+
+  private final SessionToken token;
+
+  private final StatefulRedisConnection<String, String> connection;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final String channel;
+
+  private final StatefulRedisPubSubConnection<String, String> pubsub;
+
+  private final RedisPubSubListener<String, String> listener;
+
+  private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+  private Duration timeToLive = DEFAULT_TTL;
+
+  private volatile Cache<String, Snapshot> cache = newCache();
+
+  /**
+   * Creates a near cache in front of a Redis session store.
+   *
+   * @param store Redis session store.
+   * @param connection Redis connection, used to publish invalidation messages.
+   * @param pubsub Redis pub/sub connection, used to receive invalidation messages.
+   */
+  public NearCacheSessionStore(@Nonnull RedisSessionStore store,
+      @Nonnull StatefulRedisConnection<String, String> connection,
+      @Nonnull StatefulRedisPubSubConnection<String, String> pubsub) {
+    this(store, store.getToken(), connection, pubsub, store.getNamespace() + ":invalidate");
+  }
+
+  /**
+   * Creates a near cache in front of a remote session store.
+   *
+   * @param store Remote session store.
+   * @param token Session token used by the remote store.
+   * @param connection Redis connection, used to publish invalidation messages.
+   * @param pubsub Redis pub/sub connection, used to receive invalidation messages.
+   */
+  public NearCacheSessionStore(@Nonnull SessionStore store, @Nonnull SessionToken token,
+      @Nonnull StatefulRedisConnection<String, String> connection,
+      @Nonnull StatefulRedisPubSubConnection<String, String> pubsub) {
+    this(store, token, connection, pubsub, "sessions:invalidate");
+  }
+
+  private NearCacheSessionStore(SessionStore store, SessionToken token,
+      StatefulRedisConnection<String, String> connection,
+      StatefulRedisPubSubConnection<String, String> pubsub, String channel) {
+    this.store = store;
+    this.channel = channel;
+    this.token = token;
+    this.connection = connection;
+    this.pubsub = pubsub;
+    this.listener = new RedisPubSubAdapter<String, String>() {
+      @Override public void message(String channel, String message) {
+        onMessage(channel, message);
+      }
+    };
+    pubsub.addListener(listener);
+    pubsub.async().subscribe(channel);
+  }
+
+  /**
+   * Maximum number of local sessions. Default is: <code>10000</code>.
+   *
+   * @return Maximum number of local sessions.
+   */
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Set maximum number of local sessions.
+   *
+   * @param maximumSize Maximum number of local sessions.
+   * @return This store.
+   */
+  public @Nonnull NearCacheSessionStore setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+    this.cache = newCache();
+    return this;
+  }
+
+  /**
+   * How long a local session is kept (since it was loaded or saved). Default is:
+   * <code>10s</code>.
+   *
+   * @return Time to live.
+   */
+  public @Nonnull Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * Set how long a local session is kept (since it was loaded or saved). Without invalidation
+   * messages (lost messages or pub/sub connection failure), this is the maximum time a node might
+   * see an outdated session.
+   *
+   * @param timeToLive Time to live.
+   * @return This store.
+   */
+  public @Nonnull NearCacheSessionStore setTimeToLive(@Nonnull Duration timeToLive) {
+    this.timeToLive = timeToLive;
+    this.cache = newCache();
+    return this;
+  }
+
+  @Nonnull @Override public Session newSession(@Nonnull Context ctx) {
+    Session session = store.newSession(ctx);
+    cache.put(session.getId(), new Snapshot(session));
+    return session;
+  }
+
+  @Nullable @Override public Session findSession(@Nonnull Context ctx) {
+    String sessionId = token.findToken(ctx);
+    if (sessionId == null) {
+      return null;
+    }
+    Snapshot snapshot = cache.getIfPresent(sessionId);
+    if (snapshot == null) {
+      Session session = store.findSession(ctx);
+      if (session != null) {
+        cache.put(session.getId(), new Snapshot(session));
+      }
+      return session;
+    }
+    token.saveToken(ctx, sessionId);
+    SessionAttributes attributes = new SessionAttributes(snapshot.attributes,
+        snapshot.lastAccessedTime.toEpochMilli());
+    return Session.create(ctx, sessionId, attributes)
+        .setCreationTime(snapshot.creationTime)
+        .setLastAccessedTime(snapshot.lastAccessedTime);
+  }
+
+  @Override public void deleteSession(@Nonnull Context ctx, @Nonnull Session session) {
+    String sessionId = session.getId();
+    store.deleteSession(ctx, session);
+    cache.invalidate(sessionId);
+    publish(sessionId);
+  }
+
+  @Override public void touchSession(@Nonnull Context ctx, @Nonnull Session session) {
+    store.touchSession(ctx, session);
+  }
+
+  @Override public void saveSession(@Nonnull Context ctx, @Nonnull Session session) {
+    boolean modified = session.isNew() || session.isModify();
+    store.saveSession(ctx, session);
+    String sessionId = session.getId();
+    if (modified) {
+      cache.put(sessionId, new Snapshot(session));
+      publish(sessionId);
+    }
+  }
+
+  @Override public void renewSessionId(@Nonnull Context ctx, @Nonnull Session session) {
+    String sessionId = session.getId();
+    store.renewSessionId(ctx, session);
+    cache.invalidate(sessionId);
+    publish(sessionId);
+  }
+
+  /**
+   * Stop listening for invalidation messages and drop local sessions. Connections are left open.
+   */
+  @Override public void close() {
+    pubsub.removeListener(listener);
+    pubsub.async().unsubscribe(channel);
+    cache.invalidateAll();
+  }
+
+  private void onMessage(String channel, String message) {
+    if (this.channel.equals(channel)) {
+      int separator = message.indexOf(' ');
+      boolean self = separator == nodeId.length() && message.regionMatches(0, nodeId, 0, separator);
+      if (separator > 0 && !self) {
+        cache.invalidate(message.substring(separator + 1));
+      }
+    }
+  }
+
+  private void publish(String sessionId) {
+    connection.async().publish(channel, nodeId + " " + sessionId)
+        .whenComplete((receivers, cause) -> {
+          if (cause != null) {
+            log.error("unable to publish invalidation for session: {}", sessionId, cause);
+          }
+        });
+  }
+
+  private Cache<String, Snapshot> newCache() {
+    return Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive)
+        .build();
+  }
+}
@@ -8,16 +8,16 @@ package io.jooby.redis;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.apache.commons.pool2.impl.GenericObjectPool;
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,18 +27,28 @@ import io.jooby.SessionStore;
 import io.jooby.SessionToken;
 import io.jooby.SneakyThrows;
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.async.RedisAsyncCommands;
-import io.lettuce.core.api.sync.RedisCommands;
-import io.lettuce.core.support.ConnectionPoolSupport;
 
 /**
  * Redis session store.
  *
+ * All the commands are sent over a single shared connection. Lettuce pipelines them, so writes
+ * don't wait for a reply.
+ *
+ * Session attributes are tracked and only changed attributes are written back to Redis using
+ * <code>HSET</code>/<code>HDEL</code>. An unchanged session is just touched: its expiration is
+ * refreshed (at most once per request) using <code>EXPIRE</code>, or not refreshed at all when
+ * the session was accessed within {@link #setTouchGracePeriod(Duration)}.
+ *
+ * A connection borrowed from a pool or opened from a {@link RedisClient} is released by
+ * {@link #close()}, call it on application shutdown: <code>onStop(store)</code>.
+ *
  * @author edgar
  * @since 2.8.5
  */
-public class RedisSessionStore implements SessionStore {
+public class RedisSessionStore implements SessionStore, AutoCloseable {
 
   private static final String LAST_ACCESSED_AT = "__accessed_at";
   private static final String CREATED_AT = "__created_at";
@@ -48,26 +58,44 @@ public class RedisSessionStore implements SessionStore {
   private SessionToken token = SessionToken.cookieId(SessionToken.SID);
   private String namespace = "sessions";
   private Duration timeout = Duration.ofMinutes(DEFAULT_TIMEOUT);
-  private GenericObjectPool<StatefulRedisConnection<String, String>> pool;
+  private long touchGracePeriod;
+  private SneakyThrows.Supplier<StatefulRedisConnection<String, String>> connectionFactory;
+  private volatile StatefulRedisConnection<String, String> connection;
+  /** Release a connection acquired by this store, null for connections provided by the user. */
+  private SneakyThrows.Consumer<StatefulRedisConnection<String, String>> release;
 
   /**
-   * Creates a new session store.
+   * Creates a new session store. A single connection is borrowed from the pool and used for
+   * all the session operations, it is returned to the pool by {@link #close()}.
    *
    * @param pool Redis connection pool.
+   * @deprecated Use {@link #RedisSessionStore(StatefulRedisConnection)}.
    */
+  @Deprecated
   public RedisSessionStore(
       @Nonnull GenericObjectPool<StatefulRedisConnection<String, String>> pool) {
-    this.pool = pool;
+    this.connectionFactory = pool::borrowObject;
+    this.release = pool::returnObject;
   }
 
   /**
-   * Creates a new session store.
+   * Creates a new session store. A new connection is opened on first use and closed by
+   * {@link #close()}.
    *
    * @param redis Redis connection.
    */
   public RedisSessionStore(@Nonnull RedisClient redis) {
-    this(ConnectionPoolSupport
-        .createGenericObjectPool(() -> redis.connect(), new GenericObjectPoolConfig()));
+    this.connectionFactory = redis::connect;
+    this.release = StatefulRedisConnection::close;
+  }
+
+  /**
+   * Creates a new session store.
+   *
+   * @param connection Redis connection.
+   */
+  public RedisSessionStore(@Nonnull StatefulRedisConnection<String, String> connection) {
+    this.connection = connection;
   }
 
   /**
@@ -122,6 +150,29 @@ public class RedisSessionStore implements SessionStore {
     return this;
   }
 
+  /**
+   * Touch grace period. Session expiration is not refreshed if the session was accessed within
+   * this period.
+   *
+   * @return Touch grace period. Default is: <code>0</code>.
+   */
+  public @Nonnull Duration getTouchGracePeriod() {
+    return Duration.ofMillis(touchGracePeriod);
+  }
+
+  /**
+   * Set touch grace period. Session expiration is not refreshed (no <code>EXPIRE</code> command)
+   * if the session was accessed within this period. Saves a Redis command per request at the cost
+   * of session expiring up to <code>touchGracePeriod</code> earlier.
+   *
+   * @param touchGracePeriod Touch grace period, must be lower than session timeout.
+   * @return This store.
+   */
+  public @Nonnull RedisSessionStore setTouchGracePeriod(@Nonnull Duration touchGracePeriod) {
+    this.touchGracePeriod = touchGracePeriod.toMillis();
+    return this;
+  }
+
   /**
    * Session token.
    *
@@ -152,11 +203,16 @@ public class RedisSessionStore implements SessionStore {
     data.put(LAST_ACCESSED_AT, isoNow);
     data.put(CREATED_AT, isoNow);
 
-    saveSession(sessionId, data);
+    RedisAsyncCommands<String, String> commands = connection().async();
+    String redisId = key(sessionId);
+    onError(commands.hset(redisId, data), "create", sessionId);
+    expire(commands, redisId, sessionId);
 
     token.saveToken(ctx, sessionId);
 
-    return Session.create(ctx, sessionId, new ConcurrentHashMap<>())
+    SessionAttributes attributes = new SessionAttributes(new HashMap<>(), now.toEpochMilli());
+    attributes.touched(now.toEpochMilli());
+    return Session.create(ctx, sessionId, attributes)
         .setLastAccessedTime(now)
         .setCreationTime(now);
   }
@@ -166,85 +222,142 @@ public class RedisSessionStore implements SessionStore {
     if (sessionId == null) {
       return null;
     }
-    return withConnection(connection -> {
-      RedisCommands<String, String> commands = connection.sync();
-      String redisId = key(sessionId);
-      Map<String, String> data = commands.hgetall(redisId);
-      if (data == null || data.isEmpty()) {
-        return null;
-      }
-      Optional.ofNullable(timeout).map(Duration::getSeconds)
-          .ifPresent(seconds -> commands.expire(redisId, seconds));
-      Instant lastAccessedTime = Instant.parse(data.remove(LAST_ACCESSED_AT));
-      Instant createdAt = Instant.parse(data.remove(CREATED_AT));
+    StatefulRedisConnection<String, String> connection = connection();
+    String redisId = key(sessionId);
+    Map<String, String> data = connection.sync().hgetall(redisId);
+    if (data == null || data.isEmpty()) {
+      return null;
+    }
+    Instant lastAccessedTime = Instant.parse(data.remove(LAST_ACCESSED_AT));
+    Instant createdAt = Instant.parse(data.remove(CREATED_AT));
 
-      token.saveToken(ctx, sessionId);
+    SessionAttributes attributes = new SessionAttributes(data, lastAccessedTime.toEpochMilli());
+    touch(connection.async(), sessionId, attributes);
 
-      return Session.create(ctx, sessionId, new ConcurrentHashMap<>(data))
-          .setCreationTime(createdAt)
-          .setLastAccessedTime(lastAccessedTime);
-    });
+    token.saveToken(ctx, sessionId);
+
+    return Session.create(ctx, sessionId, attributes)
+        .setCreationTime(createdAt)
+        .setLastAccessedTime(lastAccessedTime);
   }
 
   @Override public void deleteSession(@Nonnull Context ctx, @Nonnull Session session) {
     String sessionId = session.getId();
 
-    withConnection(connection -> connection.async().del(key(sessionId)));
+    onError(connection().async().del(key(sessionId)), "delete", sessionId);
 
     token.deleteToken(ctx, sessionId);
   }
 
   @Override public void touchSession(@Nonnull Context ctx, @Nonnull Session session) {
-    saveSession(ctx, session);
+    if (!(session.toMap() instanceof SessionAttributes)) {
+      saveSession(ctx, session);
+    }
+    // Otherwise, changes are written on saveSession at the end of the request
 
     token.saveToken(ctx, session.getId());
   }
 
   @Override public void saveSession(@Nonnull Context ctx, @Nonnull Session session) {
-    saveSession(session.getId(), new HashMap<>(session.toMap()));
+    String sessionId = session.getId();
+    String redisId = key(sessionId);
+    RedisAsyncCommands<String, String> commands = connection().async();
+    long now = System.currentTimeMillis();
+    String isoNow = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(now));
+
+    Map<String, String> attributes = session.toMap();
+    if (attributes instanceof SessionAttributes) {
+      SessionAttributes sessionAttributes = (SessionAttributes) attributes;
+      Map<String, String> updated = new HashMap<>();
+      List<String> removed = sessionAttributes.changes(updated);
+      if (updated.isEmpty() && removed.isEmpty()) {
+        // unchanged session
+        touch(commands, sessionId, sessionAttributes);
+        return;
+      }
+      if (removed.size() > 0) {
+        onError(commands.hdel(redisId, removed.toArray(new String[0])), "save", sessionId);
+      }
+      updated.put(LAST_ACCESSED_AT, isoNow);
+      onError(commands.hset(redisId, updated), "save", sessionId);
+      sessionAttributes.touched(now);
+      expire(commands, redisId, sessionId);
+    } else {
+      // Not created by this store, write the whole session. No MULTI/EXEC here: connection is
+      // shared, so a transaction would include commands from other requests. Write new values
+      // first and then remove stale fields, so the session never goes missing.
+      Map<String, String> data = new HashMap<>(attributes);
+      data.put(LAST_ACCESSED_AT, isoNow);
+      data.put(CREATED_AT, DateTimeFormatter.ISO_INSTANT.format(
+          Optional.ofNullable(session.getCreationTime()).orElseGet(Instant::now)));
+      List<String> stale = new ArrayList<>(connection().sync().hkeys(redisId));
+      stale.removeAll(data.keySet());
+      onError(commands.hset(redisId, data), "save", sessionId);
+      if (stale.size() > 0) {
+        onError(commands.hdel(redisId, stale.toArray(new String[0])), "save", sessionId);
+      }
+      expire(commands, redisId, sessionId);
+    }
   }
 
   @Override public void renewSessionId(@Nonnull Context ctx, @Nonnull Session session) {
 
   }
 
-  private void saveSession(String sessionId, Map<String, String> data) {
-    withConnection(connection -> {
+  private void touch(RedisAsyncCommands<String, String> commands, String sessionId,
+      SessionAttributes attributes) {
+    if (timeout == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (!attributes.touch(now, touchGracePeriod)) {
+      return;
+    }
+    String redisId = key(sessionId);
+    onError(commands.hset(redisId, LAST_ACCESSED_AT,
+        DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(now))), "touch", sessionId);
+    expire(commands, redisId, sessionId);
+  }
 
-      Instant now = Instant.now();
-      String isoNow = DateTimeFormatter.ISO_INSTANT.format(now);
+  private void expire(RedisAsyncCommands<String, String> commands, String redisId,
+      String sessionId) {
+    if (timeout != null) {
+      onError(commands.expire(redisId, timeout.getSeconds()), "expire", sessionId);
+    }
+  }
 
-      data.put(LAST_ACCESSED_AT, isoNow);
-      data.put(CREATED_AT, isoNow);
-
-      RedisAsyncCommands<String, String> commands = connection.async();
-      String redisId = key(sessionId);
-      // start transaction
-      commands.multi();
-      // delete existing
-      commands.del(redisId);
-      // save again
-      commands.hset(redisId, data);
-      // commit
-      return commands.exec().handle((value, cause) -> {
-        if (cause != null) {
-          log.error("unable to create session: {}", sessionId, cause);
-          return sessionId;
-        } else {
-          Optional.ofNullable(timeout).map(Duration::getSeconds)
-              .ifPresent(seconds -> commands.expire(redisId, seconds));
-          return value;
-        }
-      });
+  private void onError(RedisFuture<?> future, String operation, String sessionId) {
+    future.whenComplete((value, cause) -> {
+      if (cause != null) {
+        log.error("unable to {} session: {}", operation, sessionId, cause);
+      }
     });
   }
 
-  private <T> T withConnection(SneakyThrows.Function<StatefulRedisConnection, T> callback) {
-    try (StatefulRedisConnection<String, String> connection = pool.borrowObject()) {
-      return callback.apply(connection);
-    } catch (Exception cause) {
-      throw SneakyThrows.propagate(cause);
+  /**
+   * Release the connection borrowed from the pool or opened from the client. Connections provided
+   * to the store are never closed.
+   */
+  @Override public synchronized void close() {
+    StatefulRedisConnection<String, String> connection = this.connection;
+    if (release != null && connection != null) {
+      this.connection = null;
+      release.accept(connection);
+    }
+  }
+
+  private StatefulRedisConnection<String, String> connection() {
+    StatefulRedisConnection<String, String> connection = this.connection;
+    if (connection == null) {
+      synchronized (this) {
+        connection = this.connection;
+        if (connection == null) {
+          connection = connectionFactory.get();
+          this.connection = connection;
+        }
+      }
     }
+    return connection;
   }
 
   private String key(String id) {
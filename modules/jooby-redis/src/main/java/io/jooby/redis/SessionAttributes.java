@@ -0,0 +1,169 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.redis;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session attributes with change tracking. Keeps the name of attributes that were added, updated
+ * or removed since last {@link #changes(Map)} call.
+ *
+ * Every mutation goes through {@link #put(String, String)}, {@link #remove(Object)} or the
+ * {@link #entrySet()} view (which also backs {@link #keySet()} and {@link #values()}), so changes
+ * made via views, iterators or default {@link Map} methods are tracked too.
+ */
+class SessionAttributes extends AbstractMap<String, String> {
+
+  private final Map<String, String> attributes = new ConcurrentHashMap<>();
+
+  private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+  private final Set<Entry<String, String>> entrySet = new EntrySet();
+
+  /** Last time the session expiration was refreshed, in milliseconds. */
+  private volatile long touchedAt;
+
+  /** True once the session expiration was refreshed by this instance (current request). */
+  private volatile boolean touched;
+
+  SessionAttributes(Map<String, String> attributes, long touchedAt) {
+    this.attributes.putAll(attributes);
+    this.touchedAt = touchedAt;
+  }
+
+  @Override public int size() {
+    return attributes.size();
+  }
+
+  @Override public boolean containsKey(Object name) {
+    return attributes.containsKey(name);
+  }
+
+  @Override public String get(Object name) {
+    return attributes.get(name);
+  }
+
+  @Override public String put(String name, String value) {
+    String existing = attributes.put(name, value);
+    if (!value.equals(existing)) {
+      dirty.add(name);
+    }
+    return existing;
+  }
+
+  @Override public String remove(Object name) {
+    String existing = attributes.remove(name);
+    if (existing != null) {
+      dirty.add((String) name);
+    }
+    return existing;
+  }
+
+  @Override public void clear() {
+    dirty.addAll(attributes.keySet());
+    attributes.clear();
+  }
+
+  @Override public Set<Entry<String, String>> entrySet() {
+    return entrySet;
+  }
+
+  /**
+   * Check if the session expiration must be refreshed. Expiration is refreshed at most once per
+   * instance and only when last refresh is older than the grace period.
+   *
+   * @param now Current time in milliseconds.
+   * @param gracePeriod Grace period in milliseconds.
+   * @return True if expiration must be refreshed.
+   */
+  boolean touch(long now, long gracePeriod) {
+    if (touched || now - touchedAt < gracePeriod) {
+      return false;
+    }
+    touched = true;
+    touchedAt = now;
+    return true;
+  }
+
+  void touched(long now) {
+    touched = true;
+    touchedAt = now;
+  }
+
+  /**
+   * Drain changes since last call.
+   *
+   * @param updated Output map of attributes that were added or updated.
+   * @return Name of removed attributes.
+   */
+  List<String> changes(Map<String, String> updated) {
+    List<String> removed = new ArrayList<>();
+    Iterator<String> iterator = dirty.iterator();
+    while (iterator.hasNext()) {
+      String name = iterator.next();
+      iterator.remove();
+      String value = get(name);
+      if (value == null) {
+        removed.add(name);
+      } else {
+        updated.put(name, value);
+      }
+    }
+    return removed;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, String>> {
+    @Override public int size() {
+      return attributes.size();
+    }
+
+    @Override public void clear() {
+      SessionAttributes.this.clear();
+    }
+
+    @Override public Iterator<Entry<String, String>> iterator() {
+      Iterator<Entry<String, String>> iterator = attributes.entrySet().iterator();
+      return new Iterator<Entry<String, String>>() {
+        private String last;
+
+        @Override public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override public Entry<String, String> next() {
+          Entry<String, String> entry = iterator.next();
+          last = entry.getKey();
+          return new TrackedEntry(entry);
+        }
+
+        @Override public void remove() {
+          iterator.remove();
+          dirty.add(last);
+        }
+      };
+    }
+  }
+
+  private class TrackedEntry extends SimpleEntry<String, String> {
+    TrackedEntry(Entry<String, String> entry) {
+      super(entry);
+    }
+
+    @Override public String setValue(String value) {
+      Objects.requireNonNull(value);
+      super.setValue(value);
+      return put(getKey(), value);
+    }
+  }
+}
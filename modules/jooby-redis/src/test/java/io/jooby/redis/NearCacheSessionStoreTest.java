@@ -0,0 +1,127 @@
+package io.jooby.redis;
+
+import io.jooby.Context;
+import io.jooby.Session;
+import io.jooby.SessionStore;
+import io.jooby.SessionToken;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.pubsub.RedisPubSubListener;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.pubsub.api.async.RedisPubSubAsyncCommands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NearCacheSessionStoreTest {
+
+  private SessionStore remote;
+
+  private RedisAsyncCommands<String, String> commands;
+
+  private RedisPubSubListener<String, String> listener;
+
+  private NearCacheSessionStore store;
+
+  private Context ctx;
+
+  private StatefulRedisPubSubConnection<String, String> pubsub;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    ctx = mock(Context.class);
+    remote = mock(SessionStore.class);
+    Map<String, String> data = new ConcurrentHashMap<>();
+    data.put("foo", "bar");
+    Session session = Session.create(ctx, "sid", data)
+        .setCreationTime(Instant.now())
+        .setLastAccessedTime(Instant.now());
+    when(remote.findSession(ctx)).thenReturn(session);
+
+    SessionToken token = mock(SessionToken.class);
+    when(token.findToken(ctx)).thenReturn("sid");
+
+    commands = mock(RedisAsyncCommands.class);
+    when(commands.publish(anyString(), anyString())).thenReturn(mock(RedisFuture.class));
+    StatefulRedisConnection<String, String> connection = mock(StatefulRedisConnection.class);
+    when(connection.async()).thenReturn(commands);
+
+    pubsub = mock(StatefulRedisPubSubConnection.class);
+    when(pubsub.async()).thenReturn(mock(RedisPubSubAsyncCommands.class));
+
+    store = new NearCacheSessionStore(remote, token, connection, pubsub);
+
+    ArgumentCaptor<RedisPubSubListener<String, String>> captor =
+        ArgumentCaptor.forClass(RedisPubSubListener.class);
+    verify(pubsub).addListener(captor.capture());
+    verify(pubsub.async()).subscribe("sessions:invalidate");
+    listener = captor.getValue();
+  }
+
+  @Test
+  public void findSessionFromLocalCopy() {
+    assertEquals("bar", store.findSession(ctx).get("foo").value());
+    assertEquals("bar", store.findSession(ctx).get("foo").value());
+    verify(remote, times(1)).findSession(ctx);
+  }
+
+  @Test
+  public void invalidate() {
+    ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+    store.deleteSession(ctx, store.findSession(ctx));
+    verify(commands).publish(eq("sessions:invalidate"), message.capture());
+    store.findSession(ctx);
+    verify(remote, times(2)).findSession(ctx);
+
+    // own message, ignored
+    listener.message("sessions:invalidate", message.getValue());
+    store.findSession(ctx);
+    verify(remote, times(2)).findSession(ctx);
+
+    // another node
+    listener.message("sessions:invalidate", "node sid");
+    store.findSession(ctx);
+    verify(remote, times(3)).findSession(ctx);
+
+    // another node, id prefix of own id
+    String own = message.getValue();
+    listener.message("sessions:invalidate", own.substring(0, 8) + " sid");
+    store.findSession(ctx);
+    verify(remote, times(4)).findSession(ctx);
+  }
+
+  @Test
+  public void close() {
+    store.close();
+    verify(pubsub).removeListener(listener);
+    verify(pubsub.async()).unsubscribe("sessions:invalidate");
+  }
+
+  @Test
+  public void saveModifiedSession() {
+    Session session = store.findSession(ctx);
+    session.setModify(true);
+    session.toMap().put("x", "y");
+    store.saveSession(ctx, session);
+    verify(remote).saveSession(ctx, session);
+    verify(commands).publish(eq("sessions:invalidate"), any());
+
+    assertEquals("y", store.findSession(ctx).get("x").value());
+    verify(remote, times(1)).findSession(ctx);
+  }
+}
@@ -0,0 +1,166 @@
+package io.jooby.redis;
+
+import io.jooby.Context;
+import io.jooby.Router;
+import io.jooby.Session;
+import io.jooby.SessionToken;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RedisSessionStoreTest {
+
+  private RedisCommands<String, String> sync;
+
+  private RedisAsyncCommands<String, String> async;
+
+  private RedisSessionStore store;
+
+  private Context ctx;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    sync = mock(RedisCommands.class);
+    async = mock(RedisAsyncCommands.class);
+    when(async.hset(anyString(), anyMap())).thenReturn(future());
+    when(async.hset(anyString(), anyString(), anyString())).thenReturn(future());
+    when(async.hdel(anyString(), any())).thenReturn(future());
+    when(async.expire(anyString(), anyLong())).thenReturn(future());
+
+    StatefulRedisConnection<String, String> connection = mock(StatefulRedisConnection.class);
+    when(connection.sync()).thenReturn(sync);
+    when(connection.async()).thenReturn(async);
+
+    SessionToken token = mock(SessionToken.class);
+    when(token.findToken(any())).thenReturn("sid");
+
+    store = new RedisSessionStore(connection).setToken(token);
+
+    Router router = mock(Router.class);
+    when(router.getSessionStore()).thenReturn(store);
+    ctx = mock(Context.class);
+    when(ctx.getRouter()).thenReturn(router);
+  }
+
+  @Test
+  public void unchangedSessionIsTouchedOnce() {
+    session(Instant.now().minusSeconds(60));
+    Session session = store.findSession(ctx);
+    assertEquals("bar", session.get("foo").value());
+    store.saveSession(ctx, session);
+
+    verify(async, times(1)).hset(eq("sessions:sid"), eq("__accessed_at"), anyString());
+    verify(async, times(1)).expire("sessions:sid", 1800L);
+    verify(async, never()).hset(anyString(), anyMap());
+    verify(async, never()).hdel(anyString(), any());
+  }
+
+  @Test
+  public void touchWithinGracePeriodIsNoop() {
+    store.setTouchGracePeriod(Duration.ofMinutes(1));
+    session(Instant.now().minusSeconds(30));
+    Session session = store.findSession(ctx);
+    store.saveSession(ctx, session);
+
+    verify(async, never()).hset(anyString(), anyString(), anyString());
+    verify(async, never()).expire(anyString(), anyLong());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void writeChangesOnly() {
+    store.setTouchGracePeriod(Duration.ofMinutes(1));
+    session(Instant.now());
+    Session session = store.findSession(ctx);
+    session.put("foo", "bar");
+    session.put("x", "y");
+    session.remove("a");
+    store.saveSession(ctx, session);
+
+    ArgumentCaptor<Map<String, String>> updated = ArgumentCaptor.forClass(Map.class);
+    verify(async).hset(eq("sessions:sid"), updated.capture());
+    // foo didn't change
+    assertEquals(new HashSet<>(Arrays.asList("x", "__accessed_at")),
+        updated.getValue().keySet());
+    verify(async).hdel("sessions:sid", "a");
+    verify(async).expire("sessions:sid", 1800L);
+
+    // flushed
+    store.saveSession(ctx, session);
+    verify(async, times(1)).hset(anyString(), anyMap());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void rewriteForeignSessionWithoutDelete() {
+    when(sync.hkeys("sessions:sid")).thenReturn(Arrays.asList("__accessed_at", "foo", "old"));
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put("foo", "bar");
+    store.saveSession(ctx, Session.create(ctx, "sid", attributes));
+
+    ArgumentCaptor<Map<String, String>> data = ArgumentCaptor.forClass(Map.class);
+    verify(async).hset(eq("sessions:sid"), data.capture());
+    assertEquals(new HashSet<>(Arrays.asList("foo", "__accessed_at", "__created_at")),
+        data.getValue().keySet());
+    verify(async).hdel("sessions:sid", "old");
+    verify(async, never()).del(any());
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "deprecation"})
+  public void returnBorrowedConnectionOnClose() throws Exception {
+    StatefulRedisConnection<String, String> connection = mock(StatefulRedisConnection.class);
+    when(connection.async()).thenReturn(async);
+    GenericObjectPool<StatefulRedisConnection<String, String>> pool = mock(GenericObjectPool.class);
+    when(pool.borrowObject()).thenReturn(connection);
+
+    when(async.del(any())).thenReturn(future());
+
+    RedisSessionStore store = new RedisSessionStore(pool);
+    store.deleteSession(ctx, Session.create(ctx, "sid"));
+    store.deleteSession(ctx, Session.create(ctx, "sid"));
+    store.close();
+
+    verify(pool, times(1)).borrowObject();
+    verify(pool).returnObject(connection);
+  }
+
+  private void session(Instant accessedAt) {
+    Map<String, String> data = new HashMap<>();
+    data.put("__accessed_at", accessedAt.toString());
+    data.put("__created_at", accessedAt.toString());
+    data.put("foo", "bar");
+    data.put("a", "b");
+    when(sync.hgetall("sessions:sid")).thenReturn(data);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> RedisFuture<T> future() {
+    return mock(RedisFuture.class);
+  }
+}
@@ -0,0 +1,81 @@
+package io.jooby.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionAttributesTest {
+
+  @Test
+  public void trackPutAndRemove() {
+    SessionAttributes attributes = attributes("a", "1", "b", "2");
+    attributes.put("a", "1");
+    attributes.put("c", "3");
+    attributes.remove("b");
+    attributes.remove("missing");
+
+    Map<String, String> updated = new HashMap<>();
+    List<String> removed = attributes.changes(updated);
+    assertEquals(map("c", "3"), updated);
+    assertEquals(Arrays.asList("b"), removed);
+
+    updated.clear();
+    assertTrue(attributes.changes(updated).isEmpty());
+    assertTrue(updated.isEmpty());
+  }
+
+  @Test
+  public void trackViews() {
+    SessionAttributes attributes = attributes("a", "1", "b", "2", "c", "3", "d", "4");
+    attributes.keySet().remove("a");
+    attributes.values().remove("2");
+    Iterator<Map.Entry<String, String>> iterator = attributes.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, String> entry = iterator.next();
+      if (entry.getKey().equals("c")) {
+        entry.setValue("33");
+      } else {
+        iterator.remove();
+      }
+    }
+
+    Map<String, String> updated = new HashMap<>();
+    List<String> removed = attributes.changes(updated);
+    assertEquals(map("c", "33"), updated);
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "d")), new HashSet<>(removed));
+    assertEquals(map("c", "33"), attributes);
+  }
+
+  @Test
+  public void trackDefaultMethods() {
+    SessionAttributes attributes = attributes("a", "1", "b", "2");
+    attributes.merge("a", "1", String::concat);
+    attributes.computeIfAbsent("c", k -> "3");
+    attributes.keySet().clear();
+
+    Map<String, String> updated = new HashMap<>();
+    List<String> removed = attributes.changes(updated);
+    assertTrue(updated.isEmpty());
+    assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(removed));
+  }
+
+  private static SessionAttributes attributes(String... pairs) {
+    return new SessionAttributes(map(pairs), 0L);
+  }
+
+  private static Map<String, String> map(String... pairs) {
+    Map<String, String> map = new HashMap<>();
+    for (int i = 0; i < pairs.length; i += 2) {
+      map.put(pairs[i], pairs[i + 1]);
+    }
+    return map;
+  }
+}
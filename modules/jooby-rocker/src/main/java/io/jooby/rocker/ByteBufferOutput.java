@@ -8,14 +8,19 @@ package io.jooby.rocker;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.fizzed.rocker.ContentType;
 import com.fizzed.rocker.RockerOutput;
 import com.fizzed.rocker.RockerOutputFactory;
 
 /**
- * Rocker output that uses a byte array to render the output.
+ * Rocker output that uses a list of byte arrays (chunks) to render the output. Strings are
+ * encoded as UTF-8 straight into the chunks. Once the output is full a new chunk is added, so
+ * existing content is never copied.
+ *
+ * Rendered output is available as {@link #toBuffers()} without extra copies.
  *
  * @author edgar
  */
@@ -24,33 +29,44 @@ public class ByteBufferOutput implements RockerOutput<ByteBufferOutput> {
   /** Default buffer size: <code>4k</code>. */
   public static final int BUFFER_SIZE = 4096;
 
-  /**
-   * The maximum size of array to allocate.
-   * Some VMs reserve some header words in an array.
-   * Attempts to allocate larger arrays may result in
-   * OutOfMemoryError: Requested array size exceeds VM limit
-   */
-  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+  /** Chunks grow up to <code>64k</code>. */
+  private static final int MAX_CHUNK_SIZE = 65536;
+
+  private static final byte REPLACEMENT = '?';
+
+  private ContentType contentType;
 
-  private final ContentType contentType;
+  private final List<byte[]> chunks = new ArrayList<>();
+
+  /** Index of current chunk. */
+  private int current;
+
+  /** Number of bytes in previous chunks. */
+  private int length;
+
+  private ByteBufferOutputPool pool;
 
   /**
-   * The buffer where data is stored.
+   * The current chunk where data is stored.
    */
   protected byte[] buf;
 
   /**
-   * The number of valid bytes in the buffer.
+   * The number of valid bytes in the current chunk.
    */
   protected int count;
 
   ByteBufferOutput(ContentType contentType, int bufferSize) {
     this.buf = new byte[bufferSize];
+    this.chunks.add(buf);
     this.contentType = contentType;
   }
 
   void reset() {
+    current = 0;
+    length = 0;
     count = 0;
+    buf = chunks.get(0);
   }
 
   @Override public ContentType getContentType() {
@@ -62,28 +78,94 @@ public class ByteBufferOutput implements RockerOutput<ByteBufferOutput> {
   }
 
   @Override public ByteBufferOutput w(String string) {
-    return w(string.getBytes(StandardCharsets.UTF_8));
+    int len = string.length();
+    int i = 0;
+    while (i < len) {
+      // ASCII run
+      byte[] buf = this.buf;
+      int count = this.count;
+      int end = Math.min(len, i + buf.length - count);
+      char c;
+      while (i < end && (c = string.charAt(i)) < 0x80) {
+        buf[count++] = (byte) c;
+        i++;
+      }
+      this.count = count;
+      if (i == len) {
+        break;
+      }
+      c = string.charAt(i++);
+      if (c < 0x80) {
+        // chunk is full
+        next();
+        put((byte) c);
+      } else if (c < 0x800) {
+        put((byte) (0xC0 | (c >> 6)));
+        put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c)) {
+        if (i < len && Character.isLowSurrogate(string.charAt(i))) {
+          int cp = Character.toCodePoint(c, string.charAt(i++));
+          put((byte) (0xF0 | (cp >> 18)));
+          put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+          put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+          put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+          put(REPLACEMENT);
+        }
+      } else if (Character.isLowSurrogate(c)) {
+        put(REPLACEMENT);
+      } else {
+        put((byte) (0xE0 | (c >> 12)));
+        put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    return this;
   }
 
   @Override public ByteBufferOutput w(byte[] bytes) {
+    int off = 0;
     int len = bytes.length;
-    ensureCapacity(count + len);
-    System.arraycopy(bytes, 0, buf, count, len);
-    count += len;
+    while (off < len) {
+      if (count == buf.length) {
+        next();
+      }
+      int n = Math.min(len - off, buf.length - count);
+      System.arraycopy(bytes, off, buf, count, n);
+      count += n;
+      off += n;
+    }
     return this;
   }
 
   @Override public int getByteLength() {
-    return count;
+    return length + count;
   }
 
   /**
-   * Get a view of the byte buffer.
+   * Get a view of the chunks. No copy is made, buffers are valid until the output is released.
+   *
+   * @return Byte buffers.
+   */
+  public ByteBuffer[] toBuffers() {
+    ByteBuffer[] buffers = new ByteBuffer[current + 1];
+    for (int i = 0; i < current; i++) {
+      buffers[i] = ByteBuffer.wrap(chunks.get(i));
+    }
+    buffers[current] = ByteBuffer.wrap(buf, 0, count);
+    return buffers;
+  }
+
+  /**
+   * Get a view of the byte buffer. A copy is made when output doesn't fit in a single chunk.
    *
    * @return Byte buffer.
    */
   public ByteBuffer toBuffer() {
-    return ByteBuffer.wrap(buf, 0, count);
+    if (current == 0) {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+    return ByteBuffer.wrap(toByteArray());
   }
 
   /**
@@ -92,64 +174,79 @@ public class ByteBufferOutput implements RockerOutput<ByteBufferOutput> {
    * @return Byte array.
    */
   public byte[] toByteArray() {
-    byte[] array = new byte[count];
-    System.arraycopy(buf, 0, array, 0, count);
+    byte[] array = new byte[getByteLength()];
+    int offset = 0;
+    for (int i = 0; i < current; i++) {
+      byte[] chunk = chunks.get(i);
+      System.arraycopy(chunk, 0, array, offset, chunk.length);
+      offset += chunk.length;
+    }
+    System.arraycopy(buf, 0, array, offset, count);
     return array;
   }
 
-  private void ensureCapacity(int minCapacity) {
-    // overflow-conscious code
-    if (minCapacity - buf.length > 0) {
-      grow(minCapacity);
+  /**
+   * Give this output back to the pool it was created from. Output must not be used after
+   * release. No-op for non pooled outputs.
+   */
+  void release() {
+    ByteBufferOutputPool pool = this.pool;
+    if (pool != null) {
+      this.pool = null;
+      pool.release(this);
     }
   }
 
+  void pool(ByteBufferOutputPool pool, ContentType contentType) {
+    this.pool = pool;
+    this.contentType = contentType;
+  }
+
   /**
-   * Increases the capacity to ensure that it can hold at least the
-   * number of elements specified by the minimum capacity argument.
+   * Drop chunks not required to hold the given capacity. First chunk is always kept.
    *
-   * @param minCapacity the desired minimum capacity
+   * @param capacity Capacity to keep.
    */
-  private void grow(int minCapacity) {
-    // overflow-conscious code
-    int oldCapacity = buf.length;
-    int newCapacity = oldCapacity << 1;
-    if (newCapacity - minCapacity < 0) {
-      newCapacity = minCapacity;
+  void trim(int capacity) {
+    int size = 0;
+    int keep = 0;
+    while (keep < chunks.size() && size < capacity) {
+      size += chunks.get(keep++).length;
     }
-    if (newCapacity - MAX_ARRAY_SIZE > 0) {
-      newCapacity = hugeCapacity(minCapacity);
+    for (int i = chunks.size() - 1; i >= Math.max(keep, 1); i--) {
+      chunks.remove(i);
     }
-    buf = Arrays.copyOf(buf, newCapacity);
+    reset();
   }
 
-  private static int hugeCapacity(int minCapacity) {
-    if (minCapacity < 0) {
-      throw new OutOfMemoryError();
+  int capacity() {
+    int capacity = 0;
+    for (byte[] chunk : chunks) {
+      capacity += chunk.length;
     }
-    return (minCapacity > MAX_ARRAY_SIZE)
-        ? Integer.MAX_VALUE
-        : MAX_ARRAY_SIZE;
+    return capacity;
   }
 
-  static RockerOutputFactory<ByteBufferOutput> factory(int bufferSize) {
-    return (contentType, charsetName) -> new ByteBufferOutput(contentType, bufferSize);
+  private void put(byte b) {
+    if (count == buf.length) {
+      next();
+    }
+    buf[count++] = b;
   }
 
-  static RockerOutputFactory<ByteBufferOutput> reuse(
-      RockerOutputFactory<ByteBufferOutput> factory) {
-    return new RockerOutputFactory<ByteBufferOutput>() {
-      private final ThreadLocal<ByteBufferOutput> thread = new ThreadLocal<>();
+  private void next() {
+    length += count;
+    count = 0;
+    current += 1;
+    if (current < chunks.size()) {
+      buf = chunks.get(current);
+    } else {
+      buf = new byte[Math.max(buf.length, Math.min(buf.length << 1, MAX_CHUNK_SIZE))];
+      chunks.add(buf);
+    }
+  }
 
-      @Override public ByteBufferOutput create(ContentType contentType, String charsetName) {
-        ByteBufferOutput output = thread.get();
-        if (output == null) {
-          output = factory.create(contentType, charsetName);
-          thread.set(output);
-        }
-        output.reset();
-        return output;
-      }
-    };
+  static RockerOutputFactory<ByteBufferOutput> factory(int bufferSize) {
+    return (contentType, charsetName) -> new ByteBufferOutput(contentType, bufferSize);
   }
 }
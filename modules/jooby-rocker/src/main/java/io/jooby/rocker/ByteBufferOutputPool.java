@@ -0,0 +1,103 @@
+/**
+ * Jooby https://jooby.io
+ * Apache License Version 2.0 https://jooby.io/LICENSE.txt
+ * Copyright 2014 Edgar Espina
+ */
+package io.jooby.rocker;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fizzed.rocker.ContentType;
+import com.fizzed.rocker.RockerOutputFactory;
+
+/**
+ * Pool of {@link ByteBufferOutput}. Outputs are reset between renders and given back to the pool
+ * by {@link ByteBufferOutput#release()} once the response was sent.
+ *
+ * Rendered page sizes are sampled: new outputs start with a buffer of the 99th percentile page
+ * size and released outputs keep chunks up to that size, so buffers settle at the p99 page size.
+ */
+class ByteBufferOutputPool implements RockerOutputFactory<ByteBufferOutput> {
+
+  private static final int SAMPLES = 1024;
+
+  /** Recompute percentile every N samples. */
+  private static final int UPDATE_RATE = 64;
+
+  private final Queue<ByteBufferOutput> outputs = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final int bufferSize;
+
+  private final int maxSize;
+
+  private final int[] samples = new int[SAMPLES];
+
+  private int index;
+
+  private int filled;
+
+  private int updates;
+
+  private volatile int p99;
+
+  ByteBufferOutputPool(int bufferSize, int maxSize) {
+    this.bufferSize = bufferSize;
+    this.maxSize = maxSize;
+  }
+
+  ByteBufferOutputPool(int bufferSize) {
+    this(bufferSize, Runtime.getRuntime().availableProcessors() * 8);
+  }
+
+  @Override public ByteBufferOutput create(ContentType contentType, String charsetName) {
+    ByteBufferOutput output = outputs.poll();
+    if (output == null) {
+      output = new ByteBufferOutput(contentType, Math.max(bufferSize, p99));
+    } else {
+      size.decrementAndGet();
+    }
+    output.pool(this, contentType);
+    return output;
+  }
+
+  void release(ByteBufferOutput output) {
+    record(output.getByteLength());
+    output.trim(Math.max(bufferSize, p99));
+    if (size.incrementAndGet() <= maxSize) {
+      outputs.offer(output);
+    } else {
+      size.decrementAndGet();
+    }
+  }
+
+  /**
+   * 99th percentile of rendered page size in bytes or <code>0</code> until enough samples were
+   * recorded.
+   *
+   * @return 99th percentile of rendered page size.
+   */
+  int getP99() {
+    return p99;
+  }
+
+  private void record(int length) {
+    synchronized (samples) {
+      samples[index] = length;
+      index = (index + 1) % SAMPLES;
+      if (filled < SAMPLES) {
+        filled += 1;
+      }
+      if (++updates == UPDATE_RATE) {
+        updates = 0;
+        int[] sorted = Arrays.copyOf(samples, filled);
+        Arrays.sort(sorted);
+        p99 = sorted[(int) Math.ceil(filled * 0.99) - 1];
+      }
+    }
+  }
+}
@@ -26,8 +26,11 @@ class RockerHandler implements Route.Handler {
   @Nonnull @Override public Object apply(@Nonnull Context ctx) {
     try {
       RockerModel template = (RockerModel) next.apply(ctx);
+      ByteBufferOutput output = template.render(factory);
       ctx.setResponseType(MediaType.html);
-      return ctx.send(template.render(factory).toBuffer());
+      // buffers are sent as they are, give them back once response was written
+      ctx.onComplete(context -> output.release());
+      return ctx.send(output.toBuffers());
     } catch (Throwable x) {
       ctx.sendError(x);
       return x;
@@ -24,9 +24,13 @@ class RockerMessageEncoder implements MessageEncoder {
     if (value instanceof RockerModel) {
       RockerModel template = (RockerModel) value;
       ByteBufferOutput output = template.render(factory);
-      ctx.setResponseLength(output.getByteLength());
-      ctx.setDefaultResponseType(MediaType.html);
-      return output.toByteArray();
+      try {
+        ctx.setResponseLength(output.getByteLength());
+        ctx.setDefaultResponseType(MediaType.html);
+        return output.toByteArray();
+      } finally {
+        output.release();
+      }
     }
     return null;
   }
@@ -27,7 +27,7 @@ public class RockerModule implements Extension {
 
   private int bufferSize = ByteBufferOutput.BUFFER_SIZE;
 
-  private boolean reuseBuffer;
+  private boolean reuseBuffer = true;
 
   /**
    * Turn on/off autoreloading of template for development.
@@ -53,10 +53,11 @@ public class RockerModule implements Extension {
   }
 
   /**
-   * Allow simple reuse of raw byte buffers. It is usually used through <code>ThreadLocal</code>
-   * variable pointing to instance of {@link ByteBufferOutput}.
+   * Allow reuse of raw byte buffers. Instances of {@link ByteBufferOutput} are pooled, reset
+   * between renders and given back to the pool once the response was sent. Pooled buffers
+   * settle at the 99th percentile of rendered page size.
    *
-   * @param reuseBuffer True for reuse the buffer. Default is: <code>false</code>
+   * @param reuseBuffer True for reuse the buffer. Default is: <code>true</code>
    * @return This module.
    */
   public RockerModule reuseBuffer(boolean reuseBuffer) {
@@ -70,10 +71,9 @@ public class RockerModule implements Extension {
     boolean reloading = this.reloading == null
         ? (env.isActive("dev") && runtime.isReloadingPossible())
         : this.reloading.booleanValue();
-    RockerOutputFactory<ByteBufferOutput> factory = ByteBufferOutput.factory(bufferSize);
-    if (reuseBuffer) {
-      factory = ByteBufferOutput.reuse(factory);
-    }
+    RockerOutputFactory<ByteBufferOutput> factory = reuseBuffer
+        ? new ByteBufferOutputPool(bufferSize)
+        : ByteBufferOutput.factory(bufferSize);
     runtime.setReloading(reloading);
     // response handler
     application.responseHandler(new RockerResponseHandler(factory));
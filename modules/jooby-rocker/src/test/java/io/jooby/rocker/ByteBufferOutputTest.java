@@ -0,0 +1,94 @@
+package io.jooby.rocker;
+
+import com.fizzed.rocker.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ByteBufferOutputTest {
+
+  @Test
+  public void encodeUtf8() {
+    ByteBufferOutput output = new ByteBufferOutput(ContentType.HTML, 4);
+    String text = "ascii, ñandú, € and 😀";
+    output.w(text);
+    byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+    assertEquals(expected.length, output.getByteLength());
+    assertArrayEquals(expected, output.toByteArray());
+    assertArrayEquals(expected, output.toBuffer().array());
+  }
+
+  @Test
+  public void invalidSurrogates() {
+    ByteBufferOutput output = new ByteBufferOutput(ContentType.HTML, 16);
+    output.w("\uD83Da\uDE00\uD83D");
+    assertEquals("?a??", new String(output.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void chunks() {
+    ByteBufferOutput output = new ByteBufferOutput(ContentType.HTML, 4);
+    output.w("<p>");
+    output.w("static content".getBytes(StandardCharsets.UTF_8));
+    output.w("</p>");
+    ByteBuffer[] buffers = output.toBuffers();
+    assertEquals(3, buffers.length);
+    assertEquals(4, buffers[0].remaining());
+    assertEquals(8, buffers[1].remaining());
+    assertEquals(9, buffers[2].remaining());
+    StringBuilder result = new StringBuilder();
+    for (ByteBuffer buffer : buffers) {
+      result.append(StandardCharsets.UTF_8.decode(buffer));
+    }
+    assertEquals("<p>static content</p>", result.toString());
+  }
+
+  @Test
+  public void pool() {
+    ByteBufferOutputPool pool = new ByteBufferOutputPool(4, 1);
+    ByteBufferOutput output = pool.create(ContentType.HTML, "UTF-8");
+    output.w("reused");
+    output.release();
+    // released twice is a no-op
+    output.release();
+
+    ByteBufferOutput reused = pool.create(ContentType.RAW, "UTF-8");
+    assertSame(output, reused);
+    assertEquals(ContentType.RAW, reused.getContentType());
+    assertEquals(0, reused.getByteLength());
+    ByteBufferOutput other = pool.create(ContentType.HTML, "UTF-8");
+    assertNotSame(reused, other);
+    reused.release();
+    // pool is full
+    other.release();
+    assertSame(reused, pool.create(ContentType.HTML, "UTF-8"));
+    assertNotSame(other, pool.create(ContentType.HTML, "UTF-8"));
+  }
+
+  @Test
+  public void settleAtP99() {
+    ByteBufferOutputPool pool = new ByteBufferOutputPool(16, 1);
+    assertEquals(0, pool.getP99());
+    for (int i = 0; i < 128; i++) {
+      ByteBufferOutput output = pool.create(ContentType.HTML, "UTF-8");
+      output.w(new byte[i == 0 ? 1000 : 100]);
+      output.release();
+    }
+    assertEquals(100, pool.getP99());
+    ByteBufferOutput output = pool.create(ContentType.HTML, "UTF-8");
+    // 16 + 32 + 64 bytes chunks are enough for p99
+    assertEquals(112, output.capacity());
+
+    // new outputs start with p99 buffer
+    ByteBufferOutput fresh = pool.create(ContentType.HTML, "UTF-8");
+    assertEquals(100, fresh.capacity());
+    fresh.w(new byte[100]);
+    assertEquals(1, fresh.toBuffers().length);
+  }
+}
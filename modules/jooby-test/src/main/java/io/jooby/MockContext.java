@@ -89,6 +89,8 @@ public class MockContext implements DefaultContext {
 
   private String remoteAddress = "0.0.0.0";
 
+  private long requestStartTime = System.currentTimeMillis();
+
   private String host;
 
   private String scheme = "http";
@@ -541,6 +543,21 @@ public class MockContext implements DefaultContext {
     return "HTTP/1.1";
   }
 
+  @Override public long getRequestStartTime() {
+    return requestStartTime;
+  }
+
+  /**
+   * Set request start time.
+   *
+   * @param requestStartTime Request start time in milliseconds since epoch.
+   * @return This context.
+   */
+  @Nonnull public MockContext setRequestStartTime(long requestStartTime) {
+    this.requestStartTime = requestStartTime;
+    return this;
+  }
+
   @Nonnull @Override public List<Certificate> getClientCertificates() {
     return new ArrayList<Certificate>();
   }
@@ -55,6 +55,14 @@ public class MockWebSocket implements WebSocket {
     return Collections.emptyList();
   }
 
+  @Override public long getQueuedBytes() {
+    return 0;
+  }
+
+  @Override public long getDroppedMessages() {
+    return 0;
+  }
+
   @Override public boolean isOpen() {
     return open;
   }
@@ -51,6 +51,12 @@ public class MockWebSocketConfigurer implements WebSocketConfigurer {
     return this;
   }
 
+  @Nonnull @Override public WebSocketConfigurer setOutboundLimit(long maxSize,
+      @Nonnull WebSocket.OverflowPolicy policy) {
+    // NOOP, mock messages are delivered synchronously
+    return this;
+  }
+
   MockWebSocketClient getClient() {
     return client;
   }
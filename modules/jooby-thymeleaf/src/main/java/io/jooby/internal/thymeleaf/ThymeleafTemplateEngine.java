@@ -8,16 +8,28 @@ package io.jooby.internal.thymeleaf;
 import io.jooby.ModelAndView;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.exceptions.TemplateProcessingException;
 
 import javax.annotation.Nonnull;
+import java.io.Writer;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 public class ThymeleafTemplateEngine implements io.jooby.TemplateEngine {
 
+  private static final Writer NULL_WRITER = new Writer() {
+    @Override public void write(char[] cbuf, int off, int len) {
+    }
+
+    @Override public void flush() {
+    }
+
+    @Override public void close() {
+    }
+  };
+
   private TemplateEngine templateEngine;
   private List<String> extensions;
 
@@ -31,20 +43,47 @@ public class ThymeleafTemplateEngine implements io.jooby.TemplateEngine {
   }
 
   @Override public String render(io.jooby.Context ctx, ModelAndView modelAndView) {
-    Map<String, Object> model = new HashMap<>(ctx.getAttributes());
-    model.putAll(modelAndView.getModel());
+    return templateEngine.process(templateName(modelAndView), context(ctx, modelAndView));
+  }
 
+  @Override public void render(@Nonnull io.jooby.Context ctx, @Nonnull ModelAndView modelAndView,
+      @Nonnull Writer writer) {
+    templateEngine.process(templateName(modelAndView), context(ctx, modelAndView), writer);
+  }
+
+  /**
+   * Parse a template. Thymeleaf doesn't expose template parsing, so the template is rendered with
+   * an empty model: parsed template goes to the template cache and expression errors, caused by
+   * the empty model, are ignored.
+   *
+   * @param name Template name.
+   */
+  public void compile(String name) {
+    String templateName = name.startsWith("/") ? name : "/" + name;
+    try {
+      templateEngine.process(templateName, new Context(Locale.getDefault(), Collections.emptyMap()),
+          NULL_WRITER);
+    } catch (TemplateInputException x) {
+      throw x;
+    } catch (TemplateProcessingException x) {
+      // template was parsed, rendering requires a model
+    }
+  }
+
+  private Context context(io.jooby.Context ctx, ModelAndView modelAndView) {
     // Locale:
     Locale locale = modelAndView.getLocale();
     if (locale == null) {
       locale = ctx.locale();
     }
+    return new Context(locale, model(ctx, modelAndView));
+  }
 
-    Context context = new Context(locale, model);
+  private String templateName(ModelAndView modelAndView) {
     String templateName = modelAndView.getView();
     if (!templateName.startsWith("/")) {
       templateName = "/" + templateName;
     }
-    return templateEngine.process(templateName, context);
+    return templateName;
   }
 }
@@ -9,6 +9,7 @@ import io.jooby.Environment;
 import io.jooby.Extension;
 import io.jooby.Jooby;
 import io.jooby.ServiceRegistry;
+import io.jooby.TemplateWarmup;
 import io.jooby.internal.thymeleaf.ThymeleafTemplateEngine;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.cache.ICacheManager;
@@ -216,6 +217,8 @@ public class ThymeleafModule implements Extension {
 
   private Path templatesPath;
 
+  private Boolean warmup;
+
   /**
    * Creates a new module uses the given template engine. You can create a default engine using
    * the {@link #create()} method.
@@ -253,15 +256,35 @@ public class ThymeleafModule implements Extension {
     this(io.jooby.TemplateEngine.PATH);
   }
 
+  /**
+   * Compile all the templates at application startup, in parallel. Startup fails when a template
+   * can't be compiled. Default is <code>false</code> or the value of the
+   * <code>templates.warmup</code> property.
+   *
+   * @param warmup True for compiling templates at startup.
+   * @return This module.
+   */
+  public @Nonnull ThymeleafModule setWarmup(boolean warmup) {
+    this.warmup = warmup;
+    return this;
+  }
+
   @Override public void install(@Nonnull Jooby application) {
+    Environment env = application.getEnvironment();
     if (templateEngine == null) {
       templateEngine = create()
           .setTemplatesPath(templatesPath)
           .setTemplatesPath(templatesPathString)
-          .build(application.getEnvironment());
+          .build(env);
     }
 
-    application.encoder(new ThymeleafTemplateEngine(templateEngine, EXT));
+    ThymeleafTemplateEngine engine = new ThymeleafTemplateEngine(templateEngine, EXT);
+    application.encoder(engine);
+
+    String path = normalizePath(env.getProperty(TEMPLATE_PATH,
+        ofNullable(templatesPathString).orElse(io.jooby.TemplateEngine.PATH)));
+    new TemplateWarmup("thymeleaf", EXT, engine::compile)
+        .install(application, warmup, templatesPath, path);
 
     ServiceRegistry services = application.getServices();
     services.put(TemplateEngine.class, templateEngine);
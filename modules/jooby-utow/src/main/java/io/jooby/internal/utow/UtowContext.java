@@ -96,6 +96,9 @@ public class UtowContext implements DefaultContext, IoCallback {
   private Boolean resetHeadersOnError;
   private String method;
   private String requestPath;
+  private final long requestStartTime = System.currentTimeMillis();
+  // created once undertow has parsed request line and headers
+  private final long requestStartNanoTime = System.nanoTime();
   private UtowCompletionListener completionListener;
   private String remoteAddress;
   private String host;
@@ -184,6 +187,10 @@ public class UtowContext implements DefaultContext, IoCallback {
     return exchange.isInIoThread();
   }
 
+  @Override public Executor getIoExecutor() {
+    return exchange.getIoThread();
+  }
+
   @Nonnull @Override public String getHost() {
     return host == null ? DefaultContext.super.getHost() : host;
   }
@@ -213,6 +220,14 @@ public class UtowContext implements DefaultContext, IoCallback {
     return exchange.getProtocol().toString();
   }
 
+  @Override public long getRequestStartTime() {
+    return requestStartTime;
+  }
+
+  @Override public long getRequestStartNanoTime() {
+    return requestStartNanoTime;
+  }
+
   @Nonnull @Override public List<Certificate> getClientCertificates() {
     SSLSessionInfo ssl = exchange.getConnection().getSslSessionInfo();
     if (ssl != null) {
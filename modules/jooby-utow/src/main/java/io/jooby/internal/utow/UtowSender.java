@@ -23,7 +23,13 @@ public class UtowSender implements Sender {
   }
 
   @Override public Sender write(@Nonnull byte[] data, @Nonnull Callback callback) {
-    exchange.getResponseSender().send(ByteBuffer.wrap(data), newIoCallback(ctx, callback));
+    return write(data, 0, data.length, callback);
+  }
+
+  @Override public Sender write(@Nonnull byte[] data, int offset, int length,
+      @Nonnull Callback callback) {
+    exchange.getResponseSender()
+        .send(ByteBuffer.wrap(data, offset, length), newIoCallback(ctx, callback));
     return this;
   }
 
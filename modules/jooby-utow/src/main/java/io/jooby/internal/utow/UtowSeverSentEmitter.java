@@ -76,7 +76,14 @@ public class UtowSeverSentEmitter implements ServerSentEmitter, IoCallback {
   }
 
   @Override public void onClose(SneakyThrows.Runnable task) {
-    this.closeTask = task;
+    SneakyThrows.Runnable previous = closeTask;
+    this.closeTask = previous == null ? task : () -> {
+      try {
+        previous.run();
+      } finally {
+        task.run();
+      }
+    };
   }
 
   @Nonnull @Override public void close() {
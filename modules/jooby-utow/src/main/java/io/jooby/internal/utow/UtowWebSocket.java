@@ -13,9 +13,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -33,6 +33,7 @@ import io.jooby.WebSocket;
 import io.jooby.WebSocketCloseStatus;
 import io.jooby.WebSocketConfigurer;
 import io.jooby.WebSocketMessage;
+import io.jooby.internal.WebSocketOutbound;
 import io.undertow.websockets.core.AbstractReceiveListener;
 import io.undertow.websockets.core.BufferedTextMessage;
 import io.undertow.websockets.core.CloseMessage;
@@ -41,10 +42,10 @@ import io.undertow.websockets.core.WebSocketChannel;
 import io.undertow.websockets.core.WebSockets;
 
 public class UtowWebSocket extends AbstractReceiveListener
-    implements WebSocketConfigurer, WebSocket, WebSocketCallback<Void> {
+    implements WebSocketConfigurer, WebSocket, WebSocketCallback<Integer> {
 
   /** All connected websocket. */
-  private static final ConcurrentMap<String, List<WebSocket>> all = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Set<UtowWebSocket>> all = new ConcurrentHashMap<>();
 
   private final UtowContext ctx;
   private final WebSocketChannel channel;
@@ -57,6 +58,7 @@ public class UtowWebSocket extends AbstractReceiveListener
   private CountDownLatch ready = new CountDownLatch(1);
   private AtomicBoolean open = new AtomicBoolean(false);
   private int maxSize;
+  private final WebSocketOutbound<ByteBuffer> outbound;
 
   public UtowWebSocket(UtowContext ctx, WebSocketChannel channel) {
     this.ctx = ctx;
@@ -68,6 +70,9 @@ public class UtowWebSocket extends AbstractReceiveListener
     maxSize = conf.hasPath("websocket.maxSize")
         ? conf.getBytes("websocket.maxSize").intValue()
         : WebSocket.MAX_BUFFER_SIZE;
+    outbound = new WebSocketOutbound<>(conf, this::writeText, buffer -> {
+      // heap buffer, nothing to release
+    }, this::handleOverflow);
   }
 
   @Override protected long getMaxTextBufferSize() {
@@ -83,7 +88,7 @@ public class UtowWebSocket extends AbstractReceiveListener
   }
 
   @Nonnull @Override public List<WebSocket> getSessions() {
-    List<WebSocket> sessions = all.get(key);
+    Set<UtowWebSocket> sessions = all.get(key);
     if (sessions == null) {
       return Collections.emptyList();
     }
@@ -92,6 +97,14 @@ public class UtowWebSocket extends AbstractReceiveListener
     return result;
   }
 
+  @Override public long getQueuedBytes() {
+    return outbound.getQueuedBytes();
+  }
+
+  @Override public long getDroppedMessages() {
+    return outbound.getDroppedMessages();
+  }
+
   @Override public boolean isOpen() {
     return open.get() && channel.isOpen();
   }
@@ -101,36 +114,47 @@ public class UtowWebSocket extends AbstractReceiveListener
   }
 
   @Nonnull @Override public WebSocket send(@Nonnull byte[] message, boolean broadcast) {
+    ByteBuffer buffer = ByteBuffer.wrap(message);
     if (broadcast) {
-      for (WebSocket ws : all.getOrDefault(key, Collections.emptyList())) {
-        ws.send(message, false);
+      for (UtowWebSocket ws : all.getOrDefault(key, Collections.emptySet())) {
+        // shared content, independent position/limit per channel
+        ws.sendText(buffer.duplicate());
       }
     } else {
-      if (isOpen()) {
-        try {
-          WebSockets.sendText(ByteBuffer.wrap(message), channel, this);
-        } catch (Throwable x) {
-          onError(channel, x);
-        }
-      } else {
-        onError(channel,
-            new IllegalStateException("Attempt to send a message on closed web socket"));
-      }
+      sendText(buffer);
     }
     return this;
   }
 
-  @Nonnull @Override public WebSocket render(@Nonnull Object value, boolean broadcast) {
-    if (broadcast) {
-      for (WebSocket ws : all.getOrDefault(key, Collections.emptyList())) {
-        ws.render(value, false);
-      }
-    } else {
+  private void sendText(ByteBuffer buffer) {
+    if (isOpen()) {
       try {
-        Context.websocket(ctx, this).render(value);
+        outbound.send(buffer, buffer.remaining());
       } catch (Throwable x) {
         onError(channel, x);
       }
+    } else {
+      onError(channel,
+          new IllegalStateException("Attempt to send a message on closed web socket"));
+    }
+  }
+
+  private void writeText(ByteBuffer buffer, int size) {
+    WebSockets.sendText(buffer, channel, this, size);
+  }
+
+  private void handleOverflow() {
+    handleClose(WebSocketCloseStatus.SERVICE_OVERLOAD);
+    // don't wait for the close frame, it is queued behind the pending messages
+    IoUtils.safeClose(channel);
+  }
+
+  @Nonnull @Override public WebSocket render(@Nonnull Object value, boolean broadcast) {
+    try {
+      // encode once, broadcast is done by send
+      Context.websocket(ctx, this, broadcast).render(value);
+    } catch (Throwable x) {
+      onError(channel, x);
     }
     return this;
   }
@@ -140,6 +164,12 @@ public class UtowWebSocket extends AbstractReceiveListener
     return this;
   }
 
+  @Nonnull @Override public WebSocketConfigurer setOutboundLimit(long maxSize,
+      @Nonnull OverflowPolicy policy) {
+    outbound.setLimit(maxSize, policy);
+    return this;
+  }
+
   @Nonnull @Override public WebSocketConfigurer onConnect(@Nonnull OnConnect callback) {
     onConnectCallback = callback;
     return this;
@@ -163,6 +193,8 @@ public class UtowWebSocket extends AbstractReceiveListener
   void fireConnect() {
     // fire only once
     try {
+      // open once handshake has been sent, so connected clients get broadcast messages
+      open.set(true);
       addSession(this);
       Config conf = ctx.getRouter().getConfig();
       long timeout = conf.hasPath("websocket.idleTimeout")
@@ -196,7 +228,6 @@ public class UtowWebSocket extends AbstractReceiveListener
   private void waitForConnect() {
     try {
       ready.await();
-      open.set(true);
     } catch (InterruptedException x) {
       Thread.currentThread().interrupt();
     }
@@ -272,27 +303,30 @@ public class UtowWebSocket extends AbstractReceiveListener
       // fire error:
       onError(channel, x);
     } finally {
+      // release queued messages:
+      outbound.close();
       // clear from active sessions:
       removeSession(this);
     }
   }
 
   private void addSession(UtowWebSocket ws) {
-    all.computeIfAbsent(ws.key, k -> new CopyOnWriteArrayList<>()).add(ws);
+    all.computeIfAbsent(ws.key, k -> ConcurrentHashMap.newKeySet()).add(ws);
   }
 
   private void removeSession(UtowWebSocket ws) {
-    List<WebSocket> sockets = all.get(ws.key);
+    Set<UtowWebSocket> sockets = all.get(ws.key);
     if (sockets != null) {
       sockets.remove(ws);
     }
   }
 
-  @Override public void complete(WebSocketChannel channel, Void context) {
-    // NOOP
+  @Override public void complete(WebSocketChannel channel, Integer size) {
+    outbound.complete(size);
   }
 
-  @Override public void onError(WebSocketChannel channel, Void context, Throwable throwable) {
+  @Override public void onError(WebSocketChannel channel, Integer size, Throwable throwable) {
+    outbound.complete(size);
     ctx.getRouter().getLog().error("WebSocket.send resulted in exception", throwable);
   }
 
@@ -16,6 +16,7 @@ import io.jooby.MessageDecoder;
 import io.jooby.MessageEncoder;
 import io.jooby.ServiceRegistry;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -68,6 +69,14 @@ import javax.json.bind.JsonbBuilder;
  */
 public class YassonModule implements Extension, MessageDecoder, MessageEncoder {
 
+  private static final int BUFFER_SIZE = 4096;
+
+  /** Buffers bigger than this are not reused. */
+  private static final int MAX_BUFFER_SIZE = 65536;
+
+  private static final ThreadLocal<ByteArrayOutputStream> OUTPUT = ThreadLocal
+      .withInitial(() -> new ByteArrayOutputStream(BUFFER_SIZE));
+
   private final Jsonb jsonb;
 
   /**
@@ -103,7 +112,7 @@ public class YassonModule implements Extension, MessageDecoder, MessageEncoder {
 
     Body body = ctx.body();
     try (InputStream stream = body.stream()) {
-      return jsonb.fromJson(new InputStreamReader(stream), type);
+      return jsonb.fromJson(new InputStreamReader(stream, UTF_8), type);
     }
   }
 
@@ -113,6 +122,16 @@ public class YassonModule implements Extension, MessageDecoder, MessageEncoder {
       @Nonnull final Context ctx,
       @Nonnull final Object value) {
     ctx.setDefaultResponseType(MediaType.json);
-    return jsonb.toJson(value).getBytes(UTF_8);
+    ByteArrayOutputStream output = OUTPUT.get();
+    try {
+      jsonb.toJson(value, output);
+      return output.toByteArray();
+    } finally {
+      if (output.size() > MAX_BUFFER_SIZE) {
+        OUTPUT.remove();
+      } else {
+        output.reset();
+      }
+    }
   }
 }
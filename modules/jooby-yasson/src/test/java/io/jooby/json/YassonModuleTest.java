@@ -38,6 +38,24 @@ public class YassonModuleTest {
     verify(ctx).setDefaultResponseType(MediaType.json);
   }
 
+  @Test
+  public void renderWithReusedBuffer() {
+    YassonModule YassonModule = new YassonModule();
+    Context ctx = mock(Context.class);
+    User user = new User();
+    user.name = "ñ";
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      large.append('x');
+    }
+
+    assertEquals("{\"age\":0,\"id\":0,\"name\":\"ñ\"}",
+        new String(YassonModule.encode(ctx, user), StandardCharsets.UTF_8));
+    assertEquals(100_002, YassonModule.encode(ctx, large.toString()).length);
+    assertEquals("[1,2]",
+        new String(YassonModule.encode(ctx, new int[]{1, 2}), StandardCharsets.UTF_8));
+  }
+
   @Test
   public void parse() throws IOException {
     byte[] bytes = "{\"age\":2147483647,\"id\":-1,\"name\":\"Lorem\"}".getBytes(StandardCharsets.UTF_8);
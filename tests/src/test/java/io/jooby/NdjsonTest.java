@@ -0,0 +1,40 @@
+package io.jooby;
+
+import io.jooby.json.JacksonModule;
+import io.jooby.junit.ServerTest;
+import io.jooby.junit.ServerTestRunner;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static reactor.core.scheduler.Schedulers.parallel;
+
+public class NdjsonTest {
+
+  @ServerTest
+  public void shouldNegotiateNdjson(ServerTestRunner runner) {
+    runner.define(app -> {
+      app.install(new JacksonModule());
+
+      app.get("/stream", ctx ->
+          Flux.range(1, 3)
+              .map(i -> Collections.singletonMap("id", i))
+              .subscribeOn(parallel())
+      );
+    }).ready(http -> {
+      http.header("Accept", "application/x-ndjson");
+      http.get("/stream", rsp -> {
+        assertEquals("application/x-ndjson;charset=utf-8",
+            rsp.header("Content-Type").toLowerCase());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n", rsp.body().string());
+      });
+
+      http.header("Accept", "application/json");
+      http.get("/stream", rsp -> {
+        assertEquals("application/json;charset=utf-8", rsp.header("Content-Type").toLowerCase());
+        assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", rsp.body().string());
+      });
+    });
+  }
+}
@@ -0,0 +1,104 @@
+package io.jooby;
+
+import io.jooby.junit.ServerTest;
+import io.jooby.junit.ServerTestRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestTimingTest {
+
+  @ServerTest
+  public void shouldAddServerTimingHeader(ServerTestRunner runner) {
+    runner.define(app -> {
+      app.requestTiming(new ServerTiming());
+
+      app.get("/timing", ctx -> "OK");
+
+      app.get("/timing/map", ctx -> new Object() {
+        @Override public String toString() {
+          return "encoded";
+        }
+      });
+    }).ready(http -> {
+      http.get("/timing", rsp -> {
+        assertEquals("OK", rsp.body().string());
+        String header = rsp.header("Server-Timing");
+        assertNotNull(header);
+        assertTrue(header.matches(
+            "parse;dur=\\d+\\.\\d{3}, match;dur=\\d+\\.\\d{3}, dispatch;dur=\\d+\\.\\d{3}, "
+                + "handler;dur=\\d+\\.\\d{3}"), header);
+      });
+      http.get("/timing/map", rsp -> {
+        assertEquals("encoded", rsp.body().string());
+        assertNotNull(rsp.header("Server-Timing"));
+      });
+    });
+  }
+
+  @ServerTest
+  public void shouldNotifyCompletion(ServerTestRunner runner) {
+    List<RequestTiming> timings = new CopyOnWriteArrayList<>();
+    runner.define(app -> {
+      app.requestTiming(new RequestTiming.Listener() {
+        @Override public void onComplete(Context ctx, RequestTiming timing) {
+          timings.add(timing);
+        }
+      });
+
+      app.get("/timing/complete", ctx -> new Object() {
+        @Override public String toString() {
+          return "encoded";
+        }
+      });
+    }).ready(http -> {
+      http.get("/timing/complete", rsp -> {
+        assertEquals("encoded", rsp.body().string());
+        assertNull(rsp.header("Server-Timing"));
+      });
+      // completion listener might run after the client got the response
+      long until = System.currentTimeMillis() + 5000;
+      while (timings.isEmpty() && System.currentTimeMillis() < until) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, timings.size());
+      RequestTiming timing = timings.get(0);
+      for (RequestTiming.Phase phase : RequestTiming.Phase.values()) {
+        assertTrue(timing.timestamp(phase) != 0, phase.name());
+      }
+      assertTrue(timing.total() >= timing.duration(RequestTiming.Phase.HANDLER));
+    });
+  }
+
+  @ServerTest
+  public void shouldTimeForwardedRequestOnce(ServerTestRunner runner) {
+    List<RequestTiming> timings = new CopyOnWriteArrayList<>();
+    runner.define(app -> {
+      app.requestTiming(new RequestTiming.Listener() {
+        @Override public void onComplete(Context ctx, RequestTiming timing) {
+          timings.add(timing);
+        }
+      });
+
+      app.get("/timing/forward", ctx -> ctx.forward("/timing/target"));
+
+      app.get("/timing/target", ctx -> "target");
+    }).ready(http -> {
+      http.get("/timing/forward", rsp -> {
+        assertEquals("target", rsp.body().string());
+      });
+      long until = System.currentTimeMillis() + 5000;
+      while (timings.isEmpty() && System.currentTimeMillis() < until) {
+        Thread.sleep(10);
+      }
+      // give a duplicated listener the chance to run
+      Thread.sleep(100);
+      assertEquals(1, timings.size());
+    });
+  }
+}
@@ -6,6 +6,10 @@ import io.jooby.junit.ServerTest;
 import io.jooby.junit.ServerTestRunner;
 import io.jooby.thymeleaf.ThymeleafModule;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TemplateEngineTest {
@@ -39,6 +43,57 @@ public class TemplateEngineTest {
     });
   }
 
+  @ServerTest
+  public void streamLargeOutput(ServerTestRunner runner) {
+    List<String> items = new ArrayList<>();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      items.add("item " + i + " ñ");
+      expected.append("<p>item ").append(i).append(" ñ</p>\n");
+    }
+    runner.define(app -> {
+      app.install(new HandlebarsModule());
+      app.install(new FreemarkerModule());
+
+      app.get("/ftl", ctx -> new ModelAndView("items.ftl").put("items", items));
+      app.get("/hbs", ctx -> new ModelAndView("items.hbs").put("items", items));
+      app.get("/small", ctx -> new ModelAndView("index.ftl").put("name", "Freemarker"));
+    }).ready(client -> {
+      client.get("/ftl", rsp -> {
+        assertEquals("chunked", rsp.header("Transfer-Encoding"));
+        assertEquals("text/html;charset=utf-8", rsp.header("Content-Type").toLowerCase());
+        assertEquals(expected.toString(), rsp.body().string());
+      });
+      client.get("/hbs", rsp -> {
+        assertEquals("chunked", rsp.header("Transfer-Encoding"));
+        assertEquals(expected.toString(), rsp.body().string());
+      });
+      client.get("/small", rsp -> {
+        assertEquals("18", rsp.header("Content-Length"));
+        assertEquals("Hello Freemarker!", rsp.body().string().trim());
+      });
+    });
+  }
+
+  @ServerTest
+  public void warmup(ServerTestRunner runner) {
+    runner.define(app -> {
+      app.install(new ThymeleafModule().setWarmup(true));
+      app.install(new HandlebarsModule().setWarmup(true));
+      app.install(new FreemarkerModule().setWarmup(true));
+
+      app.get("/1", ctx -> new ModelAndView("index.hbs").put("name", "Handlebars"));
+      app.get("/2", ctx -> new ModelAndView("items.ftl").put("items", Arrays.asList("a", "b")));
+    }).ready(client -> {
+      client.get("/1", rsp -> {
+        assertEquals("Hello Handlebars!", rsp.body().string().trim());
+      });
+      client.get("/2", rsp -> {
+        assertEquals("<p>a</p>\n<p>b</p>\n", rsp.body().string());
+      });
+    });
+  }
+
   @ServerTest
   public void thymeleafShouldReadFromFileSystem(ServerTestRunner runner) {
     runner.define(app -> {
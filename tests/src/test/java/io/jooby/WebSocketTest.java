@@ -80,6 +80,53 @@ public class WebSocketTest {
     });
   }
 
+  @ServerTest
+  public void webSocketBroadcast(ServerTestRunner runner) {
+    runner.define(app -> {
+      app.install(new JacksonModule());
+
+      app.ws("/broadcast", (ctx, initializer) -> {
+        initializer.onMessage((ws, message) -> {
+          String value = message.value();
+          if (value.startsWith("{")) {
+            ws.render(message.to(JsonNode.class), true);
+          } else {
+            ws.send(value, true);
+          }
+        });
+      });
+
+    }).ready(client -> {
+      client.syncWebSocket("/broadcast", ws1 -> {
+        client.syncWebSocket("/broadcast", ws2 -> {
+          assertEquals("hello", ws2.send("hello"));
+          assertEquals("hello", ws1.lastMessage());
+
+          assertEquals("{\"message\":\"Hello JSON!\"}", ws1.send("{\"message\" : \"Hello JSON!\"}"));
+          assertEquals("{\"message\":\"Hello JSON!\"}", ws2.lastMessage());
+        });
+      });
+    });
+  }
+
+  @ServerTest
+  public void webSocketOutboundLimit(ServerTestRunner runner) {
+    runner.define(app -> {
+      app.ws("/outbound", (ctx, initializer) -> {
+        initializer.setOutboundLimit(1024, WebSocket.OverflowPolicy.DROP_OLDEST);
+        initializer.onMessage((ws, message) -> {
+          ws.send(message.value() + ":" + ws.getDroppedMessages());
+        });
+      });
+
+    }).ready(client -> {
+      client.syncWebSocket("/outbound", ws -> {
+        assertEquals("a:0", ws.send("a"));
+        assertEquals("b:0", ws.send("b"));
+      });
+    });
+  }
+
   private String sid(String setCookie) {
     return setCookie.substring("jooby.sid=".length(), setCookie.indexOf(';'));
   }
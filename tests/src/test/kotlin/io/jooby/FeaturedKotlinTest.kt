@@ -6,6 +6,7 @@ import io.jooby.junit.ServerTestRunner
 import io.reactivex.Flowable
 import io.reactivex.schedulers.Schedulers
 import kotlinx.coroutines.delay
+import kotlinx.coroutines.withContext
 import org.junit.jupiter.api.Assertions.assertEquals
 
 class FeaturedKotlinTest {
@@ -73,6 +74,26 @@ class FeaturedKotlinTest {
     }
   }
 
+  @ServerTest
+  fun coroutineEventLoop(runner: ServerTestRunner) {
+    runner.use { ->
+      Kooby {
+        coroutine(eventLoop = true) {
+          get("/") {
+            delay(10)
+            val io = ctx.isInIoThread || ctx.ioExecutor == null
+            val blocking = withContext(worker) { ctx.isInIoThread }
+            "$io:$blocking"
+          }
+        }
+      }
+    }.ready { client ->
+      client.get("/") { rsp ->
+        assertEquals("true:false", rsp.body!!.string())
+      }
+    }
+  }
+
   @ServerTest
   fun javaApiWithReactiveType(runner: ServerTestRunner) {
     runner.use { ->
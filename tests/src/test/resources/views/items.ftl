@@ -0,0 +1,3 @@
+<#list items as item>
+<p>${item}</p>
+</#list>